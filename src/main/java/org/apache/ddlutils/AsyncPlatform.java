@@ -0,0 +1,558 @@
+package org.apache.ddlutils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.data.RowObject;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.Table;
+import org.apache.ddlutils.platform.CreationParameters;
+import org.apache.ddlutils.util.Log;
+import org.apache.ddlutils.util.LogFactory;
+import org.apache.ddlutils.util.PooledDataSource;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * Asynchronous facade for a {@link Platform}. The operations are executed by a caller-supplied
+ * executor (e.g. a thread pool, or an executor that uses virtual threads) and return futures
+ * that are completed with the result of the operation.<br/>
+ * Each operation borrows its own connection from the platform's data source and returns it
+ * when finished, so operations never share a connection. At most {@link #getMaxConcurrency()}
+ * operations run at the same time, the others are queued without occupying an executor thread.
+ * Since the limit applies per facade, there should be one facade per data source.<br/>
+ * The model reader and the sql builder of a platform keep state while they are in use, so
+ * the operations that read or alter the database schema are executed one after the other.
+ * Waiting schema operations neither occupy an executor thread nor a connection, and the other
+ * operations still run concurrently. Note that this only applies to the operations of the same
+ * facade, so the platform must not be used for schema operations elsewhere at the same time.<br/>
+ * Cancelling a future of a running operation cancels the statements that the operation is
+ * executing via {@link Statement#cancel()}, operations that have not yet started are skipped.
+ *
+ * @version $Revision: $
+ */
+public class AsyncPlatform {
+  /**
+   * The log for this class.
+   */
+  private final Log _log = LogFactory.getLog(AsyncPlatform.class);
+  /**
+   * The platform that performs the operations.
+   */
+  private final Platform _platform;
+  /**
+   * The executor that runs the operations.
+   */
+  private final Executor _executor;
+  /**
+   * The maximum number of operations that run at the same time.
+   */
+  private final int _maxConcurrency;
+  /**
+   * The operations that wait for a running operation to finish.
+   */
+  private final Queue<Operation<?>> _pendingOperations = new ArrayDeque<>();
+  /**
+   * The schema operations that wait for the running schema operation to finish.
+   */
+  private final Queue<Operation<?>> _pendingSchemaOperations = new ArrayDeque<>();
+  /**
+   * The number of operations that currently run.
+   */
+  private int _runningCount;
+  /**
+   * Whether a schema operation is currently running or waiting for a free slot.
+   */
+  private boolean _schemaOperationActive;
+
+  /**
+   * Creates a new facade. The concurrency is limited to the maximum size of the platform's
+   * data source if it is a {@link PooledDataSource}, and otherwise not limited.
+   *
+   * @param platform The platform
+   * @param executor The executor that runs the operations
+   */
+  public AsyncPlatform(Platform platform, Executor executor) {
+    this(platform, executor, platform.getDataSource() instanceof PooledDataSource ?
+      ((PooledDataSource) platform.getDataSource()).getMaxSize() :
+      Integer.MAX_VALUE);
+  }
+
+  /**
+   * Creates a new facade.
+   *
+   * @param platform       The platform
+   * @param executor       The executor that runs the operations
+   * @param maxConcurrency The maximum number of operations that run at the same time
+   */
+  public AsyncPlatform(Platform platform, Executor executor, int maxConcurrency) {
+    if ((platform == null) || (executor == null)) {
+      throw new IllegalArgumentException("The platform and the executor must be given");
+    }
+    if (maxConcurrency < 1) {
+      throw new IllegalArgumentException("The maximum concurrency must be at least 1");
+    }
+    _platform = platform;
+    _executor = executor;
+    _maxConcurrency = maxConcurrency;
+  }
+
+  /**
+   * Returns the platform that performs the operations.
+   *
+   * @return The platform
+   */
+  public Platform getPlatform() {
+    return _platform;
+  }
+
+  /**
+   * Returns the executor that runs the operations.
+   *
+   * @return The executor
+   */
+  public Executor getExecutor() {
+    return _executor;
+  }
+
+  /**
+   * Returns the maximum number of operations that run at the same time.
+   *
+   * @return The maximum concurrency
+   */
+  public int getMaxConcurrency() {
+    return _maxConcurrency;
+  }
+
+  /**
+   * Returns the number of operations that currently run.
+   *
+   * @return The number of running operations
+   */
+  public int getRunningCount() {
+    synchronized (_pendingOperations) {
+      return _runningCount;
+    }
+  }
+
+  /**
+   * Returns the number of operations that wait for a running operation to finish.
+   *
+   * @return The number of pending operations
+   */
+  public int getPendingCount() {
+    synchronized (_pendingOperations) {
+      return _pendingOperations.size() + _pendingSchemaOperations.size();
+    }
+  }
+
+  /**
+   * Asynchronously performs the given operation with a connection of its own. The connection
+   * is returned after the operation has finished and must not be used afterwards.
+   *
+   * @param operation The operation
+   * @param <T>       The type of the result
+   * @return The future for the result of the operation
+   */
+  public <T> CompletableFuture<T> executeAsync(Function<Connection, T> operation) {
+    Operation<T> op = new Operation<>(operation, false);
+
+    submit(op);
+    return op._future;
+  }
+
+  /**
+   * Asynchronously performs the given operation that reads or alters the database schema
+   * via the platform's model reader or sql builder. It is started once the previously
+   * submitted schema operations have finished.
+   *
+   * @param operation The operation
+   * @param <T>       The type of the result
+   * @return The future for the result of the operation
+   */
+  private <T> CompletableFuture<T> executeSchemaOperationAsync(Function<Connection, T> operation) {
+    Operation<T> op = new Operation<>(operation, true);
+
+    synchronized (_pendingOperations) {
+      if (_schemaOperationActive) {
+        _pendingSchemaOperations.add(op);
+        return op._future;
+      }
+      _schemaOperationActive = true;
+    }
+    submit(op);
+    return op._future;
+  }
+
+  /**
+   * Asynchronously queries for the rows of the given query. The rows are materialized, see
+   * {@link Platform#fetch(Database, String)}.
+   *
+   * @param model The database model to use
+   * @param sql   The sql query
+   * @return The future for the rows
+   */
+  public CompletableFuture<List<RowObject>> queryAsync(Database model, String sql) {
+    return queryAsync(model, sql, Collections.emptyList(), null);
+  }
+
+  /**
+   * Asynchronously queries for the rows of the given parameterized query. The rows are
+   * materialized, see {@link Platform#fetch(Database, String, Collection)}.
+   *
+   * @param model      The database model to use
+   * @param sql        The parameterized sql query
+   * @param parameters The parameter values
+   * @return The future for the rows
+   */
+  public CompletableFuture<List<RowObject>> queryAsync(Database model, String sql, Collection<Object> parameters) {
+    return queryAsync(model, sql, parameters, null);
+  }
+
+  /**
+   * Asynchronously queries for the rows of the given parameterized query. The rows are
+   * materialized, see {@link Platform#fetch(Database, String, Collection, Table[])}.
+   *
+   * @param model      The database model to use
+   * @param sql        The parameterized sql query
+   * @param parameters The parameter values
+   * @param queryHints The tables that are queried (optional)
+   * @return The future for the rows
+   */
+  public CompletableFuture<List<RowObject>> queryAsync(Database model, String sql, Collection<Object> parameters, Table[] queryHints) {
+    return executeAsync(connection -> _platform.fetch(connection, model, sql, parameters, queryHints, 0, -1));
+  }
+
+  /**
+   * Asynchronously inserts the given row, see {@link Platform#insert(Database, RowObject)}.
+   *
+   * @param model     The database model to use
+   * @param rowObject The row to insert
+   * @return The future that is completed when the row has been inserted
+   */
+  public CompletableFuture<Void> insertAsync(Database model, RowObject rowObject) {
+    return executeAsync(connection -> {
+      _platform.insert(connection, model, rowObject);
+      return null;
+    });
+  }
+
+  /**
+   * Asynchronously inserts the given rows, see {@link Platform#insert(Database, Collection)}.
+   *
+   * @param model      The database model to use
+   * @param rowObjects The rows to insert
+   * @return The future that is completed when the rows have been inserted
+   */
+  public CompletableFuture<Void> insertAsync(Database model, Collection<RowObject> rowObjects) {
+    return executeAsync(connection -> {
+      _platform.insert(connection, model, rowObjects);
+      return null;
+    });
+  }
+
+  /**
+   * Asynchronously reads the database model, see {@link Platform#readModelFromDatabase(String)}.
+   *
+   * @param name The name of the resulting database; <code>null</code> when the default name (the catalog)
+   *             is desired which might be <code>null</code> itself though
+   * @return The future for the database model
+   */
+  public CompletableFuture<Database> readModelFromDatabaseAsync(String name) {
+    return executeSchemaOperationAsync(connection -> _platform.readModelFromDatabase(connection, name));
+  }
+
+  /**
+   * Asynchronously reads the database model, see
+   * {@link Platform#readModelFromDatabase(String, String, String, String[])}.
+   *
+   * @param name       The name of the resulting database; <code>null</code> when the default name (the catalog)
+   *                   is desired which might be <code>null</code> itself though
+   * @param catalog    The catalog to access in the database; use <code>null</code> for the default value
+   * @param schema     The schema to access in the database; use <code>null</code> for the default value
+   * @param tableTypes The table types to process; use <code>null</code> or an empty list for the default ones
+   * @return The future for the database model
+   */
+  public CompletableFuture<Database> readModelFromDatabaseAsync(String name, String catalog, String schema, String[] tableTypes) {
+    return executeSchemaOperationAsync(connection -> _platform.readModelFromDatabase(connection, name, catalog, schema, tableTypes));
+  }
+
+  /**
+   * Asynchronously alters the database schema so that it matches the given model. The current
+   * model is read via {@link Platform#readModelFromDatabase(Connection, String)} and then altered
+   * via {@link Platform#alterModel(Connection, Database, Database, boolean)}.
+   *
+   * @param desiredModel    The desired database schema
+   * @param continueOnError Whether to continue with the next sql statement when an error occurred
+   * @return The future that is completed when the schema has been altered
+   */
+  public CompletableFuture<Void> alterTablesAsync(Database desiredModel, boolean continueOnError) {
+    return executeSchemaOperationAsync(connection -> {
+      Database currentModel = _platform.readModelFromDatabase(connection, desiredModel.getName());
+
+      _platform.alterModel(connection, currentModel, desiredModel, continueOnError);
+      return null;
+    });
+  }
+
+  /**
+   * Asynchronously alters the database schema so that it matches the given model. The current
+   * model is read via {@link Platform#readModelFromDatabase(Connection, String)} and then altered
+   * via {@link Platform#alterModel(Connection, Database, Database, CreationParameters, boolean)}.
+   *
+   * @param desiredModel    The desired database schema
+   * @param params          The parameters used in the creation of new tables
+   * @param continueOnError Whether to continue with the next sql statement when an error occurred
+   * @return The future that is completed when the schema has been altered
+   */
+  public CompletableFuture<Void> alterTablesAsync(Database desiredModel, CreationParameters params, boolean continueOnError) {
+    return executeSchemaOperationAsync(connection -> {
+      Database currentModel = _platform.readModelFromDatabase(connection, desiredModel.getName());
+
+      _platform.alterModel(connection, currentModel, desiredModel, params, continueOnError);
+      return null;
+    });
+  }
+
+  /**
+   * Hands the given operation to the executor once the number of running operations is
+   * below the maximum concurrency, and queues it otherwise.
+   *
+   * @param operation The operation
+   */
+  private void submit(Operation<?> operation) {
+    synchronized (_pendingOperations) {
+      if (_runningCount >= _maxConcurrency) {
+        _pendingOperations.add(operation);
+        return;
+      }
+      _runningCount++;
+    }
+    dispatch(operation);
+  }
+
+  /**
+   * Hands the given operation to the executor.
+   *
+   * @param operation The operation
+   */
+  private void dispatch(Operation<?> operation) {
+    try {
+      _executor.execute(operation);
+    } catch (RejectedExecutionException ex) {
+      operation._future.completeExceptionally(ex);
+      operationFinished(operation);
+    }
+  }
+
+  /**
+   * Starts the next pending operations, if any, after an operation has finished.
+   *
+   * @param operation The finished operation
+   */
+  private void operationFinished(Operation<?> operation) {
+    if (operation._schemaOperation) {
+      Operation<?> nextSchemaOperation;
+
+      synchronized (_pendingOperations) {
+        nextSchemaOperation = _pendingSchemaOperations.poll();
+        if (nextSchemaOperation == null) {
+          _schemaOperationActive = false;
+        }
+      }
+      if (nextSchemaOperation != null) {
+        submit(nextSchemaOperation);
+      }
+    }
+
+    Operation<?> next;
+
+    synchronized (_pendingOperations) {
+      next = _pendingOperations.poll();
+      if (next == null) {
+        _runningCount--;
+        return;
+      }
+    }
+    dispatch(next);
+  }
+
+  /**
+   * The future of an operation which cancels the statements of the operation when it is cancelled.
+   *
+   * @param <T> The type of the result
+   */
+  private static class OperationFuture<T> extends CompletableFuture<T> {
+    /**
+     * The statements created by the operation that may still be executing.
+     */
+    private final Set<Statement> _statements = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Registers a statement created by the operation.
+     *
+     * @param statement The statement
+     */
+    private synchronized void addStatement(Statement statement) {
+      _statements.removeIf(stmt -> {
+        try {
+          return stmt.isClosed();
+        } catch (SQLException ex) {
+          return true;
+        }
+      });
+      _statements.add(statement);
+    }
+
+    /**
+     * Forgets the statements of the operation.
+     */
+    private synchronized void clearStatements() {
+      _statements.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean cancelled = super.cancel(mayInterruptIfRunning);
+      List<Statement> statements;
+
+      synchronized (this) {
+        statements = new ArrayList<>(_statements);
+      }
+      for (Statement statement : statements) {
+        try {
+          statement.cancel();
+        } catch (SQLException ex) {
+          // the statement has probably finished or been closed in the meantime
+        }
+      }
+      return cancelled;
+    }
+  }
+
+  /**
+   * An asynchronously performed operation.
+   *
+   * @param <T> The type of the result
+   */
+  private class Operation<T> implements Runnable {
+    /**
+     * The operation.
+     */
+    private final Function<Connection, T> _operation;
+    /**
+     * The future for the result.
+     */
+    private final OperationFuture<T> _future = new OperationFuture<>();
+    /**
+     * Whether the operation reads or alters the database schema.
+     */
+    private final boolean _schemaOperation;
+
+    /**
+     * Creates a new operation.
+     *
+     * @param operation       The operation
+     * @param schemaOperation Whether the operation reads or alters the database schema
+     */
+    private Operation(Function<Connection, T> operation, boolean schemaOperation) {
+      _operation = operation;
+      _schemaOperation = schemaOperation;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void run() {
+      try {
+        // operations cancelled while waiting are skipped
+        if (!_future.isDone()) {
+          Connection connection = trackStatements(_platform.borrowConnection());
+
+          try {
+            _future.complete(_operation.apply(connection));
+          } finally {
+            _platform.returnConnection(connection);
+          }
+        }
+      } catch (Throwable ex) {
+        if (!_future.completeExceptionally(ex)) {
+          _log.debug("Ignoring exception of an operation that has already been cancelled", ex);
+        }
+      } finally {
+        _future.clearStatements();
+        operationFinished(this);
+      }
+    }
+
+    /**
+     * Wraps the given connection so that the statements created via it are registered with the
+     * future, and that no statements can be created once the future has been cancelled.
+     *
+     * @param connection The connection
+     * @return The wrapped connection
+     */
+    private Connection trackStatements(Connection connection) {
+      return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+        new Class<?>[]{Connection.class},
+        (proxy, method, args) -> {
+          String name = method.getName();
+          boolean createsStatement = "createStatement".equals(name) ||
+            "prepareStatement".equals(name) ||
+            "prepareCall".equals(name);
+
+          if (createsStatement && _future.isCancelled()) {
+            throw new SQLException("The operation has been cancelled");
+          }
+
+          Object result;
+
+          try {
+            result = method.invoke(connection, args);
+          } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+          }
+          if (createsStatement) {
+            _future.addStatement((Statement) result);
+          }
+          return result;
+        });
+    }
+  }
+}
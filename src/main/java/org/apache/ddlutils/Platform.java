@@ -24,11 +24,15 @@ import org.apache.ddlutils.data.RowObject;
 import org.apache.ddlutils.model.Column;
 import org.apache.ddlutils.model.Database;
 import org.apache.ddlutils.model.Table;
+import org.apache.ddlutils.platform.AlterationPlan;
 import org.apache.ddlutils.platform.CreationParameters;
 import org.apache.ddlutils.platform.JdbcModelReader;
+import org.apache.ddlutils.platform.PreparedStatementCache;
+import org.apache.ddlutils.platform.RowBatchListener;
 import org.apache.ddlutils.platform.SqlBuilder;
 
 import javax.sql.DataSource;
+import java.io.Reader;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -37,6 +41,8 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * A platform encapsulates the database-related functionality such as performing queries
@@ -238,6 +244,215 @@ public interface Platform {
    */
   void setDefaultOnDeleteActionUsedIfUnsupported(boolean useDefault);
 
+  /**
+   * Determines whether tables that have to be recreated during an alteration of a live database
+   * are altered online. In this mode, a shadow table with the new definition is created and kept
+   * in sync with the original table via triggers while the data is copied in chunks (see
+   * {@link #getDataCopyChunkSize()}). After the row counts of both tables have been verified,
+   * the shadow table replaces the original table. Thus, the table remains usable during the
+   * alteration. This is only supported by some databases
+   * ({@link PlatformInfo#isOnlineTableAlterationSupported()}), and only for tables with a single
+   * primary key column of an integral type that is not changed by the alteration.
+   *
+   * @return <code>true</code> if tables are altered online
+   */
+  boolean isOnlineTableAlterationOn();
+
+  /**
+   * Specifies whether tables that have to be recreated during an alteration of a live database
+   * shall be altered online (see {@link #isOnlineTableAlterationOn()}).
+   *
+   * @param onlineTableAlterationOn <code>true</code> if tables shall be altered online
+   */
+  void setOnlineTableAlterationOn(boolean onlineTableAlterationOn);
+
+  /**
+   * Returns the maximum number of consecutive data manipulation statements (inserts, updates,
+   * deletes) of a script that are executed together in one JDBC batch by
+   * {@link #evaluateBatch(Connection, String, boolean)}. Batches are only used if the execution
+   * continues after errors, because some drivers execute the remaining statements of a batch
+   * after a failed one.
+   *
+   * @return The batch size, 1 (the default) if the statements are executed one by one
+   */
+  int getStatementBatchSize();
+
+  /**
+   * Specifies the maximum number of consecutive data manipulation statements of a script that
+   * are executed together in one JDBC batch.
+   *
+   * @param batchSize The batch size, 1 if the statements shall be executed one by one
+   */
+  void setStatementBatchSize(int batchSize);
+
+  /**
+   * Returns the maximum number of rows that are written in one JDBC batch by the methods that
+   * insert, update or delete collections of rows, e.g. {@link #update(Connection, Database, Collection)}.
+   *
+   * @return The batch size, 1000 per default
+   */
+  int getRowBatchSize();
+
+  /**
+   * Specifies the maximum number of rows that are written in one JDBC batch by the methods that
+   * insert, update or delete collections of rows.
+   *
+   * @param batchSize The batch size
+   */
+  void setRowBatchSize(int batchSize);
+
+  /**
+   * Returns the listener that receives the row counts of the JDBC batches executed by the
+   * methods that insert, update, store or delete collections of rows.
+   *
+   * @return The listener or <code>null</code> if the row counts are only logged
+   */
+  RowBatchListener getRowBatchListener();
+
+  /**
+   * Specifies the listener that receives the row counts of the JDBC batches executed by the
+   * methods that insert, update, store or delete collections of rows.
+   *
+   * @param listener The listener or <code>null</code> if the row counts shall only be logged
+   */
+  void setRowBatchListener(RowBatchListener listener);
+
+  /**
+   * Returns the number of rows that the streams returned by the <code>stream</code> methods
+   * hand off at once to parallel downstream stages.
+   *
+   * @return The batch size, 1024 per default
+   */
+  int getStreamBatchSize();
+
+  /**
+   * Specifies the number of rows that the streams returned by the <code>stream</code> methods
+   * hand off at once to parallel downstream stages.
+   *
+   * @param batchSize The batch size
+   */
+  void setStreamBatchSize(int batchSize);
+
+  /**
+   * Returns the maximum number of prepared statements that are cached per connection.
+   *
+   * @return The cache size, 0 (no caching) per default
+   */
+  int getPreparedStatementCacheSize();
+
+  /**
+   * Specifies the maximum number of prepared statements that are cached per connection by the
+   * methods that insert, update, delete or query rows. Cached statements are reused when the same
+   * SQL is executed again on the same connection, and they are closed when the connection is
+   * returned via {@link #returnConnection(Connection)}. Callers that pass their own connections to
+   * these methods should close the connection (or call {@link PreparedStatementCache#close(Connection)}
+   * on the cache) when done.
+   *
+   * @param cacheSize The cache size, 0 to disable the caching
+   */
+  void setPreparedStatementCacheSize(int cacheSize);
+
+  /**
+   * Returns the cache of prepared statements, e.g. to read its hit and miss counts.
+   *
+   * @return The cache, or <code>null</code> if prepared statements are not cached
+   */
+  PreparedStatementCache getPreparedStatementCache();
+
+  /**
+   * Returns the number of executed statements (or batches) after which the warnings of the
+   * connection are read and logged. Reading the warnings requires a round-trip to the database
+   * for some JDBC drivers.
+   *
+   * @return The number of statements, 1 (the default) to read the warnings after each statement
+   */
+  int getWarningPollInterval();
+
+  /**
+   * Specifies the number of executed statements (or batches) after which the warnings of the
+   * connection are read and logged.
+   *
+   * @param interval The number of statements, 1 to read the warnings after each statement
+   */
+  void setWarningPollInterval(int interval);
+
+  /**
+   * Returns the number of connections on which the platform executes the statements generated
+   * for creating, altering or dropping a database model. If this is greater than 1 and the platform
+   * has a data source, then statements that affect different tables (e.g. the creation of indices
+   * on different tables) are executed concurrently, whereas the statements affecting the same
+   * table are executed in the order in which they were generated. Note that chunked data
+   * copying and online table alteration are only used with a single connection.
+   *
+   * @return The number of connections, 1 (the default) for sequential execution
+   */
+  int getDdlParallelism();
+
+  /**
+   * Specifies the number of connections on which the platform executes the statements generated
+   * for creating, altering or dropping a database model (see {@link #getDdlParallelism()}).
+   *
+   * @param parallelism The number of connections, 1 for sequential execution
+   */
+  void setDdlParallelism(int parallelism);
+
+  /**
+   * Returns the number of rows from which on a table is considered large when planning an
+   * alteration via {@link #planAlteration(Database, Database)}. Large tables are only recreated
+   * if the platform cannot alter them in place.
+   *
+   * @return The row count
+   */
+  long getLargeTableRowCount();
+
+  /**
+   * Specifies the number of rows from which on a table is considered large when planning an
+   * alteration (see {@link #getLargeTableRowCount()}).
+   *
+   * @param rowCount The row count
+   */
+  void setLargeTableRowCount(long rowCount);
+
+  /**
+   * Returns the size of the primary key ranges in which the data of a table is copied when the table
+   * has to be recreated during an alteration of the database. Chunked copying is only used if
+   * the alteration is performed against a live database, and if the table has a single primary key
+   * column of an integral type; every chunk is committed separately. A value of <code>0</code> (the
+   * default) means that the data is copied in a single statement.
+   *
+   * @return The size of the key ranges
+   */
+  int getDataCopyChunkSize();
+
+  /**
+   * Specifies the size of the primary key ranges in which the data of a table is copied when the table
+   * has to be recreated during an alteration of the database. Chunked copying is only used if
+   * the alteration is performed against a live database, and if the table has a single primary key
+   * column of an integral type; every chunk is committed separately. A value of <code>0</code> (the
+   * default) means that the data is copied in a single statement.
+   *
+   * @param chunkSize The size of the key ranges
+   */
+  void setDataCopyChunkSize(int chunkSize);
+
+  /**
+   * Returns the time in milliseconds to pause after each chunk when copying data in chunks
+   * (see {@link #getDataCopyChunkSize()}). This limits the load that the copying puts on
+   * the database.
+   *
+   * @return The pause in milliseconds, <code>0</code> (the default) for no pause
+   */
+  long getDataCopyThrottleDelay();
+
+  /**
+   * Specifies the time in milliseconds to pause after each chunk when copying data in chunks
+   * (see {@link #getDataCopyChunkSize()}). This limits the load that the copying puts on
+   * the database.
+   *
+   * @param delay The pause in milliseconds, <code>0</code> for no pause
+   */
+  void setDataCopyThrottleDelay(long delay);
+
   // functionality
 
   /**
@@ -280,6 +495,30 @@ public interface Platform {
    */
   int evaluateBatch(Connection connection, String sql, boolean continueOnError) throws DatabaseOperationException;
 
+  /**
+   * Executes a series of sql statements read from the given reader, which must be separated by
+   * the delimiter configured as {@link PlatformInfo#getSqlCommandDelimiter()} of the info object
+   * of this platform at the end of a line. The statements are read as a stream, so this is
+   * suitable for large scripts. Consecutive data manipulation statements are executed in JDBC
+   * batches of {@link #getStatementBatchSize()} statements.
+   *
+   * @param sql             The reader for the sql statements; it is not closed by this method
+   * @param continueOnError Whether to continue executing the sql commands when an error occurred
+   * @return The number of errors
+   */
+  int evaluateBatch(Reader sql, boolean continueOnError) throws DatabaseOperationException;
+
+  /**
+   * Executes a series of sql statements read from the given reader
+   * (see {@link #evaluateBatch(Reader, boolean)}).
+   *
+   * @param connection      The connection to the database
+   * @param sql             The reader for the sql statements; it is not closed by this method
+   * @param continueOnError Whether to continue executing the sql commands when an error occurred
+   * @return The number of errors
+   */
+  int evaluateBatch(Connection connection, Reader sql, boolean continueOnError) throws DatabaseOperationException;
+
   /**
    * Performs a shutdown at the database. This is necessary for some embedded databases which otherwise
    * would be locked and thus would refuse other connections. Note that this does not change the database
@@ -369,6 +608,91 @@ public interface Platform {
    */
   void createTables(Connection connection, Database model, CreationParameters params, boolean dropTablesFirst, boolean continueOnError) throws DatabaseOperationException;
 
+  /**
+   * Creates the tables defined in the database model without their indexes and foreign keys, so
+   * that large amounts of data can be loaded into them quickly. Afterwards, the indexes and foreign
+   * keys are created via {@link #createIndexesAndForeignKeys(Database, boolean)}. Foreign keys
+   * are created along with the tables if the platform only supports embedded foreign keys.
+   *
+   * @param model           The database model
+   * @param params          The parameters used in the creation
+   * @param dropTablesFirst Whether to drop the tables prior to creating them (anew)
+   * @param continueOnError Whether to continue executing the sql commands when an error occurred
+   */
+  void createModelWithoutConstraints(Database model, CreationParameters params, boolean dropTablesFirst, boolean continueOnError) throws DatabaseOperationException;
+
+  /**
+   * Creates the tables defined in the database model without their indexes and foreign keys
+   * (see {@link #createModelWithoutConstraints(Database, CreationParameters, boolean, boolean)}).
+   *
+   * @param connection      The connection to the database
+   * @param model           The database model
+   * @param params          The parameters used in the creation
+   * @param dropTablesFirst Whether to drop the tables prior to creating them (anew)
+   * @param continueOnError Whether to continue executing the sql commands when an error occurred
+   */
+  void createModelWithoutConstraints(Connection connection, Database model, CreationParameters params, boolean dropTablesFirst, boolean continueOnError) throws DatabaseOperationException;
+
+  /**
+   * Creates the indexes and foreign keys of the tables defined in the database model, which have been
+   * created via {@link #createModelWithoutConstraints(Database, CreationParameters, boolean, boolean)}.
+   * The indexes of different tables are created concurrently if the {@link #getDdlParallelism() DDL
+   * parallelism} allows for it.
+   *
+   * @param model           The database model
+   * @param continueOnError Whether to continue executing the sql commands when an error occurred
+   */
+  void createIndexesAndForeignKeys(Database model, boolean continueOnError) throws DatabaseOperationException;
+
+  /**
+   * Creates the indexes and foreign keys of the tables defined in the database model
+   * (see {@link #createIndexesAndForeignKeys(Database, boolean)}).
+   *
+   * @param connection      The connection to the database
+   * @param model           The database model
+   * @param continueOnError Whether to continue executing the sql commands when an error occurred
+   */
+  void createIndexesAndForeignKeys(Connection connection, Database model, boolean continueOnError) throws DatabaseOperationException;
+
+  /**
+   * Disables the checking of the foreign keys of the tables defined in the database model, e.g.
+   * before loading large amounts of data into existing tables. This does nothing if the platform
+   * does not {@link PlatformInfo#isForeignKeyDisablingSupported() support} it.
+   *
+   * @param model           The database model
+   * @param continueOnError Whether to continue executing the sql commands when an error occurred
+   */
+  void disableForeignKeys(Database model, boolean continueOnError) throws DatabaseOperationException;
+
+  /**
+   * Disables the checking of the foreign keys of the tables defined in the database model
+   * (see {@link #disableForeignKeys(Database, boolean)}).
+   *
+   * @param connection      The connection to the database
+   * @param model           The database model
+   * @param continueOnError Whether to continue executing the sql commands when an error occurred
+   */
+  void disableForeignKeys(Connection connection, Database model, boolean continueOnError) throws DatabaseOperationException;
+
+  /**
+   * Re-enables the checking of the foreign keys of the tables defined in the database model that
+   * has been disabled via {@link #disableForeignKeys(Database, boolean)}.
+   *
+   * @param model           The database model
+   * @param continueOnError Whether to continue executing the sql commands when an error occurred
+   */
+  void enableForeignKeys(Database model, boolean continueOnError) throws DatabaseOperationException;
+
+  /**
+   * Re-enables the checking of the foreign keys of the tables defined in the database model
+   * (see {@link #enableForeignKeys(Database, boolean)}).
+   *
+   * @param connection      The connection to the database
+   * @param model           The database model
+   * @param continueOnError Whether to continue executing the sql commands when an error occurred
+   */
+  void enableForeignKeys(Connection connection, Database model, boolean continueOnError) throws DatabaseOperationException;
+
   /**
    * Returns the SQL for creating the tables defined in the database model.
    *
@@ -746,6 +1070,57 @@ public interface Platform {
    */
   String getAlterModelSql(Database currentModel, Database desiredModel, CreationParameters params) throws DatabaseOperationException;
 
+  /**
+   * Plans the alteration of the given current model so that it matches the desired model, using
+   * the default database connection for reading the statistics of the affected tables. Based on
+   * these statistics, the plan prefers altering large tables in place over recreating them,
+   * and states for each change how many rows it is estimated to touch.
+   *
+   * @param currentModel The current database model
+   * @param desiredModel The desired database model
+   * @return The plan
+   */
+  AlterationPlan planAlteration(Database currentModel, Database desiredModel) throws DatabaseOperationException;
+
+  /**
+   * Plans the alteration of the given current model so that it matches the desired model
+   * (see {@link #planAlteration(Database, Database)}).
+   *
+   * @param connection   The connection to the database for reading the table statistics
+   * @param currentModel The current database model
+   * @param desiredModel The desired database model
+   * @return The plan
+   */
+  AlterationPlan planAlteration(Connection connection, Database currentModel, Database desiredModel) throws DatabaseOperationException;
+
+  /**
+   * Alters the database according to the given plan, using the default database connection.
+   *
+   * @param plan            The plan
+   * @param params          The parameters used in the creation
+   * @param continueOnError Whether to continue with the next sql statement when an error occurred
+   */
+  void alterModel(AlterationPlan plan, CreationParameters params, boolean continueOnError) throws DatabaseOperationException;
+
+  /**
+   * Alters the database according to the given plan.
+   *
+   * @param connection      A connection to the existing database that shall be modified
+   * @param plan            The plan
+   * @param params          The parameters used in the creation
+   * @param continueOnError Whether to continue with the next sql statement when an error occurred
+   */
+  void alterModel(Connection connection, AlterationPlan plan, CreationParameters params, boolean continueOnError) throws DatabaseOperationException;
+
+  /**
+   * Returns the SQL for performing the given alteration plan.
+   *
+   * @param plan   The plan
+   * @param params The parameters used in the creation of tables etc.
+   * @return The SQL statements
+   */
+  String getAlterModelSql(AlterationPlan plan, CreationParameters params) throws DatabaseOperationException;
+
   /**
    * Drops the specified table and all foreign keys pointing to it.
    *
@@ -869,6 +1244,53 @@ public interface Platform {
    */
   Iterator<RowObject> query(Database model, String sql, Collection<Object> parameters, Table[] queryHints) throws DatabaseOperationException;
 
+  /**
+   * Performs the given SQL query returning a stream over the results. The stream holds a
+   * connection until it is closed or all rows have been read, so it should be used in a
+   * try-with-resources statement. The rows are read sequentially, but are handed off in
+   * batches of {@link #getStreamBatchSize()} rows so that the stages of a parallel stream
+   * can process them concurrently.
+   *
+   * @param model The database model to use
+   * @param sql   The sql query to perform
+   * @return The stream of the dyna beans resulting from the query
+   */
+  Stream<RowObject> stream(Database model, String sql) throws DatabaseOperationException;
+
+  /**
+   * Performs the given parameterized SQL query returning a stream over the results, see
+   * {@link #stream(Database, String)}.
+   *
+   * @param model      The database model to use
+   * @param sql        The sql query to perform
+   * @param parameters The query parameter values
+   * @return The stream of the dyna beans resulting from the query
+   */
+  Stream<RowObject> stream(Database model, String sql, Collection<Object> parameters) throws DatabaseOperationException;
+
+  /**
+   * Performs the given SQL query returning a stream over the results, see
+   * {@link #stream(Database, String)}.
+   *
+   * @param model      The database model to use
+   * @param sql        The sql query to perform
+   * @param queryHints The tables that are queried (optional)
+   * @return The stream of the dyna beans resulting from the query
+   */
+  Stream<RowObject> stream(Database model, String sql, Table[] queryHints) throws DatabaseOperationException;
+
+  /**
+   * Performs the given parameterized SQL query returning a stream over the results, see
+   * {@link #stream(Database, String)}.
+   *
+   * @param model      The database model to use
+   * @param sql        The sql query to perform
+   * @param parameters The query parameter values
+   * @param queryHints The tables that are queried (optional)
+   * @return The stream of the dyna beans resulting from the query
+   */
+  Stream<RowObject> stream(Database model, String sql, Collection<Object> parameters, Table[] queryHints) throws DatabaseOperationException;
+
   /**
    * Queries for a list of dyna beans representing rows of the given query.
    * In contrast to the {@link #query(Database, String)} method all beans will be
@@ -987,6 +1409,22 @@ public interface Platform {
    */
   List<RowObject> fetch(Database model, String sql, Collection<Object> parameters, Table[] queryHints, int start, int end) throws DatabaseOperationException;
 
+  /**
+   * Queries for a list of dyna beans representing rows of the given query, using the
+   * given connection which is not closed or returned afterwards. Otherwise, this method
+   * behaves like {@link #fetch(Database, String, Collection, Table[], int, int)}.
+   *
+   * @param connection The connection
+   * @param model      The database model to use
+   * @param sql        The parameterized sql query
+   * @param parameters The parameter values
+   * @param queryHints The tables that are queried (optional)
+   * @param start      Row number to start from (0 for first row)
+   * @param end        Row number to stop at (inclusively; -1 for last row)
+   * @return The dyna beans resulting from the query
+   */
+  List<RowObject> fetch(Connection connection, Database model, String sql, Collection<Object> parameters, Table[] queryHints, int start, int end) throws DatabaseOperationException;
+
   /**
    * Determines whether the given dyna bean is stored in the database. Note that this checks only
    * checks the primary key, not the other attributes.
@@ -1008,6 +1446,29 @@ public interface Platform {
    */
   boolean exists(Connection connection, Database model, RowObject rowObject);
 
+  /**
+   * Determines which of the given beans are stored in the database. Instead of one query per bean,
+   * this queries the primary keys of many beans at once, as many as allowed by the parameter limits
+   * of the database. Again, only the primary key is checked, not the other attributes.
+   *
+   * @param model      The database model to use
+   * @param rowObjects The beans
+   * @return The beans (the given instances) whose primary keys exist in the database
+   */
+  Set<RowObject> findExisting(Database model, Collection<RowObject> rowObjects) throws DatabaseOperationException;
+
+  /**
+   * Determines which of the given beans are stored in the database. Instead of one query per bean,
+   * this queries the primary keys of many beans at once, as many as allowed by the parameter limits
+   * of the database. Again, only the primary key is checked, not the other attributes.
+   *
+   * @param connection The connection
+   * @param model      The database model to use
+   * @param rowObjects The beans
+   * @return The beans (the given instances) whose primary keys exist in the database
+   */
+  Set<RowObject> findExisting(Connection connection, Database model, Collection<RowObject> rowObjects) throws DatabaseOperationException;
+
   /**
    * Stores the given bean in the database, inserting it if there is no primary key
    * otherwise the bean is updated in the database.
@@ -1027,6 +1488,29 @@ public interface Platform {
    */
   void store(Connection connection, Database model, RowObject rowObject) throws DatabaseOperationException;
 
+  /**
+   * Stores the given beans in the database, inserting the rows that do not exist yet and
+   * updating the others (see {@link #store(Connection, Database, Collection)}).
+   *
+   * @param model      The database model to use
+   * @param rowObjects The beans to store
+   */
+  void store(Database model, Collection<RowObject> rowObjects) throws DatabaseOperationException;
+
+  /**
+   * Stores the given beans in the database, inserting the rows that do not exist yet and
+   * updating the others. The beans are grouped per table into JDBC batches of at most
+   * {@link #getRowBatchSize()} rows, using the native upsert statement of the platform
+   * (e.g. <code>MERGE</code>) where available. Otherwise, the existing rows are determined
+   * per batch and then updated and inserted in separate batches. Note that the properties for
+   * auto-increment columns are not updated in the beans. This method does not close the connection.
+   *
+   * @param connection The connection
+   * @param model      The database model to use
+   * @param rowObjects The beans to store
+   */
+  void store(Connection connection, Database model, Collection<RowObject> rowObjects) throws DatabaseOperationException;
+
   /**
    * Returns the sql for inserting the given bean.
    *
@@ -1057,7 +1541,8 @@ public interface Platform {
 
   /**
    * Inserts the given beans in the database, assuming the primary key values are specified.
-   * Note that a batch insert is used for subsequent beans of the same type.
+   * Note that the beans are grouped per table into batch inserts of at most {@link #getRowBatchSize()}
+   * rows, keeping the order of the beans of tables related by a foreign key.
    * Also, the properties for the primary keys are not updated in the beans. Hence, you should
    * not use this method when the primary key values are defined by the database (via a sequence
    * or identity constraint).
@@ -1068,7 +1553,8 @@ public interface Platform {
   void insert(Database model, Collection<RowObject> rowObjects) throws DatabaseOperationException;
 
   /**
-   * Inserts the given beans. Note that a batch insert is used for subsequent beans of the same type.
+   * Inserts the given beans. Note that the beans are grouped per table into batch inserts, keeping the
+   * order of the beans of tables related by a foreign key.
    * Also, the properties for the primary keys are not updated in the beans.  Hence, you should
    * not use this method when the primary key values are defined by the database (via a sequence
    * or identity constraint).
@@ -1082,7 +1568,8 @@ public interface Platform {
 
   /**
    * Returns the sql for updating the given bean in the database. Note that this method can not be used to
-   * generate SQL for updating primary key columns.
+   * generate SQL for updating primary key columns. If the bean tracks its changes and has changed columns,
+   * then only these are written, see {@link #update(Database, RowObject)}.
    *
    * @param model    The database model to use
    * @param rowObject The bean
@@ -1092,7 +1579,8 @@ public interface Platform {
 
   /**
    * Returns the sql for updating the given bean in the database. Note that this method can not be used to
-   * generate SQL for updating primary key columns.
+   * generate SQL for updating primary key columns. If the bean tracks its changes and has changed columns,
+   * then only these are written, see {@link #update(Database, RowObject)}.
    *
    * @param model       The database model to use
    * @param oldRowObject The bean identifying the row to update
@@ -1103,7 +1591,11 @@ public interface Platform {
 
   /**
    * Updates the given bean in the database, assuming the primary key values are specified. Note that this means
-   * that this method will not update the primary key columns.
+   * that this method will not update the primary key columns. If the bean tracks its changes (which is the case
+   * for beans read or written by the platform, see {@link RowObject#markUnchanged()}), then only the changed
+   * columns are written, and nothing is done if no column has been changed. Note that written beans are
+   * marked as unchanged when the statement has been executed, so after a rollback use
+   * {@link RowObject#stopChangeTracking()} before retrying the update.
    *
    * @param model    The database model to use
    * @param rowObject The bean
@@ -1112,7 +1604,8 @@ public interface Platform {
 
   /**
    * Updates the row which maps to the given bean. Note that this means that this method will not update the
-   * primary key columns.
+   * primary key columns. Only the changed columns are written if the bean tracks its changes, see
+   * {@link #update(Database, RowObject)}.
    *
    * @param connection The database connection
    * @param model      The database model to use
@@ -1141,6 +1634,30 @@ public interface Platform {
    */
   void update(Connection connection, Database model, RowObject oldRowObject, RowObject newRowObject) throws DatabaseOperationException;
 
+  /**
+   * Updates the given beans in the database, assuming the primary key values are specified.
+   * The beans are grouped per table into JDBC batches of at most {@link #getRowBatchSize()} rows,
+   * keeping the order of the beans of tables related by a foreign key. Note that this method will not update the primary key columns.
+   * Only the changed columns are written for beans that track their changes, see {@link #update(Database, RowObject)}.
+   *
+   * @param model      The database model to use
+   * @param rowObjects The beans to update
+   */
+  void update(Database model, Collection<RowObject> rowObjects) throws DatabaseOperationException;
+
+  /**
+   * Updates the rows which map to the given beans. The beans are grouped per table into JDBC batches
+   * of at most {@link #getRowBatchSize()} rows, keeping the order of the beans of tables related by a
+   * foreign key. Note that this method will not update
+   * the primary key columns. Only the changed columns are written for beans that track their changes,
+   * see {@link #update(Database, RowObject)}. This method does not close the connection.
+   *
+   * @param connection The database connection
+   * @param model      The database model to use
+   * @param rowObjects The beans
+   */
+  void update(Connection connection, Database model, Collection<RowObject> rowObjects) throws DatabaseOperationException;
+
   /**
    * Returns the sql for deleting the given bean from the database.
    *
@@ -1167,6 +1684,27 @@ public interface Platform {
    */
   void delete(Connection connection, Database model, RowObject rowObject) throws DatabaseOperationException;
 
+  /**
+   * Deletes the given beans from the database, assuming the primary key values are specified.
+   * The beans are grouped per table into JDBC batches of at most {@link #getRowBatchSize()} rows,
+   * keeping the order of the beans of tables related by a foreign key.
+   *
+   * @param model      The database model to use
+   * @param rowObjects The beans to delete
+   */
+  void delete(Database model, Collection<RowObject> rowObjects) throws DatabaseOperationException;
+
+  /**
+   * Deletes the rows which map to the given beans from the database. The beans are grouped per table
+   * into JDBC batches of at most {@link #getRowBatchSize()} rows, keeping the order of the beans of
+   * tables related by a foreign key. This method does not close the connection.
+   *
+   * @param connection The database connection
+   * @param model      The database model to use
+   * @param rowObjects The beans
+   */
+  void delete(Connection connection, Database model, Collection<RowObject> rowObjects) throws DatabaseOperationException;
+
   /**
    * Reads the database model from the live database as specified by the data source set for
    * this platform.
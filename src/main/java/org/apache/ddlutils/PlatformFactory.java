@@ -40,6 +40,7 @@ import org.apache.ddlutils.platform.postgresql.PostgreSqlPlatform;
 import org.apache.ddlutils.platform.sapdb.SapDbPlatform;
 import org.apache.ddlutils.platform.sybase.SybaseASE15Platform;
 import org.apache.ddlutils.platform.sybase.SybasePlatform;
+import org.apache.ddlutils.util.PooledDataSource;
 
 import javax.sql.DataSource;
 import java.util.Map;
@@ -102,6 +103,28 @@ public class PlatformFactory {
     return createNewPlatformInstance(new PlatformUtils().determineDatabaseType(jdbcDriver, jdbcConnectionUrl));
   }
 
+  /**
+   * Creates a new platform for the specified database. This is a shortcut method that uses
+   * {@link PlatformUtils#determineDatabaseType(String, String)} to determine the parameter
+   * for {@link #createNewPlatformInstance(String)}. The returned platform accesses the database
+   * via a {@link PooledDataSource} for the given connection parameters, which should be closed
+   * once the platform is no longer used.
+   *
+   * @param jdbcDriver        The jdbc driver
+   * @param jdbcConnectionUrl The connection url
+   * @param username          The username to use for connecting to the database
+   * @param password          The password to use for connecting to the database
+   * @return The platform or <code>null</code> if the database is not supported
+   */
+  public static synchronized Platform createNewPlatformInstance(String jdbcDriver, String jdbcConnectionUrl, String username, String password) throws DdlUtilsException {
+    Platform platform = createNewPlatformInstance(jdbcDriver, jdbcConnectionUrl);
+
+    if (platform != null) {
+      platform.setDataSource(new PooledDataSource(jdbcDriver, jdbcConnectionUrl, username, password));
+    }
+    return platform;
+  }
+
   /**
    * Creates a new platform for the specified database. This is a shortcut method that uses
    * {@link PlatformUtils#determineDatabaseType(DataSource)} to determine the parameter
@@ -173,6 +173,16 @@ public class PlatformInfo {
    */
   private boolean _autoCommitModeForLastIdentityValueReading = true;
 
+  /**
+   * Whether tables can be altered online by means of a shadow table that is kept in sync via triggers.
+   */
+  private boolean _onlineTableAlterationSupported = false;
+
+  /**
+   * Whether the checking of the foreign keys of a table can be disabled temporarily.
+   */
+  private boolean _foreignKeyDisablingSupported = false;
+
   /**
    * Specifies the maximum length that a table name can have for this database (-1 if there is no limit).
    */
@@ -193,6 +203,16 @@ public class PlatformInfo {
    */
   private int _maxForeignKeyNameLength = -1;
 
+  /**
+   * Specifies the maximum number of parameters that a prepared statement can have (-1 if there is no limit).
+   */
+  private int _maxParameterCount = -1;
+
+  /**
+   * Specifies the maximum number of values that an IN list can have (-1 if there is no limit).
+   */
+  private int _maxInListSize = -1;
+
   /**
    * The string used for delimiting SQL identifiers, e.g. table names, column names etc.
    */
@@ -788,6 +808,48 @@ public class PlatformInfo {
     _autoCommitModeForLastIdentityValueReading = autoCommitModeForLastIdentityValueReading;
   }
 
+  /**
+   * Determines whether tables that have to be recreated can be altered online, i.e. by
+   * creating a shadow table with the new definition that is kept in sync with the original
+   * table via triggers, and that replaces the original table once it has been filled.
+   *
+   * @return <code>true</code> if online table alteration is supported
+   */
+  public boolean isOnlineTableAlterationSupported() {
+    return _onlineTableAlterationSupported;
+  }
+
+  /**
+   * Specifies whether tables that have to be recreated can be altered online, i.e. by
+   * creating a shadow table with the new definition that is kept in sync with the original
+   * table via triggers, and that replaces the original table once it has been filled.
+   *
+   * @param onlineTableAlterationSupported <code>true</code> if online table alteration is supported
+   */
+  public void setOnlineTableAlterationSupported(boolean onlineTableAlterationSupported) {
+    _onlineTableAlterationSupported = onlineTableAlterationSupported;
+  }
+
+  /**
+   * Determines whether the checking of the foreign keys of a table can be disabled temporarily,
+   * e.g. while loading data into existing tables.
+   *
+   * @return <code>true</code> if foreign keys can be disabled
+   */
+  public boolean isForeignKeyDisablingSupported() {
+    return _foreignKeyDisablingSupported;
+  }
+
+  /**
+   * Specifies whether the checking of the foreign keys of a table can be disabled temporarily,
+   * e.g. while loading data into existing tables.
+   *
+   * @param foreignKeyDisablingSupported <code>true</code> if foreign keys can be disabled
+   */
+  public void setForeignKeyDisablingSupported(boolean foreignKeyDisablingSupported) {
+    _foreignKeyDisablingSupported = foreignKeyDisablingSupported;
+  }
+
   /**
    * Returns the maximum number of characters that a table name can have.
    *
@@ -873,6 +935,42 @@ public class PlatformInfo {
     _maxForeignKeyNameLength = maxIdentifierLength;
   }
 
+  /**
+   * Returns the maximum number of parameters that a single prepared statement can have.
+   *
+   * @return The number of parameters, or -1 if not limited
+   */
+  public int getMaxParameterCount() {
+    return _maxParameterCount;
+  }
+
+  /**
+   * Sets the maximum number of parameters that a single prepared statement can have.
+   *
+   * @param maxParameterCount The maximum number of parameters, -1 if unlimited
+   */
+  public void setMaxParameterCount(int maxParameterCount) {
+    _maxParameterCount = maxParameterCount;
+  }
+
+  /**
+   * Returns the maximum number of values that an IN list can have.
+   *
+   * @return The number of values, or -1 if not limited
+   */
+  public int getMaxInListSize() {
+    return _maxInListSize;
+  }
+
+  /**
+   * Sets the maximum number of values that an IN list can have.
+   *
+   * @param maxInListSize The maximum number of values, -1 if unlimited
+   */
+  public void setMaxInListSize(int maxInListSize) {
+    _maxInListSize = maxInListSize;
+  }
+
   /**
    * Returns the text that is used to delimit identifiers (e.g. table names).
    * Per default, this is a double quotation character (").
@@ -55,7 +55,7 @@ public class ModelComparator {
   /**
    * The predicate that defines which changes are supported by the platform.
    */
-  private final TableDefinitionChangesPredicate _tableDefChangePredicate;
+  private TableDefinitionChangesPredicate _tableDefChangePredicate;
   /**
    * The object clone helper.
    */
@@ -90,6 +90,26 @@ public class ModelComparator {
     _tableDefChangePredicate = tableDefChangePredicate;
   }
 
+  /**
+   * Returns the predicate that defines whether tables changes are supported by the platform.
+   *
+   * @return The predicate; all changes are supported if this is <code>null</code>
+   */
+  public TableDefinitionChangesPredicate getTableDefinitionChangesPredicate() {
+    return _tableDefChangePredicate;
+  }
+
+  /**
+   * Specifies the predicate that defines whether tables changes are supported by the platform.
+   * This allows callers to refine the decision between altering a table and recreating it,
+   * e.g. based on the size of the table.
+   *
+   * @param tableDefChangePredicate The predicate; all changes are supported if this is <code>null</code>
+   */
+  public void setTableDefinitionChangesPredicate(TableDefinitionChangesPredicate tableDefChangePredicate) {
+    _tableDefChangePredicate = tableDefChangePredicate;
+  }
+
   /**
    * Specifies whether the comparator should generate {@link PrimaryKeyChange} objects or a
    * pair of {@link RemovePrimaryKeyChange} and {@link AddPrimaryKeyChange} objects instead.
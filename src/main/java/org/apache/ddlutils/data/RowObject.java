@@ -18,13 +18,22 @@
 package org.apache.ddlutils.data;
 
 import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 /**
- * Object of row values, where the keys are the column names.
+ * Object of row values, where the keys are the column names. Once the bean has been
+ * {@link #markUnchanged() marked as unchanged}, changes made via the setters and the mutating
+ * map methods are tracked. Changes made via the collection views or directly to mutable values
+ * (e.g. arrays) are not noticed, so they have to be recorded via {@link #markChanged(String)}.
  */
 public class RowObject extends HashMap<String, Object> {
 
@@ -39,6 +48,12 @@ public class RowObject extends HashMap<String, Object> {
    */
   protected HashMap<String, Object> values = this;
 
+  /**
+   * The names of the properties that have been changed since the bean was marked as
+   * unchanged, or <code>null</code> if changes are not tracked.
+   */
+  protected Set<String> changedProperties;
+
   /**
    * Construct a new <code>DynaBean</code> associated with the specified
    * <code>DynaClass</code> instance.
@@ -259,6 +274,7 @@ public class RowObject extends HashMap<String, Object> {
     } else {
       throw new IllegalArgumentException("Non-indexed property for '" + name + "[" + index + "]'");
     }
+    markChanged(name);
   }
 
   /**
@@ -289,7 +305,170 @@ public class RowObject extends HashMap<String, Object> {
           descriptor.getType().getName() + "'");
     }
     values.put(name, value);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Object put(final String key, final Object value) {
+    if ((changedProperties != null) && !Objects.deepEquals(super.get(key), value)) {
+      changedProperties.add(key);
+    }
+    return super.put(key, value);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void putAll(final Map<? extends String, ?> map) {
+    for (Map.Entry<? extends String, ?> entry : map.entrySet()) {
+      put(entry.getKey(), entry.getValue());
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Object putIfAbsent(final String key, final Object value) {
+    final Object oldValue = super.get(key);
+
+    if (oldValue == null) {
+      put(key, value);
+    }
+    return oldValue;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Object remove(final Object key) {
+    if (containsKey(key)) {
+      markChanged((String) key);
+    }
+    return super.remove(key);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean remove(final Object key, final Object value) {
+    if (super.remove(key, value)) {
+      markChanged((String) key);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Object replace(final String key, final Object value) {
+    return containsKey(key) ? put(key, value) : null;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean replace(final String key, final Object oldValue, final Object newValue) {
+    if (containsKey(key) && Objects.equals(super.get(key), oldValue)) {
+      put(key, newValue);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void replaceAll(final BiFunction<? super String, ? super Object, ?> function) {
+    for (String key : new ArrayList<>(keySet())) {
+      put(key, function.apply(key, super.get(key)));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Object compute(final String key, final BiFunction<? super String, ? super Object, ?> function) {
+    final boolean existed = containsKey(key);
+    final Object oldValue = super.get(key);
+    final Object result = super.compute(key, function);
+
+    trackChange(key, existed, oldValue);
+    return result;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Object computeIfAbsent(final String key, final Function<? super String, ?> function) {
+    final boolean existed = containsKey(key);
+    final Object oldValue = super.get(key);
+    final Object result = super.computeIfAbsent(key, function);
 
+    trackChange(key, existed, oldValue);
+    return result;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Object computeIfPresent(final String key, final BiFunction<? super String, ? super Object, ?> function) {
+    final boolean existed = containsKey(key);
+    final Object oldValue = super.get(key);
+    final Object result = super.computeIfPresent(key, function);
+
+    trackChange(key, existed, oldValue);
+    return result;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Object merge(final String key, final Object value, final BiFunction<? super Object, ? super Object, ?> function) {
+    final boolean existed = containsKey(key);
+    final Object oldValue = super.get(key);
+    final Object result = super.merge(key, value, function);
+
+    trackChange(key, existed, oldValue);
+    return result;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void clear() {
+    if (changedProperties != null) {
+      changedProperties.addAll(keySet());
+    }
+    super.clear();
+  }
+
+  /**
+   * Records that the specified property has been changed if its value differs from the given
+   * previous value.
+   *
+   * @param key      The name of the property
+   * @param existed  Whether the property had a value before
+   * @param oldValue The previous value
+   */
+  private void trackChange(final String key, final boolean existed, final Object oldValue) {
+    if ((existed != containsKey(key)) || !Objects.deepEquals(oldValue, super.get(key))) {
+      markChanged(key);
+    }
   }
 
   /**
@@ -316,9 +495,72 @@ public class RowObject extends HashMap<String, Object> {
     // maps of types String -> Object
     Map<String, Object> map = (Map<String, Object>) prop;
     map.put(key, value);
+    markChanged(name);
+  }
+
+  /**
+   * Marks all properties as unchanged and from now on tracks which properties are changed. The
+   * platform calls this method for beans read from the database, and for beans that it has
+   * written to the database. Note that the latter happens as soon as the statement has been
+   * executed, not when the transaction is committed; if the transaction is rolled back, then
+   * call {@link #stopChangeTracking()} so that a retried update writes all columns again.
+   */
+  public void markUnchanged() {
+    if (changedProperties == null) {
+      changedProperties = new HashSet<>();
+    } else {
+      changedProperties.clear();
+    }
+  }
+
+  /**
+   * Stops tracking the changes of the properties so that all properties are considered to be
+   * changed again, until the bean is marked as unchanged the next time.
+   */
+  public void stopChangeTracking() {
+    changedProperties = null;
+  }
+
+  /**
+   * Determines whether the changes of the properties of this bean are tracked.
+   *
+   * @return <code>true</code> if the changes are tracked
+   */
+  public boolean isChangeTracked() {
+    return changedProperties != null;
+  }
+
+  /**
+   * Determines whether the specified property has been changed since the bean was marked as
+   * unchanged. If changes are not tracked, then all properties are considered to be changed.
+   *
+   * @param name The name of the property
+   * @return <code>true</code> if the property has been changed
+   */
+  public boolean isChanged(final String name) {
+    return (changedProperties == null) || changedProperties.contains(name);
   }
 
+  /**
+   * Returns the names of the properties that have been changed since the bean was marked as unchanged.
+   *
+   * @return The names of the changed properties, or <code>null</code> if changes are not tracked
+   */
+  public Set<String> getChangedProperties() {
+    return changedProperties == null ? null : Collections.unmodifiableSet(changedProperties);
+  }
 
+  /**
+   * Records that the specified property has been changed if changes are tracked. Use this
+   * method after changing a mutable value of the bean in place.
+   *
+   * @param name The name of the property
+   */
+  public void markChanged(final String name) {
+    if (changedProperties != null) {
+      changedProperties.add(name);
+    }
+  }
 
   /**
    * {@inheritDoc}
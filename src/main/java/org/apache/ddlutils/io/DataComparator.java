@@ -0,0 +1,550 @@
+package org.apache.ddlutils.io;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.DdlUtilsException;
+import org.apache.ddlutils.Platform;
+import org.apache.ddlutils.data.RowObject;
+import org.apache.ddlutils.model.Column;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.Table;
+import org.apache.ddlutils.util.Log;
+import org.apache.ddlutils.util.LogFactory;
+import org.apache.ddlutils.util.PooledDataSource;
+import org.apache.ddlutils.util.ValueUtils;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Compares the content of the tables of two databases, and reports the rows that have to be
+ * inserted, updated or deleted in the target database so that its content matches the source
+ * database to a {@link DataDiffListener}. The tables are matched by name, and their rows by
+ * their primary key values; only the columns that exist in both tables are compared.<br/>
+ * Both tables are read ordered by the primary key and compared in a merge-join, so the
+ * comparison needs constant memory regardless of the size of the tables. This requires that
+ * both databases order the primary key values in the same way, which for character keys
+ * means that both should use a binary collation; the comparator fails if it encounters
+ * rows that are not ordered consistently.<br/>
+ * The tables are compared in foreign key order, so that the rows referenced by inserted or
+ * updated rows are reported before them. The deletions in tables that are referenced by
+ * other tables are reported in a second pass after the other operations, in reverse foreign
+ * key order, so that referencing rows are deleted before the rows that they reference. This
+ * second pass compares these tables again, but only if the first pass found deletions in them.
+ * Foreign keys of self-referencing tables and circular foreign keys between tables cannot be
+ * satisfied this way, so they have to be disabled in the target database while applying the
+ * operations.<br/>
+ * Multiple tables can be compared concurrently, each using one connection per database.
+ *
+ * @version $Revision: $
+ */
+public class DataComparator extends DataTransferBase {
+  /**
+   * The log for this class.
+   */
+  private final Log _log = LogFactory.getLog(DataComparator.class);
+  /**
+   * The number of tables that are compared concurrently.
+   */
+  private int _parallelism = 1;
+  /**
+   * Whether the operations are reported in foreign key order.
+   */
+  private boolean _ensureFkOrder = true;
+
+  /**
+   * Passes the operations for a table on to another listener, optionally skipping the
+   * deletions or the other operations.
+   */
+  private static class FilteringListener implements DataDiffListener {
+    /**
+     * The listener to pass the operations on to.
+     */
+    private final DataDiffListener _listener;
+    /**
+     * Whether to pass on the insertions and updates.
+     */
+    private final boolean _passChanges;
+    /**
+     * Whether to pass on the deletions.
+     */
+    private final boolean _passDeletes;
+    /**
+     * The number of deletions that have not been passed on.
+     */
+    private long _skippedDeletes;
+
+    /**
+     * Creates a new listener.
+     *
+     * @param listener    The listener to pass the operations on to
+     * @param passChanges Whether to pass on the insertions and updates
+     * @param passDeletes Whether to pass on the deletions
+     */
+    private FilteringListener(DataDiffListener listener, boolean passChanges, boolean passDeletes) {
+      _listener = listener;
+      _passChanges = passChanges;
+      _passDeletes = passDeletes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void startTable(Table table) throws DataSinkException {
+      _listener.startTable(table);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void insert(RowObject row) throws DataSinkException {
+      if (_passChanges) {
+        _listener.insert(row);
+      }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void update(RowObject row) throws DataSinkException {
+      if (_passChanges) {
+        _listener.update(row);
+      }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void delete(RowObject row) throws DataSinkException {
+      if (_passDeletes) {
+        _listener.delete(row);
+      } else {
+        _skippedDeletes++;
+      }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endTable(Table table, boolean completed) throws DataSinkException {
+      _listener.endTable(table, completed);
+    }
+  }
+
+  /**
+   * Creates a new comparator.
+   *
+   * @param sourcePlatform The platform of the source database
+   * @param sourceModel    The model of the source database
+   * @param targetPlatform The platform of the target database
+   * @param targetModel    The model of the target database
+   */
+  public DataComparator(Platform sourcePlatform, Database sourceModel, Platform targetPlatform, Database targetModel) {
+    super(sourcePlatform, sourceModel, targetPlatform, targetModel);
+  }
+
+  /**
+   * Returns the number of tables that are compared concurrently.
+   *
+   * @return The number of tables, 1 per default
+   */
+  public int getParallelism() {
+    return _parallelism;
+  }
+
+  /**
+   * Specifies the number of tables that are compared concurrently. The foreign key order is
+   * still ensured if turned on, so tables are only compared concurrently if they do not
+   * depend on each other. Every table uses one connection to the source database and one to
+   * the target database, plus usually one more to the target database for applying the
+   * operations (e.g. by a {@link DataDiffDatabaseWriter}). If a database is accessed via a
+   * {@link PooledDataSource}, then the number of concurrently compared
+   * tables is reduced to what its maximum size allows, see {@link #getEffectiveParallelism()}.
+   *
+   * @param parallelism The number of tables
+   */
+  public void setParallelism(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("The parallelism must be at least 1");
+    }
+    _parallelism = parallelism;
+  }
+
+  /**
+   * Returns the number of tables that are actually compared concurrently. This is the
+   * {@link #getParallelism() parallelism}, reduced so that the connections needed per table
+   * (one for the source database, and two for the target database) do not exceed the maximum
+   * size of the databases' connection pools, if the databases are accessed via
+   * {@link PooledDataSource}s. If both are accessed via the same pool, then three of its
+   * connections are needed per table.
+   *
+   * @return The number of tables
+   */
+  protected int getEffectiveParallelism() {
+    return limitParallelism(_parallelism, 1, 2);
+  }
+
+  /**
+   * Determines whether the operations are reported in foreign key order.
+   *
+   * @return <code>true</code> if the foreign key order is ensured (the default)
+   */
+  public boolean isEnsureFkOrder() {
+    return _ensureFkOrder;
+  }
+
+  /**
+   * Specifies whether the operations are reported in foreign key order as described in the
+   * class documentation. If turned off, all operations of a table are reported in one pass
+   * and the tables are compared in no particular order, so foreign keys have to be disabled
+   * in the target database while applying the operations.
+   *
+   * @param ensureFkOrder <code>true</code> if the foreign key order shall be ensured
+   */
+  public void setEnsureFkOrder(boolean ensureFkOrder) {
+    _ensureFkOrder = ensureFkOrder;
+  }
+
+  /**
+   * Compares all tables of the source model that have a counterpart in the target model.
+   *
+   * @param listener The listener that receives the differences
+   * @return The number of differences
+   */
+  public long compare(DataDiffListener listener) throws DdlUtilsException {
+    // we schedule the tables of the target model as its foreign keys are the relevant ones
+    Map<Table, Table> sourceTables = new LinkedHashMap<>();
+
+    for (Table sourceTable : _sourceModel.getTables()) {
+      Table targetTable = findTargetTable(sourceTable);
+
+      if (targetTable == null) {
+        _log.warn("Skipping table " + sourceTable.getName() + " because it does not exist in the target database");
+      } else if (!sourceTable.hasPrimaryKey()) {
+        _log.warn("Skipping table " + sourceTable.getName() + " because it has no primary key");
+      } else {
+        sourceTables.put(targetTable, sourceTable);
+      }
+    }
+
+    Set<Table> targetTables = sourceTables.keySet();
+    Set<Table> referencedTables = new HashSet<>();
+
+    if (_ensureFkOrder) {
+      for (Table targetTable : targetTables) {
+        referencedTables.addAll(getReferencedTables(targetTable, targetTables));
+      }
+    }
+
+    // the deletions in referenced tables are deferred until the referencing tables are done
+    Set<Table> tablesWithDeletes = ConcurrentHashMap.newKeySet();
+    long result = processTables(targetTables, getEffectiveParallelism(),
+      targetTable -> _ensureFkOrder ? getReferencedTables(targetTable, targetTables) : Collections.emptySet(),
+      targetTable -> {
+        if (!referencedTables.contains(targetTable)) {
+          return compareTable(sourceTables.get(targetTable), listener);
+        }
+
+        FilteringListener filteringListener = new FilteringListener(listener, true, false);
+        long numDifferences = compareTable(sourceTables.get(targetTable), filteringListener);
+
+        if (filteringListener._skippedDeletes > 0) {
+          tablesWithDeletes.add(targetTable);
+        }
+        return numDifferences;
+      });
+
+    if (!tablesWithDeletes.isEmpty()) {
+      Set<Table> deleteTables = new LinkedHashSet<>(targetTables);
+
+      deleteTables.retainAll(tablesWithDeletes);
+      processTables(deleteTables, getEffectiveParallelism(),
+        targetTable -> getReferencingTables(targetTable, deleteTables),
+        targetTable -> compareTable(sourceTables.get(targetTable), new FilteringListener(listener, false, true)));
+    }
+    return result;
+  }
+
+  /**
+   * Compares the content of the given table with the content of the table of the same name in
+   * the target database.
+   *
+   * @param sourceTable The table of the source model
+   * @param listener    The listener that receives the differences
+   * @return The number of differences
+   */
+  public long compareTable(Table sourceTable, DataDiffListener listener) throws DdlUtilsException {
+    Table targetTable = findTargetTable(sourceTable);
+
+    if (targetTable == null) {
+      throw new DdlUtilsException("The table " + sourceTable.getName() + " does not exist in the target database");
+    }
+
+    Column[] sourcePrimaryKeys = sourceTable.getPrimaryKeyColumns();
+    List<Column> sourceColumns = new ArrayList<>();
+    List<Column> targetColumns = new ArrayList<>();
+
+    for (Column sourceColumn : sourceTable.getColumns()) {
+      Column targetColumn = targetTable.findColumn(sourceColumn.getName(), _targetPlatform.isDelimitedIdentifierModeOn());
+
+      if (targetColumn != null) {
+        sourceColumns.add(sourceColumn);
+        targetColumns.add(targetColumn);
+      } else if (sourceColumn.isPrimaryKey()) {
+        throw new DdlUtilsException("The primary key column " + sourceColumn.getName() + " of table " +
+          sourceTable.getName() + " does not exist in the target database");
+      }
+    }
+
+    Column[] targetPrimaryKeys = new Column[sourcePrimaryKeys.length];
+
+    for (int idx = 0; idx < sourcePrimaryKeys.length; idx++) {
+      targetPrimaryKeys[idx] = targetColumns.get(sourceColumns.indexOf(sourcePrimaryKeys[idx]));
+    }
+    if (!Arrays.asList(targetPrimaryKeys).containsAll(Arrays.asList(targetTable.getPrimaryKeyColumns())) ||
+      (targetPrimaryKeys.length != targetTable.getPrimaryKeyColumns().length)) {
+      throw new DdlUtilsException("The primary keys of table " + sourceTable.getName() + " differ in the two databases");
+    }
+
+    String sourceSql = createSelectSql(_sourcePlatform, sourceTable, sourceColumns, sourcePrimaryKeys);
+    String targetSql = createSelectSql(_targetPlatform, targetTable, targetColumns, targetPrimaryKeys);
+    boolean completed = false;
+    long numDifferences = 0;
+
+    listener.startTable(targetTable);
+    try (Stream<RowObject> sourceRows = _sourcePlatform.stream(_sourceModel, sourceSql, new Table[]{sourceTable});
+         Stream<RowObject> targetRows = _targetPlatform.stream(_targetModel, targetSql, new Table[]{targetTable})) {
+      Iterator<RowObject> sourceIt = sourceRows.iterator();
+      Iterator<RowObject> targetIt = targetRows.iterator();
+      RowObject sourceRow = next(sourceIt, null, sourcePrimaryKeys, sourceTable);
+      RowObject targetRow = next(targetIt, null, targetPrimaryKeys, targetTable);
+
+      while ((sourceRow != null) || (targetRow != null)) {
+        int cmp;
+
+        if (sourceRow == null) {
+          cmp = 1;
+        } else if (targetRow == null) {
+          cmp = -1;
+        } else {
+          cmp = compareKeys(sourceRow, sourcePrimaryKeys, targetRow, targetPrimaryKeys);
+        }
+
+        if (cmp < 0) {
+          RowObject newRow = _targetModel.createRowObjectFor(targetTable);
+
+          for (int idx = 0; idx < sourceColumns.size(); idx++) {
+            newRow.set(targetColumns.get(idx).getName(), sourceRow.get(sourceColumns.get(idx).getName()));
+          }
+          listener.insert(newRow);
+          numDifferences++;
+          sourceRow = next(sourceIt, sourceRow, sourcePrimaryKeys, sourceTable);
+        } else if (cmp > 0) {
+          listener.delete(targetRow);
+          numDifferences++;
+          targetRow = next(targetIt, targetRow, targetPrimaryKeys, targetTable);
+        } else {
+          targetRow.markUnchanged();
+          for (int idx = 0; idx < sourceColumns.size(); idx++) {
+            Column sourceColumn = sourceColumns.get(idx);
+            Object sourceValue = sourceRow.get(sourceColumn.getName());
+
+            if (!sourceColumn.isPrimaryKey() &&
+              !isEqual(sourceColumn, sourceValue, targetRow.get(targetColumns.get(idx).getName()))) {
+              targetRow.set(targetColumns.get(idx).getName(), sourceValue);
+            }
+          }
+          if (!targetRow.getChangedProperties().isEmpty()) {
+            listener.update(targetRow);
+            numDifferences++;
+          }
+          sourceRow = next(sourceIt, sourceRow, sourcePrimaryKeys, sourceTable);
+          targetRow = next(targetIt, targetRow, targetPrimaryKeys, targetTable);
+        }
+      }
+      completed = true;
+    } finally {
+      listener.endTable(targetTable, completed);
+    }
+    if (_log.isDebugEnabled()) {
+      _log.debug("Found " + numDifferences + " differences in table " + targetTable.getName());
+    }
+    return numDifferences;
+  }
+
+  /**
+   * Creates the query that reads the given columns of the table ordered by the primary key.
+   *
+   * @param platform    The platform
+   * @param table       The table
+   * @param columns     The columns to read
+   * @param primaryKeys The primary key columns
+   * @return The SQL
+   */
+  protected String createSelectSql(Platform platform, Table table, List<Column> columns, Column[] primaryKeys) {
+    StringBuilder sql = new StringBuilder();
+
+    sql.append("SELECT ");
+    for (int idx = 0; idx < columns.size(); idx++) {
+      if (idx > 0) {
+        sql.append(", ");
+      }
+      appendIdentifier(platform, sql, columns.get(idx).getName());
+    }
+    sql.append(" FROM ");
+    appendIdentifier(platform, sql, table.getName());
+    sql.append(" ORDER BY ");
+    for (int idx = 0; idx < primaryKeys.length; idx++) {
+      if (idx > 0) {
+        sql.append(", ");
+      }
+      appendIdentifier(platform, sql, primaryKeys[idx].getName());
+    }
+    return sql.toString();
+  }
+
+  /**
+   * Returns the next row of the given iterator, and checks that it is ordered after the previous row.
+   *
+   * @param rows        The rows
+   * @param previousRow The previous row, if any
+   * @param primaryKeys The primary key columns
+   * @param table       The table
+   * @return The next row, or <code>null</code> if there are no more rows
+   */
+  private RowObject next(Iterator<RowObject> rows, RowObject previousRow, Column[] primaryKeys, Table table) throws DdlUtilsException {
+    if (!rows.hasNext()) {
+      return null;
+    }
+
+    RowObject row = rows.next();
+
+    if ((previousRow != null) && (compareKeys(previousRow, primaryKeys, row, primaryKeys) >= 0)) {
+      throw new DdlUtilsException("The rows of table " + table.getName() +
+        " are not returned in the order expected by the comparison; this typically happens if the primary key" +
+        " contains character columns and the databases do not use a binary collation for them");
+    }
+    return row;
+  }
+
+  /**
+   * Compares the primary key values of the given rows.
+   *
+   * @param row1         The first row
+   * @param primaryKeys1 The primary key columns of the first row
+   * @param row2         The second row
+   * @param primaryKeys2 The primary key columns of the second row
+   * @return A negative value, zero, or a positive value if the key of the first row is smaller than,
+   *         equal to, or greater than the key of the second row
+   */
+  private int compareKeys(RowObject row1, Column[] primaryKeys1, RowObject row2, Column[] primaryKeys2) {
+    for (int idx = 0; idx < primaryKeys1.length; idx++) {
+      int cmp = compareValues(primaryKeys1[idx],
+        row1.get(primaryKeys1[idx].getName()),
+        row2.get(primaryKeys2[idx].getName()));
+
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Compares the given primary key values in the same way as the databases order them.
+   *
+   * @param column The column of the source table
+   * @param value1 The first value
+   * @param value2 The second value
+   * @return A negative value, zero, or a positive value if the first value is smaller than, equal
+   *         to, or greater than the second value
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  protected int compareValues(Column column, Object value1, Object value2) {
+    Object normalized1 = getComparableValue(column, value1);
+    Object normalized2 = getComparableValue(column, value2);
+
+    if (normalized1 == null) {
+      return normalized2 == null ? 0 : -1;
+    } else if (normalized2 == null) {
+      return 1;
+    } else if ((normalized1 instanceof ByteBuffer) && (normalized2 instanceof ByteBuffer)) {
+      // the databases compare the bytes unsigned whereas byte buffers compare them signed
+      ByteBuffer bytes1 = (ByteBuffer) normalized1;
+      ByteBuffer bytes2 = (ByteBuffer) normalized2;
+
+      for (int idx = 0; (idx < bytes1.remaining()) && (idx < bytes2.remaining()); idx++) {
+        int cmp = (bytes1.get(bytes1.position() + idx) & 0xFF) - (bytes2.get(bytes2.position() + idx) & 0xFF);
+
+        if (cmp != 0) {
+          return cmp;
+        }
+      }
+      return bytes1.remaining() - bytes2.remaining();
+    } else if ((normalized1 instanceof Comparable) && normalized1.getClass().equals(normalized2.getClass())) {
+      return ((Comparable) normalized1).compareTo(normalized2);
+    } else {
+      return normalized1.toString().compareTo(normalized2.toString());
+    }
+  }
+
+  /**
+   * Determines whether the given values of a column are equal, regardless of the differences in
+   * the representation of the value that the two databases may return.
+   *
+   * @param column The column of the source table
+   * @param value1 The first value
+   * @param value2 The second value
+   * @return <code>true</code> if the values are equal
+   */
+  protected boolean isEqual(Column column, Object value1, Object value2) {
+    return Objects.equals(getComparableValue(column, value1), getComparableValue(column, value2));
+  }
+
+  /**
+   * Normalizes the given value so that values returned by different databases and drivers can be
+   * compared. Per default, this is the representation returned by
+   * {@link ValueUtils#getComparableValue(int, Object)}.
+   *
+   * @param column The column of the source table
+   * @param value  The value
+   * @return The normalized value
+   */
+  protected Object getComparableValue(Column column, Object value) {
+    return ValueUtils.getComparableValue(column.getTypeCode(), value);
+  }
+}
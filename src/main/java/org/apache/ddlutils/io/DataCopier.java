@@ -0,0 +1,507 @@
+package org.apache.ddlutils.io;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.DdlUtilsException;
+import org.apache.ddlutils.Platform;
+import org.apache.ddlutils.data.RowObject;
+import org.apache.ddlutils.model.Column;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.Table;
+import org.apache.ddlutils.model.TypeMap;
+import org.apache.ddlutils.util.Log;
+import org.apache.ddlutils.util.LogFactory;
+import org.apache.ddlutils.util.PooledDataSource;
+
+import java.math.BigDecimal;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Copies the content of the tables of one database directly into the tables of the same name
+ * in another database, without the detour via XML. Each table is copied by a reader thread that
+ * iterates over the rows of the source table and converts them into beans of the target model,
+ * and a writer thread that passes these beans to a {@link DataToDatabaseSink} for the target
+ * database. The two are decoupled by a bounded queue so that neither the whole table has to
+ * be held in memory nor one database has to wait for every single row of the other.<br/>
+ * Tables are only started once the tables that they reference via foreign keys have been
+ * copied; tables within circular references are copied last, which requires the corresponding
+ * foreign keys to be disabled in the target database. Note that the values of identity columns
+ * are only retained if identity override is turned on for the target platform.
+ *
+ * @version $Revision: $
+ */
+public class DataCopier extends DataTransferBase {
+  /**
+   * Marks the end of the rows of a table in the queue.
+   */
+  private static final Object END_OF_TABLE = new Object();
+
+  /**
+   * The log for this class.
+   */
+  private final Log _log = LogFactory.getLog(DataCopier.class);
+  /**
+   * The number of tables that are copied concurrently.
+   */
+  private int _parallelism = 1;
+  /**
+   * The maximum number of rows per table that have been read but not yet written.
+   */
+  private int _queueSize = 1024;
+  /**
+   * Whether the rows are written in batches.
+   */
+  private boolean _useBatchMode = true;
+  /**
+   * Whether the tables are copied in foreign key order.
+   */
+  private boolean _ensureFkOrder = true;
+  /**
+   * The number of rows after which the progress of a table is reported.
+   */
+  private int _reportInterval = 10000;
+
+  /**
+   * Creates a new copier.
+   *
+   * @param sourcePlatform The platform of the source database
+   * @param sourceModel    The model of the source database
+   * @param targetPlatform The platform of the target database
+   * @param targetModel    The model of the target database
+   */
+  public DataCopier(Platform sourcePlatform, Database sourceModel, Platform targetPlatform, Database targetModel) {
+    super(sourcePlatform, sourceModel, targetPlatform, targetModel);
+  }
+
+  /**
+   * Returns the number of tables that are copied concurrently.
+   *
+   * @return The number of tables, 1 per default
+   */
+  public int getParallelism() {
+    return _parallelism;
+  }
+
+  /**
+   * Specifies the number of tables that are copied concurrently. Every table uses one
+   * connection to each database. If a database is accessed via a {@link PooledDataSource},
+   * then the number of concurrently copied tables is reduced to what its maximum size allows,
+   * see {@link #getEffectiveParallelism()}.
+   *
+   * @param parallelism The number of tables
+   */
+  public void setParallelism(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("The parallelism must be at least 1");
+    }
+    _parallelism = parallelism;
+  }
+
+  /**
+   * Returns the number of tables that are actually copied concurrently. This is the
+   * {@link #getParallelism() parallelism}, reduced so that the connections needed per table
+   * (one for each database) do not exceed the maximum size of the databases' connection pools,
+   * if the databases are accessed via {@link PooledDataSource}s.
+   *
+   * @return The number of tables
+   */
+  protected int getEffectiveParallelism() {
+    return limitParallelism(_parallelism, 1, 1);
+  }
+
+  /**
+   * Returns the maximum number of rows per table that have been read from the source database
+   * but not yet been handed to the target database.
+   *
+   * @return The number of rows, 1024 per default
+   */
+  public int getQueueSize() {
+    return _queueSize;
+  }
+
+  /**
+   * Specifies the maximum number of rows per table that have been read from the source database
+   * but not yet been handed to the target database. The reader waits when the queue is full.
+   *
+   * @param queueSize The number of rows
+   */
+  public void setQueueSize(int queueSize) {
+    if (queueSize < 1) {
+      throw new IllegalArgumentException("The queue size must be at least 1");
+    }
+    _queueSize = queueSize;
+  }
+
+  /**
+   * Determines whether the rows are inserted in batches of {@link Platform#getRowBatchSize()} rows.
+   *
+   * @return <code>true</code> if batch mode is used (the default)
+   */
+  public boolean isUseBatchMode() {
+    return _useBatchMode;
+  }
+
+  /**
+   * Specifies whether the rows are inserted in batches of {@link Platform#getRowBatchSize()} rows.
+   * Note that this requires that the primary key values are not defined by the database.
+   *
+   * @param useBatchMode <code>true</code> if batch mode shall be used
+   */
+  public void setUseBatchMode(boolean useBatchMode) {
+    _useBatchMode = useBatchMode;
+  }
+
+  /**
+   * Determines whether tables are only copied after the tables referenced by them, and rows of
+   * self-referencing tables only after the rows referenced by them.
+   *
+   * @return <code>true</code> if the foreign key order is ensured (the default)
+   */
+  public boolean isEnsureFkOrder() {
+    return _ensureFkOrder;
+  }
+
+  /**
+   * Specifies whether tables are only copied after the tables referenced by them, and rows of
+   * self-referencing tables only after the rows referenced by them. If turned off, the tables
+   * are copied in no particular order, so foreign keys have to be disabled in the target
+   * database.
+   *
+   * @param ensureFkOrder <code>true</code> if the foreign key order shall be ensured
+   */
+  public void setEnsureFkOrder(boolean ensureFkOrder) {
+    _ensureFkOrder = ensureFkOrder;
+  }
+
+  /**
+   * Returns the number of rows after which the progress of a table is reported.
+   *
+   * @return The number of rows, 10000 per default
+   */
+  public int getReportInterval() {
+    return _reportInterval;
+  }
+
+  /**
+   * Specifies the number of rows after which the progress of a table is reported to the listener.
+   *
+   * @param reportInterval The number of rows
+   */
+  public void setReportInterval(int reportInterval) {
+    if (reportInterval < 1) {
+      throw new IllegalArgumentException("The report interval must be at least 1");
+    }
+    _reportInterval = reportInterval;
+  }
+
+  /**
+   * Copies all tables of the source model that have a counterpart in the target model.
+   *
+   * @return The number of copied rows
+   */
+  public long copy() throws DdlUtilsException {
+    return copy(new DataCopyListener() {
+    });
+  }
+
+  /**
+   * Copies all tables of the source model that have a counterpart in the target model.
+   *
+   * @param listener The listener that receives the progress information
+   * @return The number of copied rows
+   */
+  public long copy(DataCopyListener listener) throws DdlUtilsException {
+    // we schedule the tables of the target model as its foreign keys are the relevant ones
+    Map<Table, Table> sourceTables = new LinkedHashMap<>();
+
+    for (Table sourceTable : _sourceModel.getTables()) {
+      Table targetTable = findTargetTable(sourceTable);
+
+      if (targetTable == null) {
+        _log.warn("Skipping table " + sourceTable.getName() + " because it does not exist in the target database");
+      } else {
+        sourceTables.put(targetTable, sourceTable);
+      }
+    }
+
+    Set<Table> targetTables = sourceTables.keySet();
+
+    return processTables(targetTables, getEffectiveParallelism(),
+      targetTable -> _ensureFkOrder ? getReferencedTables(targetTable, targetTables) : Collections.emptySet(),
+      targetTable -> copyTable(sourceTables.get(targetTable), listener));
+  }
+
+  /**
+   * Copies the content of the given table into the table of the same name in the target database.
+   * The rows are read in a separate thread while the calling thread writes them.
+   *
+   * @param sourceTable The table of the source model
+   * @param listener    The listener that receives the progress information
+   * @return The number of copied rows
+   */
+  public long copyTable(Table sourceTable, DataCopyListener listener) throws DdlUtilsException {
+    Table targetTable = findTargetTable(sourceTable);
+
+    if (targetTable == null) {
+      throw new DdlUtilsException("The table " + sourceTable.getName() + " does not exist in the target database");
+    }
+
+    List<Column> sourceColumns = new ArrayList<>();
+    List<Column> targetColumns = new ArrayList<>();
+
+    for (Column sourceColumn : sourceTable.getColumns()) {
+      Column targetColumn = targetTable.findColumn(sourceColumn.getName(), _targetPlatform.isDelimitedIdentifierModeOn());
+
+      if (targetColumn != null) {
+        sourceColumns.add(sourceColumn);
+        targetColumns.add(targetColumn);
+      }
+    }
+
+    BlockingQueue<Object> queue = new ArrayBlockingQueue<>(_queueSize);
+    AtomicBoolean writerStopped = new AtomicBoolean();
+    AtomicReference<Throwable> readerFailure = new AtomicReference<>();
+    Thread reader = new Thread(() -> readTable(sourceTable, sourceColumns, targetTable, targetColumns, queue, writerStopped, readerFailure),
+      "DataCopier reader for " + sourceTable.getName());
+    DataToDatabaseSink sink = createSink(targetTable);
+    long startTime = System.currentTimeMillis();
+    long rowCount = 0;
+    boolean completed = false;
+
+    listener.tableStarted(targetTable);
+    reader.setDaemon(true);
+    reader.start();
+    try {
+      sink.start();
+      for (Object row = queue.take(); row != END_OF_TABLE; row = queue.take()) {
+        sink.addBean((RowObject) row);
+        rowCount++;
+        if (rowCount % _reportInterval == 0) {
+          listener.progress(targetTable, rowCount, System.currentTimeMillis() - startTime);
+        }
+      }
+      if (readerFailure.get() != null) {
+        Throwable failure = readerFailure.get();
+
+        if (failure instanceof RuntimeException) {
+          throw (RuntimeException) failure;
+        }
+        throw new DdlUtilsException("Error while reading table " + sourceTable.getName(), failure);
+      }
+      sink.end();
+      completed = true;
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new DdlUtilsException("Interrupted while copying table " + sourceTable.getName(), ex);
+    } finally {
+      writerStopped.set(true);
+      if (!completed) {
+        try {
+          sink.end();
+        } catch (DataSinkException ex) {
+          _log.debug("Error while releasing the connection after a failure", ex);
+        }
+      }
+
+      long elapsedMillis = System.currentTimeMillis() - startTime;
+
+      listener.tableFinished(targetTable, rowCount, elapsedMillis, completed);
+      if (completed) {
+        _log.info("Copied " + rowCount + " rows of table " + targetTable.getName() + " in " + elapsedMillis + " ms (" +
+          (elapsedMillis > 0 ? rowCount * 1000 / elapsedMillis : rowCount) + " rows/s)");
+      }
+    }
+    return rowCount;
+  }
+
+  /**
+   * Reads the rows of the source table, converts them into beans of the target table, and
+   * puts them into the queue, followed by the end marker.
+   *
+   * @param sourceTable   The table of the source model
+   * @param sourceColumns The columns to read
+   * @param targetTable   The table of the target model
+   * @param targetColumns The target columns corresponding to the columns to read
+   * @param queue         The queue
+   * @param writerStopped Set when the writer does not take any more rows from the queue
+   * @param readerFailure Receives the error that stopped the reader
+   */
+  private void readTable(Table sourceTable, List<Column> sourceColumns, Table targetTable, List<Column> targetColumns,
+                         BlockingQueue<Object> queue, AtomicBoolean writerStopped, AtomicReference<Throwable> readerFailure) {
+    try {
+      if (!sourceColumns.isEmpty()) {
+        try (Stream<RowObject> sourceRows = _sourcePlatform.stream(_sourceModel, createSelectSql(sourceTable, sourceColumns),
+          new Table[]{sourceTable})) {
+          for (Iterator<RowObject> it = sourceRows.iterator(); it.hasNext() && !writerStopped.get(); ) {
+            RowObject sourceRow = it.next();
+            RowObject targetRow = _targetModel.createRowObjectFor(targetTable);
+
+            for (int idx = 0; idx < sourceColumns.size(); idx++) {
+              Column sourceColumn = sourceColumns.get(idx);
+              Column targetColumn = targetColumns.get(idx);
+
+              targetRow.set(targetColumn.getName(), convertValue(sourceColumn, targetColumn, sourceRow.get(sourceColumn.getName())));
+            }
+            if (!handOff(queue, targetRow, writerStopped)) {
+              return;
+            }
+          }
+        }
+      }
+    } catch (Throwable ex) {
+      readerFailure.set(ex);
+    }
+    try {
+      handOff(queue, END_OF_TABLE, writerStopped);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Puts the given object into the queue, waiting for space to become available unless the
+   * writer has stopped.
+   *
+   * @param queue         The queue
+   * @param obj           The object
+   * @param writerStopped Set when the writer does not take any more rows from the queue
+   * @return Whether the object has been put into the queue
+   */
+  private boolean handOff(BlockingQueue<Object> queue, Object obj, AtomicBoolean writerStopped) throws InterruptedException {
+    while (!queue.offer(obj, 100, TimeUnit.MILLISECONDS)) {
+      if (writerStopped.get()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Creates the sink that writes the rows of the given table to the target database. As the
+   * tables are scheduled in foreign key order, the sink only has to care about the order of
+   * the rows of self-referencing tables.
+   *
+   * @param targetTable The table of the target model
+   * @return The sink
+   */
+  protected DataToDatabaseSink createSink(Table targetTable) {
+    DataToDatabaseSink sink = new DataToDatabaseSink(_targetPlatform, _targetModel);
+
+    sink.setUseBatchMode(_useBatchMode);
+    sink.setBatchSize(_targetPlatform.getRowBatchSize());
+    sink.setEnsureForeignKeyOrder(_ensureFkOrder && (targetTable.getSelfReferencingForeignKey() != null));
+    for (Table table : _targetModel.getTables()) {
+      if (!table.equals(targetTable)) {
+        sink.addCompletedTable(table);
+      }
+    }
+    return sink;
+  }
+
+  /**
+   * Creates the query that reads the given columns of the table.
+   *
+   * @param table   The table of the source model
+   * @param columns The columns to read
+   * @return The SQL
+   */
+  protected String createSelectSql(Table table, List<Column> columns) {
+    StringBuilder sql = new StringBuilder();
+
+    sql.append("SELECT ");
+    for (int idx = 0; idx < columns.size(); idx++) {
+      if (idx > 0) {
+        sql.append(", ");
+      }
+      appendIdentifier(_sourcePlatform, sql, columns.get(idx).getName());
+    }
+    sql.append(" FROM ");
+    appendIdentifier(_sourcePlatform, sql, table.getName());
+    return sql.toString();
+  }
+
+  /**
+   * Converts a value read from the source column into a value suitable for the target column.
+   * The conversion is based on the jdbc type that the target platform actually uses for the
+   * type of the target column (see {@link org.apache.ddlutils.PlatformInfo#getTargetJdbcType(int)}),
+   * so that e.g. booleans are written as numbers to databases without a native boolean type.
+   *
+   * @param sourceColumn The source column
+   * @param targetColumn The target column
+   * @param value        The value read from the source database
+   * @return The value to write to the target database
+   */
+  protected Object convertValue(Column sourceColumn, Column targetColumn, Object value) {
+    if (value == null) {
+      return null;
+    }
+
+    int targetTypeCode = _targetPlatform.getPlatformInfo().getTargetJdbcType(targetColumn.getTypeCode());
+
+    if ((targetTypeCode == Types.BIT) || (targetTypeCode == Types.BOOLEAN)) {
+      if (value instanceof Number) {
+        return ((Number) value).intValue() != 0;
+      } else if (value instanceof String) {
+        String text = ((String) value).trim();
+
+        return "1".equals(text) || "true".equalsIgnoreCase(text);
+      }
+    } else if (TypeMap.isNumericType(targetTypeCode)) {
+      if (value instanceof Boolean) {
+        return (Boolean) value ? 1 : 0;
+      } else if (value instanceof String) {
+        return new BigDecimal(((String) value).trim());
+      }
+    } else if (TypeMap.isTextType(targetTypeCode)) {
+      if (value instanceof BigDecimal) {
+        return ((BigDecimal) value).toPlainString();
+      } else if (!(value instanceof String) && !(value instanceof byte[])) {
+        return value.toString();
+      }
+    } else if (value instanceof Date) {
+      long time = ((Date) value).getTime();
+
+      if ((targetTypeCode == Types.DATE) && !(value instanceof java.sql.Date)) {
+        return new java.sql.Date(time);
+      } else if ((targetTypeCode == Types.TIME) && !(value instanceof Time)) {
+        return new Time(time);
+      } else if ((targetTypeCode == Types.TIMESTAMP) && !(value instanceof Timestamp)) {
+        return new Timestamp(time);
+      }
+    }
+    return value;
+  }
+}
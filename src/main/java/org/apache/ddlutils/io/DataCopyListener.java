@@ -0,0 +1,62 @@
+package org.apache.ddlutils.io;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.model.Table;
+
+/**
+ * Receives progress information from a {@link DataCopier}. The methods for one table are
+ * invoked by the thread that writes the table, but the tables may be copied concurrently.
+ *
+ * @version $Revision: $
+ */
+public interface DataCopyListener {
+  /**
+   * Notifies the listener that the copying of the given table starts.
+   *
+   * @param table The table of the target model
+   */
+  default void tableStarted(Table table) {
+  }
+
+  /**
+   * Notifies the listener about the progress of the copying of the given table. This method is
+   * invoked whenever the number of rows given by {@link DataCopier#getReportInterval()} has
+   * been handed to the target database.
+   *
+   * @param table         The table of the target model
+   * @param rowCount      The number of rows copied so far
+   * @param elapsedMillis The milliseconds since the copying of the table started
+   */
+  default void progress(Table table, long rowCount, long elapsedMillis) {
+  }
+
+  /**
+   * Notifies the listener that the copying of the given table has ended.
+   *
+   * @param table         The table of the target model
+   * @param rowCount      The number of rows copied
+   * @param elapsedMillis The milliseconds that the copying of the table took
+   * @param completed     Whether all rows have been copied; <code>false</code> if the copying
+   *                      has been aborted because of an error
+   */
+  default void tableFinished(Table table, long rowCount, long elapsedMillis, boolean completed) {
+  }
+}
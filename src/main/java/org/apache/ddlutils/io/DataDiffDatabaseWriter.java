@@ -0,0 +1,219 @@
+package org.apache.ddlutils.io;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.DatabaseOperationException;
+import org.apache.ddlutils.Platform;
+import org.apache.ddlutils.data.RowObject;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.Table;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies the operations determined by a {@link DataComparator} directly to the target
+ * database. The rows of a table are written in JDBC batches of at most
+ * {@link Platform#getRowBatchSize()} rows per kind of operation, using one connection per
+ * table. Updates only write the columns whose values differ. The pending rows of a table
+ * are written at the latest when its comparison has ended, so the operations are applied in
+ * the foreign key order in which the {@link DataComparator} reports them.<br/>
+ * Inserted rows have to keep their primary key values, otherwise the target database never
+ * converges. Hence the writer turns on identity override for the platform, and refuses to
+ * write tables with auto-increment columns if the platform does not allow identity override.
+ *
+ * @version $Revision: $
+ */
+public class DataDiffDatabaseWriter implements DataDiffListener {
+  /**
+   * The platform of the target database.
+   */
+  private final Platform _platform;
+  /**
+   * The model of the target database.
+   */
+  private final Database _model;
+  /**
+   * The pending operations of the tables that are currently compared.
+   */
+  private final Map<Table, PendingRows> _pendingRows = new ConcurrentHashMap<>();
+
+  /**
+   * The rows of a table that have not been written yet.
+   */
+  private static class PendingRows {
+    /**
+     * The connection used for the table.
+     */
+    private final Connection _connection;
+    /**
+     * The rows to insert.
+     */
+    private final List<RowObject> _inserts = new ArrayList<>();
+    /**
+     * The rows to update.
+     */
+    private final List<RowObject> _updates = new ArrayList<>();
+    /**
+     * The rows to delete.
+     */
+    private final List<RowObject> _deletes = new ArrayList<>();
+
+    /**
+     * Creates a new object.
+     *
+     * @param connection The connection used for the table
+     */
+    private PendingRows(Connection connection) {
+      _connection = connection;
+    }
+  }
+
+  /**
+   * Creates a new writer. Note that this turns on identity override for the given platform if
+   * the platform allows it.
+   *
+   * @param platform The platform of the target database
+   * @param model    The model of the target database
+   */
+  public DataDiffDatabaseWriter(Platform platform, Database model) {
+    _platform = platform;
+    _model = model;
+    if (platform.getPlatformInfo().isIdentityOverrideAllowed()) {
+      platform.setIdentityOverrideOn(true);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void startTable(Table table) throws DataSinkException {
+    if ((table.getAutoIncrementColumns().length > 0) &&
+      !(_platform.isIdentityOverrideOn() && _platform.getPlatformInfo().isIdentityOverrideAllowed())) {
+      throw new DataSinkException("Cannot write the rows of table " + table.getName() +
+        " because the values of its auto-increment columns would not be retained without identity override");
+    }
+    try {
+      _pendingRows.put(table, new PendingRows(_platform.borrowConnection()));
+    } catch (DatabaseOperationException ex) {
+      throw new DataSinkException(ex);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void insert(RowObject row) throws DataSinkException {
+    add(row, getPendingRows(row)._inserts);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void update(RowObject row) throws DataSinkException {
+    add(row, getPendingRows(row)._updates);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void delete(RowObject row) throws DataSinkException {
+    add(row, getPendingRows(row)._deletes);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void endTable(Table table, boolean completed) throws DataSinkException {
+    PendingRows pendingRows = _pendingRows.remove(table);
+
+    if (pendingRows != null) {
+      try {
+        if (completed) {
+          flush(pendingRows);
+        }
+      } finally {
+        _platform.returnConnection(pendingRows._connection);
+      }
+    }
+  }
+
+  /**
+   * Returns the pending operations of the table of the given row.
+   *
+   * @param row The row
+   * @return The pending operations
+   */
+  private PendingRows getPendingRows(RowObject row) throws DataSinkException {
+    PendingRows pendingRows = _pendingRows.get(row.getTableClass().getTable());
+
+    if (pendingRows == null) {
+      throw new DataSinkException("The table " + row.getTableClass().getTableName() + " has not been started");
+    }
+    return pendingRows;
+  }
+
+  /**
+   * Adds the row to the given list of pending rows, and writes the pending rows of the table
+   * if the list has reached the batch size.
+   *
+   * @param row  The row
+   * @param rows The list of pending rows of the same kind
+   */
+  private void add(RowObject row, List<RowObject> rows) throws DataSinkException {
+    rows.add(row);
+    if (rows.size() >= _platform.getRowBatchSize()) {
+      flush(getPendingRows(row));
+    }
+  }
+
+  /**
+   * Writes the pending rows of a table, starting with the deletions so that rows that are
+   * replaced by rows with other primary key values do not violate unique constraints.
+   *
+   * @param pendingRows The pending rows
+   */
+  private void flush(PendingRows pendingRows) throws DataSinkException {
+    try {
+      if (!pendingRows._deletes.isEmpty()) {
+        _platform.delete(pendingRows._connection, _model, pendingRows._deletes);
+        pendingRows._deletes.clear();
+      }
+      if (!pendingRows._updates.isEmpty()) {
+        _platform.update(pendingRows._connection, _model, pendingRows._updates);
+        pendingRows._updates.clear();
+      }
+      if (!pendingRows._inserts.isEmpty()) {
+        _platform.insert(pendingRows._connection, _model, pendingRows._inserts);
+        pendingRows._inserts.clear();
+      }
+    } catch (DatabaseOperationException ex) {
+      throw new DataSinkException(ex);
+    }
+  }
+}
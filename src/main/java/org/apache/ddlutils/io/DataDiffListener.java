@@ -0,0 +1,77 @@
+package org.apache.ddlutils.io;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.data.RowObject;
+import org.apache.ddlutils.model.Table;
+
+/**
+ * Receives the operations that the {@link DataComparator} determined for bringing the
+ * content of the tables of the target database in line with the source database. The rows
+ * are beans of the tables of the target model. The methods for one table are invoked by the
+ * same thread, but the tables may be compared concurrently. The deletions in tables that are
+ * referenced by other tables are reported in a second pass (see {@link DataComparator}), so
+ * {@link #startTable(Table)} and {@link #endTable(Table, boolean)} can be invoked twice for
+ * the same table.
+ *
+ * @version $Revision: $
+ */
+public interface DataDiffListener {
+  /**
+   * Notifies the listener that the given table is compared.
+   *
+   * @param table The table of the target model
+   */
+  default void startTable(Table table) throws DataSinkException {
+  }
+
+  /**
+   * Receives a row that exists in the source database but not in the target database.
+   *
+   * @param row The row to insert
+   */
+  void insert(RowObject row) throws DataSinkException;
+
+  /**
+   * Receives a row that exists in both databases but whose values differ. The row is the
+   * target row whose differing values have been replaced by the source values; only these
+   * are marked as changed (see {@link RowObject#getChangedProperties()}).
+   *
+   * @param row The row to update
+   */
+  void update(RowObject row) throws DataSinkException;
+
+  /**
+   * Receives a row that exists in the target database but not in the source database.
+   *
+   * @param row The row to delete
+   */
+  void delete(RowObject row) throws DataSinkException;
+
+  /**
+   * Notifies the listener that the comparison of the given table has ended.
+   *
+   * @param table     The table of the target model
+   * @param completed Whether all differences have been reported; <code>false</code> if the
+   *                  comparison has been aborted because of an error
+   */
+  default void endTable(Table table, boolean completed) throws DataSinkException {
+  }
+}
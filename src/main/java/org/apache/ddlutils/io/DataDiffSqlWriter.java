@@ -0,0 +1,105 @@
+package org.apache.ddlutils.io;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.Platform;
+import org.apache.ddlutils.data.RowObject;
+import org.apache.ddlutils.model.Database;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes the operations determined by a {@link DataComparator} as an SQL script for the
+ * target database. Updates only set the columns whose values differ.
+ *
+ * @version $Revision: $
+ */
+public class DataDiffSqlWriter implements DataDiffListener {
+  /**
+   * The platform of the target database.
+   */
+  private final Platform _platform;
+  /**
+   * The model of the target database.
+   */
+  private final Database _model;
+  /**
+   * The writer that receives the script.
+   */
+  private final Writer _writer;
+
+  /**
+   * Creates a new script writer.
+   *
+   * @param platform The platform of the target database
+   * @param model    The model of the target database
+   * @param writer   The writer that receives the script
+   */
+  public DataDiffSqlWriter(Platform platform, Database model, Writer writer) {
+    _platform = platform;
+    _model = model;
+    _writer = writer;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void insert(RowObject row) throws DataSinkException {
+    writeStatement(_platform.getInsertSql(_model, row));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void update(RowObject row) throws DataSinkException {
+    writeStatement(_platform.getUpdateSql(_model, row));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void delete(RowObject row) throws DataSinkException {
+    writeStatement(_platform.getDeleteSql(_model, row));
+  }
+
+  /**
+   * Writes the given statement followed by the command delimiter of the platform. The writer is
+   * synchronized upon so that statements for tables compared concurrently are not interleaved.
+   *
+   * @param sql The statement, or <code>null</code> if the platform could not generate one
+   */
+  private void writeStatement(String sql) throws DataSinkException {
+    if (sql != null) {
+      synchronized (_writer) {
+        try {
+          _writer.write(sql);
+          _writer.write(_platform.getPlatformInfo().getSqlCommandDelimiter());
+          _writer.write(System.lineSeparator());
+        } catch (IOException ex) {
+          throw new DataSinkException("Could not write the SQL", ex);
+        }
+      }
+    }
+  }
+}
@@ -32,6 +32,7 @@ import org.apache.ddlutils.model.Table;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -68,6 +69,10 @@ public class DataToDatabaseSink implements DataSink {
    * Whether to use batch mode inserts.
    */
   private boolean _useBatchMode = false;
+  /**
+   * Whether to update rows that already exist instead of inserting them.
+   */
+  private boolean _upsert = false;
   /**
    * The queued objects for batch insertion.
    */
@@ -80,6 +85,10 @@ public class DataToDatabaseSink implements DataSink {
    * Stores the tables that are target of a foreign key.
    */
   private final HashSet<Table> _fkTables = new HashSet<>();
+  /**
+   * Stores the tables whose rows have already been written to the database by other means.
+   */
+  private final HashSet<Table> _completedTables = new HashSet<>();
   /**
    * Contains the tables that have a self-referencing foreign key to a (partially) identity primary key.
    */
@@ -172,6 +181,19 @@ public class DataToDatabaseSink implements DataSink {
     _ensureFkOrder = ensureFkOrder;
   }
 
+  /**
+   * Declares that all rows of the given table have already been written to the database, e.g.
+   * by another sink. Beans referencing rows of this table are then inserted right away instead of
+   * waiting for the referenced beans to pass through this sink. Note that the foreign key values
+   * of these beans are used as they are, i.e. they are not adjusted to identity values generated
+   * by the database for the referenced rows.
+   *
+   * @param table The table
+   */
+  public void addCompletedTable(Table table) {
+    _completedTables.add(table);
+  }
+
   /**
    * Determines whether batch mode is used for inserting the beans.
    *
@@ -191,6 +213,26 @@ public class DataToDatabaseSink implements DataSink {
     _useBatchMode = useBatchMode;
   }
 
+  /**
+   * Determines whether rows that already exist in the database are updated instead of inserted.
+   *
+   * @return <code>true</code> if existing rows are updated (<code>false</code> per default)
+   */
+  public boolean isUpsert() {
+    return _upsert;
+  }
+
+  /**
+   * Specifies whether rows that already exist in the database (as determined by their primary key)
+   * shall be updated instead of inserted. The rows are then stored via the native upsert statement
+   * of the platform where available.
+   *
+   * @param upsert <code>true</code> if existing rows shall be updated
+   */
+  public void setUpsert(boolean upsert) {
+    _upsert = upsert;
+  }
+
   /**
    * Returns the (maximum) number of beans to insert in one batch.
    *
@@ -271,7 +313,7 @@ public class DataToDatabaseSink implements DataSink {
         ForeignKey fk = table.getForeignKey(idx);
         Identity fkIdentity = buildIdentityFromFK(table, fk, bean);
 
-        if ((fkIdentity != null) && !fkIdentity.equals(origIdentity)) {
+        if ((fkIdentity != null) && !fkIdentity.equals(origIdentity) && !_completedTables.contains(fk.getForeignTable())) {
           Identity processedIdentity = _identityMap.get(fkIdentity);
 
           if (processedIdentity != null) {
@@ -357,7 +399,11 @@ public class DataToDatabaseSink implements DataSink {
   private void purgeBatchQueue() throws DataSinkException {
     if (!_batchQueue.isEmpty()) {
       try {
-        _platform.insert(_connection, _model, _batchQueue);
+        if (_upsert) {
+          _platform.store(_connection, _model, _batchQueue);
+        } else {
+          _platform.insert(_connection, _model, _batchQueue);
+        }
         if (!_connection.getAutoCommit()) {
           _connection.commit();
         }
@@ -417,6 +463,8 @@ public class DataToDatabaseSink implements DataSink {
           bean.set(selfRefFk.getReference(idx).getLocalColumnName(), fkValues.get(idx));
         }
         _platform.update(_connection, _model, bean);
+      } else if (_upsert) {
+        _platform.store(_connection, _model, Collections.singletonList(bean));
       } else {
         _platform.insert(_connection, _model, bean);
       }
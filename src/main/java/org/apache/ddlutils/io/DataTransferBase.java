@@ -0,0 +1,259 @@
+package org.apache.ddlutils.io;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.DdlUtilsException;
+import org.apache.ddlutils.Platform;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.Table;
+import org.apache.ddlutils.util.Log;
+import org.apache.ddlutils.util.LogFactory;
+import org.apache.ddlutils.util.PooledDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Base class for the classes that process the tables of a source database together with the
+ * tables of the same name in a target database, e.g. for copying or comparing their content.
+ * It schedules the tables in foreign key order on a thread pool whose size is limited by the
+ * connection pools of the databases.
+ *
+ * @version $Revision: $
+ */
+public abstract class DataTransferBase {
+  /**
+   * The log for this class.
+   */
+  private final Log _log = LogFactory.getLog(getClass());
+  /**
+   * The platform of the source database.
+   */
+  protected final Platform _sourcePlatform;
+  /**
+   * The model of the source database.
+   */
+  protected final Database _sourceModel;
+  /**
+   * The platform of the target database.
+   */
+  protected final Platform _targetPlatform;
+  /**
+   * The model of the target database.
+   */
+  protected final Database _targetModel;
+
+  /**
+   * Creates a new object.
+   *
+   * @param sourcePlatform The platform of the source database
+   * @param sourceModel    The model of the source database
+   * @param targetPlatform The platform of the target database
+   * @param targetModel    The model of the target database
+   */
+  protected DataTransferBase(Platform sourcePlatform, Database sourceModel, Platform targetPlatform, Database targetModel) {
+    _sourcePlatform = sourcePlatform;
+    _sourceModel = sourceModel;
+    _targetPlatform = targetPlatform;
+    _targetModel = targetModel;
+  }
+
+  /**
+   * Reduces the given number of concurrently processed tables so that the connections needed
+   * per table do not exceed the maximum size of the databases' connection pools, if the
+   * databases are accessed via {@link PooledDataSource}s. If both are accessed via the same
+   * pool, then the connections for both databases are taken from it.
+   *
+   * @param parallelism                The desired number of tables
+   * @param sourceConnectionsPerTable The number of connections to the source database per table
+   * @param targetConnectionsPerTable The number of connections to the target database per table
+   * @return The number of tables
+   */
+  protected int limitParallelism(int parallelism, int sourceConnectionsPerTable, int targetConnectionsPerTable) {
+    DataSource sourceDataSource = _sourcePlatform.getDataSource();
+    DataSource targetDataSource = _targetPlatform.getDataSource();
+    int result;
+
+    if (sourceDataSource == targetDataSource) {
+      result = limitParallelism(parallelism, sourceDataSource, sourceConnectionsPerTable + targetConnectionsPerTable);
+    } else {
+      result = limitParallelism(limitParallelism(parallelism, sourceDataSource, sourceConnectionsPerTable),
+        targetDataSource, targetConnectionsPerTable);
+    }
+    if (result < parallelism) {
+      _log.info("Processing only " + result + " tables concurrently because of the maximum size of the connection pools");
+    }
+    return result;
+  }
+
+  /**
+   * Limits the given parallelism to the number of tables for which the given data source
+   * can provide connections.
+   *
+   * @param parallelism         The parallelism
+   * @param dataSource          The data source
+   * @param connectionsPerTable The number of connections of the data source needed per table
+   * @return The limited parallelism
+   */
+  private int limitParallelism(int parallelism, DataSource dataSource, int connectionsPerTable) {
+    if (dataSource instanceof PooledDataSource) {
+      return Math.max(1, Math.min(parallelism, ((PooledDataSource) dataSource).getMaxSize() / connectionsPerTable));
+    }
+    return parallelism;
+  }
+
+  /**
+   * Processes the given tables, each one only after the tables that it depends on have been
+   * processed, and at most the given number of tables at the same time. Tables that depend
+   * on each other are processed in the given order.
+   *
+   * @param targetTables The tables of the target model
+   * @param parallelism  The maximum number of tables processed at the same time
+   * @param dependencies Determines the tables that a table depends on
+   * @param processing   Processes a table and returns a count, e.g. of the processed rows
+   * @return The sum of the counts
+   */
+  protected long processTables(Set<Table> targetTables, int parallelism, Function<Table, Set<Table>> dependencies,
+                               Function<Table, Long> processing) throws DdlUtilsException {
+    Set<Table> remaining = new LinkedHashSet<>(targetTables);
+    ExecutorService threadPool = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, remaining.size())));
+    CompletionService<Long> completionService = new ExecutorCompletionService<>(threadPool);
+    Map<Future<Long>, Table> running = new HashMap<>();
+    Set<Table> processed = new HashSet<>();
+    long result = 0;
+
+    try {
+      while (!remaining.isEmpty() || !running.isEmpty()) {
+        for (Iterator<Table> it = remaining.iterator(); it.hasNext() && (running.size() < parallelism); ) {
+          Table targetTable = it.next();
+
+          if (processed.containsAll(dependencies.apply(targetTable))) {
+            it.remove();
+            running.put(completionService.submit(() -> processing.apply(targetTable)), targetTable);
+          }
+        }
+        if (running.isEmpty()) {
+          // the remaining tables depend on each other
+          Table targetTable = remaining.iterator().next();
+
+          _log.warn("Processing table " + targetTable.getName() + " before the tables that it depends on because of circular foreign keys");
+          remaining.remove(targetTable);
+          running.put(completionService.submit(() -> processing.apply(targetTable)), targetTable);
+        }
+
+        Future<Long> future = completionService.take();
+
+        processed.add(running.remove(future));
+        result += future.get();
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new DdlUtilsException("Interrupted while processing the tables", ex);
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) ex.getCause();
+      }
+      throw new DdlUtilsException("Error while processing the tables", ex.getCause());
+    } finally {
+      for (Future<Long> future : running.keySet()) {
+        future.cancel(true);
+      }
+      threadPool.shutdown();
+    }
+    return result;
+  }
+
+  /**
+   * Returns the tables among the given ones that the given table references via foreign keys.
+   *
+   * @param table  The table
+   * @param tables The tables to consider
+   * @return The referenced tables
+   */
+  protected Set<Table> getReferencedTables(Table table, Set<Table> tables) {
+    Set<Table> result = new HashSet<>();
+
+    for (int idx = 0; idx < table.getForeignKeyCount(); idx++) {
+      Table foreignTable = table.getForeignKey(idx).getForeignTable();
+
+      if ((foreignTable != null) && !table.equals(foreignTable) && tables.contains(foreignTable)) {
+        result.add(foreignTable);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the tables among the given ones that reference the given table via foreign keys.
+   *
+   * @param table  The table
+   * @param tables The tables to consider
+   * @return The referencing tables
+   */
+  protected Set<Table> getReferencingTables(Table table, Set<Table> tables) {
+    Set<Table> result = new HashSet<>();
+
+    for (Table otherTable : tables) {
+      if (getReferencedTables(otherTable, tables).contains(table)) {
+        result.add(otherTable);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the table of the target model that corresponds to the given table of the source model.
+   *
+   * @param sourceTable The table of the source model
+   * @return The table of the target model, or <code>null</code> if there is none
+   */
+  protected Table findTargetTable(Table sourceTable) {
+    return _targetModel.findTable(sourceTable.getName(), _targetPlatform.isDelimitedIdentifierModeOn());
+  }
+
+  /**
+   * Appends the given identifier, delimited if the platform uses delimited identifiers.
+   *
+   * @param platform   The platform
+   * @param sql        The SQL to append to
+   * @param identifier The identifier
+   */
+  protected void appendIdentifier(Platform platform, StringBuilder sql, String identifier) {
+    if (platform.isDelimitedIdentifierModeOn()) {
+      sql.append(platform.getPlatformInfo().getDelimiterToken());
+    }
+    sql.append(identifier);
+    if (platform.isDelimitedIdentifierModeOn()) {
+      sql.append(platform.getPlatformInfo().getDelimiterToken());
+    }
+  }
+}
@@ -0,0 +1,664 @@
+package org.apache.ddlutils.io;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.DdlUtilsException;
+import org.apache.ddlutils.model.CascadeActionEnum;
+import org.apache.ddlutils.model.Column;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.ForeignKey;
+import org.apache.ddlutils.model.Index;
+import org.apache.ddlutils.model.IndexColumn;
+import org.apache.ddlutils.model.NonUniqueIndex;
+import org.apache.ddlutils.model.Reference;
+import org.apache.ddlutils.model.Table;
+import org.apache.ddlutils.model.UniqueIndex;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class provides functions to read and write database models from/to a compact binary
+ * format. Compared to the XML format, loading a model from it is considerably faster: all
+ * names and other strings are stored once in a string table, and the foreign tables and the
+ * columns of foreign keys and indices are stored as indices into the tables and columns, so
+ * the model can be rebuilt without any lookup by name and without
+ * {@link Database#initialize()}.<br/>
+ * Foreign keys, references and index columns that were not resolved in the written model
+ * (e.g. because the model has not been initialized) are stored by name and are thus also
+ * unresolved in the read model.<br/>
+ * The format is not meant for exchanging models, only for caching them: it is versioned,
+ * and a model written by a different version cannot be read but has to be written anew.
+ *
+ * @version $Revision: $
+ */
+public class DatabaseBinaryIO {
+  /**
+   * The magic number at the start of the binary model ("DDLM").
+   */
+  private static final int MAGIC = 0x44444C4D;
+  /**
+   * The version of the binary format.
+   */
+  public static final int FORMAT_VERSION = 1;
+
+  /**
+   * Flag for primary key columns.
+   */
+  private static final int FLAG_PRIMARY_KEY = 1;
+  /**
+   * Flag for required columns.
+   */
+  private static final int FLAG_REQUIRED = 2;
+  /**
+   * Flag for auto-increment columns.
+   */
+  private static final int FLAG_AUTO_INCREMENT = 4;
+  /**
+   * Flag for columns that have a type.
+   */
+  private static final int FLAG_HAS_TYPE = 8;
+  /**
+   * Flag for unique indices.
+   */
+  private static final int FLAG_UNIQUE = 1;
+  /**
+   * Flag for foreign keys for which an auto index is present.
+   */
+  private static final int FLAG_AUTO_INDEX_PRESENT = 2;
+
+  /**
+   * Reads the database model from the given file.
+   *
+   * @param file The model file
+   * @return The database model
+   */
+  public Database read(File file) throws DdlUtilsException {
+    try (InputStream input = new BufferedInputStream(new FileInputStream(file))) {
+      return read(input);
+    } catch (IOException ex) {
+      throw new DdlUtilsException("Could not read the model from " + file.getAbsolutePath(), ex);
+    }
+  }
+
+  /**
+   * Reads the database model from the given input stream. Note that this method
+   * does not close the stream.
+   *
+   * @param input The input stream
+   * @return The database model
+   */
+  public Database read(InputStream input) throws DdlUtilsException {
+    try {
+      // decoding from an array is a lot faster than reading the individual bytes from a stream
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      byte[] chunk = new byte[8192];
+      int len;
+
+      while ((len = input.read(chunk)) >= 0) {
+        buffer.write(chunk, 0, len);
+      }
+      return new ModelReader(buffer.toByteArray()).readDatabase();
+    } catch (IOException | IndexOutOfBoundsException ex) {
+      throw new DdlUtilsException("Could not read the binary model", ex);
+    }
+  }
+
+  /**
+   * Writes the database model to the specified file.
+   *
+   * @param model The database model
+   * @param file  The model file
+   */
+  public void write(Database model, File file) throws DdlUtilsException {
+    try (OutputStream output = new BufferedOutputStream(new FileOutputStream(file))) {
+      write(model, output);
+    } catch (IOException ex) {
+      throw new DdlUtilsException("Could not write the model to " + file.getAbsolutePath(), ex);
+    }
+  }
+
+  /**
+   * Writes the database model to the given output stream. Note that this method
+   * flushes but does not close the stream.
+   *
+   * @param model  The database model
+   * @param output The output stream
+   */
+  public void write(Database model, OutputStream output) throws DdlUtilsException {
+    try {
+      new ModelWriter().writeDatabase(model, new DataOutputStream(output));
+    } catch (IOException ex) {
+      throw new DdlUtilsException("Could not write the binary model", ex);
+    }
+  }
+
+  /**
+   * Writes an integer in a variable-length encoding that uses one byte for values between
+   * 0 and 127, and five bytes for negative values.
+   *
+   * @param output The output
+   * @param value  The value
+   */
+  private static void writeVarInt(DataOutputStream output, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      output.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    output.writeByte(value);
+  }
+
+  /**
+   * Writes the model. The binary model consists of the header (magic number and version),
+   * the string table, and the model itself. As strings are only added to the string table
+   * while writing the model, the model is first written to a buffer.
+   */
+  private static class ModelWriter {
+    /**
+     * The string table; maps the strings to their numbers which start at 1 (0 is <code>null</code>).
+     */
+    private final Map<String, Integer> _strings = new HashMap<>();
+    /**
+     * The strings in the order of their numbers.
+     */
+    private final List<String> _stringList = new ArrayList<>();
+    /**
+     * The index of each table in the model.
+     */
+    private final Map<Table, Integer> _tableIndices = new IdentityHashMap<>();
+    /**
+     * The index of each column within its table.
+     */
+    private final Map<Column, Integer> _columnIndices = new IdentityHashMap<>();
+
+    /**
+     * Writes the database model.
+     *
+     * @param model  The model
+     * @param output The output
+     */
+    public void writeDatabase(Database model, DataOutputStream output) throws IOException {
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      DataOutputStream body = new DataOutputStream(buffer);
+
+      writeString(body, model.getName());
+      writeString(body, model.getIdMethod());
+      writeString(body, model.getVersion());
+      writeVarInt(body, model.getTableCount());
+      // the tables and columns are written first so that foreign keys can refer to any of them
+      for (int tableIdx = 0; tableIdx < model.getTableCount(); tableIdx++) {
+        Table table = model.getTable(tableIdx);
+
+        _tableIndices.put(table, tableIdx);
+        writeTable(body, table);
+      }
+      for (int tableIdx = 0; tableIdx < model.getTableCount(); tableIdx++) {
+        Table table = model.getTable(tableIdx);
+
+        writeVarInt(body, table.getForeignKeyCount());
+        for (int fkIdx = 0; fkIdx < table.getForeignKeyCount(); fkIdx++) {
+          writeForeignKey(body, table, table.getForeignKey(fkIdx));
+        }
+        writeVarInt(body, table.getIndexCount());
+        for (int indexIdx = 0; indexIdx < table.getIndexCount(); indexIdx++) {
+          writeIndex(body, table, table.getIndex(indexIdx));
+        }
+      }
+      body.flush();
+
+      output.writeInt(MAGIC);
+      output.writeShort(FORMAT_VERSION);
+      writeVarInt(output, _stringList.size());
+      for (String value : _stringList) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        writeVarInt(output, bytes.length);
+        output.write(bytes);
+      }
+      buffer.writeTo(output);
+      output.flush();
+    }
+
+    /**
+     * Writes a table with its columns.
+     *
+     * @param output The output
+     * @param table  The table
+     */
+    private void writeTable(DataOutputStream output, Table table) throws IOException {
+      writeString(output, table.getCatalog());
+      writeString(output, table.getSchema());
+      writeString(output, table.getName());
+      writeString(output, table.getDescription());
+      writeString(output, table.getType());
+      writeVarInt(output, table.getColumnCount());
+      for (int columnIdx = 0; columnIdx < table.getColumnCount(); columnIdx++) {
+        Column column = table.getColumn(columnIdx);
+        int flags = 0;
+
+        _columnIndices.put(column, columnIdx);
+        if (column.isPrimaryKey()) {
+          flags |= FLAG_PRIMARY_KEY;
+        }
+        if (column.isRequired()) {
+          flags |= FLAG_REQUIRED;
+        }
+        if (column.isAutoIncrement()) {
+          flags |= FLAG_AUTO_INCREMENT;
+        }
+        if (column.getType() != null) {
+          flags |= FLAG_HAS_TYPE;
+        }
+        output.writeByte(flags);
+        writeString(output, column.getName());
+        writeString(output, column.getJavaName());
+        writeString(output, column.getDescription());
+        if (column.getType() != null) {
+          output.writeInt(column.getTypeCode());
+        }
+        writeString(output, column.getSize());
+        writeString(output, column.getDefaultValue());
+      }
+    }
+
+    /**
+     * Writes a foreign key with its references.
+     *
+     * @param output     The output
+     * @param table      The table that owns the foreign key
+     * @param foreignKey The foreign key
+     */
+    private void writeForeignKey(DataOutputStream output, Table table, ForeignKey foreignKey) throws IOException {
+      Table foreignTable = foreignKey.getForeignTable();
+      Integer foreignTableIdx = (foreignTable == null ? null : _tableIndices.get(foreignTable));
+
+      output.writeByte(foreignKey.isAutoIndexPresent() ? FLAG_AUTO_INDEX_PRESENT : 0);
+      writeString(output, foreignKey.getName());
+      writeReference(output, foreignTableIdx, foreignKey.getForeignTableName());
+      writeString(output, foreignKey.getOnUpdate().getName());
+      writeString(output, foreignKey.getOnDelete().getName());
+      writeVarInt(output, foreignKey.getReferenceCount());
+      for (int refIdx = 0; refIdx < foreignKey.getReferenceCount(); refIdx++) {
+        Reference reference = foreignKey.getReference(refIdx);
+
+        writeVarInt(output, reference.getSequenceValue());
+        writeReference(output,
+          getColumnIndex(table, reference.getLocalColumn()),
+          reference.getLocalColumnName());
+        writeReference(output,
+          foreignTableIdx == null ? null : getColumnIndex(foreignTable, reference.getForeignColumn()),
+          reference.getForeignColumnName());
+      }
+    }
+
+    /**
+     * Writes an index with its columns.
+     *
+     * @param output The output
+     * @param table  The table that owns the index
+     * @param index  The index
+     */
+    private void writeIndex(DataOutputStream output, Table table, Index index) throws IOException {
+      output.writeByte(index.isUnique() ? FLAG_UNIQUE : 0);
+      writeString(output, index.getName());
+      writeVarInt(output, index.getColumnCount());
+      for (int columnIdx = 0; columnIdx < index.getColumnCount(); columnIdx++) {
+        IndexColumn indexColumn = index.getColumn(columnIdx);
+
+        writeVarInt(output, indexColumn.getOrdinalPosition());
+        writeReference(output, getColumnIndex(table, indexColumn.getColumn()), indexColumn.getName());
+        writeString(output, indexColumn.getSize());
+      }
+    }
+
+    /**
+     * Determines the index of the given column in the given table.
+     *
+     * @param table  The table
+     * @param column The column, can be <code>null</code>
+     * @return The index or <code>null</code> if the column is not one of the table's columns
+     */
+    private Integer getColumnIndex(Table table, Column column) {
+      Integer columnIdx = (column == null ? null : _columnIndices.get(column));
+
+      return (columnIdx != null) && (table.getColumn(columnIdx) == column) ? columnIdx : null;
+    }
+
+    /**
+     * Writes a reference to a table or column. Resolved references are written as the index of
+     * the object plus one, unresolved ones as a 0 followed by the name.
+     *
+     * @param output The output
+     * @param idx    The index of the referenced object, or <code>null</code> if the reference is not resolved
+     * @param name   The name of the referenced object
+     */
+    private void writeReference(DataOutputStream output, Integer idx, String name) throws IOException {
+      if (idx == null) {
+        writeVarInt(output, 0);
+        writeString(output, name);
+      } else {
+        writeVarInt(output, idx + 1);
+      }
+    }
+
+    /**
+     * Writes a string as its number in the string table.
+     *
+     * @param output The output
+     * @param value  The string, can be <code>null</code>
+     */
+    private void writeString(DataOutputStream output, String value) throws IOException {
+      if (value == null) {
+        writeVarInt(output, 0);
+      } else {
+        Integer number = _strings.get(value);
+
+        if (number == null) {
+          _stringList.add(value);
+          number = _stringList.size();
+          _strings.put(value, number);
+        }
+        writeVarInt(output, number);
+      }
+    }
+  }
+
+  /**
+   * Reads the model.
+   */
+  private static class ModelReader {
+    /**
+     * The binary model.
+     */
+    private final byte[] _data;
+    /**
+     * The position of the next byte to read.
+     */
+    private int _pos;
+    /**
+     * The string table; the number of a string is its index plus one.
+     */
+    private String[] _strings;
+
+    /**
+     * Creates a new reader.
+     *
+     * @param data The binary model
+     */
+    public ModelReader(byte[] data) {
+      _data = data;
+    }
+
+    /**
+     * Reads the database model.
+     *
+     * @return The model
+     */
+    public Database readDatabase() throws IOException {
+      if ((_data.length < 6) || (readInt() != MAGIC)) {
+        throw new DdlUtilsException("The data is not a binary database model");
+      }
+
+      int version = (readUnsignedByte() << 8) | readUnsignedByte();
+
+      if (version != FORMAT_VERSION) {
+        throw new DdlUtilsException("Unsupported version " + version + " of the binary database model, expected version " + FORMAT_VERSION);
+      }
+
+      _strings = new String[readVarInt()];
+      for (int idx = 0; idx < _strings.length; idx++) {
+        int len = readVarInt();
+
+        _strings[idx] = new String(_data, _pos, len, StandardCharsets.UTF_8);
+        _pos += len;
+      }
+
+      Database model = new Database(readString());
+
+      model.setIdMethod(readString());
+      model.setVersion(readString());
+
+      Table[] tables = new Table[readVarInt()];
+
+      for (int tableIdx = 0; tableIdx < tables.length; tableIdx++) {
+        tables[tableIdx] = readTable();
+        model.addTable(tables[tableIdx]);
+      }
+      for (Table table : tables) {
+        int fkCount = readVarInt();
+
+        for (int fkIdx = 0; fkIdx < fkCount; fkIdx++) {
+          table.addForeignKey(readForeignKey(table, tables));
+        }
+
+        int indexCount = readVarInt();
+
+        for (int indexIdx = 0; indexIdx < indexCount; indexIdx++) {
+          table.addIndex(readIndex(table));
+        }
+      }
+      return model;
+    }
+
+    /**
+     * Reads a table with its columns.
+     *
+     * @return The table
+     */
+    private Table readTable() throws IOException {
+      Table table = new Table();
+
+      table.setCatalog(readString());
+      table.setSchema(readString());
+      table.setName(readString());
+      table.setDescription(readString());
+      table.setType(readString());
+
+      int columnCount = readVarInt();
+
+      for (int columnIdx = 0; columnIdx < columnCount; columnIdx++) {
+        Column column = new Column();
+        int flags = readUnsignedByte();
+
+        column.setPrimaryKey((flags & FLAG_PRIMARY_KEY) != 0);
+        column.setRequired((flags & FLAG_REQUIRED) != 0);
+        column.setAutoIncrement((flags & FLAG_AUTO_INCREMENT) != 0);
+        column.setName(readString());
+        column.setJavaName(readString());
+        column.setDescription(readString());
+        if ((flags & FLAG_HAS_TYPE) != 0) {
+          column.setTypeCode(readInt());
+        }
+        column.setSize(readString());
+        column.setDefaultValue(readString());
+        table.addColumn(column);
+      }
+      return table;
+    }
+
+    /**
+     * Reads a foreign key with its references.
+     *
+     * @param table  The table that owns the foreign key
+     * @param tables The tables of the model
+     * @return The foreign key
+     */
+    private ForeignKey readForeignKey(Table table, Table[] tables) throws IOException {
+      ForeignKey foreignKey = new ForeignKey();
+      int flags = readUnsignedByte();
+
+      foreignKey.setAutoIndexPresent((flags & FLAG_AUTO_INDEX_PRESENT) != 0);
+      foreignKey.setName(readString());
+
+      int foreignTableRef = readVarInt();
+      Table foreignTable = null;
+
+      if (foreignTableRef == 0) {
+        foreignKey.setForeignTableName(readString());
+      } else {
+        foreignTable = tables[foreignTableRef - 1];
+        foreignKey.setForeignTable(foreignTable);
+      }
+      foreignKey.setOnUpdate(readCascadeAction());
+      foreignKey.setOnDelete(readCascadeAction());
+
+      int refCount = readVarInt();
+
+      for (int refIdx = 0; refIdx < refCount; refIdx++) {
+        Reference reference = new Reference();
+
+        reference.setSequenceValue(readVarInt());
+
+        int localColumnRef = readVarInt();
+
+        if (localColumnRef == 0) {
+          reference.setLocalColumnName(readString());
+        } else {
+          reference.setLocalColumn(table.getColumn(localColumnRef - 1));
+        }
+
+        int foreignColumnRef = readVarInt();
+
+        if (foreignColumnRef == 0) {
+          reference.setForeignColumnName(readString());
+        } else if (foreignTable == null) {
+          throw new IOException("Resolved foreign column in a foreign key with an unresolved foreign table");
+        } else {
+          reference.setForeignColumn(foreignTable.getColumn(foreignColumnRef - 1));
+        }
+        foreignKey.addReference(reference);
+      }
+      return foreignKey;
+    }
+
+    /**
+     * Reads an index with its columns.
+     *
+     * @param table The table that owns the index
+     * @return The index
+     */
+    private Index readIndex(Table table) throws IOException {
+      int flags = readUnsignedByte();
+      Index index = ((flags & FLAG_UNIQUE) != 0 ? new UniqueIndex() : new NonUniqueIndex());
+
+      index.setName(readString());
+
+      int columnCount = readVarInt();
+
+      for (int columnIdx = 0; columnIdx < columnCount; columnIdx++) {
+        IndexColumn indexColumn = new IndexColumn();
+
+        indexColumn.setOrdinalPosition(readVarInt());
+
+        int columnRef = readVarInt();
+
+        if (columnRef == 0) {
+          indexColumn.setName(readString());
+        } else {
+          indexColumn.setColumn(table.getColumn(columnRef - 1));
+        }
+        indexColumn.setSize(readString());
+        index.addColumn(indexColumn);
+      }
+      return index;
+    }
+
+    /**
+     * Reads a cascade action.
+     *
+     * @return The cascade action
+     */
+    private CascadeActionEnum readCascadeAction() throws IOException {
+      String name = readString();
+      CascadeActionEnum action = CascadeActionEnum.getEnum(name);
+
+      if (action == null) {
+        throw new IOException("Unknown cascade action " + name);
+      }
+      return action;
+    }
+
+    /**
+     * Reads a single byte.
+     *
+     * @return The byte as an unsigned value
+     */
+    private int readUnsignedByte() throws IOException {
+      if (_pos >= _data.length) {
+        throw new EOFException();
+      }
+      return _data[_pos++] & 0xFF;
+    }
+
+    /**
+     * Reads a four byte integer.
+     *
+     * @return The value
+     */
+    private int readInt() throws IOException {
+      return (readUnsignedByte() << 24) | (readUnsignedByte() << 16) | (readUnsignedByte() << 8) | readUnsignedByte();
+    }
+
+    /**
+     * Reads an integer written by {@link DatabaseBinaryIO#writeVarInt(DataOutputStream, int)}.
+     *
+     * @return The value
+     */
+    private int readVarInt() throws IOException {
+      int value = 0;
+
+      for (int shift = 0; shift < 32; shift += 7) {
+        int curByte = readUnsignedByte();
+
+        value |= (curByte & 0x7F) << shift;
+        if ((curByte & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new IOException("Malformed variable-length integer");
+    }
+
+    /**
+     * Reads a string via its number in the string table.
+     *
+     * @return The string, can be <code>null</code>
+     */
+    private String readString() throws IOException {
+      int number = readVarInt();
+
+      return number == 0 ? null : _strings[number - 1];
+    }
+  }
+}
@@ -62,6 +62,10 @@ public class DatabaseDataIO {
    * Whether we should use batch mode.
    */
   private boolean _useBatchMode;
+  /**
+   * Whether rows that already exist in the database are updated instead of inserted.
+   */
+  private boolean _upsert;
   /**
    * The maximum number of objects to insert in one batch.
    */
@@ -121,6 +125,24 @@ public class DatabaseDataIO {
     _useBatchMode = useBatchMode;
   }
 
+  /**
+   * Determines whether rows that already exist in the database are updated instead of inserted.
+   *
+   * @return <code>true</code> if existing rows are updated
+   */
+  public boolean isUpsert() {
+    return _upsert;
+  }
+
+  /**
+   * Specifies whether rows that already exist in the database are updated instead of inserted.
+   *
+   * @param upsert <code>true</code> if existing rows shall be updated
+   */
+  public void setUpsert(boolean upsert) {
+    _upsert = upsert;
+  }
+
   /**
    * Returns the batch size override.
    *
@@ -498,6 +520,7 @@ public class DatabaseDataIO {
     sink.setHaltOnErrors(_failOnError);
     sink.setEnsureForeignKeyOrder(_ensureFKOrder);
     sink.setUseBatchMode(_useBatchMode);
+    sink.setUpsert(_upsert);
     if (_batchSize != null) {
       sink.setBatchSize(_batchSize);
     }
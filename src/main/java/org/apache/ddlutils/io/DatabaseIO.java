@@ -36,7 +36,6 @@ import javax.xml.namespace.QName;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
-import javax.xml.transform.stream.StreamSource;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileReader;
@@ -44,7 +43,6 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Reader;
-import java.io.StringReader;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 
@@ -231,15 +229,8 @@ public class DatabaseIO {
    * @return The database model
    */
   public Database read(File file) throws DdlUtilsXMLException {
-    if (_validateXml) {
-      try (FileReader reader = new FileReader(file)) {
-        new ModelValidator().validate(new StreamSource(reader));
-      } catch (IOException ex) {
-        throw new DdlUtilsXMLException(ex);
-      }
-    }
-    try (FileReader reader = new FileReader(file)){
-      return read(getXMLInputFactory().createXMLStreamReader(reader));
+    try (FileReader reader = new FileReader(file)) {
+      return read(createXMLStreamReader(reader));
     } catch (XMLStreamException | IOException ex) {
       throw new DdlUtilsXMLException(ex);
     }
@@ -254,20 +245,8 @@ public class DatabaseIO {
    */
   public Database read(Reader reader) throws DdlUtilsXMLException {
     try {
-      if (_validateXml) {
-        StringBuilder tmpXml = new StringBuilder();
-        char[] buf = new char[4096];
-        int len;
-
-        while ((len = reader.read(buf)) >= 0) {
-          tmpXml.append(buf, 0, len);
-        }
-        new ModelValidator().validate(new StreamSource(new StringReader(tmpXml.toString())));
-        return read(getXMLInputFactory().createXMLStreamReader(new StringReader(tmpXml.toString())));
-      } else {
-        return read(getXMLInputFactory().createXMLStreamReader(reader));
-      }
-    } catch (XMLStreamException | IOException ex) {
+      return read(createXMLStreamReader(reader));
+    } catch (XMLStreamException ex) {
       throw new DdlUtilsXMLException(ex);
     }
   }
@@ -295,6 +274,22 @@ public class DatabaseIO {
     return factory;
   }
 
+  /**
+   * Creates the XML stream reader for reading the model from the given reader. If XML validation
+   * is turned on, the returned stream reader validates the document while it is read.
+   *
+   * @param reader The reader that returns the model XML
+   * @return The XML stream reader
+   */
+  private XMLStreamReader createXMLStreamReader(Reader reader) throws XMLStreamException {
+    XMLStreamReader xmlReader = getXMLInputFactory().createXMLStreamReader(reader);
+
+    if (_validateXml) {
+      xmlReader = new ValidatingXMLStreamReader(xmlReader, new ModelValidator().newValidatorHandler());
+    }
+    return xmlReader;
+  }
+
   /**
    * Reads the database model from the given XML stream reader.
    *
@@ -313,6 +308,10 @@ public class DatabaseIO {
       if (isSameAs(xmlReader.getName(), QNAME_ELEMENT_DATABASE)) {
         model = readDatabaseElement(xmlReader);
       }
+      // we read the rest of the document so that a validating reader sees all of it
+      while (xmlReader.hasNext()) {
+        xmlReader.next();
+      }
     } catch (IOException | XMLStreamException ex) {
       throw new DdlUtilsXMLException(ex);
     }
@@ -24,6 +24,7 @@ import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 import javax.xml.validation.Validator;
+import javax.xml.validation.ValidatorHandler;
 
 /**
  * Helper class that validates a given document against the DdlUtils schema.
@@ -31,6 +32,31 @@ import javax.xml.validation.Validator;
  * @version $Revision: $
  */
 public class ModelValidator {
+  /**
+   * The compiled DdlUtils schema. Schema objects are immutable and thread-safe, so it is
+   * compiled only once and shared by all validators.
+   */
+  private static Schema _schema;
+
+  /**
+   * Returns the compiled DdlUtils schema, compiling it upon the first call.
+   *
+   * @return The schema
+   * @throws DdlUtilsXMLException If the schema could not be compiled
+   */
+  private static synchronized Schema getSchema() throws DdlUtilsXMLException {
+    if (_schema == null) {
+      try {
+        SchemaFactory factory = SchemaFactory.newInstance("http://www.w3.org/2001/XMLSchema");
+
+        _schema = factory.newSchema(new StreamSource(ModelValidator.class.getResourceAsStream("/database.xsd")));
+      } catch (Exception ex) {
+        throw new DdlUtilsXMLException(ex);
+      }
+    }
+    return _schema;
+  }
+
   /**
    * Validates the given xml document using the Java XML validation framework.
    *
@@ -39,13 +65,25 @@ public class ModelValidator {
    */
   public void validate(Source source) throws DdlUtilsXMLException {
     try {
-      SchemaFactory factory = SchemaFactory.newInstance("http://www.w3.org/2001/XMLSchema");
-      Schema schema = factory.newSchema(new StreamSource(getClass().getResourceAsStream("/database.xsd")));
-      Validator validator = schema.newValidator();
+      Validator validator = getSchema().newValidator();
 
       validator.validate(source);
+    } catch (DdlUtilsXMLException ex) {
+      throw ex;
     } catch (Exception ex) {
       throw new DdlUtilsXMLException(ex);
     }
   }
+
+  /**
+   * Creates a handler that validates the SAX events of a document as they are fed to it.
+   * Validation errors are reported as exceptions from the event methods. Note that the
+   * handler is not thread-safe, so a new one has to be created for every document.
+   *
+   * @return The validator handler
+   * @throws DdlUtilsXMLException If the schema could not be compiled
+   */
+  public ValidatorHandler newValidatorHandler() throws DdlUtilsXMLException {
+    return getSchema().newValidatorHandler();
+  }
 }
@@ -0,0 +1,199 @@
+package org.apache.ddlutils.io;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+import javax.xml.validation.ValidatorHandler;
+
+/**
+ * An XML stream reader that passes every event that it reads on to a validator handler,
+ * so that the document is validated in the same pass in which it is read. Validation
+ * errors are reported as {@link XMLStreamException}s from the method that read the
+ * offending event. Note that the document is only validated completely if it is read
+ * up to its end.
+ *
+ * @version $Revision: $
+ */
+class ValidatingXMLStreamReader extends StreamReaderDelegate {
+  /**
+   * The handler that validates the events.
+   */
+  private final ValidatorHandler _validatorHandler;
+
+  /**
+   * Creates a new validating reader.
+   *
+   * @param reader           The reader to read the events from; must be positioned at the start of the document
+   * @param validatorHandler The handler that validates the events
+   */
+  public ValidatingXMLStreamReader(XMLStreamReader reader, ValidatorHandler validatorHandler) throws XMLStreamException {
+    super(reader);
+    _validatorHandler = validatorHandler;
+    try {
+      _validatorHandler.startDocument();
+    } catch (SAXException ex) {
+      throw new XMLStreamException(ex.getMessage(), getLocation(), ex);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int next() throws XMLStreamException {
+    int eventType = super.next();
+
+    try {
+      switch (eventType) {
+        case START_ELEMENT:
+          startElement();
+          break;
+        case END_ELEMENT:
+          endElement();
+          break;
+        case CHARACTERS:
+        case CDATA:
+        case SPACE:
+          _validatorHandler.characters(getTextCharacters(), getTextStart(), getTextLength());
+          break;
+        case PROCESSING_INSTRUCTION:
+          _validatorHandler.processingInstruction(getPITarget(), getPIData());
+          break;
+        case END_DOCUMENT:
+          _validatorHandler.endDocument();
+          break;
+        default:
+          // comments, DTDs etc. are not relevant for the validation
+          break;
+      }
+    } catch (SAXException ex) {
+      throw new XMLStreamException(ex.getMessage(), getLocation(), ex);
+    }
+    return eventType;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int nextTag() throws XMLStreamException {
+    // we cannot delegate this as the skipped events have to be validated, too
+    int eventType = next();
+
+    while (((eventType == CHARACTERS) && isWhiteSpace()) ||
+      ((eventType == CDATA) && isWhiteSpace()) ||
+      (eventType == SPACE) ||
+      (eventType == PROCESSING_INSTRUCTION) ||
+      (eventType == COMMENT)) {
+      eventType = next();
+    }
+    if ((eventType != START_ELEMENT) && (eventType != END_ELEMENT)) {
+      throw new XMLStreamException("Expected a start or end tag", getLocation());
+    }
+    return eventType;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String getElementText() throws XMLStreamException {
+    // we cannot delegate this as the text events have to be validated, too
+    if (getEventType() != START_ELEMENT) {
+      throw new XMLStreamException("The current event is not a start tag", getLocation());
+    }
+
+    StringBuilder result = new StringBuilder();
+    int eventType = next();
+
+    while (eventType != END_ELEMENT) {
+      if ((eventType == CHARACTERS) || (eventType == CDATA) || (eventType == SPACE) || (eventType == ENTITY_REFERENCE)) {
+        result.append(getText());
+      } else if ((eventType != PROCESSING_INSTRUCTION) && (eventType != COMMENT)) {
+        throw new XMLStreamException("Unexpected event while reading the text of an element", getLocation());
+      }
+      eventType = next();
+    }
+    return result.toString();
+  }
+
+  /**
+   * Passes the current start element event on to the validator handler.
+   */
+  private void startElement() throws SAXException {
+    for (int idx = 0; idx < getNamespaceCount(); idx++) {
+      _validatorHandler.startPrefixMapping(nullToEmpty(getNamespacePrefix(idx)), nullToEmpty(getNamespaceURI(idx)));
+    }
+
+    AttributesImpl attributes = new AttributesImpl();
+
+    for (int idx = 0; idx < getAttributeCount(); idx++) {
+      String localName = getAttributeLocalName(idx);
+
+      attributes.addAttribute(nullToEmpty(getAttributeNamespace(idx)),
+        localName,
+        getQualifiedName(getAttributePrefix(idx), localName),
+        getAttributeType(idx),
+        getAttributeValue(idx));
+    }
+    _validatorHandler.startElement(nullToEmpty(getNamespaceURI()),
+      getLocalName(),
+      getQualifiedName(getPrefix(), getLocalName()),
+      attributes);
+  }
+
+  /**
+   * Passes the current end element event on to the validator handler.
+   */
+  private void endElement() throws SAXException {
+    _validatorHandler.endElement(nullToEmpty(getNamespaceURI()),
+      getLocalName(),
+      getQualifiedName(getPrefix(), getLocalName()));
+    for (int idx = 0; idx < getNamespaceCount(); idx++) {
+      _validatorHandler.endPrefixMapping(nullToEmpty(getNamespacePrefix(idx)));
+    }
+  }
+
+  /**
+   * Returns the qualified name for the given prefix and local name.
+   *
+   * @param prefix    The prefix, can be <code>null</code> or empty
+   * @param localName The local name
+   * @return The qualified name
+   */
+  private String getQualifiedName(String prefix, String localName) {
+    return (prefix == null) || prefix.isEmpty() ? localName : prefix + ":" + localName;
+  }
+
+  /**
+   * Returns the empty string for <code>null</code> values.
+   *
+   * @param value The value
+   * @return The value or the empty string if it is <code>null</code>
+   */
+  private String nullToEmpty(String value) {
+    return value == null ? "" : value;
+  }
+}
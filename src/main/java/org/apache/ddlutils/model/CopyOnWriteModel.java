@@ -0,0 +1,170 @@
+package org.apache.ddlutils.model;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * A working copy of a database model that copies the tables of the source model lazily. Initially,
+ * the working model shares all tables with the source model, and only when a table is about
+ * to be changed (as announced via {@link #prepareTableForChange(String)}), it is replaced in
+ * the working model by a copy (created in the same way as {@link CloneHelper#clone(Database)}
+ * does). Thus, changing a few tables of a large model does not require a copy of the whole
+ * model. Tables can be added to and removed from the working model freely as it has its own
+ * list of tables.<br/>
+ * Note that the foreign keys of shared tables still refer to the source model's version of
+ * a table, even after the table has been copied. Code working with the working model should
+ * thus identify the referenced table of a foreign key by its name.
+ *
+ * @version $Revision: $
+ */
+public class CopyOnWriteModel {
+  /**
+   * The helper for copying the tables.
+   */
+  private final CloneHelper _cloneHelper = new CloneHelper();
+  /**
+   * The working model.
+   */
+  private final Database _model;
+  /**
+   * The tables of the working model that are copies owned by it, and thus can be changed.
+   */
+  private final Set<Table> _ownedTables = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  /**
+   * Creates a new working copy of the given model.
+   *
+   * @param source The source model; this object is not going to be changed by the working copy
+   */
+  public CopyOnWriteModel(Database source) {
+    _model = new Database();
+    _model.setName(source.getName());
+    _model.setIdMethod(source.getIdMethod());
+    _model.setVersion(source.getVersion());
+    _model.addTables(Arrays.asList(source.getTables()));
+  }
+
+  /**
+   * Returns the working model.
+   *
+   * @return The working model
+   */
+  public Database getModel() {
+    return _model;
+  }
+
+  /**
+   * Determines whether the given table of the working model can be changed without affecting
+   * the source model.
+   *
+   * @param table The table
+   * @return <code>true</code> if the table is not shared with the source model
+   */
+  public boolean isOwned(Table table) {
+    return _ownedTables.contains(table);
+  }
+
+  /**
+   * Makes sure that the tables of the given name (compared case-insensitively) can be changed
+   * in the working model without affecting the source model.
+   *
+   * @param tableName The name of the table
+   */
+  public void prepareTableForChange(String tableName) {
+    for (int tableIdx = 0; tableIdx < _model.getTableCount(); tableIdx++) {
+      Table table = _model.getTable(tableIdx);
+
+      if ((table.getName() != null) && table.getName().equalsIgnoreCase(tableName)) {
+        copyTable(tableIdx);
+      }
+    }
+  }
+
+  /**
+   * Makes sure that all tables in the working model can be changed without affecting the
+   * source model.
+   */
+  public void prepareAllTablesForChange() {
+    for (int tableIdx = 0; tableIdx < _model.getTableCount(); tableIdx++) {
+      copyTable(tableIdx);
+    }
+  }
+
+  /**
+   * Replaces the indicated table in the working model with a copy unless it is already owned
+   * by the working model. Tables that are not owned by the working model are never changed.
+   *
+   * @param tableIdx The index of the table in the working model
+   */
+  private void copyTable(int tableIdx) {
+    Table source = _model.getTable(tableIdx);
+
+    if (_ownedTables.contains(source)) {
+      return;
+    }
+
+    Table copy = _cloneHelper.clone(source, true, false, _model, true);
+
+    // we replace the table before copying the foreign keys so that self-references use the copy
+    _model.removeTable(tableIdx);
+    _model.addTable(tableIdx, copy);
+    _ownedTables.add(copy);
+    for (int fkIdx = 0; fkIdx < source.getForeignKeyCount(); fkIdx++) {
+      ForeignKey sourceFk = source.getForeignKey(fkIdx);
+
+      if (_model.findTable(sourceFk.getForeignTableName(), true) != null) {
+        copy.addForeignKey(_cloneHelper.clone(sourceFk, copy, _model, true));
+      } else {
+        copy.addForeignKey(copyUnresolvedForeignKey(sourceFk, copy));
+      }
+    }
+  }
+
+  /**
+   * Copies a foreign key whose foreign table is not (or no longer) part of the working model.
+   * The copy refers to the foreign table and columns by name only.
+   *
+   * @param source     The foreign key
+   * @param localTable The table that owns the copy
+   * @return The copy
+   */
+  private ForeignKey copyUnresolvedForeignKey(ForeignKey source, Table localTable) {
+    ForeignKey result = new ForeignKey();
+
+    result.setName(source.getName());
+    result.setForeignTableName(source.getForeignTableName());
+    result.setAutoIndexPresent(source.isAutoIndexPresent());
+    result.setOnDelete(source.getOnDelete());
+    result.setOnUpdate(source.getOnUpdate());
+    for (int refIdx = 0; refIdx < source.getReferenceCount(); refIdx++) {
+      Reference sourceRef = source.getReference(refIdx);
+      Reference ref = new Reference();
+
+      ref.setLocalColumn(localTable.findColumn(sourceRef.getLocalColumnName(), true));
+      ref.setForeignColumnName(sourceRef.getForeignColumnName());
+      result.addReference(ref);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,329 @@
+package org.apache.ddlutils.platform;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+import org.apache.ddlutils.alteration.ModelChange;
+import org.apache.ddlutils.model.Database;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The result of planning the alteration of a database model (see
+ * {@link org.apache.ddlutils.Platform#planAlteration(Database, Database)}). It contains the
+ * changes that will be performed, and for each of them the strategy that will be used and
+ * the estimated number of rows that it touches. The plan can be executed via
+ * {@link org.apache.ddlutils.Platform#alterModel(AlterationPlan, CreationParameters, boolean)},
+ * or it can be used as a dry run by only printing its {@link #getReport() report}.
+ *
+ * @version $Revision: $
+ */
+public class AlterationPlan {
+  /**
+   * The strategies for performing a change.
+   */
+  public enum Strategy {
+    /**
+     * The table is created.
+     */
+    CREATE,
+    /**
+     * The table is dropped.
+     */
+    DROP,
+    /**
+     * The change is performed directly on the table, e.g. via an <code>ALTER TABLE</code> statement.
+     */
+    IN_PLACE,
+    /**
+     * The table is recreated, and its data is copied via a temporary table.
+     */
+    RECREATE,
+    /**
+     * The table is recreated while it stays accessible, and its data is copied to a shadow table.
+     */
+    ONLINE_RECREATE
+  }
+
+  /**
+   * A change of the plan together with the chosen strategy and its estimated cost.
+   */
+  public static class Step {
+    /**
+     * The change.
+     */
+    private final ModelChange _change;
+    /**
+     * The name of the changed table, if any.
+     */
+    private final String _tableName;
+    /**
+     * The strategy.
+     */
+    private final Strategy _strategy;
+    /**
+     * The estimated number of rows touched by the change.
+     */
+    private final long _rowsTouched;
+    /**
+     * The estimated cost of the change.
+     */
+    private final long _cost;
+
+    /**
+     * Creates a new step.
+     *
+     * @param change      The change
+     * @param tableName   The name of the changed table, or <code>null</code>
+     * @param strategy    The strategy
+     * @param rowsTouched The estimated number of rows touched, or {@link TableStatistics#UNKNOWN}
+     * @param cost        The estimated cost, or {@link TableStatistics#UNKNOWN}
+     */
+    public Step(ModelChange change, String tableName, Strategy strategy, long rowsTouched, long cost) {
+      _change = change;
+      _tableName = tableName;
+      _strategy = strategy;
+      _rowsTouched = rowsTouched;
+      _cost = cost;
+    }
+
+    /**
+     * Returns the change.
+     *
+     * @return The change
+     */
+    public ModelChange getChange() {
+      return _change;
+    }
+
+    /**
+     * Returns the name of the changed table.
+     *
+     * @return The table name, or <code>null</code> if the change does not affect a single table
+     */
+    public String getTableName() {
+      return _tableName;
+    }
+
+    /**
+     * Returns the strategy used for the change.
+     *
+     * @return The strategy
+     */
+    public Strategy getStrategy() {
+      return _strategy;
+    }
+
+    /**
+     * Returns the estimated number of rows touched by the change.
+     *
+     * @return The number of rows, or {@link TableStatistics#UNKNOWN}
+     */
+    public long getRowsTouched() {
+      return _rowsTouched;
+    }
+
+    /**
+     * Returns the estimated cost of the change in row operations, which includes the
+     * maintenance of the indexes.
+     *
+     * @return The cost, or {@link TableStatistics#UNKNOWN}
+     */
+    public long getCost() {
+      return _cost;
+    }
+  }
+
+  /**
+   * The current model.
+   */
+  private final Database _currentModel;
+  /**
+   * The desired model.
+   */
+  private final Database _desiredModel;
+  /**
+   * The changes in the order in which they are performed.
+   */
+  private final List<ModelChange> _changes;
+  /**
+   * The steps, one per change.
+   */
+  private final List<Step> _steps;
+  /**
+   * The statistics of the changed tables, keyed by the table name.
+   */
+  private final Map<String, TableStatistics> _statistics;
+
+  /**
+   * Creates a new plan.
+   *
+   * @param currentModel The current model
+   * @param desiredModel The desired model
+   * @param changes      The changes
+   * @param steps        The steps, one per change
+   * @param statistics   The statistics of the changed tables
+   */
+  public AlterationPlan(Database currentModel,
+                        Database desiredModel,
+                        List<ModelChange> changes,
+                        List<Step> steps,
+                        Map<String, TableStatistics> statistics) {
+    _currentModel = currentModel;
+    _desiredModel = desiredModel;
+    _changes = Collections.unmodifiableList(changes);
+    _steps = Collections.unmodifiableList(steps);
+    _statistics = Collections.unmodifiableMap(statistics);
+  }
+
+  /**
+   * Returns the current model.
+   *
+   * @return The current model
+   */
+  public Database getCurrentModel() {
+    return _currentModel;
+  }
+
+  /**
+   * Returns the desired model.
+   *
+   * @return The desired model
+   */
+  public Database getDesiredModel() {
+    return _desiredModel;
+  }
+
+  /**
+   * Returns the changes in the order in which they will be performed.
+   *
+   * @return The changes
+   */
+  public List<ModelChange> getChanges() {
+    return _changes;
+  }
+
+  /**
+   * Returns the steps of the plan.
+   *
+   * @return The steps, one per change
+   */
+  public List<Step> getSteps() {
+    return _steps;
+  }
+
+  /**
+   * Returns the statistics of the given table.
+   *
+   * @param tableName The name of the table
+   * @return The statistics, or <code>null</code> if none were collected for the table
+   */
+  public TableStatistics getStatistics(String tableName) {
+    return _statistics.get(tableName);
+  }
+
+  /**
+   * Returns the estimated total cost of the plan. Changes with unknown cost are not included.
+   *
+   * @return The cost in row operations
+   */
+  public long getEstimatedCost() {
+    long result = 0;
+
+    for (Step step : _steps) {
+      if (step.getCost() != TableStatistics.UNKNOWN) {
+        result += step.getCost();
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Determines whether the cost of some changes is unknown because there are no statistics
+   * for the affected tables.
+   *
+   * @return <code>true</code> if the cost of at least one change is unknown
+   */
+  public boolean hasUnknownCosts() {
+    for (Step step : _steps) {
+      if (step.getCost() == TableStatistics.UNKNOWN) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns a human-readable description of the plan, listing the changes together with
+   * their strategies and estimated costs.
+   *
+   * @return The report
+   */
+  public String getReport() {
+    StringBuilder result = new StringBuilder();
+
+    result.append("Alteration plan for database ");
+    result.append(_desiredModel.getName());
+    result.append(": ");
+    result.append(_steps.size());
+    result.append(" change(s), estimated cost ");
+    result.append(getEstimatedCost());
+    result.append(" row operation(s)");
+    if (hasUnknownCosts()) {
+      result.append(" plus changes of unknown cost");
+    }
+    result.append('\n');
+    for (Step step : _steps) {
+      TableStatistics statistics = step.getTableName() == null ? null : getStatistics(step.getTableName());
+
+      result.append("  ");
+      result.append(step.getStrategy());
+      result.append(' ');
+      result.append(step.getChange().getClass().getSimpleName());
+      if (step.getTableName() != null) {
+        result.append(" on table ");
+        result.append(step.getTableName());
+      }
+      if (statistics != null) {
+        result.append(" (");
+        result.append(statistics);
+        result.append(')');
+      }
+      result.append(": rows touched ");
+      result.append(formatEstimate(step.getRowsTouched()));
+      result.append(", cost ");
+      result.append(formatEstimate(step.getCost()));
+      result.append('\n');
+    }
+    return result.toString();
+  }
+
+  /**
+   * Formats an estimated value for the report.
+   *
+   * @param value The value
+   * @return The formatted value
+   */
+  private static String formatEstimate(long value) {
+    return value == TableStatistics.UNKNOWN ? "?" : String.valueOf(value);
+  }
+}
@@ -0,0 +1,357 @@
+package org.apache.ddlutils.platform;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+import org.apache.ddlutils.alteration.AddColumnChange;
+import org.apache.ddlutils.alteration.AddForeignKeyChange;
+import org.apache.ddlutils.alteration.AddIndexChange;
+import org.apache.ddlutils.alteration.AddPrimaryKeyChange;
+import org.apache.ddlutils.alteration.AddTableChange;
+import org.apache.ddlutils.alteration.ColumnDefinitionChange;
+import org.apache.ddlutils.alteration.ColumnOrderChange;
+import org.apache.ddlutils.alteration.ModelChange;
+import org.apache.ddlutils.alteration.PrimaryKeyChange;
+import org.apache.ddlutils.alteration.RecreateTableChange;
+import org.apache.ddlutils.alteration.RemoveColumnChange;
+import org.apache.ddlutils.alteration.RemoveTableChange;
+import org.apache.ddlutils.alteration.TableChange;
+import org.apache.ddlutils.alteration.TableDefinitionChangesPredicate;
+import org.apache.ddlutils.model.Column;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.Table;
+import org.apache.ddlutils.platform.AlterationPlan.Step;
+import org.apache.ddlutils.platform.AlterationPlan.Strategy;
+import org.apache.ddlutils.util.Log;
+import org.apache.ddlutils.util.LogFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Plans the alteration of a database model based on cheap statistics of the affected tables.
+ * The planner estimates for every table whose definition changes how many rows the changes
+ * touch when performed in place, and compares this to the cost of recreating the table.
+ * Small tables are recreated when this is cheaper, whereas large tables and tables without
+ * statistics are always altered in place where the platform supports it, as recreating
+ * them would copy all of their data. The cost model counts row operations, where writing
+ * a row into a table counts once for the table and once for every index of the table.
+ *
+ * @version $Revision: $
+ */
+public class AlterationPlanner {
+  /**
+   * The default number of rows from which on a table is considered large.
+   */
+  public static final long DEFAULT_LARGE_TABLE_ROW_COUNT = 100000;
+
+  /**
+   * The log for this planner.
+   */
+  private final Log _log = LogFactory.getLog(getClass());
+  /**
+   * The platform.
+   */
+  private final PlatformImplBase _platform;
+  /**
+   * The number of rows from which on a table is considered large.
+   */
+  private long _largeTableRowCount = DEFAULT_LARGE_TABLE_ROW_COUNT;
+
+  /**
+   * Creates a new planner for the given platform.
+   *
+   * @param platform The platform
+   */
+  public AlterationPlanner(PlatformImplBase platform) {
+    _platform = platform;
+  }
+
+  /**
+   * Returns the number of rows from which on a table is considered large and thus is never
+   * recreated unless the platform cannot alter it in place.
+   *
+   * @return The row count
+   */
+  public long getLargeTableRowCount() {
+    return _largeTableRowCount;
+  }
+
+  /**
+   * Specifies the number of rows from which on a table is considered large and thus is never
+   * recreated unless the platform cannot alter it in place.
+   *
+   * @param largeTableRowCount The row count
+   */
+  public void setLargeTableRowCount(long largeTableRowCount) {
+    if (largeTableRowCount < 0) {
+      throw new IllegalArgumentException("The large table row count must not be negative");
+    }
+    _largeTableRowCount = largeTableRowCount;
+  }
+
+  /**
+   * Reads the statistics of the tables of the current model that are affected by the given
+   * changes. Tables whose statistics cannot be read are recorded with unknown statistics.
+   *
+   * @param connection   The connection to the database
+   * @param currentModel The current model
+   * @param changes      The changes
+   * @return The statistics keyed by the table name
+   */
+  public Map<String, TableStatistics> readStatistics(Connection connection, Database currentModel, List<ModelChange> changes) {
+    Map<String, TableStatistics> result = createStatisticsMap();
+
+    for (ModelChange change : changes) {
+      if (!(change instanceof TableChange) || (change instanceof AddTableChange) || (change instanceof RemoveTableChange)) {
+        continue;
+      }
+
+      String tableName = ((TableChange) change).getChangedTable();
+      Table table = currentModel.findTable(tableName, _platform.isDelimitedIdentifierModeOn());
+
+      if ((table == null) || result.containsKey(tableName)) {
+        continue;
+      }
+      try {
+        result.put(tableName, _platform.readTableStatistics(connection, table));
+      } catch (SQLException ex) {
+        _log.warn("Could not read the statistics of table " + tableName, ex);
+        result.put(tableName, new TableStatistics(TableStatistics.UNKNOWN, TableStatistics.UNKNOWN, (int) TableStatistics.UNKNOWN));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Creates the map for the table statistics, which uses the same case sensitivity for the
+   * table names as the platform.
+   *
+   * @return The map
+   */
+  public Map<String, TableStatistics> createStatisticsMap() {
+    return _platform.isDelimitedIdentifierModeOn() ? new HashMap<>() : new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+  }
+
+  /**
+   * Creates the predicate that decides whether the definition changes of a table are performed
+   * in place or by recreating the table. Changes that the platform does not support in place
+   * always lead to a recreation.
+   *
+   * @param platformPredicate The predicate of the platform, can be <code>null</code> if the
+   *                          platform supports all changes
+   * @param statistics        The statistics of the tables
+   * @return The predicate
+   */
+  public TableDefinitionChangesPredicate createPredicate(TableDefinitionChangesPredicate platformPredicate, Map<String, TableStatistics> statistics) {
+    return (intermediateTable, changes) -> {
+      if ((platformPredicate != null) && !platformPredicate.areSupported(intermediateTable, changes)) {
+        return false;
+      }
+
+      TableStatistics tableStatistics = statistics.get(intermediateTable.getName());
+
+      if (isLargeTable(tableStatistics)) {
+        return true;
+      }
+
+      long inPlaceCost = 0;
+
+      for (TableChange change : changes) {
+        inPlaceCost += estimateInPlaceCost(intermediateTable, change, tableStatistics);
+      }
+
+      long recreateCost = estimateRecreateCost(intermediateTable, tableStatistics);
+
+      if (inPlaceCost > recreateCost) {
+        _log.info("Recreating table " + intermediateTable.getName() + " as this is estimated to be cheaper (" +
+          recreateCost + " instead of " + inPlaceCost + " row operations)");
+        return false;
+      }
+      return true;
+    };
+  }
+
+  /**
+   * Creates the plan for the given changes.
+   *
+   * @param currentModel The current model
+   * @param desiredModel The desired model
+   * @param changes      The changes in the order in which they will be performed
+   * @param statistics   The statistics of the tables
+   * @return The plan
+   */
+  public AlterationPlan createPlan(Database currentModel, Database desiredModel, List<ModelChange> changes, Map<String, TableStatistics> statistics) {
+    List<Step> steps = new ArrayList<>();
+
+    for (ModelChange change : changes) {
+      steps.add(createStep(currentModel, change, statistics));
+    }
+    return new AlterationPlan(currentModel, desiredModel, changes, steps, statistics);
+  }
+
+  /**
+   * Creates the plan step for the given change.
+   *
+   * @param currentModel The current model
+   * @param change       The change
+   * @param statistics   The statistics of the tables
+   * @return The step
+   */
+  protected Step createStep(Database currentModel, ModelChange change, Map<String, TableStatistics> statistics) {
+    if (change instanceof AddTableChange) {
+      return new Step(change, ((AddTableChange) change).getNewTable().getName(), Strategy.CREATE, 0, 0);
+    } else if (!(change instanceof TableChange)) {
+      return new Step(change, null, Strategy.IN_PLACE, 0, 0);
+    }
+
+    String tableName = ((TableChange) change).getChangedTable();
+    Table table = currentModel.findTable(tableName, _platform.isDelimitedIdentifierModeOn());
+    TableStatistics tableStatistics = statistics.get(tableName);
+
+    if (change instanceof RemoveTableChange) {
+      return new Step(change, tableName, Strategy.DROP, 0, 0);
+    } else if (change instanceof RecreateTableChange) {
+      RecreateTableChange recreateChange = (RecreateTableChange) change;
+      boolean online = _platform.isOnlineTableAlterationOn() && (table != null) &&
+        _platform.canAlterTableOnline(table, recreateChange.getTargetTable());
+      long rowCount = getRowCount(tableStatistics);
+
+      if (online) {
+        return new Step(change,
+          tableName,
+          Strategy.ONLINE_RECREATE,
+          rowCount,
+          estimateOnlineRecreateCost(recreateChange.getTargetTable(), tableStatistics));
+      } else {
+        return new Step(change,
+          tableName,
+          Strategy.RECREATE,
+          rowCount == TableStatistics.UNKNOWN ? TableStatistics.UNKNOWN : 2 * rowCount,
+          estimateRecreateCost(recreateChange.getTargetTable(), tableStatistics));
+      }
+    } else {
+      long cost = table == null ? TableStatistics.UNKNOWN : estimateInPlaceCost(table, (TableChange) change, tableStatistics);
+
+      return new Step(change, tableName, Strategy.IN_PLACE, cost, cost);
+    }
+  }
+
+  /**
+   * Determines whether the table with the given statistics is considered large. Tables of
+   * unknown size are considered large, too.
+   *
+   * @param statistics The statistics of the table, can be <code>null</code>
+   * @return <code>true</code> if the table is large
+   */
+  protected boolean isLargeTable(TableStatistics statistics) {
+    return (statistics == null) || !statistics.isRowCountKnown() || (statistics.getRowCount() >= _largeTableRowCount);
+  }
+
+  /**
+   * Estimates the cost of performing the given change in place.
+   *
+   * @param table      The table
+   * @param change     The change
+   * @param statistics The statistics of the table, can be <code>null</code>
+   * @return The cost in row operations, or {@link TableStatistics#UNKNOWN}
+   */
+  protected long estimateInPlaceCost(Table table, TableChange change, TableStatistics statistics) {
+    long rowCount = getRowCount(statistics);
+
+    if (rowCount == TableStatistics.UNKNOWN) {
+      return TableStatistics.UNKNOWN;
+    }
+    if (change instanceof AddColumnChange) {
+      Column column = ((AddColumnChange) change).getNewColumn();
+
+      // a nullable column without default value only changes the table's metadata
+      return column.isRequired() || (column.getDefaultValue() != null) ? rowCount : 0;
+    } else if ((change instanceof RemoveColumnChange) ||
+      (change instanceof ColumnDefinitionChange) ||
+      (change instanceof ColumnOrderChange) ||
+      (change instanceof AddIndexChange) ||
+      (change instanceof AddForeignKeyChange) ||
+      (change instanceof AddPrimaryKeyChange) ||
+      (change instanceof PrimaryKeyChange)) {
+      return rowCount;
+    } else {
+      // removing constraints and indexes does not touch the rows
+      return 0;
+    }
+  }
+
+  /**
+   * Estimates the cost of recreating the table, i.e. of copying its rows into a temporary
+   * table and from there into the recreated table including its indexes.
+   *
+   * @param table      The table
+   * @param statistics The statistics of the table, can be <code>null</code>
+   * @return The cost in row operations, or {@link TableStatistics#UNKNOWN}
+   */
+  protected long estimateRecreateCost(Table table, TableStatistics statistics) {
+    long rowCount = getRowCount(statistics);
+
+    return rowCount == TableStatistics.UNKNOWN ? TableStatistics.UNKNOWN : rowCount * (2 + getIndexCount(table, statistics));
+  }
+
+  /**
+   * Estimates the cost of recreating the table online, i.e. of copying its rows once into
+   * the shadow table including its indexes.
+   *
+   * @param table      The table
+   * @param statistics The statistics of the table, can be <code>null</code>
+   * @return The cost in row operations, or {@link TableStatistics#UNKNOWN}
+   */
+  protected long estimateOnlineRecreateCost(Table table, TableStatistics statistics) {
+    long rowCount = getRowCount(statistics);
+
+    return rowCount == TableStatistics.UNKNOWN ? TableStatistics.UNKNOWN : rowCount * (1 + getIndexCount(table, statistics));
+  }
+
+  /**
+   * Returns the row count from the given statistics.
+   *
+   * @param statistics The statistics, can be <code>null</code>
+   * @return The row count, or {@link TableStatistics#UNKNOWN}
+   */
+  private long getRowCount(TableStatistics statistics) {
+    return statistics == null ? TableStatistics.UNKNOWN : statistics.getRowCount();
+  }
+
+  /**
+   * Returns the number of indexes of the table, preferring the statistics over the model.
+   *
+   * @param table      The table
+   * @param statistics The statistics, can be <code>null</code>
+   * @return The index count
+   */
+  private int getIndexCount(Table table, TableStatistics statistics) {
+    if ((statistics != null) && (statistics.getIndexCount() != TableStatistics.UNKNOWN)) {
+      return statistics.getIndexCount();
+    }
+    return table.getIndexCount() + (table.hasPrimaryKey() ? 1 : 0);
+  }
+}
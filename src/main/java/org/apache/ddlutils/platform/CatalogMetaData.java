@@ -0,0 +1,181 @@
+package org.apache.ddlutils.platform;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds the metadata of a whole schema as read by a few platform-specific catalog queries.
+ * The individual rows are maps of the same form that the {@link JdbcModelReader} creates
+ * from the {@link java.sql.DatabaseMetaData} result sets (as defined by the
+ * <code>getColumnsForXXX</code> methods), so that the normal <code>readTable</code>,
+ * <code>readColumn</code>, <code>readForeignKey</code> and <code>readIndex</code>
+ * methods can process them unchanged.
+ *
+ * @version $Revision: $
+ */
+public class CatalogMetaData {
+  /**
+   * The table rows in the order in which they were added.
+   */
+  private final List<Map<String, Object>> _tables = new ArrayList<>();
+  /**
+   * The column rows per table name.
+   */
+  private final Map<String, List<Map<String, Object>>> _columns = new HashMap<>();
+  /**
+   * The primary key rows per table name.
+   */
+  private final Map<String, List<Map<String, Object>>> _primaryKeys = new HashMap<>();
+  /**
+   * The foreign key rows per (local) table name.
+   */
+  private final Map<String, List<Map<String, Object>>> _foreignKeys = new HashMap<>();
+  /**
+   * The index rows per table name.
+   */
+  private final Map<String, List<Map<String, Object>>> _indices = new HashMap<>();
+
+  /**
+   * Adds a table row.
+   *
+   * @param values The table metadata values as defined by {@link JdbcModelReader#getColumnsForTable()}
+   */
+  public void addTable(Map<String, Object> values) {
+    _tables.add(values);
+  }
+
+  /**
+   * Returns the table rows.
+   *
+   * @return The table rows
+   */
+  public List<Map<String, Object>> getTables() {
+    return _tables;
+  }
+
+  /**
+   * Adds a column row.
+   *
+   * @param tableName The name of the table that the column belongs to
+   * @param values    The column metadata values as defined by {@link JdbcModelReader#getColumnsForColumn()}
+   */
+  public void addColumn(String tableName, Map<String, Object> values) {
+    add(_columns, tableName, values);
+  }
+
+  /**
+   * Returns the column rows of the indicated table.
+   *
+   * @param tableName The name of the table
+   * @return The column rows, in column order
+   */
+  public List<Map<String, Object>> getColumns(String tableName) {
+    return get(_columns, tableName);
+  }
+
+  /**
+   * Adds a primary key row.
+   *
+   * @param tableName The name of the table that the primary key belongs to
+   * @param values    The primary key metadata values as defined by {@link JdbcModelReader#getColumnsForPK()}
+   */
+  public void addPrimaryKey(String tableName, Map<String, Object> values) {
+    add(_primaryKeys, tableName, values);
+  }
+
+  /**
+   * Returns the primary key rows of the indicated table.
+   *
+   * @param tableName The name of the table
+   * @return The primary key rows
+   */
+  public List<Map<String, Object>> getPrimaryKeys(String tableName) {
+    return get(_primaryKeys, tableName);
+  }
+
+  /**
+   * Adds a foreign key row.
+   *
+   * @param tableName The name of the table that the foreign key is defined on
+   * @param values    The foreign key metadata values as defined by {@link JdbcModelReader#getColumnsForFK()}
+   */
+  public void addForeignKey(String tableName, Map<String, Object> values) {
+    add(_foreignKeys, tableName, values);
+  }
+
+  /**
+   * Returns the foreign key rows of the indicated table.
+   *
+   * @param tableName The name of the table
+   * @return The foreign key rows
+   */
+  public List<Map<String, Object>> getForeignKeys(String tableName) {
+    return get(_foreignKeys, tableName);
+  }
+
+  /**
+   * Adds an index row.
+   *
+   * @param tableName The name of the table that the index is defined on
+   * @param values    The index metadata values as defined by {@link JdbcModelReader#getColumnsForIndex()}
+   */
+  public void addIndex(String tableName, Map<String, Object> values) {
+    add(_indices, tableName, values);
+  }
+
+  /**
+   * Returns the index rows of the indicated table.
+   *
+   * @param tableName The name of the table
+   * @return The index rows
+   */
+  public List<Map<String, Object>> getIndices(String tableName) {
+    return get(_indices, tableName);
+  }
+
+  /**
+   * Adds a row to the per-table rows.
+   *
+   * @param rowsPerTable The rows per table name
+   * @param tableName    The table name
+   * @param values       The row
+   */
+  private void add(Map<String, List<Map<String, Object>>> rowsPerTable, String tableName, Map<String, Object> values) {
+    rowsPerTable.computeIfAbsent(tableName, name -> new ArrayList<>()).add(values);
+  }
+
+  /**
+   * Returns the rows of a table.
+   *
+   * @param rowsPerTable The rows per table name
+   * @param tableName    The table name
+   * @return The rows, an empty list if there are none
+   */
+  private List<Map<String, Object>> get(Map<String, List<Map<String, Object>>> rowsPerTable, String tableName) {
+    List<Map<String, Object>> rows = rowsPerTable.get(tableName);
+
+    return rows == null ? Collections.emptyList() : rows;
+  }
+}
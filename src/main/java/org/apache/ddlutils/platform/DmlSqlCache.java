@@ -0,0 +1,259 @@
+package org.apache.ddlutils.platform;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.data.ColumnProperty;
+import org.apache.ddlutils.data.TableClass;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Caches the SQL of the row-level data manipulation statements (insert, update, delete and
+ * existence checks) of a platform, so that the SQL only has to be generated for the first row
+ * of a given shape. The templates are keyed by the table class and the set of columns that
+ * the statement includes. The cache only holds weak references to the table classes, so that
+ * it does not keep database models alive. Note that the templates assume that the table of
+ * a table class is not changed anymore once rows of it have been written.
+ *
+ * @version $Revision: $
+ */
+public class DmlSqlCache {
+  /**
+   * The kinds of statements.
+   */
+  public enum StatementType {
+    /**
+     * An insert statement.
+     */
+    INSERT,
+    /**
+     * An update statement whose primary key values are taken from the same row as the new values.
+     */
+    UPDATE,
+    /**
+     * An update statement whose primary key values are taken from the old version of the row.
+     */
+    UPDATE_FROM_OLD_ROW,
+    /**
+     * A delete statement.
+     */
+    DELETE,
+    /**
+     * A query that checks whether a row exists.
+     */
+    EXISTS,
+    /**
+     * A statement that inserts a row or updates it if it already exists.
+     */
+    UPSERT
+  }
+
+  /**
+   * The SQL of a prepared statement together with the properties whose values
+   * have to be bound to its parameters.
+   */
+  public static class SqlTemplate {
+    /**
+     * The SQL.
+     */
+    private final String _sql;
+    /**
+     * The properties in the order of the statement parameters.
+     */
+    private final ColumnProperty[] _parameters;
+
+    /**
+     * Creates a new template.
+     *
+     * @param sql        The SQL
+     * @param parameters The properties in the order of the statement parameters
+     */
+    public SqlTemplate(String sql, ColumnProperty[] parameters) {
+      _sql = sql;
+      _parameters = parameters;
+    }
+
+    /**
+     * Returns the SQL.
+     *
+     * @return The SQL
+     */
+    public String getSql() {
+      return _sql;
+    }
+
+    /**
+     * Returns the properties in the order of the statement parameters.
+     *
+     * @return The properties; must not be modified
+     */
+    public ColumnProperty[] getParameters() {
+      return _parameters;
+    }
+  }
+
+  /**
+   * The key of a template for a table class.
+   */
+  private static class TemplateKey {
+    /**
+     * The kind of statement.
+     */
+    private final StatementType _type;
+    /**
+     * The indices of the included properties.
+     */
+    private final BitSet _properties;
+
+    /**
+     * Creates a new key.
+     *
+     * @param type       The kind of statement
+     * @param properties The indices of the included properties
+     */
+    TemplateKey(StatementType type, BitSet properties) {
+      _type = type;
+      _properties = properties;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof TemplateKey)) {
+        return false;
+      }
+
+      TemplateKey other = (TemplateKey) obj;
+
+      return (_type == other._type) && _properties.equals(other._properties);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+      return 31 * _type.hashCode() + _properties.hashCode();
+    }
+  }
+
+  /**
+   * The templates per table class.
+   */
+  private final Map<TableClass, Map<TemplateKey, SqlTemplate>> _templates = Collections.synchronizedMap(new WeakHashMap<>());
+
+  /**
+   * Returns the template for the given kind of statement that includes the given properties of the
+   * table class, and creates it if necessary.
+   *
+   * @param type       The kind of statement
+   * @param tableClass The table class
+   * @param properties The included properties, in the order of the properties of the table class
+   * @param parameters The properties in the order of the statement parameters; only used when
+   *                   the template is created
+   * @param sqlFactory Generates the SQL when the template is created
+   * @return The template
+   */
+  public SqlTemplate getTemplate(StatementType type,
+                                 TableClass tableClass,
+                                 ColumnProperty[] properties,
+                                 Supplier<ColumnProperty[]> parameters,
+                                 Supplier<String> sqlFactory) {
+    return getTemplate(type, tableClass, properties, () -> new SqlTemplate(sqlFactory.get(), parameters.get()));
+  }
+
+  /**
+   * Returns the template for the given kind of statement that includes the given properties of the
+   * table class, and creates it if necessary. This variant is intended for statements whose
+   * parameters are only known once the SQL has been generated.
+   *
+   * @param type            The kind of statement
+   * @param tableClass      The table class
+   * @param properties      The included properties, in the order of the properties of the table class
+   * @param templateFactory Creates the template
+   * @return The template
+   */
+  public SqlTemplate getTemplate(StatementType type,
+                                 TableClass tableClass,
+                                 ColumnProperty[] properties,
+                                 Supplier<SqlTemplate> templateFactory) {
+    BitSet bitmap = getPropertyBitmap(tableClass, properties);
+
+    if (bitmap == null) {
+      // properties that don't belong to the table class cannot be represented by the key
+      return templateFactory.get();
+    }
+
+    Map<TemplateKey, SqlTemplate> templates = _templates.computeIfAbsent(tableClass, key -> new ConcurrentHashMap<>());
+
+    return templates.computeIfAbsent(new TemplateKey(type, bitmap), key -> templateFactory.get());
+  }
+
+  /**
+   * Removes all templates, e.g. because a setting of the platform that affects the SQL changed.
+   */
+  public void clear() {
+    _templates.clear();
+  }
+
+  /**
+   * Determines the indices of the given properties within the properties of the table class.
+   *
+   * @param tableClass The table class
+   * @param properties The properties
+   * @return The indices, or <code>null</code> if a property does not belong to the table class
+   */
+  private BitSet getPropertyBitmap(TableClass tableClass, ColumnProperty[] properties) {
+    ColumnProperty[] allProperties = tableClass.getProperties();
+    BitSet result = new BitSet(allProperties.length);
+    int propIdx = 0;
+
+    // the properties are usually a subsequence of the properties of the table class, so
+    // we can determine the indices in one pass
+    for (int idx = 0; (idx < allProperties.length) && (propIdx < properties.length); idx++) {
+      if (allProperties[idx] == properties[propIdx]) {
+        result.set(idx);
+        propIdx++;
+      }
+    }
+    if (propIdx < properties.length) {
+      result.clear();
+      for (ColumnProperty property : properties) {
+        int idx = 0;
+
+        while ((idx < allProperties.length) && (allProperties[idx] != property)) {
+          idx++;
+        }
+        if (idx == allProperties.length) {
+          return null;
+        }
+        result.set(idx);
+      }
+    }
+    return result;
+  }
+}
@@ -38,6 +38,7 @@ import org.apache.ddlutils.util.StringUtils;
 
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
@@ -45,10 +46,13 @@ import java.sql.Statement;
 import java.sql.Types;
 import java.text.Collator;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * A utility class to create a Database model from a live database.
@@ -114,6 +118,27 @@ public class JdbcModelReader {
    * The active connection while reading a database model.
    */
   private Connection _connection;
+  /**
+   * Whether to read the metadata via platform-specific catalog queries if the reader supports them.
+   */
+  private boolean _catalogQueriesUsed;
+  /**
+   * The metadata read via catalog queries while reading a database model.
+   */
+  private CatalogMetaData _catalogMetaData;
+  /**
+   * The names of the auto-increment columns per table name as read by
+   * {@link #readAutoIncrementColumns(DatabaseMetaDataWrapper)} while reading a database model.
+   */
+  private Map<String, Set<String>> _autoIncrementColumns;
+  /**
+   * Whether the auto-increment columns have already been read while reading a database model.
+   */
+  private boolean _autoIncrementColumnsRead;
+  /**
+   * The cache for the read schemas, if any.
+   */
+  private SchemaCache _schemaCache;
 
   /**
    * Creates a new model reader instance.
@@ -389,6 +414,49 @@ public class JdbcModelReader {
     }
   }
 
+  /**
+   * Determines whether the reader reads the metadata of the whole schema with a few
+   * platform-specific catalog queries instead of issuing the {@link DatabaseMetaData}
+   * calls for every single table. Readers that have no such queries ignore this setting.
+   *
+   * @return <code>true</code> if catalog queries are used when available
+   */
+  public boolean isCatalogQueriesUsed() {
+    return _catalogQueriesUsed;
+  }
+
+  /**
+   * Specifies whether the reader shall read the metadata of the whole schema with a few
+   * platform-specific catalog queries instead of issuing the {@link DatabaseMetaData}
+   * calls for every single table.
+   *
+   * @param catalogQueriesUsed <code>true</code> if catalog queries shall be used when available
+   */
+  public void setCatalogQueriesUsed(boolean catalogQueriesUsed) {
+    _catalogQueriesUsed = catalogQueriesUsed;
+  }
+
+  /**
+   * Returns the cache that holds snapshots of the read schemas.
+   *
+   * @return The schema cache or <code>null</code> if schemas are not cached
+   */
+  public SchemaCache getSchemaCache() {
+    return _schemaCache;
+  }
+
+  /**
+   * Sets the cache that holds snapshots of the read schemas. If set, the reader only reads
+   * the tables that changed since the last time that the same schema was read, provided
+   * that the reader can determine the changed tables for the platform (see
+   * {@link #readTableChangeTokens(DatabaseMetaDataWrapper)}).
+   *
+   * @param schemaCache The schema cache or <code>null</code> if schemas shall not be cached
+   */
+  public void setSchemaCache(SchemaCache schemaCache) {
+    _schemaCache = schemaCache;
+  }
+
   /**
    * Returns the descriptors for the columns to be read from the table metadata result set.
    *
@@ -516,28 +584,153 @@ public class JdbcModelReader {
       metaData.setSchemaPattern(schemaPattern == null ? getDefaultSchemaPattern() : schemaPattern);
       metaData.setTableTypes((tableTypes == null) || (tableTypes.length == 0) ? getDefaultTableTypes() : tableTypes);
 
-      tableData = metaData.getTables(getDefaultTablePattern());
-
       List<Table> tables = new ArrayList<>();
+      Map<String, Table> unchangedTables = new HashMap<>();
+      Map<String, String> changeTokens = null;
+      String cacheKey = null;
+
+      if (_schemaCache != null) {
+        try {
+          changeTokens = readTableChangeTokens(metaData);
+        } catch (SQLException ex) {
+          _log.warn("Could not read the table change tokens, the schema cache is not used", ex);
+        }
+        if (changeTokens != null) {
+          cacheKey = _schemaCache.createKey(_connection.getMetaData().getURL(),
+            _connection.getMetaData().getUserName(),
+            metaData.getCatalog(),
+            metaData.getSchemaPattern(),
+            getDefaultTablePattern(),
+            metaData.getTableTypes());
+
+          SchemaCache.Snapshot snapshot = _schemaCache.load(cacheKey);
+
+          if (snapshot != null) {
+            if (changeTokens.equals(snapshot.getChangeTokens())) {
+              // nothing has changed since the snapshot was taken
+              tables.addAll(Arrays.asList(snapshot.getModel().getTables()));
+              sortTables(tables);
+              return tables;
+            }
+            for (Table table : snapshot.getModel().getTables()) {
+              String changeToken = changeTokens.get(table.getName());
 
-      while (tableData.next()) {
-        Map<String, Object> values = readColumns(tableData, getColumnsForTable());
-        Table table = readTable(metaData, values);
+              if ((changeToken != null) && changeToken.equals(snapshot.getChangeTokens().get(table.getName()))) {
+                unchangedTables.put(table.getName(), table);
+              }
+            }
+          }
+        }
+      }
+
+      if (isCatalogQueriesUsed()) {
+        _catalogMetaData = readCatalogMetaData(metaData);
+      }
+      if (_catalogMetaData != null) {
+        for (Map<String, Object> values : _catalogMetaData.getTables()) {
+          Table table = readOrReuseTable(metaData, values, unchangedTables);
+
+          if (table != null) {
+            tables.add(table);
+          }
+        }
+      } else {
+        tableData = metaData.getTables(getDefaultTablePattern());
+
+        while (tableData.next()) {
+          Map<String, Object> values = readColumns(tableData, getColumnsForTable());
+          Table table = readOrReuseTable(metaData, values, unchangedTables);
 
-        if (table != null) {
-          tables.add(table);
+          if (table != null) {
+            tables.add(table);
+          }
         }
       }
 
-      final Collator collator = Collator.getInstance();
+      if (cacheKey != null) {
+        // the tables are stored before the model is initialized, i.e. with unresolved foreign keys,
+        // so that reused tables are resolved against the current tables
+        Database snapshotModel = new Database();
 
-      tables.sort((obj1, obj2) -> collator.compare(obj1.getName().toUpperCase(), obj2.getName().toUpperCase()));
+        snapshotModel.addTables(tables);
+        _schemaCache.store(cacheKey, new SchemaCache.Snapshot(changeTokens, snapshotModel));
+      }
+      sortTables(tables);
       return tables;
     } finally {
+      _catalogMetaData = null;
+      _autoIncrementColumns = null;
+      _autoIncrementColumnsRead = false;
       closeResultSet(tableData);
     }
   }
 
+  /**
+   * Returns the table from the schema cache if it has not changed since it was cached,
+   * or reads it from the metadata otherwise.
+   *
+   * @param metaData        The database metadata
+   * @param values          The table metadata values as defined by {@link #getColumnsForTable()}
+   * @param unchangedTables The unchanged tables from the schema cache
+   * @return The table or <code>null</code> if the values did not describe a valid table
+   */
+  private Table readOrReuseTable(DatabaseMetaDataWrapper metaData, Map<String, Object> values, Map<String, Table> unchangedTables) throws SQLException {
+    Table table = unchangedTables.get((String) values.get("TABLE_NAME"));
+
+    return table != null ? table : readTable(metaData, values);
+  }
+
+  /**
+   * Sorts the tables by their names.
+   *
+   * @param tables The tables
+   */
+  private void sortTables(List<Table> tables) {
+    final Collator collator = Collator.getInstance();
+
+    tables.sort((obj1, obj2) -> collator.compare(obj1.getName().toUpperCase(), obj2.getName().toUpperCase()));
+  }
+
+  /**
+   * Reads a change token for each table matching the given metadata settings and the default
+   * table pattern via a cheap platform-specific catalog query. A table's token must change
+   * whenever anything that the model reader reads for the table changes, e.g. by comprising
+   * catalog timestamps or checksums over the catalog rows of the table. This is only called
+   * if a {@link #getSchemaCache() schema cache} is set. The default implementation returns
+   * <code>null</code> which means that the platform has no such query and the schema cache
+   * is not used.
+   *
+   * @param metaData The database metadata settings (catalog, schema pattern, table types)
+   * @return The change tokens per table name or <code>null</code> if they cannot be determined
+   */
+  protected Map<String, String> readTableChangeTokens(DatabaseMetaDataWrapper metaData) throws SQLException {
+    return null;
+  }
+
+  /**
+   * Reads the metadata of all tables matching the given metadata settings and the
+   * default table pattern at once via platform-specific catalog queries. This is only
+   * called if {@link #isCatalogQueriesUsed()} returns <code>true</code>. Readers that
+   * support it redefine this method; the default implementation returns <code>null</code>
+   * so that the metadata is read table by table via the {@link DatabaseMetaData}.
+   *
+   * @param metaData The database metadata settings (catalog, schema pattern, table types)
+   * @return The metadata or <code>null</code> if it cannot be read via catalog queries
+   */
+  protected CatalogMetaData readCatalogMetaData(DatabaseMetaDataWrapper metaData) throws SQLException {
+    return null;
+  }
+
+  /**
+   * Returns the metadata read via catalog queries. Note that this is only set during a call to
+   * {@link #readTables(String, String, String[])}, and only if the catalog queries are used.
+   *
+   * @return The metadata or <code>null</code> if the metadata is read via the {@link DatabaseMetaData}
+   */
+  protected CatalogMetaData getCatalogMetaData() {
+    return _catalogMetaData;
+  }
+
   /**
    * Reads the next table from the metadata.
    *
@@ -712,6 +905,15 @@ public class JdbcModelReader {
    * @return The columns
    */
   protected Collection<Column> readColumns(DatabaseMetaDataWrapper metaData, String tableName) throws SQLException {
+    if (_catalogMetaData != null) {
+      List<Column> columns = new ArrayList<>();
+
+      for (Map<String, Object> values : _catalogMetaData.getColumns(tableName)) {
+        columns.add(readColumn(metaData, values));
+      }
+      return columns;
+    }
+
     ResultSet columnData = null;
 
     try {
@@ -785,6 +987,14 @@ public class JdbcModelReader {
    */
   protected Collection<String> readPrimaryKeyNames(DatabaseMetaDataWrapper metaData, String tableName) throws SQLException {
     List<String> pks = new ArrayList<>();
+
+    if (_catalogMetaData != null) {
+      for (Map<String, Object> values : _catalogMetaData.getPrimaryKeys(tableName)) {
+        pks.add(readPrimaryKeyName(metaData, values));
+      }
+      return pks;
+    }
+
     ResultSet pkData = null;
 
     try {
@@ -820,6 +1030,14 @@ public class JdbcModelReader {
    */
   protected Collection<ForeignKey> readForeignKeys(DatabaseMetaDataWrapper metaData, String tableName) throws SQLException {
     Map<String, ForeignKey> fks = new OrderedMap<>();
+
+    if (_catalogMetaData != null) {
+      for (Map<String, Object> values : _catalogMetaData.getForeignKeys(tableName)) {
+        readForeignKey(metaData, values, fks);
+      }
+      return fks.values();
+    }
+
     ResultSet fkData = null;
 
     try {
@@ -914,6 +1132,14 @@ public class JdbcModelReader {
    */
   protected Collection<Index> readIndices(DatabaseMetaDataWrapper metaData, String tableName) throws SQLException {
     Map<String, Index> indices = new OrderedMap<>();
+
+    if (_catalogMetaData != null) {
+      for (Map<String, Object> values : _catalogMetaData.getIndices(tableName)) {
+        readIndex(metaData, values, indices);
+      }
+      return indices.values();
+    }
+
     ResultSet indexData = null;
 
     try {
@@ -987,6 +1213,112 @@ public class JdbcModelReader {
     return values;
   }
 
+  /**
+   * Helper method for {@link #readCatalogMetaData(DatabaseMetaDataWrapper)} implementations that
+   * executes a catalog query on the active connection and reads the indicated columns of all rows.
+   *
+   * @param sql               The query
+   * @param params            The string values for the query parameters
+   * @param columnDescriptors The descriptors of the columns to read
+   * @return The read rows, each a map of values keyed by the column name
+   */
+  protected List<Map<String, Object>> readCatalogRows(String sql, List<String> params, List<MetaDataColumnDescriptor> columnDescriptors) throws SQLException {
+    PreparedStatement stmt = null;
+    ResultSet resultSet = null;
+
+    try {
+      stmt = getConnection().prepareStatement(sql);
+      for (int paramIdx = 0; paramIdx < params.size(); paramIdx++) {
+        stmt.setString(paramIdx + 1, params.get(paramIdx));
+      }
+      resultSet = stmt.executeQuery();
+
+      List<Map<String, Object>> rows = new ArrayList<>();
+
+      while (resultSet.next()) {
+        rows.add(readColumns(resultSet, columnDescriptors));
+      }
+      return rows;
+    } finally {
+      closeResultSet(resultSet);
+      closeStatement(stmt);
+    }
+  }
+
+  /**
+   * Reads the names of the auto-increment columns of all tables matching the given metadata
+   * settings at once via a platform-specific catalog query. Readers for platforms that
+   * expose this information redefine this method; the default implementation returns
+   * <code>null</code> so that {@link #determineAutoIncrementColumns(DatabaseMetaDataWrapper, Table, Column[])}
+   * falls back to {@link #determineAutoIncrementFromResultSetMetaData(Table, Column[])}.
+   *
+   * @param metaData The database metadata settings (catalog, schema pattern, table types)
+   * @return The auto-increment column names per table name or <code>null</code> if they cannot
+   * be read this way
+   */
+  protected Map<String, Set<String>> readAutoIncrementColumns(DatabaseMetaDataWrapper metaData) throws SQLException {
+    return null;
+  }
+
+  /**
+   * Helper method for {@link #readAutoIncrementColumns(DatabaseMetaDataWrapper)} implementations
+   * that executes a catalog query returning the auto-increment columns in the columns
+   * <code>TABLE_NAME</code> and <code>COLUMN_NAME</code>.
+   *
+   * @param sql    The query
+   * @param params The string values for the query parameters
+   * @return The auto-increment column names per table name
+   */
+  protected Map<String, Set<String>> readAutoIncrementColumns(String sql, List<String> params) throws SQLException {
+    List<MetaDataColumnDescriptor> columnDescriptors = new ArrayList<>();
+    Map<String, Set<String>> autoIncrementColumns = new HashMap<>();
+
+    columnDescriptors.add(new MetaDataColumnDescriptor("TABLE_NAME", Types.VARCHAR));
+    columnDescriptors.add(new MetaDataColumnDescriptor("COLUMN_NAME", Types.VARCHAR));
+    for (Map<String, Object> values : readCatalogRows(sql, params, columnDescriptors)) {
+      autoIncrementColumns.computeIfAbsent((String) values.get("TABLE_NAME"), name -> new HashSet<>())
+        .add((String) values.get("COLUMN_NAME"));
+    }
+    return autoIncrementColumns;
+  }
+
+  /**
+   * Determines the auto increment status for the given columns. This uses the auto-increment
+   * columns read once per model via {@link #readAutoIncrementColumns(DatabaseMetaDataWrapper)}
+   * if the platform supports it, and otherwise queries the table via
+   * {@link #determineAutoIncrementFromResultSetMetaData(Table, Column[])}.
+   *
+   * @param metaData       The database metadata
+   * @param table          The table
+   * @param columnsToCheck The columns to check (e.g. the primary key columns)
+   */
+  protected void determineAutoIncrementColumns(DatabaseMetaDataWrapper metaData, Table table, Column[] columnsToCheck) throws SQLException {
+    if ((columnsToCheck == null) || (columnsToCheck.length == 0)) {
+      return;
+    }
+    if (!_autoIncrementColumnsRead) {
+      _autoIncrementColumnsRead = true;
+      try {
+        _autoIncrementColumns = readAutoIncrementColumns(metaData);
+      } catch (SQLException ex) {
+        _log.warn("Could not read the auto-increment columns via the catalog, checking each table instead", ex);
+      }
+    }
+    if (_autoIncrementColumns == null) {
+      determineAutoIncrementFromResultSetMetaData(table, columnsToCheck);
+    } else {
+      Set<String> columnNames = _autoIncrementColumns.get(table.getName());
+
+      if (columnNames != null) {
+        for (Column column : columnsToCheck) {
+          if (columnNames.contains(column.getName())) {
+            column.setAutoIncrement(true);
+          }
+        }
+      }
+    }
+  }
+
   /**
    * Helper method that determines the auto increment status for the given columns via the
    * {@link ResultSetMetaData#isAutoIncrement(int)} method.
@@ -240,6 +240,9 @@ public class ModelBasedResultSetIterator implements Iterator<RowObject> {
 
           bean.set(propName, value);
         }
+        // changes made by the application from now on are tracked so that updates
+        // only need to write the changed columns
+        bean.markUnchanged();
         _needsAdvancing = true;
         return bean;
       } catch (Exception ex) {
@@ -48,26 +48,36 @@ import org.apache.ddlutils.data.TableClass;
 import org.apache.ddlutils.data.ColumnProperty;
 import org.apache.ddlutils.model.CloneHelper;
 import org.apache.ddlutils.model.Column;
+import org.apache.ddlutils.model.CopyOnWriteModel;
 import org.apache.ddlutils.model.Database;
 import org.apache.ddlutils.model.ForeignKey;
 import org.apache.ddlutils.model.Index;
 import org.apache.ddlutils.model.ModelException;
 import org.apache.ddlutils.model.Table;
 import org.apache.ddlutils.model.TypeMap;
+import org.apache.ddlutils.platform.DmlSqlCache.SqlTemplate;
+import org.apache.ddlutils.platform.DmlSqlCache.StatementType;
 import org.apache.ddlutils.util.JdbcSupport;
+import org.apache.ddlutils.util.JdbcUtils;
 import org.apache.ddlutils.util.Log;
 import org.apache.ddlutils.util.LogFactory;
+import org.apache.ddlutils.util.ValueUtils;
 import org.apache.ddlutils.util.SqlTokenizer;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.io.StringWriter;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.sql.BatchUpdateException;
 import java.sql.Blob;
 import java.sql.Clob;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -77,10 +87,25 @@ import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Base class for platform implementations.
@@ -92,6 +117,30 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
    * The default name for models read from the database, if no name as given.
    */
   protected static final String MODEL_DEFAULT_NAME = "default";
+  /**
+   * The size of the key ranges copied to the shadow table during an online alteration, if no
+   * data copy chunk size is set.
+   */
+  private static final int DEFAULT_ONLINE_CHUNK_SIZE = 10000;
+  /**
+   * The default maximum number of rows written in one JDBC batch.
+   */
+  public static final int DEFAULT_ROW_BATCH_SIZE = 1000;
+  /**
+   * The signature to which the change handlers are adapted.
+   */
+  private static final MethodType CHANGE_HANDLER_TYPE =
+    MethodType.methodType(void.class, PlatformImplBase.class, Database.class, CreationParameters.class, ModelChange.class);
+  /**
+   * The change handlers per platform class, which in turn are cached per change type. They are
+   * determined upon first use so that the class hierarchy is searched only once per change type.
+   */
+  private static final ClassValue<Map<Class<?>, MethodHandle>> CHANGE_HANDLERS = new ClassValue<Map<Class<?>, MethodHandle>>() {
+    @Override
+    protected Map<Class<?>, MethodHandle> computeValue(Class<?> type) {
+      return new ConcurrentHashMap<>();
+    }
+  };
 
   /**
    * The log for this platform.
@@ -138,6 +187,54 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
    * Whether to use the default ON DELETE action if the specified one is unsupported.
    */
   private boolean _useDefaultOnDeleteActionIfUnsupported = true;
+  /**
+   * The size of the key ranges in which data is copied when recreating a table; 0 for no chunks.
+   */
+  private int _dataCopyChunkSize;
+  /**
+   * The pause in milliseconds after each chunk of copied data.
+   */
+  private long _dataCopyThrottleDelay;
+  /**
+   * Whether to alter tables online via shadow tables.
+   */
+  private boolean _onlineTableAlterationOn;
+  /**
+   * The number of connections on which generated statements are executed.
+   */
+  private int _ddlParallelism = 1;
+  /**
+   * The number of rows from which on a table is considered large when planning alterations.
+   */
+  private long _largeTableRowCount = AlterationPlanner.DEFAULT_LARGE_TABLE_ROW_COUNT;
+  /**
+   * The maximum number of data manipulation statements of a script executed in one JDBC batch.
+   */
+  private int _statementBatchSize = 1;
+  /**
+   * The maximum number of rows written in one JDBC batch.
+   */
+  private int _rowBatchSize = DEFAULT_ROW_BATCH_SIZE;
+  /**
+   * The listener that receives the row counts of the batches.
+   */
+  private RowBatchListener _rowBatchListener;
+  /**
+   * The number of rows that query streams hand off at once.
+   */
+  private int _streamBatchSize = 1024;
+  /**
+   * The number of statement executions after which the warnings of the connection are read.
+   */
+  private int _warningPollInterval = 1;
+  /**
+   * The cached SQL of the row-level data manipulation statements.
+   */
+  private final DmlSqlCache _dmlSqlCache = new DmlSqlCache();
+  /**
+   * The cache of prepared statements per connection, or <code>null</code> if statements are not cached.
+   */
+  private volatile PreparedStatementCache _preparedStatementCache;
 
   /**
    * {@inheritDoc}
@@ -154,6 +251,17 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
    */
   protected void setSqlBuilder(SqlBuilder builder) {
     _builder = builder;
+    _dmlSqlCache.clear();
+  }
+
+  /**
+   * Returns the cache for the SQL of the row-level data manipulation statements. Platforms
+   * that change settings which affect the generated SQL, need to clear this cache.
+   *
+   * @return The cache
+   */
+  protected DmlSqlCache getDmlSqlCache() {
+    return _dmlSqlCache;
   }
 
   /**
@@ -236,6 +344,7 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
       throw new DdlUtilsException("Platform " + getName() + " does not support delimited identifier");
     }
     _delimitedIdentifierModeOn = delimitedIdentifierModeOn;
+    _dmlSqlCache.clear();
   }
 
   /**
@@ -302,6 +411,222 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
     _useDefaultOnDeleteActionIfUnsupported = useDefault;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getStatementBatchSize() {
+    return _statementBatchSize;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void setStatementBatchSize(int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("The batch size must be at least 1");
+    }
+    _statementBatchSize = batchSize;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getRowBatchSize() {
+    return _rowBatchSize;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void setRowBatchSize(int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("The batch size must be at least 1");
+    }
+    _rowBatchSize = batchSize;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public RowBatchListener getRowBatchListener() {
+    return _rowBatchListener;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void setRowBatchListener(RowBatchListener listener) {
+    _rowBatchListener = listener;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getStreamBatchSize() {
+    return _streamBatchSize;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void setStreamBatchSize(int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("The batch size must be at least 1");
+    }
+    _streamBatchSize = batchSize;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getPreparedStatementCacheSize() {
+    PreparedStatementCache cache = _preparedStatementCache;
+
+    return cache == null ? 0 : cache.getSize();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void setPreparedStatementCacheSize(int cacheSize) {
+    if (cacheSize < 0) {
+      throw new IllegalArgumentException("The cache size must not be negative");
+    }
+    _preparedStatementCache = cacheSize == 0 ? null : new PreparedStatementCache(cacheSize);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public PreparedStatementCache getPreparedStatementCache() {
+    return _preparedStatementCache;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getWarningPollInterval() {
+    return _warningPollInterval;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void setWarningPollInterval(int interval) {
+    if (interval < 1) {
+      throw new IllegalArgumentException("The warning poll interval must be at least 1");
+    }
+    _warningPollInterval = interval;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getDdlParallelism() {
+    return _ddlParallelism;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void setDdlParallelism(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("The parallelism must be at least 1");
+    }
+    _ddlParallelism = parallelism;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getLargeTableRowCount() {
+    return _largeTableRowCount;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void setLargeTableRowCount(long rowCount) {
+    if (rowCount < 0) {
+      throw new IllegalArgumentException("The large table row count must not be negative");
+    }
+    _largeTableRowCount = rowCount;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean isOnlineTableAlterationOn() {
+    return _onlineTableAlterationOn;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void setOnlineTableAlterationOn(boolean onlineTableAlterationOn) {
+    if (!getPlatformInfo().isOnlineTableAlterationSupported() && onlineTableAlterationOn) {
+      throw new DdlUtilsException("Platform " + getName() + " does not support online table alteration");
+    }
+    _onlineTableAlterationOn = onlineTableAlterationOn;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getDataCopyChunkSize() {
+    return _dataCopyChunkSize;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void setDataCopyChunkSize(int chunkSize) {
+    if (chunkSize < 0) {
+      throw new IllegalArgumentException("The chunk size must not be negative");
+    }
+    _dataCopyChunkSize = chunkSize;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long getDataCopyThrottleDelay() {
+    return _dataCopyThrottleDelay;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void setDataCopyThrottleDelay(long delay) {
+    if (delay < 0) {
+      throw new IllegalArgumentException("The throttle delay must not be negative");
+    }
+    _dataCopyThrottleDelay = delay;
+  }
+
   /**
    * Returns the log for this platform.
    *
@@ -345,68 +670,168 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
    */
   @Override
   public int evaluateBatch(Connection connection, String sql, boolean continueOnError) throws DatabaseOperationException {
-    Statement statement = null;
-    int errors = 0;
-    int commandCount = 0;
+    return evaluateBatch(connection, new StringReader(sql), continueOnError);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int evaluateBatch(Reader sql, boolean continueOnError) throws DatabaseOperationException {
+    Connection connection = borrowConnection();
+
+    try {
+      return evaluateBatch(connection, sql, continueOnError);
+    } finally {
+      returnConnection(connection);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int evaluateBatch(Connection connection, Reader sql, boolean continueOnError) throws DatabaseOperationException {
+    // some drivers execute the remaining statements of a batch after a failed one, so we only
+    // use batches if the execution continues after errors anyway
+    StatementExecutor executor = new StatementExecutor(connection, continueOnError, continueOnError ? getStatementBatchSize() : 1);
 
     // we tokenize the SQL along the delimiters, and we also make sure that only delimiters
     // at the end of a line or the end of the string are used (row mode)
     try {
-      statement = connection.createStatement();
-
-      SqlTokenizer tokenizer = new SqlTokenizer(sql);
+      SqlTokenizer tokenizer = createSqlTokenizer(sql);
 
       while (tokenizer.hasMoreStatements()) {
-        String command = tokenizer.getNextStatement();
+        executor.consume(tokenizer.getNextStatement());
+      }
+      executor.flush();
+      executor.logSummary();
+    } finally {
+      executor.close();
+    }
+    return executor.getErrors();
+  }
 
-        // ignore whitespace
-        command = command.trim();
-        if (command.isEmpty()) {
-          continue;
-        }
+  /**
+   * Creates the tokenizer that splits the scripts passed to {@link #evaluateBatch(Connection, Reader, boolean)}
+   * into the individual statements. Platforms with a different syntax for comments, delimited
+   * identifiers or string literals need to redefine this method.
+   *
+   * @param sql The reader for the script
+   * @return The tokenizer
+   */
+  protected SqlTokenizer createSqlTokenizer(Reader sql) {
+    return new SqlTokenizer(sql, false);
+  }
 
-        commandCount++;
+  /**
+   * Determines whether the given statement of a script manipulates data (as opposed to e.g.
+   * changing the schema), and can thus be executed in a JDBC batch together with other such
+   * statements.
+   *
+   * @param sql The statement, possibly with leading comments
+   * @return <code>true</code> if the statement can be executed in a batch
+   */
+  protected boolean isDataManipulation(String sql) {
+    int pos = 0;
 
-        if (_log.isDebugEnabled()) {
-          _log.debug("About to execute SQL " + command);
-        }
-        try {
-          int results = statement.executeUpdate(command);
+    // skip comments
+    while (pos < sql.length()) {
+      if (Character.isWhitespace(sql.charAt(pos))) {
+        pos++;
+      } else if (sql.startsWith("--", pos)) {
+        int lineEnd = sql.indexOf('\n', pos);
 
-          if (_log.isDebugEnabled()) {
-            _log.debug("After execution, " + results + " row(s) have been changed");
-          }
-        } catch (SQLException ex) {
-          if (continueOnError) {
-            // Since the user decided to ignore this error, we log the error
-            // on level warn, and the exception itself on level debug
-            _log.warn("SQL Command " + command + " failed with: " + ex.getMessage());
-            if (_log.isDebugEnabled()) {
-              _log.debug(ex);
-            }
-            errors++;
-          } else {
-            throw new DatabaseOperationException("Error while executing SQL " + command, ex);
-          }
-        }
+        pos = lineEnd < 0 ? sql.length() : lineEnd + 1;
+      } else if (sql.startsWith("/*", pos)) {
+        int commentEnd = sql.indexOf("*/", pos + 2);
 
-        // let's display any warnings
-        SQLWarning warning = connection.getWarnings();
+        pos = commentEnd < 0 ? sql.length() : commentEnd + 2;
+      } else {
+        break;
+      }
+    }
+    for (String keyword : new String[]{"INSERT", "UPDATE", "DELETE"}) {
+      if (sql.regionMatches(true, pos, keyword, 0, keyword.length()) &&
+        ((pos + keyword.length() == sql.length()) || !Character.isLetterOrDigit(sql.charAt(pos + keyword.length())))) {
+        return true;
+      }
+    }
+    return false;
+  }
 
-        while (warning != null) {
-          _log.warn(warning.toString());
-          warning = warning.getNextWarning();
-        }
-        connection.clearWarnings();
+  /**
+   * Executes the statements generated by the given generator on {@link #getDdlParallelism()}
+   * connections, the given one and additional ones borrowed from the data source. Groups of
+   * statements that affect different tables (as announced via
+   * {@link SqlBuilder#startStatementGroup(Collection)}) are executed concurrently.
+   *
+   * @param connection      The connection to the database
+   * @param continueOnError Whether to continue executing the statements when an error occurred
+   * @param generator       Generates the statements via the sql builder
+   * @return The number of errors
+   */
+  private int executeGeneratedStatementsInParallel(Connection connection, boolean continueOnError, SqlGenerator generator) throws DatabaseOperationException {
+    List<Connection> connections = new ArrayList<>();
+    SqlBuilder builder = getSqlBuilder();
+    ParallelStatementExecutor executor = null;
+
+    connections.add(connection);
+    try {
+      while (connections.size() < getDdlParallelism()) {
+        connections.add(borrowConnection());
       }
-      _log.info("Executed " + commandCount + " SQL command(s) with " + errors + " error(s)");
-    } catch (SQLException ex) {
-      throw new DatabaseOperationException("Error while executing SQL", ex);
+      executor = new ParallelStatementExecutor(connections, continueOnError);
+      builder.setStatementConsumer(executor);
+      generator.generate();
+      builder.flushStatement();
+      executor.finish();
+      executor.logSummary();
+      return executor.getErrors();
+    } catch (IOException ex) {
+      throw new DatabaseOperationException("Error while generating the SQL", ex);
     } finally {
-      closeStatement(statement);
+      builder.setStatementConsumer(null);
+      if (executor != null) {
+        executor.close();
+      }
+      for (Connection borrowedConnection : connections.subList(1, connections.size())) {
+        returnConnection(borrowedConnection);
+      }
+    }
+  }
+
+  /**
+   * Executes the statements generated by the sql builder one by one as soon as they are
+   * generated, instead of rendering them into a script first and then splitting that
+   * script into the individual statements again.
+   *
+   * @param connection      The connection to the database
+   * @param continueOnError Whether to continue executing the statements when an error occurred
+   * @param generator       Generates the statements via the sql builder
+   * @return The number of errors
+   */
+  protected int executeGeneratedStatements(Connection connection, boolean continueOnError, SqlGenerator generator) throws DatabaseOperationException {
+    if ((getDdlParallelism() > 1) && (getDataSource() != null)) {
+      return executeGeneratedStatementsInParallel(connection, continueOnError, generator);
     }
 
-    return errors;
+    StatementExecutor executor = new StatementExecutor(connection, continueOnError);
+    SqlBuilder builder = getSqlBuilder();
+
+    try {
+      builder.setStatementConsumer(executor);
+      generator.generate();
+      builder.flushStatement();
+      executor.flush();
+      executor.logSummary();
+    } catch (IOException ex) {
+      throw new DatabaseOperationException("Error while generating the SQL", ex);
+    } finally {
+      builder.setStatementConsumer(null);
+      executor.close();
+    }
+    return executor.getErrors();
   }
 
   /**
@@ -514,9 +939,7 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
    */
   @Override
   public void createModel(Connection connection, Database model, boolean dropTablesFirst, boolean continueOnError) throws DatabaseOperationException {
-    String sql = getCreateModelSql(model, dropTablesFirst, continueOnError);
-
-    evaluateBatch(connection, sql, continueOnError);
+    executeGeneratedStatements(connection, continueOnError, () -> getSqlBuilder().createTables(model, dropTablesFirst));
   }
 
   /**
@@ -538,9 +961,95 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
    */
   @Override
   public void createModel(Connection connection, Database model, CreationParameters params, boolean dropTablesFirst, boolean continueOnError) throws DatabaseOperationException {
-    String sql = getCreateModelSql(model, params, dropTablesFirst, continueOnError);
+    executeGeneratedStatements(connection, continueOnError, () -> getSqlBuilder().createTables(model, params, dropTablesFirst));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void createModelWithoutConstraints(Database model, CreationParameters params, boolean dropTablesFirst, boolean continueOnError) throws DatabaseOperationException {
+    Connection connection = borrowConnection();
+
+    try {
+      createModelWithoutConstraints(connection, model, params, dropTablesFirst, continueOnError);
+    } finally {
+      returnConnection(connection);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void createModelWithoutConstraints(Connection connection, Database model, CreationParameters params, boolean dropTablesFirst, boolean continueOnError) throws DatabaseOperationException {
+    executeGeneratedStatements(connection, continueOnError, () -> getSqlBuilder().createTablesWithoutConstraints(model, params, dropTablesFirst));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void createIndexesAndForeignKeys(Database model, boolean continueOnError) throws DatabaseOperationException {
+    Connection connection = borrowConnection();
+
+    try {
+      createIndexesAndForeignKeys(connection, model, continueOnError);
+    } finally {
+      returnConnection(connection);
+    }
+  }
 
-    evaluateBatch(connection, sql, continueOnError);
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void createIndexesAndForeignKeys(Connection connection, Database model, boolean continueOnError) throws DatabaseOperationException {
+    executeGeneratedStatements(connection, continueOnError, () -> getSqlBuilder().createIndexesAndForeignKeys(model));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void disableForeignKeys(Database model, boolean continueOnError) throws DatabaseOperationException {
+    Connection connection = borrowConnection();
+
+    try {
+      disableForeignKeys(connection, model, continueOnError);
+    } finally {
+      returnConnection(connection);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void disableForeignKeys(Connection connection, Database model, boolean continueOnError) throws DatabaseOperationException {
+    executeGeneratedStatements(connection, continueOnError, () -> getSqlBuilder().disableForeignKeys(model));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void enableForeignKeys(Database model, boolean continueOnError) throws DatabaseOperationException {
+    Connection connection = borrowConnection();
+
+    try {
+      enableForeignKeys(connection, model, continueOnError);
+    } finally {
+      returnConnection(connection);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void enableForeignKeys(Connection connection, Database model, boolean continueOnError) throws DatabaseOperationException {
+    executeGeneratedStatements(connection, continueOnError, () -> getSqlBuilder().enableForeignKeys(model));
   }
 
   /**
@@ -602,6 +1111,60 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
     return new DefaultTableDefinitionChangesPredicate();
   }
 
+  /**
+   * Creates the planner used by {@link #planAlteration(Connection, Database, Database)}.
+   *
+   * @return The planner
+   */
+  protected AlterationPlanner createAlterationPlanner() {
+    AlterationPlanner planner = new AlterationPlanner(this);
+
+    planner.setLargeTableRowCount(getLargeTableRowCount());
+    return planner;
+  }
+
+  /**
+   * Reads cheap statistics of the given table from the database, which are used for planning
+   * alterations. This default implementation uses the statistics that the JDBC driver returns
+   * as part of the index info of the table. Platforms that can access better statistics in
+   * their catalog should redefine this method.
+   *
+   * @param connection The connection to the database
+   * @param table      The table
+   * @return The statistics
+   */
+  protected TableStatistics readTableStatistics(Connection connection, Table table) throws SQLException {
+    DatabaseMetaData metaData = connection.getMetaData();
+    String tableName = table.getName();
+
+    if (!isDelimitedIdentifierModeOn()) {
+      if (metaData.storesUpperCaseIdentifiers()) {
+        tableName = tableName.toUpperCase();
+      } else if (metaData.storesLowerCaseIdentifiers()) {
+        tableName = tableName.toLowerCase();
+      }
+    }
+
+    long rowCount = TableStatistics.UNKNOWN;
+    Set<String> indexNames = new HashSet<>();
+    boolean found = false;
+
+    try (ResultSet resultSet = metaData.getIndexInfo(table.getCatalog(), table.getSchema(), tableName, false, true)) {
+      while (resultSet.next()) {
+        found = true;
+        if (resultSet.getShort("TYPE") == DatabaseMetaData.tableIndexStatistic) {
+          rowCount = resultSet.getLong("CARDINALITY");
+          if (resultSet.wasNull()) {
+            rowCount = TableStatistics.UNKNOWN;
+          }
+        } else if (resultSet.getString("INDEX_NAME") != null) {
+          indexNames.add(resultSet.getString("INDEX_NAME"));
+        }
+      }
+    }
+    return new TableStatistics(rowCount, TableStatistics.UNKNOWN, found ? indexNames.size() : (int) TableStatistics.UNKNOWN);
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -873,7 +1436,26 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
    */
   @Override
   public String getAlterModelSql(Database currentModel, Database desiredModel, CreationParameters params) throws DatabaseOperationException {
-    List<ModelChange> changes = getChanges(currentModel, desiredModel);
+    return getAlterModelSql(currentModel, getChanges(currentModel, desiredModel), params);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String getAlterModelSql(AlterationPlan plan, CreationParameters params) throws DatabaseOperationException {
+    return getAlterModelSql(plan.getCurrentModel(), plan.getChanges(), params);
+  }
+
+  /**
+   * Returns the SQL for performing the given changes.
+   *
+   * @param currentModel The current database model
+   * @param changes      The changes
+   * @param params       The parameters used in the creation of tables etc.
+   * @return The SQL statements
+   */
+  private String getAlterModelSql(Database currentModel, List<ModelChange> changes, CreationParameters params) throws DatabaseOperationException {
     String sql = null;
 
     try {
@@ -921,9 +1503,7 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
    */
   @Override
   public void alterModel(Connection connection, Database currentModel, Database desiredModel, boolean continueOnError) throws DatabaseOperationException {
-    String sql = getAlterModelSql(currentModel, desiredModel);
-
-    evaluateBatch(connection, sql, continueOnError);
+    alterModel(connection, currentModel, desiredModel, null, continueOnError);
   }
 
   /**
@@ -931,19 +1511,87 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
    */
   @Override
   public void alterModel(Connection connection, Database currentModel, Database desiredModel, CreationParameters params, boolean continueOnError) throws DatabaseOperationException {
-    String sql = getAlterModelSql(currentModel, desiredModel, params);
+    List<ModelChange> changes = getChanges(currentModel, desiredModel);
 
-    evaluateBatch(connection, sql, continueOnError);
+    executeGeneratedStatements(connection, continueOnError, () -> processChanges(currentModel, changes, params));
   }
 
   /**
    * {@inheritDoc}
    */
   @Override
-  public void dropTable(Connection connection, Database model, Table table, boolean continueOnError) throws DatabaseOperationException {
-    String sql = getDropTableSql(model, table, continueOnError);
+  public AlterationPlan planAlteration(Database currentModel, Database desiredModel) throws DatabaseOperationException {
+    Connection connection = borrowConnection();
+
+    try {
+      return planAlteration(connection, currentModel, desiredModel);
+    } finally {
+      returnConnection(connection);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public AlterationPlan planAlteration(Connection connection, Database currentModel, Database desiredModel) throws DatabaseOperationException {
+    AlterationPlanner planner = createAlterationPlanner();
+    Map<String, TableStatistics> statistics = planner.readStatistics(connection, currentModel, getChanges(currentModel, desiredModel));
+
+    return planAlteration(planner, currentModel, desiredModel, statistics);
+  }
+
+  /**
+   * Plans the alteration of the given current model using the given table statistics.
+   *
+   * @param planner      The planner
+   * @param currentModel The current database model
+   * @param desiredModel The desired database model
+   * @param statistics   The statistics of the tables, keyed by the table name
+   * @return The plan
+   */
+  protected AlterationPlan planAlteration(AlterationPlanner planner,
+                                          Database currentModel,
+                                          Database desiredModel,
+                                          Map<String, TableStatistics> statistics) {
+    ModelComparator comparator = getModelComparator();
+
+    // we compare again so that the decision between altering and recreating takes the statistics into account
+    comparator.setTableDefinitionChangesPredicate(planner.createPredicate(comparator.getTableDefinitionChangesPredicate(), statistics));
+
+    List<ModelChange> changes = sortChanges(comparator.compare(currentModel, desiredModel));
+
+    return planner.createPlan(currentModel, desiredModel, changes, statistics);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void alterModel(AlterationPlan plan, CreationParameters params, boolean continueOnError) throws DatabaseOperationException {
+    Connection connection = borrowConnection();
+
+    try {
+      alterModel(connection, plan, params, continueOnError);
+    } finally {
+      returnConnection(connection);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void alterModel(Connection connection, AlterationPlan plan, CreationParameters params, boolean continueOnError) throws DatabaseOperationException {
+    executeGeneratedStatements(connection, continueOnError, () -> processChanges(plan.getCurrentModel(), plan.getChanges(), params));
+  }
 
-    evaluateBatch(connection, sql, continueOnError);
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void dropTable(Connection connection, Database model, Table table, boolean continueOnError) throws DatabaseOperationException {
+    executeGeneratedStatements(connection, continueOnError, () -> getSqlBuilder().dropTable(model, table));
   }
 
   /**
@@ -1022,9 +1670,7 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
    */
   @Override
   public void dropModel(Connection connection, Database model, boolean continueOnError) throws DatabaseOperationException {
-    String sql = getDropModelSql(model);
-
-    evaluateBatch(connection, sql, continueOnError);
+    executeGeneratedStatements(connection, continueOnError, () -> getSqlBuilder().dropTables(model));
   }
 
   /**
@@ -1049,7 +1695,9 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
   /**
    * Processes the given changes in the specified order. Basically, this method finds the
    * appropriate handler method (one of the <code>processChange</code> methods) defined in
-   * the concrete sql builder for each change, and invokes it.
+   * the concrete sql builder for each change, and invokes it. The handlers work on a
+   * {@link CopyOnWriteModel copy-on-write} version of the model, so only the tables that
+   * are actually changed are copied.
    *
    * @param model   The database model; this object is not going to be changed by this method
    * @param changes The changes
@@ -1060,14 +1708,63 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
   protected Database processChanges(Database model,
                                     Collection<ModelChange> changes,
                                     CreationParameters params) throws IOException, DdlUtilsException {
-    Database currentModel = new CloneHelper().clone(model);
+    CopyOnWriteModel workingModel = new CopyOnWriteModel(model);
+    Database currentModel = workingModel.getModel();
 
     for (ModelChange change : changes) {
+      prepareForChange(workingModel, change);
+      getSqlBuilder().startStatementGroup(getAffectedTableNames(currentModel, change));
       invokeChangeHandler(currentModel, params, change);
     }
+    getSqlBuilder().startStatementGroup(null);
     return currentModel;
   }
 
+  /**
+   * Determines the names of the tables that the statements generated for the given change
+   * affect. Platforms whose change handlers affect other tables than the changed one (and,
+   * for foreign key changes, the referenced one) need to redefine this method.
+   *
+   * @param currentModel The current database schema
+   * @param change       The change that is about to be processed
+   * @return The table names, or <code>null</code> if the change can affect any table
+   */
+  protected Collection<String> getAffectedTableNames(Database currentModel, ModelChange change) {
+    if (change instanceof AddTableChange) {
+      return Collections.singleton(((AddTableChange) change).getNewTable().getName());
+    } else if (change instanceof AddForeignKeyChange) {
+      AddForeignKeyChange fkChange = (AddForeignKeyChange) change;
+
+      return Arrays.asList(fkChange.getChangedTable(), fkChange.getNewForeignKey().getForeignTableName());
+    } else if (change instanceof ForeignKeyChange) {
+      ForeignKeyChange fkChange = (ForeignKeyChange) change;
+      ForeignKey fk = fkChange.findChangedForeignKey(currentModel, isDelimitedIdentifierModeOn());
+
+      return fk == null ? null : Arrays.asList(fkChange.getChangedTable(), fk.getForeignTableName());
+    } else if (change instanceof TableChange) {
+      return Collections.singleton(((TableChange) change).getChangedTable());
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * Makes sure that the parts of the working model that the handler of the given change will
+   * modify, are no longer shared with the original model. Platforms whose change handlers
+   * modify other tables than the changed one, need to redefine this method.
+   *
+   * @param workingModel The working model
+   * @param change       The change that is about to be processed
+   */
+  protected void prepareForChange(CopyOnWriteModel workingModel, ModelChange change) {
+    if (change instanceof TableChange) {
+      workingModel.prepareTableForChange(((TableChange) change).getChangedTable());
+    } else if (!(change instanceof AddTableChange)) {
+      // we don't know what the change will modify
+      workingModel.prepareAllTablesForChange();
+    }
+  }
+
   /**
    * Invokes the change handler (one of the <code>processChange</code> methods) for the given
    * change object.
@@ -1080,39 +1777,52 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
   private void invokeChangeHandler(Database currentModel,
                                    CreationParameters params,
                                    ModelChange change) throws IOException {
-    Class<?> curClass = getClass();
-
-    // find the handler for the change
-    while ((curClass != null) && !Object.class.equals(curClass)) {
-      try {
-        Method method = null;
+    Map<Class<?>, MethodHandle> handlers = CHANGE_HANDLERS.get(getClass());
+    MethodHandle handler = handlers.get(change.getClass());
 
-        try {
-          method = curClass.getDeclaredMethod("processChange",
-            Database.class,
-            CreationParameters.class,
-            change.getClass());
-        } catch (NoSuchMethodException ex) {
-          // we actually expect this one
-        }
+    if (handler == null) {
+      handler = findChangeHandler(getClass(), change.getClass());
+      handlers.put(change.getClass(), handler);
+    }
+    try {
+      handler.invokeExact(this, currentModel, params, change);
+    } catch (IOException | DdlUtilsException ex) {
+      throw ex;
+    } catch (Throwable ex) {
+      throw new DdlUtilsException(ex);
+    }
+  }
 
-        if (method != null) {
-          method.invoke(this, currentModel, params, change);
-          return;
-        } else {
-          curClass = curClass.getSuperclass();
-        }
-      } catch (InvocationTargetException ex) {
-        if (ex.getTargetException() instanceof IOException) {
-          throw (IOException) ex.getTargetException();
-        } else {
-          throw new DdlUtilsException(ex.getTargetException());
+  /**
+   * Finds the change handler (one of the <code>processChange</code> methods) for the given type
+   * of change, starting at the given platform class and going up the class hierarchy. The
+   * handler is the first method with the exact change type as its third parameter type, so
+   * that handlers defined in subclasses override the ones defined in base classes.
+   *
+   * @param platformClass The platform class
+   * @param changeClass   The type of change
+   * @return The handler, adapted to the signature <code>(PlatformImplBase, Database, CreationParameters, ModelChange)void</code>
+   */
+  private static MethodHandle findChangeHandler(Class<?> platformClass, Class<?> changeClass) throws DdlUtilsException {
+    for (Class<?> curClass = platformClass; (curClass != null) && !Object.class.equals(curClass); curClass = curClass.getSuperclass()) {
+      for (Method method : curClass.getDeclaredMethods()) {
+        Class<?>[] paramTypes = method.getParameterTypes();
+
+        if ("processChange".equals(method.getName()) &&
+          (paramTypes.length == 3) &&
+          Database.class.equals(paramTypes[0]) &&
+          CreationParameters.class.equals(paramTypes[1]) &&
+          changeClass.equals(paramTypes[2])) {
+          try {
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method).asType(CHANGE_HANDLER_TYPE);
+          } catch (Exception ex) {
+            throw new DdlUtilsException(ex);
+          }
         }
-      } catch (Exception ex) {
-        throw new DdlUtilsException(ex);
       }
     }
-    throw new DdlUtilsException("No handler for change of type " + change.getClass().getName() + " defined");
+    throw new DdlUtilsException("No handler for change of type " + changeClass.getName() + " defined");
   }
 
   /**
@@ -1351,16 +2061,21 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
     Table targetTable = change.getTargetTable();
     Map<String, Object> parameters = (params == null ? null : params.getParametersFor(targetTable));
 
-    if (canMigrateData) {
+    SqlStatementConsumer consumer = getSqlBuilder().getStatementConsumer();
+
+    if (canMigrateData && isOnlineTableAlterationOn() && (consumer instanceof StatementExecutor) &&
+      canAlterTableOnline(changedTable, targetTable)) {
+      alterTableOnline((StatementExecutor) consumer, currentModel, changedTable, targetTable, parameters);
+    } else if (canMigrateData) {
       Table tempTable = getTemporaryTableFor(targetTable);
 
       getSqlBuilder().createTemporaryTable(currentModel, tempTable, parameters);
-      getSqlBuilder().copyData(changedTable, tempTable);
+      copyData(changedTable, tempTable);
       // Note that we don't drop the indices here because the DROP TABLE will take care of that
       // Likewise, foreign keys have already been dropped as necessary
       getSqlBuilder().dropTable(changedTable);
       getSqlBuilder().createTable(currentModel, targetTable, parameters);
-      getSqlBuilder().copyData(tempTable, targetTable);
+      copyData(tempTable, targetTable);
       getSqlBuilder().dropTemporaryTable(currentModel, tempTable);
     } else {
       getSqlBuilder().dropTable(changedTable);
@@ -1370,6 +2085,290 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
     change.apply(currentModel, isDelimitedIdentifierModeOn());
   }
 
+  /**
+   * Copies the data from the source to the target table while recreating a table. If a chunk size
+   * is set (see {@link #getDataCopyChunkSize()}), the statements are executed against a live
+   * database, and the source table has a suitable primary key (see {@link #getDataCopyKeyColumn(Table)}),
+   * then the data is copied in chunks of primary key ranges each of which is committed separately.
+   * Otherwise a single copy statement is generated.
+   *
+   * @param sourceTable The source table
+   * @param targetTable The target table
+   */
+  protected void copyData(Table sourceTable, Table targetTable) throws IOException {
+    SqlStatementConsumer consumer = getSqlBuilder().getStatementConsumer();
+    Column keyColumn = getDataCopyKeyColumn(sourceTable);
+
+    if ((getDataCopyChunkSize() > 0) && (keyColumn != null) && (consumer instanceof StatementExecutor)) {
+      copyDataInChunks((StatementExecutor) consumer, sourceTable, targetTable, keyColumn, getDataCopyChunkSize(),
+        (lowerBound, upperBound) -> getSqlBuilder().copyData(sourceTable, targetTable, keyColumn, lowerBound, upperBound));
+    } else {
+      getSqlBuilder().copyData(sourceTable, targetTable);
+    }
+  }
+
+  /**
+   * Returns the column by whose values the data of the given table can be copied in chunks. Per
+   * default, this is the primary key column if the table has exactly one primary key column
+   * and that column is of an integral type.
+   *
+   * @param table The table
+   * @return The column or <code>null</code> if the data of the table cannot be copied in chunks
+   */
+  protected Column getDataCopyKeyColumn(Table table) {
+    Column[] pkColumns = table.getPrimaryKeyColumns();
+
+    if (pkColumns.length != 1) {
+      return null;
+    }
+    switch (pkColumns[0].getTypeCode()) {
+      case Types.TINYINT:
+      case Types.SMALLINT:
+      case Types.INTEGER:
+      case Types.BIGINT:
+        return pkColumns[0];
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Copies the data from the source to the target table in chunks of key ranges. After each
+   * chunk, the changes are committed (unless the connection is in auto-commit mode anyway),
+   * the progress is logged, and the configured throttle delay is waited.
+   *
+   * @param executor    The executor that executes the statements
+   * @param sourceTable The source table
+   * @param targetTable The target table
+   * @param keyColumn   The key column of the source table
+   * @param chunkSize   The size of the key ranges
+   * @param copier      Generates the statements that copy one chunk
+   */
+  private void copyDataInChunks(StatementExecutor executor, Table sourceTable, Table targetTable, Column keyColumn,
+                                int chunkSize, ChunkCopier copier) throws IOException {
+    Connection connection = executor.getConnection();
+    String query = getSqlBuilder().getSelectKeyRangeSql(sourceTable, keyColumn);
+    long minKey;
+    long maxKey;
+    Statement stmt = null;
+
+    try {
+      stmt = connection.createStatement();
+
+      ResultSet resultSet = stmt.executeQuery(query);
+
+      resultSet.next();
+      minKey = resultSet.getLong(1);
+      maxKey = resultSet.getLong(2);
+      if (resultSet.wasNull()) {
+        _log.info("Table " + sourceTable.getName() + " contains no data to copy");
+        return;
+      }
+    } catch (SQLException ex) {
+      throw new DatabaseOperationException("Error while determining the key range of table " + sourceTable.getName(), ex);
+    } finally {
+      closeStatement(stmt);
+    }
+
+    double keyRangeSize = (double) maxKey - minKey + 1;
+    long startRowCount = executor.getChangedRowCount();
+    long lowerBound = minKey;
+
+    while (true) {
+      long upperBound = lowerBound + chunkSize - 1;
+
+      // the second check catches overflows
+      if ((upperBound > maxKey) || (upperBound < lowerBound)) {
+        upperBound = maxKey;
+      }
+      copier.copy(lowerBound, upperBound);
+      try {
+        if (!connection.getAutoCommit()) {
+          connection.commit();
+        }
+      } catch (SQLException ex) {
+        throw new DatabaseOperationException("Error while committing the copied data of table " + sourceTable.getName(), ex);
+      }
+      _log.info("Copied " + (executor.getChangedRowCount() - startRowCount) + " row(s) from table " + sourceTable.getName() +
+        " to table " + targetTable.getName() + " (" + (int) (((double) upperBound - minKey + 1) * 100 / keyRangeSize) + "% of the key range)");
+      if (upperBound == maxKey) {
+        break;
+      }
+      lowerBound = upperBound + 1;
+      if (getDataCopyThrottleDelay() > 0) {
+        try {
+          Thread.sleep(getDataCopyThrottleDelay());
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          throw new DatabaseOperationException("Interrupted while copying the data of table " + sourceTable.getName(), ex);
+        }
+      }
+    }
+  }
+
+  /**
+   * Determines whether the given table can be altered online (see {@link #isOnlineTableAlterationOn()}).
+   * This requires that the table has a key column suitable for copying the data in chunks
+   * ({@link #getDataCopyKeyColumn(Table)}) which is also the only primary key column of the
+   * target table, and that the auto-increment columns of the table are not changed.
+   *
+   * @param sourceTable The table in its current form
+   * @param targetTable The table in its target form
+   * @return <code>true</code> if the table can be altered online
+   */
+  protected boolean canAlterTableOnline(Table sourceTable, Table targetTable) {
+    Column keyColumn = getDataCopyKeyColumn(sourceTable);
+    Column[] targetPkColumns = targetTable.getPrimaryKeyColumns();
+
+    if ((keyColumn == null) || (targetPkColumns.length != 1) ||
+      (targetTable.findColumn(keyColumn.getName(), isDelimitedIdentifierModeOn()) != targetPkColumns[0])) {
+      _log.info("Table " + sourceTable.getName() + " cannot be altered online because its primary key is not suitable");
+      return false;
+    }
+    for (int idx = 0; idx < targetTable.getColumnCount(); idx++) {
+      Column targetColumn = targetTable.getColumn(idx);
+      Column sourceColumn = sourceTable.findColumn(targetColumn.getName(), isDelimitedIdentifierModeOn());
+
+      if (targetColumn.isAutoIncrement() != ((sourceColumn != null) && sourceColumn.isAutoIncrement())) {
+        _log.info("Table " + sourceTable.getName() + " cannot be altered online because its auto-increment columns change");
+        return false;
+      }
+    }
+    for (Column sourceColumn : sourceTable.getAutoIncrementColumns()) {
+      if (targetTable.findColumn(sourceColumn.getName(), isDelimitedIdentifierModeOn()) == null) {
+        _log.info("Table " + sourceTable.getName() + " cannot be altered online because its auto-increment columns change");
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Alters the given table online. A shadow table with the target definition is created, and
+   * triggers on the table mirror all changes into the shadow table while the existing rows
+   * are copied in throttled chunks. Then the row counts of both tables are compared, and
+   * if they match, the shadow table atomically replaces the table. Otherwise, the shadow table
+   * is dropped and the alteration fails.
+   *
+   * @param executor     The executor that executes the statements
+   * @param currentModel The current database schema
+   * @param sourceTable  The table in its current form
+   * @param targetTable  The table in its target form
+   * @param parameters   The parameters for the creation of the table
+   */
+  private void alterTableOnline(StatementExecutor executor, Database currentModel, Table sourceTable, Table targetTable,
+                                Map<String, Object> parameters) throws IOException {
+    SqlBuilder builder = getSqlBuilder();
+    Table shadowTable = getShadowTableFor(targetTable);
+    Column keyColumn = getDataCopyKeyColumn(sourceTable);
+    int chunkSize = getDataCopyChunkSize() > 0 ? getDataCopyChunkSize() : DEFAULT_ONLINE_CHUNK_SIZE;
+
+    _log.info("Altering table " + sourceTable.getName() + " online via the shadow table " + shadowTable.getName());
+    builder.createTable(currentModel, shadowTable, parameters);
+    builder.createShadowTableTriggers(sourceTable, shadowTable, keyColumn);
+    try {
+      copyDataInChunks(executor, sourceTable, shadowTable, keyColumn, chunkSize,
+        (lowerBound, upperBound) -> builder.backfillShadowTable(sourceTable, shadowTable, keyColumn, lowerBound, upperBound));
+      verifyRowCounts(executor.getConnection(), sourceTable, shadowTable);
+    } catch (IOException | RuntimeException ex) {
+      _log.warn("Aborting the online alteration of table " + sourceTable.getName());
+      try {
+        builder.dropShadowTable(sourceTable, shadowTable);
+      } catch (IOException | RuntimeException cleanupEx) {
+        _log.warn("Could not drop the shadow table " + shadowTable.getName(), cleanupEx);
+      }
+      throw ex;
+    }
+    executeInTransaction(executor.getConnection(), () -> builder.swapShadowTable(sourceTable, shadowTable));
+    builder.finishShadowTableSwap(sourceTable, shadowTable, targetTable);
+  }
+
+  /**
+   * Creates the table object for the shadow table that is used to alter the given table online.
+   * The default implementation uses a copy of the target table with a different name.
+   * Database-specific implementations may redefine this method e.g. if the names of indices
+   * need to be unique within the schema.
+   *
+   * @param targetTable The table in its target form
+   * @return The shadow table
+   */
+  protected Table getShadowTableFor(Table targetTable) {
+    Table table = new CloneHelper().clone(targetTable, true, false, null, isDelimitedIdentifierModeOn());
+
+    table.setName("_" + targetTable.getName() + "_new");
+    return table;
+  }
+
+  /**
+   * Compares the number of rows of the source and the shadow table.
+   *
+   * @param connection  The connection
+   * @param sourceTable The source table
+   * @param shadowTable The shadow table
+   * @throws DatabaseOperationException If the row counts differ
+   */
+  private void verifyRowCounts(Connection connection, Table sourceTable, Table shadowTable) throws DatabaseOperationException {
+    String query = getSqlBuilder().getCompareRowCountsSql(sourceTable, shadowTable);
+    Statement stmt = null;
+
+    try {
+      stmt = connection.createStatement();
+
+      ResultSet resultSet = stmt.executeQuery(query);
+
+      resultSet.next();
+
+      long sourceCount = resultSet.getLong(1);
+      long shadowCount = resultSet.getLong(2);
+
+      if (sourceCount != shadowCount) {
+        throw new DatabaseOperationException("The shadow table of table " + sourceTable.getName() + " contains " + shadowCount +
+          " row(s) instead of " + sourceCount);
+      }
+      _log.info("Verified that the shadow table of table " + sourceTable.getName() + " contains all " + sourceCount + " row(s)");
+    } catch (SQLException ex) {
+      throw new DatabaseOperationException("Error while comparing the row counts of table " + sourceTable.getName() +
+        " and its shadow table", ex);
+    } finally {
+      closeStatement(stmt);
+    }
+  }
+
+  /**
+   * Executes the statements generated by the given generator in one transaction on the
+   * given connection.
+   *
+   * @param connection The connection on which the statements are executed
+   * @param generator  The generator of the statements
+   */
+  private void executeInTransaction(Connection connection, SqlGenerator generator) throws IOException {
+    boolean autoCommit;
+    boolean committed = false;
+
+    try {
+      autoCommit = connection.getAutoCommit();
+      connection.setAutoCommit(false);
+    } catch (SQLException ex) {
+      throw new DatabaseOperationException("Error while starting a transaction", ex);
+    }
+    try {
+      generator.generate();
+      connection.commit();
+      committed = true;
+    } catch (SQLException ex) {
+      throw new DatabaseOperationException("Error while committing a transaction", ex);
+    } finally {
+      try {
+        if (!committed) {
+          connection.rollback();
+        }
+        connection.setAutoCommit(autoCommit);
+      } catch (SQLException ex) {
+        _log.warn("Could not end the transaction", ex);
+      }
+    }
+  }
+
   /**
    * Creates a temporary table object that corresponds to the given table.
    * Database-specific implementations may redefine this method if e.g. the
@@ -1450,7 +2449,7 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
     Iterator<RowObject> answer = null;
 
     try {
-      statement = connection.prepareStatement(sql);
+      statement = prepareStatement(connection, sql);
 
       int paramIdx = 1;
 
@@ -1479,6 +2478,54 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
     }
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Stream<RowObject> stream(Database model, String sql) throws DatabaseOperationException {
+    return stream(model, sql, (Table[]) null);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Stream<RowObject> stream(Database model, String sql, Collection<Object> parameters) throws DatabaseOperationException {
+    return stream(model, sql, parameters, null);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Stream<RowObject> stream(Database model, String sql, Table[] queryHints) throws DatabaseOperationException {
+    return createStream(query(model, sql, queryHints));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Stream<RowObject> stream(Database model, String sql, Collection<Object> parameters, Table[] queryHints) throws DatabaseOperationException {
+    return createStream(query(model, sql, parameters, queryHints));
+  }
+
+  /**
+   * Creates a stream over the rows of the given query iterator which releases the statement and
+   * connection of the iterator when it is closed.
+   *
+   * @param iterator The iterator returned by one of the <code>query</code> methods
+   * @return The stream
+   */
+  protected Stream<RowObject> createStream(Iterator<RowObject> iterator) {
+    Stream<RowObject> stream = StreamSupport.stream(new ResultSetSpliterator(iterator, getStreamBatchSize()), false);
+
+    if (iterator instanceof ModelBasedResultSetIterator) {
+      stream = stream.onClose(((ModelBasedResultSetIterator) iterator)::cleanUp);
+    }
+    return stream;
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -1565,14 +2612,27 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
    * {@inheritDoc}
    */
   @Override
-  public List<RowObject> fetch(Database model, String sql, Collection<Object> parameters, Table[] queryHints, int start, int end) throws DatabaseOperationException {
-    Connection connection = borrowConnection();
+  public List<RowObject> fetch(Database model, String sql, Collection<Object> parameters, Table[] queryHints, int start, int end) throws DatabaseOperationException {
+    Connection connection = borrowConnection();
+
+    try {
+      return fetch(connection, model, sql, parameters, queryHints, start, end);
+    } finally {
+      returnConnection(connection);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public List<RowObject> fetch(Connection connection, Database model, String sql, Collection<Object> parameters, Table[] queryHints, int start, int end) throws DatabaseOperationException {
     PreparedStatement statement = null;
-    ResultSet resultSet;
+    ResultSet resultSet = null;
     List<RowObject> result = new ArrayList<>();
 
     try {
-      statement = connection.prepareStatement(sql);
+      statement = prepareStatement(connection, sql);
 
       int paramIdx = 1;
 
@@ -1586,11 +2646,12 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
           statement.setObject(paramIdx, arg);
         }
       }
+
       resultSet = statement.executeQuery();
 
       int rowIdx = 0;
 
-      for (ModelBasedResultSetIterator it = createResultSetIterator(model, resultSet, queryHints); ((end < 0) || (rowIdx <= end)) && it.hasNext(); rowIdx++) {
+      for (ModelBasedResultSetIterator it = new ModelBasedResultSetIterator(this, model, resultSet, queryHints, false); ((end < 0) || (rowIdx <= end)) && it.hasNext(); rowIdx++) {
         if (rowIdx >= start) {
           result.add(it.next());
         } else {
@@ -1598,10 +2659,10 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
         }
       }
     } catch (SQLException ex) {
-      // any other exception comes from the iterator which closes the resources automatically
-      closeStatement(statement);
-      returnConnection(connection);
       throw new DatabaseOperationException("Error while fetching data from the database", ex);
+    } finally {
+      JdbcUtils.closeSilently(resultSet);
+      closeStatement(statement);
     }
     return result;
   }
@@ -1638,6 +2699,22 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
     return _builder.getSelectLastIdentityValues(table);
   }
 
+  /**
+   * Returns the cached template for inserting an object of the given type with the given properties.
+   *
+   * @param model      The database model
+   * @param dynaClass  The type
+   * @param properties The properties to write
+   * @return The template
+   */
+  private SqlTemplate getInsertTemplate(Database model, TableClass dynaClass, ColumnProperty[] properties) {
+    return _dmlSqlCache.getTemplate(StatementType.INSERT,
+      dynaClass,
+      properties,
+      () -> properties,
+      () -> createInsertSql(model, dynaClass, properties, null));
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -1721,7 +2798,8 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
       return;
     }
 
-    String insertSql = createInsertSql(model, dynaClass, properties, null);
+    SqlTemplate insertTemplate = getInsertTemplate(model, dynaClass, properties);
+    String insertSql = insertTemplate.getSql();
     String queryIdentitySql = null;
 
     if (_log.isDebugEnabled()) {
@@ -1747,10 +2825,12 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
 
       beforeInsert(connection, dynaClass.getTable());
 
-      statement = connection.prepareStatement(insertSql);
+      statement = prepareStatement(connection, insertSql);
 
-      for (int idx = 0; idx < properties.length; idx++) {
-        setObject(statement, idx + 1, rowObject, properties[idx]);
+      ColumnProperty[] parameters = insertTemplate.getParameters();
+
+      for (int idx = 0; idx < parameters.length; idx++) {
+        setObject(statement, idx + 1, rowObject, parameters[idx]);
       }
 
       int count = statement.executeUpdate();
@@ -1768,7 +2848,7 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
       closeStatement(statement);
     }
     if (queryIdentitySql != null) {
-      Statement queryStmt;
+      Statement queryStmt = null;
       ResultSet lastInsertedIds = null;
 
       try {
@@ -1804,7 +2884,7 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
             // we ignore this one
           }
         }
-        closeStatement(statement);
+        closeStatement(queryStmt);
       }
     }
     if (!getPlatformInfo().isAutoCommitModeForLastIdentityValueReading()) {
@@ -1816,6 +2896,7 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
         throw new DatabaseOperationException(ex);
       }
     }
+    rowObject.markUnchanged();
   }
 
   /**
@@ -1837,78 +2918,313 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
    */
   @Override
   public void insert(Connection connection, Database model, Collection<RowObject> rowObjects) throws DatabaseOperationException {
-    TableClass dynaClass = null;
-    ColumnProperty[] properties = null;
-    PreparedStatement statement = null;
-    int addedStmts = 0;
-    boolean identityWarningPrinted = false;
+    executeInBatches(connection, model, rowObjects, StatementType.INSERT);
+  }
+
+  /**
+   * The pending batch of the rows of one table.
+   */
+  private static class RowBatch {
+    /**
+     * The type of the rows.
+     */
+    private final TableClass _tableClass;
+    /**
+     * The properties written by the update statement, <code>null</code> for other statements.
+     */
+    private final ColumnProperty[] _updatedProperties;
+    /**
+     * The properties bound to the parameters of the statement.
+     */
+    private final ColumnProperty[] _parameters;
+    /**
+     * The prepared statement, <code>null</code> if the rows cannot be written.
+     */
+    private final PreparedStatement _statement;
+    /**
+     * The rows added to the batch of the statement.
+     */
+    private final List<RowObject> _rows = new ArrayList<>();
+
+    /**
+     * Creates a new batch.
+     *
+     * @param tableClass        The type of the rows
+     * @param updatedProperties The properties written by the update statement
+     * @param parameters        The properties bound to the parameters of the statement
+     * @param statement         The prepared statement
+     */
+    RowBatch(TableClass tableClass, ColumnProperty[] updatedProperties, ColumnProperty[] parameters, PreparedStatement statement) {
+      _tableClass = tableClass;
+      _updatedProperties = updatedProperties;
+      _parameters = parameters;
+      _statement = statement;
+    }
+  }
 
-    for (RowObject rowObject : rowObjects) {
-      TableClass curDynaClass = model.getTableClassFor(rowObject);
+  /**
+   * Writes the given beans to the database, using JDBC batches per table. The beans of a table are
+   * collected in one batch even if beans of other tables come in between, unless these tables are
+   * related to the table by a foreign key. Beans of related tables are written in the given order.
+   *
+   * @param connection The database connection
+   * @param model      The database model to use
+   * @param rowObjects The beans
+   * @param type       The kind of statement to execute for the beans, one of insert, update or delete
+   */
+  private void executeInBatches(Connection connection, Database model, Collection<RowObject> rowObjects, StatementType type) throws DatabaseOperationException {
+    Map<TableClass, RowBatch> batches = new LinkedHashMap<>();
+    boolean identityWarningPrinted = false;
 
-      if (curDynaClass != dynaClass) {
-        if (dynaClass != null) {
-          executeBatch(statement, addedStmts, dynaClass.getTable());
-          addedStmts = 0;
+    try {
+      for (RowObject rowObject : rowObjects) {
+        TableClass dynaClass = model.getTableClassFor(rowObject);
+        ColumnProperty[] updatedProperties = null;
+
+        if (type == StatementType.UPDATE) {
+          updatedProperties = getPropertiesForUpdate(dynaClass, rowObject);
+          if (rowObject.isChangeTracked() && (updatedProperties.length == 0)) {
+            // nothing to update
+            continue;
+          }
         }
 
-        dynaClass = curDynaClass;
-        properties = getPropertiesForInsertion(model, curDynaClass, rowObject);
+        RowBatch batch = batches.get(dynaClass);
 
-        if (properties.length == 0) {
-          _log.warn("Cannot insert instances of type " + dynaClass + " because it has no usable properties");
-          continue;
+        if ((batch != null) && !Arrays.equals(updatedProperties, batch._updatedProperties)) {
+          executeBatch(batch._statement, batch._rows, dynaClass.getTable(), type);
+          closeStatement(batch._statement);
+          batches.remove(dynaClass);
+          batch = null;
         }
-        if (!identityWarningPrinted &&
-          (getRelevantIdentityColumns(model, curDynaClass, rowObject).length > 0)) {
-          _log.warn("Updating the bean properties corresponding to auto-increment columns is not supported in batch mode");
-          identityWarningPrinted = true;
+        // the rows of related tables might depend on each other, so they have to be written in order
+        for (RowBatch otherBatch : batches.values()) {
+          if ((otherBatch != batch) && isRelated(dynaClass.getTable(), otherBatch._tableClass.getTable())) {
+            executeBatch(otherBatch._statement, otherBatch._rows, otherBatch._tableClass.getTable(), type);
+          }
         }
-
-        String insertSql = createInsertSql(model, dynaClass, properties, null);
-
-        if (_log.isDebugEnabled()) {
-          _log.debug("Starting new batch with SQL: " + insertSql);
+        if (batch == null) {
+          SqlTemplate template = getBatchTemplate(model, dynaClass, rowObject, type);
+          PreparedStatement statement = null;
+
+          if (template != null) {
+            if ((type == StatementType.INSERT) && !identityWarningPrinted &&
+              (getRelevantIdentityColumns(model, dynaClass, rowObject).length > 0)) {
+              _log.warn("Updating the bean properties corresponding to auto-increment columns is not supported in batch mode");
+              identityWarningPrinted = true;
+            }
+            if (_log.isDebugEnabled()) {
+              _log.debug("Starting new batch with SQL: " + template.getSql());
+            }
+            try {
+              statement = prepareStatement(connection, template.getSql());
+            } catch (SQLException ex) {
+              throw new DatabaseOperationException("Error while preparing " + type.name().toLowerCase() + " statement", ex);
+            }
+          }
+          batch = new RowBatch(dynaClass, updatedProperties, template == null ? null : template.getParameters(), statement);
+          batches.put(dynaClass, batch);
+        }
+        if (batch._statement == null) {
+          // the type cannot be written
+          continue;
         }
         try {
-          statement = connection.prepareStatement(insertSql);
+          for (int idx = 0; idx < batch._parameters.length; idx++) {
+            setObject(batch._statement, idx + 1, rowObject, batch._parameters[idx]);
+          }
+          batch._statement.addBatch();
+          batch._rows.add(rowObject);
         } catch (SQLException ex) {
-          throw new DatabaseOperationException("Error while preparing insert statement", ex);
+          throw new DatabaseOperationException("Error while adding batch " + type.name().toLowerCase(), ex);
         }
-      }
-      try {
-        for (int idx = 0; idx < properties.length; idx++) {
-          setObject(statement, idx + 1, rowObject, properties[idx]);
+        if (batch._rows.size() >= getRowBatchSize()) {
+          executeBatch(batch._statement, batch._rows, dynaClass.getTable(), type);
         }
-        statement.addBatch();
-        addedStmts++;
-      } catch (SQLException ex) {
-        throw new DatabaseOperationException("Error while adding batch insert", ex);
       }
+      for (RowBatch batch : batches.values()) {
+        executeBatch(batch._statement, batch._rows, batch._tableClass.getTable(), type);
+      }
+    } finally {
+      for (RowBatch batch : batches.values()) {
+        closeStatement(batch._statement);
+      }
+    }
+  }
+
+  /**
+   * Determines whether one of the given tables references the other one via a foreign key.
+   *
+   * @param table1 The first table
+   * @param table2 The second table
+   * @return <code>true</code> if the tables are related
+   */
+  private boolean isRelated(Table table1, Table table2) {
+    for (int idx = 0; idx < table1.getForeignKeyCount(); idx++) {
+      if (table2.equals(table1.getForeignKey(idx).getForeignTable())) {
+        return true;
+      }
+    }
+    for (int idx = 0; idx < table2.getForeignKeyCount(); idx++) {
+      if (table1.equals(table2.getForeignKey(idx).getForeignTable())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the template of the statement used to write the given bean in a batch.
+   *
+   * @param model     The database model
+   * @param dynaClass The type of the bean
+   * @param rowObject The first bean of the batch
+   * @param type      The kind of statement, one of insert, update or delete
+   * @return The template, or <code>null</code> if beans of this type cannot be written
+   */
+  private SqlTemplate getBatchTemplate(Database model, TableClass dynaClass, RowObject rowObject, StatementType type) {
+    if (type == StatementType.INSERT) {
+      ColumnProperty[] properties = getPropertiesForInsertion(model, dynaClass, rowObject);
+
+      if (properties.length == 0) {
+        _log.warn("Cannot insert instances of type " + dynaClass + " because it has no usable properties");
+        return null;
+      }
+      return getInsertTemplate(model, dynaClass, properties);
+    } else if (type == StatementType.UPSERT) {
+      return getUpsertTemplate(model, dynaClass, rowObject);
+    }
+
+    ColumnProperty[] primaryKeys = dynaClass.getPrimaryKeyProperties();
+
+    if (primaryKeys.length == 0) {
+      _log.warn("Cannot " + type.name().toLowerCase() + " instances of type " + dynaClass + " because it has no primary keys");
+      return null;
+    }
+    if (type == StatementType.UPDATE) {
+      ColumnProperty[] properties = getPropertiesForUpdate(dynaClass, rowObject);
+
+      return _dmlSqlCache.getTemplate(StatementType.UPDATE,
+        dynaClass,
+        properties,
+        () -> concat(properties, primaryKeys),
+        () -> createUpdateSql(model, dynaClass, primaryKeys, properties, null));
+    } else {
+      return _dmlSqlCache.getTemplate(StatementType.DELETE,
+        dynaClass,
+        primaryKeys,
+        () -> primaryKeys,
+        () -> createDeleteSql(model, dynaClass, primaryKeys, null));
+    }
+  }
+
+  /**
+   * Returns the name of the operation performed by batches of the given kind of statement, for log messages.
+   *
+   * @param type The kind of statement
+   * @return The name
+   */
+  private String getBatchOperationName(StatementType type) {
+    switch (type) {
+      case INSERT:
+        return "insertion";
+      case UPDATE:
+        return "update";
+      case UPSERT:
+        return "store";
+      default:
+        return "deletion";
     }
-    if (dynaClass != null) {
-      executeBatch(statement, addedStmts, dynaClass.getTable());
+  }
+
+  /**
+   * Returns the template of the native upsert statement for the given bean (see
+   * {@link SqlBuilder#getUpsertSql(Table, List, List)}).
+   *
+   * @param model     The database model
+   * @param dynaClass The type of the bean
+   * @param rowObject The bean
+   * @return The template, or <code>null</code> if the platform has no native upsert statement
+   *         or the bean does not specify its primary key values
+   */
+  private SqlTemplate getUpsertTemplate(Database model, TableClass dynaClass, RowObject rowObject) {
+    ColumnProperty[] properties = getPropertiesForInsertion(model, dynaClass, rowObject);
+    List<ColumnProperty> propertyList = Arrays.asList(properties);
+
+    // the database cannot match the row if the values of auto-increment primary keys are not written
+    for (ColumnProperty primaryKey : dynaClass.getPrimaryKeyProperties()) {
+      if (!propertyList.contains(primaryKey)) {
+        return null;
+      }
     }
+
+    SqlTemplate template = _dmlSqlCache.getTemplate(StatementType.UPSERT, dynaClass, properties, () -> {
+      Table table = model.findTable(dynaClass.getTableName());
+      List<Column> columns = new ArrayList<>();
+      List<Column> parameterColumns = new ArrayList<>();
+
+      for (ColumnProperty property : properties) {
+        columns.add(property.getColumn());
+      }
+
+      String sql = _builder.getUpsertSql(table, columns, parameterColumns);
+      ColumnProperty[] parameters = new ColumnProperty[parameterColumns.size()];
+
+      for (int idx = 0; idx < parameters.length; idx++) {
+        parameters[idx] = properties[columns.indexOf(parameterColumns.get(idx))];
+      }
+      return new SqlTemplate(sql, parameters);
+    });
+
+    return template.getSql() == null ? null : template;
+  }
+
+  /**
+   * Determines whether the database behind the given connection supports the native upsert
+   * statement of the platform (see {@link SqlBuilder#getUpsertSql(Table, List, List)}). This
+   * default implementation returns <code>true</code>; platforms whose upsert statement requires
+   * a minimum version of the database redefine this method.
+   *
+   * @param connection The connection to the database
+   * @return <code>true</code> if the upsert statement can be used
+   */
+  protected boolean isUpsertSupported(Connection connection) throws SQLException {
+    return true;
   }
 
   /**
    * Performs the batch for the given statement, and checks that the specified amount of rows has been changed.
+   * The before and after hooks of the statement type (e.g. {@link #beforeUpdate(Connection, Table)}) are
+   * invoked once per batch, and the row counts are reported to the {@link #getRowBatchListener() listener}.
+   * Afterwards, the written beans are marked as unchanged and the list of beans is cleared.
    *
    * @param statement The prepared statement
-   * @param numRows   The number of rows that should change
+   * @param rows      The beans added to the batch
    * @param table     The changed table
+   * @param type      The kind of statement, one of insert, update or delete
    */
-  private void executeBatch(PreparedStatement statement, int numRows, Table table) throws DatabaseOperationException {
-    if (statement != null) {
+  private void executeBatch(PreparedStatement statement, List<RowObject> rows, Table table, StatementType type) throws DatabaseOperationException {
+    int numRows = rows.size();
+
+    if ((statement != null) && (numRows > 0)) {
+      String operation = getBatchOperationName(type);
+
       try {
         Connection connection = statement.getConnection();
 
-        beforeInsert(connection, table);
+        if ((type == StatementType.INSERT) || (type == StatementType.UPSERT)) {
+          beforeInsert(connection, table);
+        } else if (type == StatementType.UPDATE) {
+          beforeUpdate(connection, table);
+        }
 
         int[] results = statement.executeBatch();
 
-        closeStatement(statement);
-        afterInsert(connection, table);
+        if ((type == StatementType.INSERT) || (type == StatementType.UPSERT)) {
+          afterInsert(connection, table);
+        } else if (type == StatementType.UPDATE) {
+          afterUpdate(connection, table);
+        }
 
         boolean hasSum = true;
         int sum = 0;
@@ -1917,27 +3233,41 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
           if (results[idx] < 0) {
             hasSum = false;
             if (results[idx] == Statement.EXECUTE_FAILED) {
-              _log.warn("The batch insertion of row " + idx + " into table " + table.getName() + " failed but the driver is able to continue processing");
+              _log.warn("The batch " + operation + " of row " + idx + " in table " + table.getName() + " failed but the driver is able to continue processing");
             } else if (results[idx] != Statement.SUCCESS_NO_INFO) {
-              _log.warn("The batch insertion of row " + idx + " into table " + table.getName() + " returned an undefined status value " + results[idx]);
+              _log.warn("The batch " + operation + " of row " + idx + " in table " + table.getName() + " returned an undefined status value " + results[idx]);
             }
           } else {
             sum += results[idx];
           }
         }
-        if (hasSum && (sum != numRows)) {
-          _log.warn("Attempted to insert " + numRows + " rows into table " + table.getName() + " but changed " + sum + " rows");
+        if (hasSum && (sum != numRows) && (type != StatementType.UPSERT)) {
+          _log.warn("Attempted the " + operation + " of " + numRows + " rows in table " + table.getName() + " but changed " + sum + " rows");
+        } else if (_log.isDebugEnabled()) {
+          _log.debug("Batch " + operation + " of " + numRows + " rows in table " + table.getName() +
+            (hasSum ? " changed " + sum + " rows" : " done"));
+        }
+        if (_rowBatchListener != null) {
+          _rowBatchListener.batchExecuted(table, type, numRows, hasSum ? sum : -1);
         }
       } catch (SQLException ex) {
+        String msg = "Error during the batch " + operation + " in table " + table.getName();
+
         if (ex instanceof BatchUpdateException) {
           SQLException sqlEx = ex.getNextException();
 
-          throw new DatabaseOperationException("Error while inserting into the database", sqlEx);
+          throw new DatabaseOperationException(msg, sqlEx == null ? ex : sqlEx);
         } else {
-          throw new DatabaseOperationException("Error while inserting into the database", ex);
+          throw new DatabaseOperationException(msg, ex);
+        }
+      }
+      if (type != StatementType.DELETE) {
+        for (RowObject row : rows) {
+          row.markUnchanged();
         }
       }
     }
+    rows.clear();
   }
 
   /**
@@ -2028,8 +3358,11 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
   public String getUpdateSql(Database model, RowObject rowObject) {
     TableClass dynaClass = model.getTableClassFor(rowObject);
     ColumnProperty[] primaryKeys = dynaClass.getPrimaryKeyProperties();
-    ColumnProperty[] nonPrimaryKeys = dynaClass.getNonPrimaryKeyProperties();
+    ColumnProperty[] nonPrimaryKeys = getPropertiesForUpdate(dynaClass, rowObject);
 
+    if (nonPrimaryKeys.length == 0) {
+      nonPrimaryKeys = dynaClass.getNonPrimaryKeyProperties();
+    }
     if (primaryKeys.length == 0) {
       _log.info("Cannot update instances of type " + dynaClass + " because it has no primary keys");
       return null;
@@ -2068,8 +3401,21 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
       return;
     }
 
-    ColumnProperty[] properties = dynaClass.getNonPrimaryKeyProperties();
-    String sql = createUpdateSql(model, dynaClass, primaryKeys, properties, null);
+    ColumnProperty[] properties = getPropertiesForUpdate(dynaClass, rowObject);
+
+    if (rowObject.isChangeTracked() && (properties.length == 0)) {
+      if (_log.isDebugEnabled()) {
+        _log.debug("Skipping update of row " + rowObject + " because it has not been changed");
+      }
+      return;
+    }
+
+    SqlTemplate template = _dmlSqlCache.getTemplate(StatementType.UPDATE,
+      dynaClass,
+      properties,
+      () -> concat(properties, primaryKeys),
+      () -> createUpdateSql(model, dynaClass, primaryKeys, properties, null));
+    String sql = template.getSql();
     PreparedStatement statement = null;
 
     if (_log.isDebugEnabled()) {
@@ -2078,15 +3424,12 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
     try {
       beforeUpdate(connection, dynaClass.getTable());
 
-      statement = connection.prepareStatement(sql);
+      statement = prepareStatement(connection, sql);
 
-      int sqlIndex = 1;
+      ColumnProperty[] parameters = template.getParameters();
 
-      for (ColumnProperty property : properties) {
-        setObject(statement, sqlIndex++, rowObject, property);
-      }
-      for (ColumnProperty primaryKey : primaryKeys) {
-        setObject(statement, sqlIndex++, rowObject, primaryKey);
+      for (int idx = 0; idx < parameters.length; idx++) {
+        setObject(statement, idx + 1, rowObject, parameters[idx]);
       }
 
       int count = statement.executeUpdate();
@@ -2098,6 +3441,7 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
           " into table " + dynaClass.getTableName() +
           " but changed " + count + " row(s)");
       }
+      rowObject.markUnchanged();
     } catch (SQLException ex) {
       throw new DatabaseOperationException("Error while updating in the database", ex);
     } finally {
@@ -2136,7 +3480,12 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
     }
 
     ColumnProperty[] properties = dynaClass.getSqlDynaProperties();
-    String sql = createUpdateSql(model, dynaClass, primaryKeys, properties, null, null);
+    SqlTemplate template = _dmlSqlCache.getTemplate(StatementType.UPDATE_FROM_OLD_ROW,
+      dynaClass,
+      properties,
+      () -> concat(properties, primaryKeys),
+      () -> createUpdateSql(model, dynaClass, primaryKeys, properties, null, null));
+    String sql = template.getSql();
     PreparedStatement statement = null;
 
     if (_log.isDebugEnabled()) {
@@ -2145,15 +3494,13 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
     try {
       beforeUpdate(connection, dynaClass.getTable());
 
-      statement = connection.prepareStatement(sql);
+      statement = prepareStatement(connection, sql);
 
-      int sqlIndex = 1;
+      ColumnProperty[] parameters = template.getParameters();
 
-      for (ColumnProperty property : properties) {
-        setObject(statement, sqlIndex++, newRowObject, property);
-      }
-      for (ColumnProperty primaryKey : primaryKeys) {
-        setObject(statement, sqlIndex++, oldRowObject, primaryKey);
+      // the new values are followed by the primary key values of the old row
+      for (int idx = 0; idx < parameters.length; idx++) {
+        setObject(statement, idx + 1, idx < properties.length ? newRowObject : oldRowObject, parameters[idx]);
       }
 
       int count = statement.executeUpdate();
@@ -2186,6 +3533,28 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
     }
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void update(Connection connection, Database model, Collection<RowObject> rowObjects) throws DatabaseOperationException {
+    executeInBatches(connection, model, rowObjects, StatementType.UPDATE);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void update(Database model, Collection<RowObject> rowObjects) throws DatabaseOperationException {
+    Connection connection = borrowConnection();
+
+    try {
+      update(connection, model, rowObjects);
+    } finally {
+      returnConnection(connection);
+    }
+  }
+
   /**
    * Allows platforms to issue statements directly before rows are updated in
    * the specified table.
@@ -2206,6 +3575,119 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
   protected void afterUpdate(Connection connection, Table table) throws SQLException {
   }
 
+  /**
+   * Returns the non-primary key properties of the given bean that are written when updating it.
+   * These are the properties that have been changed if the bean tracks its changes (see
+   * {@link RowObject#markUnchanged()}), and all of them otherwise.
+   *
+   * @param dynaClass The type of the bean
+   * @param rowObject The bean
+   * @return The properties, in the order of the properties of the type
+   */
+  protected ColumnProperty[] getPropertiesForUpdate(TableClass dynaClass, RowObject rowObject) {
+    ColumnProperty[] properties = dynaClass.getNonPrimaryKeyProperties();
+
+    if (!rowObject.isChangeTracked()) {
+      return properties;
+    }
+
+    List<ColumnProperty> result = new ArrayList<>();
+
+    for (ColumnProperty property : properties) {
+      if (rowObject.isChanged(property.getName())) {
+        result.add(property);
+      }
+    }
+    return result.toArray(new ColumnProperty[0]);
+  }
+
+  /**
+   * Creates the SQL for querying whether an object of the given type exists, usable in a prepared
+   * statement with the primary key values as parameters.
+   *
+   * @param dynaClass   The type
+   * @param primaryKeys The primary keys
+   * @return The SQL
+   */
+  protected String createExistsSql(TableClass dynaClass, ColumnProperty[] primaryKeys) {
+    return createExistsSql(dynaClass, primaryKeys, 1);
+  }
+
+  /**
+   * Creates the SQL for querying which of a number of objects of the given type exist, usable in a
+   * prepared statement with the primary key values of the objects (one after the other) as parameters.
+   * The query returns only the primary key columns. For tables with a single primary key column, the
+   * values are checked via an IN list, otherwise the conditions for the individual objects are combined
+   * via OR.
+   *
+   * @param dynaClass   The type
+   * @param primaryKeys The primary keys
+   * @param numRows     The number of objects
+   * @return The SQL
+   */
+  protected String createExistsSql(TableClass dynaClass, ColumnProperty[] primaryKeys, int numRows) {
+    StringBuilder sql = new StringBuilder();
+
+    sql.append("SELECT ");
+    for (int idx = 0; idx < primaryKeys.length; idx++) {
+      if (idx > 0) {
+        sql.append(", ");
+      }
+      sql.append(_builder.getDelimitedIdentifier(primaryKeys[idx].getColumn().getName()));
+    }
+    sql.append(" FROM ");
+    sql.append(_builder.getDelimitedIdentifier(dynaClass.getTable().getName()));
+    sql.append(" WHERE ");
+
+    if ((primaryKeys.length == 1) && (numRows > 1)) {
+      sql.append(_builder.getDelimitedIdentifier(primaryKeys[0].getColumn().getName()));
+      sql.append(" IN (");
+      for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
+        if (rowIdx > 0) {
+          sql.append(", ");
+        }
+        sql.append("?");
+      }
+      sql.append(")");
+    } else {
+      for (int rowIdx = 0; rowIdx < numRows; rowIdx++) {
+        if (rowIdx > 0) {
+          sql.append(" OR ");
+        }
+        if (numRows > 1) {
+          sql.append("(");
+        }
+        for (int idx = 0; idx < primaryKeys.length; idx++) {
+          String key = primaryKeys[idx].getColumn().getName();
+
+          if (idx > 0) {
+            sql.append(" AND ");
+          }
+          sql.append(_builder.getDelimitedIdentifier(key));
+          sql.append("=?");
+        }
+        if (numRows > 1) {
+          sql.append(")");
+        }
+      }
+    }
+    return sql.toString();
+  }
+
+  /**
+   * Concatenates the given property arrays.
+   *
+   * @param first  The first properties
+   * @param second The second properties
+   * @return The concatenated properties
+   */
+  private static ColumnProperty[] concat(ColumnProperty[] first, ColumnProperty[] second) {
+    ColumnProperty[] result = Arrays.copyOf(first, first.length + second.length);
+
+    System.arraycopy(second, 0, result, first.length, second.length);
+    return result;
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -2220,47 +3702,166 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
     }
   }
 
-
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean exists(Connection connection, Database model, RowObject rowObject) {
+    TableClass dynaClass = model.getTableClassFor(rowObject);
+    ColumnProperty[] primaryKeys = dynaClass.getPrimaryKeyProperties();
+
+    if (primaryKeys.length == 0) {
+      return false;
+    }
+
+    PreparedStatement stmt = null;
+
+    try {
+      SqlTemplate template = _dmlSqlCache.getTemplate(StatementType.EXISTS,
+        dynaClass,
+        primaryKeys,
+        () -> primaryKeys,
+        () -> createExistsSql(dynaClass, primaryKeys));
+      ColumnProperty[] parameters = template.getParameters();
+
+      stmt = prepareStatement(connection, template.getSql());
+
+      for (int idx = 0; idx < parameters.length; idx++) {
+        setObject(stmt, idx + 1, rowObject, parameters[idx]);
+      }
+
+      try (ResultSet resultSet = stmt.executeQuery()) {
+        return resultSet.next();
+      }
+    } catch (SQLException ex) {
+      throw new DatabaseOperationException("Error while reading from the database", ex);
+    } finally {
+      closeStatement(stmt);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Set<RowObject> findExisting(Database model, Collection<RowObject> rowObjects) throws DatabaseOperationException {
+    Connection connection = borrowConnection();
+
+    try {
+      return findExisting(connection, model, rowObjects);
+    } finally {
+      returnConnection(connection);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Set<RowObject> findExisting(Connection connection, Database model, Collection<RowObject> rowObjects) throws DatabaseOperationException {
+    Map<TableClass, List<RowObject>> rowObjectsPerClass = new LinkedHashMap<>();
+    Set<RowObject> result = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    for (RowObject rowObject : rowObjects) {
+      rowObjectsPerClass.computeIfAbsent(model.getTableClassFor(rowObject), dynaClass -> new ArrayList<>()).add(rowObject);
+    }
+    for (Map.Entry<TableClass, List<RowObject>> entry : rowObjectsPerClass.entrySet()) {
+      ColumnProperty[] primaryKeys = entry.getKey().getPrimaryKeyProperties();
+      List<RowObject> classRowObjects = entry.getValue();
+
+      if (primaryKeys.length == 0) {
+        continue;
+      }
+
+      int probeSize = getMaxRowsPerExistsProbe(primaryKeys.length);
+
+      for (int start = 0; start < classRowObjects.size(); start += probeSize) {
+        probeExisting(connection,
+          entry.getKey(),
+          primaryKeys,
+          classRowObjects.subList(start, Math.min(start + probeSize, classRowObjects.size())),
+          result);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Determines the maximum number of beans whose existence is checked by a single query. This is
+   * the row batch size, limited by the maximum number of parameters and the maximum IN list size
+   * of the database.
+   *
+   * @param numPrimaryKeys The number of primary key columns of the table
+   * @return The number of beans
+   */
+  protected int getMaxRowsPerExistsProbe(int numPrimaryKeys) {
+    PlatformInfo info = getPlatformInfo();
+    int result = getRowBatchSize();
+
+    if (info.getMaxInListSize() > 0) {
+      result = Math.min(result, info.getMaxInListSize());
+    }
+    if (info.getMaxParameterCount() > 0) {
+      result = Math.min(result, Math.max(1, info.getMaxParameterCount() / numPrimaryKeys));
+    }
+    return result;
+  }
+
   /**
-   * {@inheritDoc}
+   * Queries which of the given beans of the same type exist, and adds these to the result.
+   * Beans with the same primary key values are queried only once.
+   *
+   * @param connection  The connection
+   * @param dynaClass   The type of the beans
+   * @param primaryKeys The primary keys
+   * @param rowObjects  The beans
+   * @param result      The set to add the existing beans to
    */
-  @Override
-  public boolean exists(Connection connection, Database model, RowObject rowObject) {
-    TableClass dynaClass = model.getTableClassFor(rowObject);
-    ColumnProperty[] primaryKeys = dynaClass.getPrimaryKeyProperties();
+  private void probeExisting(Connection connection,
+                             TableClass dynaClass,
+                             ColumnProperty[] primaryKeys,
+                             List<RowObject> rowObjects,
+                             Set<RowObject> result) throws DatabaseOperationException {
+    Map<List<Object>, List<RowObject>> rowObjectsPerKey = new LinkedHashMap<>();
 
-    if (primaryKeys.length == 0) {
-      return false;
+    for (RowObject rowObject : rowObjects) {
+      List<Object> key = new ArrayList<>(primaryKeys.length);
+
+      for (ColumnProperty primaryKey : primaryKeys) {
+        key.add(getComparableKeyValue(primaryKey.getColumn(), rowObject.get(primaryKey.getName())));
+      }
+      rowObjectsPerKey.computeIfAbsent(key, k -> new ArrayList<>()).add(rowObject);
     }
 
     PreparedStatement stmt = null;
 
     try {
-      StringBuilder sql = new StringBuilder();
-
-      sql.append("SELECT * FROM ");
-      sql.append(_builder.getDelimitedIdentifier(dynaClass.getTable().getName()));
-      sql.append(" WHERE ");
+      int sqlIdx = 1;
 
-      for (int idx = 0; idx < primaryKeys.length; idx++) {
-        String key = primaryKeys[idx].getColumn().getName();
-
-        if (idx > 0) {
-          sql.append(" AND ");
+      stmt = prepareStatement(connection, createExistsSql(dynaClass, primaryKeys, rowObjectsPerKey.size()));
+      for (List<RowObject> keyRowObjects : rowObjectsPerKey.values()) {
+        for (ColumnProperty primaryKey : primaryKeys) {
+          setObject(stmt, sqlIdx++, keyRowObjects.get(0), primaryKey);
         }
-        sql.append(_builder.getDelimitedIdentifier(key));
-        sql.append("=?");
       }
+      try (ResultSet resultSet = stmt.executeQuery()) {
+        while (resultSet.next()) {
+          List<Object> key = new ArrayList<>(primaryKeys.length);
 
-      stmt = connection.prepareStatement(sql.toString());
+          for (int idx = 0; idx < primaryKeys.length; idx++) {
+            Column column = primaryKeys[idx].getColumn();
 
-      for (int idx = 0; idx < primaryKeys.length; idx++) {
-        setObject(stmt, idx + 1, rowObject, primaryKeys[idx]);
-      }
+            key.add(getComparableKeyValue(column, getObjectFromResultSet(resultSet, column, idx + 1)));
+          }
 
-      ResultSet resultSet = stmt.executeQuery();
+          List<RowObject> existing = rowObjectsPerKey.get(key);
 
-      return resultSet.next();
+          if (existing != null) {
+            result.addAll(existing);
+          }
+        }
+      }
     } catch (SQLException ex) {
       throw new DatabaseOperationException("Error while reading from the database", ex);
     } finally {
@@ -2268,6 +3869,20 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
     }
   }
 
+  /**
+   * Returns a representation of the given primary key value that can be used to compare the value
+   * of a bean with the value read from the database, which might be of a different type. Per default,
+   * this is the representation returned by {@link ValueUtils#getComparableValue(int, Object)}.
+   *
+   * @param column The primary key column
+   * @param value  The value
+   * @return The value to compare
+   */
+  protected Object getComparableKeyValue(Column column, Object value) {
+    return ValueUtils.getComparableValue(column.getTypeCode(), value);
+  }
+
+
   /**
    * {@inheritDoc}
    */
@@ -2294,6 +3909,85 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
     }
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void store(Database model, Collection<RowObject> rowObjects) throws DatabaseOperationException {
+    Connection connection = borrowConnection();
+
+    try {
+      store(connection, model, rowObjects);
+    } finally {
+      returnConnection(connection);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void store(Connection connection, Database model, Collection<RowObject> rowObjects) throws DatabaseOperationException {
+    TableClass dynaClass = null;
+    List<RowObject> group = new ArrayList<>();
+
+    for (RowObject rowObject : rowObjects) {
+      TableClass curDynaClass = model.getTableClassFor(rowObject);
+
+      if (curDynaClass != dynaClass) {
+        storeGroup(connection, model, dynaClass, group);
+        group.clear();
+        dynaClass = curDynaClass;
+      }
+      group.add(rowObject);
+    }
+    storeGroup(connection, model, dynaClass, group);
+  }
+
+  /**
+   * Stores the given beans of the same type. If the platform has a native upsert statement that the
+   * database supports, then it is executed in batches. Otherwise, the beans are split into batches, and for each batch
+   * the existing rows are determined so that they can be updated in one batch whereas the other
+   * rows are inserted in one batch.
+   *
+   * @param connection The connection
+   * @param model      The database model to use
+   * @param dynaClass  The type of the beans
+   * @param rowObjects The beans
+   */
+  private void storeGroup(Connection connection, Database model, TableClass dynaClass, List<RowObject> rowObjects) throws DatabaseOperationException {
+    if (rowObjects.isEmpty()) {
+      return;
+    }
+
+    boolean upsertSupported;
+
+    try {
+      upsertSupported = isUpsertSupported(connection);
+    } catch (SQLException ex) {
+      throw new DatabaseOperationException("Error while determining the database version", ex);
+    }
+    if (dynaClass.getPrimaryKeyProperties().length == 0) {
+      // without primary key the rows cannot exist in the sense of store
+      insert(connection, model, rowObjects);
+    } else if (upsertSupported && (getUpsertTemplate(model, dynaClass, rowObjects.get(0)) != null)) {
+      executeInBatches(connection, model, rowObjects, StatementType.UPSERT);
+    } else {
+      for (int start = 0; start < rowObjects.size(); start += getRowBatchSize()) {
+        List<RowObject> batch = rowObjects.subList(start, Math.min(start + getRowBatchSize(), rowObjects.size()));
+        Set<RowObject> existing = findExisting(connection, model, batch);
+        List<RowObject> toUpdate = new ArrayList<>();
+        List<RowObject> toInsert = new ArrayList<>();
+
+        for (RowObject rowObject : batch) {
+          (existing.contains(rowObject) ? toUpdate : toInsert).add(rowObject);
+        }
+        update(connection, model, toUpdate);
+        insert(connection, model, toInsert);
+      }
+    }
+  }
+
   /**
    * Creates the SQL for deleting an object of the given type. If a concrete bean is given,
    * then a concrete delete statement is created, otherwise a delete statement usable in a
@@ -2358,16 +4052,23 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
         return;
       }
 
-      String sql = createDeleteSql(model, dynaClass, primaryKeys, null);
+      SqlTemplate template = _dmlSqlCache.getTemplate(StatementType.DELETE,
+        dynaClass,
+        primaryKeys,
+        () -> primaryKeys,
+        () -> createDeleteSql(model, dynaClass, primaryKeys, null));
+      String sql = template.getSql();
 
       if (_log.isDebugEnabled()) {
         _log.debug("About to execute SQL " + sql);
       }
 
-      statement = connection.prepareStatement(sql);
+      statement = prepareStatement(connection, sql);
 
-      for (int idx = 0; idx < primaryKeys.length; idx++) {
-        setObject(statement, idx + 1, rowObject, primaryKeys[idx]);
+      ColumnProperty[] parameters = template.getParameters();
+
+      for (int idx = 0; idx < parameters.length; idx++) {
+        setObject(statement, idx + 1, rowObject, parameters[idx]);
       }
 
       int count = statement.executeUpdate();
@@ -2384,6 +4085,28 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
     }
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void delete(Connection connection, Database model, Collection<RowObject> rowObjects) throws DatabaseOperationException {
+    executeInBatches(connection, model, rowObjects, StatementType.DELETE);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void delete(Database model, Collection<RowObject> rowObjects) throws DatabaseOperationException {
+    Connection connection = borrowConnection();
+
+    try {
+      delete(connection, model, rowObjects);
+    } finally {
+      returnConnection(connection);
+    }
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -2731,6 +4454,46 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
   }
 
 
+  /**
+   * Prepares a statement for the given SQL on the given connection. If prepared statements are
+   * cached, then the statement is taken from the cache if possible. In any case, the statement has
+   * to be closed via {@link #closeStatement(Statement)}, which hands cached statements back to the cache.
+   *
+   * @param connection The connection
+   * @param sql        The SQL
+   * @return The statement
+   */
+  protected PreparedStatement prepareStatement(Connection connection, String sql) throws SQLException {
+    PreparedStatementCache cache = _preparedStatementCache;
+
+    return cache == null ? connection.prepareStatement(sql) : cache.prepareStatement(connection, sql);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void closeStatement(Statement statement) {
+    PreparedStatementCache cache = _preparedStatementCache;
+
+    if ((cache == null) || !(statement instanceof PreparedStatement) || !cache.release((PreparedStatement) statement)) {
+      super.closeStatement(statement);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void returnConnection(Connection connection) {
+    PreparedStatementCache cache = _preparedStatementCache;
+
+    if ((cache != null) && (connection != null)) {
+      cache.close(connection);
+    }
+    super.returnConnection(connection);
+  }
+
   /**
    * Creates an iterator over the given result set.
    *
@@ -2743,4 +4506,519 @@ public abstract class PlatformImplBase extends JdbcSupport implements Platform {
   protected ModelBasedResultSetIterator createResultSetIterator(Database model, ResultSet resultSet, Table[] queryHints) {
     return new ModelBasedResultSetIterator(this, model, resultSet, queryHints, true);
   }
+
+  /**
+   * Generates the statements that copy one chunk of data.
+   */
+  private interface ChunkCopier {
+    /**
+     * Generates the statements that copy the rows whose key values lie within the given range.
+     *
+     * @param lowerBound The smallest key value
+     * @param upperBound The largest key value
+     */
+    void copy(long lowerBound, long upperBound) throws IOException;
+  }
+
+  /**
+   * Generates SQL statements via the sql builder.
+   */
+  protected interface SqlGenerator {
+    /**
+     * Generates the statements.
+     */
+    void generate() throws IOException;
+  }
+
+  /**
+   * Executes statements on a connection, either one by one or, for consecutive data manipulation
+   * statements, in JDBC batches.
+   */
+  private class StatementExecutor implements SqlStatementConsumer {
+    /**
+     * The connection.
+     */
+    private final Connection _connection;
+    /**
+     * Whether to continue executing statements when an error occurred.
+     */
+    private final boolean _continueOnError;
+    /**
+     * The maximum number of data manipulation statements to execute in one batch.
+     */
+    private final int _batchSize;
+    /**
+     * The data manipulation statements that have not been executed yet.
+     */
+    private final List<String> _batch = new ArrayList<>();
+    /**
+     * The statement object; created upon the first statement.
+     */
+    private Statement _statement;
+    /**
+     * The number of executed statements.
+     */
+    private int _commandCount;
+    /**
+     * The number of errors.
+     */
+    private int _errors;
+    /**
+     * The number of rows changed by the executed statements.
+     */
+    private long _changedRowCount;
+    /**
+     * The number of statement executions since the warnings were last read.
+     */
+    private int _executionsSinceWarningPoll;
+
+    /**
+     * Creates a new executor that executes the statements one by one.
+     *
+     * @param connection      The connection
+     * @param continueOnError Whether to continue executing statements when an error occurred
+     */
+    public StatementExecutor(Connection connection, boolean continueOnError) {
+      this(connection, continueOnError, 1);
+    }
+
+    /**
+     * Creates a new executor.
+     *
+     * @param connection      The connection
+     * @param continueOnError Whether to continue executing statements when an error occurred
+     * @param batchSize       The maximum number of data manipulation statements to execute in one batch
+     */
+    public StatementExecutor(Connection connection, boolean continueOnError, int batchSize) {
+      _connection = connection;
+      _continueOnError = continueOnError;
+      _batchSize = batchSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void consume(String command) throws DatabaseOperationException {
+      // ignore whitespace
+      command = command.trim();
+      if (command.isEmpty()) {
+        return;
+      }
+
+      _commandCount++;
+
+      if ((_batchSize > 1) && isDataManipulation(command)) {
+        _batch.add(command);
+        if (_batch.size() >= _batchSize) {
+          executeBatch();
+        }
+      } else {
+        executeBatch();
+        execute(command);
+      }
+    }
+
+    /**
+     * Executes the given statement on its own.
+     *
+     * @param command The statement
+     */
+    private void execute(String command) throws DatabaseOperationException {
+      if (_log.isDebugEnabled()) {
+        _log.debug("About to execute SQL " + command);
+      }
+      try {
+        if (_statement == null) {
+          _statement = _connection.createStatement();
+        }
+        try {
+          int results = _statement.executeUpdate(command);
+
+          if (results > 0) {
+            _changedRowCount += results;
+          }
+          if (_log.isDebugEnabled()) {
+            _log.debug("After execution, " + results + " row(s) have been changed");
+          }
+        } catch (SQLException ex) {
+          handleError(command, ex);
+        }
+        pollWarnings(false);
+      } catch (SQLException ex) {
+        throw new DatabaseOperationException("Error while executing SQL", ex);
+      }
+    }
+
+    /**
+     * Executes the pending data manipulation statements as one batch. If the batch fails, then
+     * the statements that the driver did not execute are executed one by one.
+     */
+    private void executeBatch() throws DatabaseOperationException {
+      if (_batch.isEmpty()) {
+        return;
+      }
+
+      List<String> commands = new ArrayList<>(_batch);
+
+      _batch.clear();
+      if (_log.isDebugEnabled()) {
+        _log.debug("About to execute a batch of " + commands.size() + " SQL command(s)");
+      }
+      try {
+        if (_statement == null) {
+          _statement = _connection.createStatement();
+        }
+        for (String command : commands) {
+          _statement.addBatch(command);
+        }
+
+        int[] results;
+
+        try {
+          results = _statement.executeBatch();
+        } catch (BatchUpdateException ex) {
+          results = ex.getUpdateCounts() == null ? new int[0] : ex.getUpdateCounts();
+          if (results.length < commands.size()) {
+            // the driver stopped at the failed statement
+            handleError(commands.get(results.length), ex);
+            _statement.clearBatch();
+            for (String command : commands.subList(results.length + 1, commands.size())) {
+              execute(command);
+            }
+          }
+        } finally {
+          _statement.clearBatch();
+        }
+        for (int idx = 0; idx < results.length; idx++) {
+          if (results[idx] > 0) {
+            _changedRowCount += results[idx];
+          } else if (results[idx] == Statement.EXECUTE_FAILED) {
+            handleError(commands.get(idx), null);
+          }
+        }
+        pollWarnings(false);
+      } catch (SQLException ex) {
+        throw new DatabaseOperationException("Error while executing SQL", ex);
+      }
+    }
+
+    /**
+     * Handles the failure of the given statement.
+     *
+     * @param command The statement
+     * @param ex      The exception, if any
+     */
+    private void handleError(String command, SQLException ex) throws DatabaseOperationException {
+      String message = ex == null ? "failed" : "failed with: " + ex.getMessage();
+
+      if (_continueOnError) {
+        // Since the user decided to ignore this error, we log the error
+        // on level warn, and the exception itself on level debug
+        _log.warn("SQL Command " + command + " " + message);
+        if ((ex != null) && _log.isDebugEnabled()) {
+          _log.debug(ex);
+        }
+        _errors++;
+      } else {
+        throw new DatabaseOperationException("Error while executing SQL " + command, ex);
+      }
+    }
+
+    /**
+     * Logs the warnings of the connection if the configured number of statements has been executed
+     * since the last time.
+     *
+     * @param force Whether to log the warnings regardless of the number of executed statements
+     */
+    private void pollWarnings(boolean force) throws SQLException {
+      _executionsSinceWarningPoll++;
+      if (force || (_executionsSinceWarningPoll >= getWarningPollInterval())) {
+        SQLWarning warning = _connection.getWarnings();
+
+        while (warning != null) {
+          _log.warn(warning.toString());
+          warning = warning.getNextWarning();
+        }
+        _connection.clearWarnings();
+        _executionsSinceWarningPoll = 0;
+      }
+    }
+
+    /**
+     * Executes the pending statements and logs the remaining warnings.
+     */
+    public void flush() throws DatabaseOperationException {
+      executeBatch();
+      if (_executionsSinceWarningPoll > 0) {
+        try {
+          pollWarnings(true);
+        } catch (SQLException ex) {
+          throw new DatabaseOperationException("Error while reading the warnings", ex);
+        }
+      }
+    }
+
+    /**
+     * Returns the connection.
+     *
+     * @return The connection
+     */
+    public Connection getConnection() {
+      return _connection;
+    }
+
+    /**
+     * Returns the number of executed statements.
+     *
+     * @return The number of statements
+     */
+    public int getCommandCount() {
+      return _commandCount;
+    }
+
+    /**
+     * Returns the number of rows changed by the executed statements.
+     *
+     * @return The number of rows
+     */
+    public long getChangedRowCount() {
+      return _changedRowCount;
+    }
+
+    /**
+     * Returns the number of errors.
+     *
+     * @return The number of errors
+     */
+    public int getErrors() {
+      return _errors;
+    }
+
+    /**
+     * Logs the number of executed statements and errors.
+     */
+    public void logSummary() {
+      _log.info("Executed " + _commandCount + " SQL command(s) with " + _errors + " error(s)");
+    }
+
+    /**
+     * Closes the statement object.
+     */
+    public void close() {
+      closeStatement(_statement);
+    }
+  }
+
+  /**
+   * Executes groups of statements concurrently on several connections. A group is started once
+   * all previously generated groups that affect one of its tables have finished. Groups that can
+   * affect any table wait for all previous groups, and all later groups wait for them in turn.
+   * Within a group, the statements are executed in the order in which they were generated.
+   */
+  private class ParallelStatementExecutor implements SqlStatementConsumer {
+    /**
+     * The executors of the connections that are currently not in use.
+     */
+    private final BlockingQueue<StatementExecutor> _idleExecutors;
+    /**
+     * The executors of all connections.
+     */
+    private final List<StatementExecutor> _executors = new ArrayList<>();
+    /**
+     * The threads that execute the groups.
+     */
+    private final ExecutorService _threadPool;
+    /**
+     * The last group per affected table.
+     */
+    private final Map<String, CompletableFuture<Void>> _lastGroupPerTable = new HashMap<>();
+    /**
+     * The groups that were started after the last group that can affect any table.
+     */
+    private final List<CompletableFuture<Void>> _groupsSinceBarrier = new ArrayList<>();
+    /**
+     * The first error that stopped the execution.
+     */
+    private final AtomicReference<RuntimeException> _failure = new AtomicReference<>();
+    /**
+     * The last group that can affect any table.
+     */
+    private CompletableFuture<Void> _lastBarrier = CompletableFuture.completedFuture(null);
+    /**
+     * The tables affected by the current group, <code>null</code> if it can affect any table.
+     */
+    private Set<String> _currentTables;
+    /**
+     * The statements of the current group.
+     */
+    private List<String> _currentStatements = new ArrayList<>();
+
+    /**
+     * Creates a new executor.
+     *
+     * @param connections     The connections
+     * @param continueOnError Whether to continue executing the statements when an error occurred
+     */
+    public ParallelStatementExecutor(List<Connection> connections, boolean continueOnError) {
+      _idleExecutors = new ArrayBlockingQueue<>(connections.size());
+      for (Connection connection : connections) {
+        StatementExecutor executor = new StatementExecutor(connection, continueOnError);
+
+        _executors.add(executor);
+        _idleExecutors.add(executor);
+      }
+      _threadPool = Executors.newFixedThreadPool(connections.size());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void consume(String statement) {
+      _currentStatements.add(statement);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void startStatementGroup(Collection<String> tableNames) {
+      submitCurrentGroup();
+      if (tableNames == null) {
+        _currentTables = null;
+      } else {
+        _currentTables = new HashSet<>();
+        for (String tableName : tableNames) {
+          _currentTables.add(isDelimitedIdentifierModeOn() ? tableName : tableName.toUpperCase());
+        }
+      }
+    }
+
+    /**
+     * Schedules the current group of statements for execution after the groups it depends on.
+     */
+    private void submitCurrentGroup() {
+      if (_currentStatements.isEmpty()) {
+        return;
+      }
+
+      List<String> statements = _currentStatements;
+      List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+
+      _currentStatements = new ArrayList<>();
+      dependencies.add(_lastBarrier);
+      if (_currentTables == null) {
+        dependencies.addAll(_groupsSinceBarrier);
+      } else {
+        for (String tableName : _currentTables) {
+          CompletableFuture<Void> lastGroup = _lastGroupPerTable.get(tableName);
+
+          if (lastGroup != null) {
+            dependencies.add(lastGroup);
+          }
+        }
+      }
+
+      CompletableFuture<Void> group = CompletableFuture.allOf(dependencies.toArray(new CompletableFuture<?>[0]))
+        .thenRunAsync(() -> executeGroup(statements), _threadPool);
+
+      if (_currentTables == null) {
+        _lastBarrier = group;
+        _groupsSinceBarrier.clear();
+        _lastGroupPerTable.clear();
+      } else {
+        _groupsSinceBarrier.add(group);
+        for (String tableName : _currentTables) {
+          _lastGroupPerTable.put(tableName, group);
+        }
+      }
+    }
+
+    /**
+     * Executes the statements of a group on one of the idle connections.
+     *
+     * @param statements The statements
+     */
+    private void executeGroup(List<String> statements) {
+      if (_failure.get() != null) {
+        // a previous group failed, so we don't execute any further statements
+        return;
+      }
+
+      // there are as many connections as threads, so there is always an idle one
+      StatementExecutor executor = _idleExecutors.poll();
+
+      try {
+        for (String statement : statements) {
+          executor.consume(statement);
+        }
+        executor.flush();
+      } catch (RuntimeException ex) {
+        _failure.compareAndSet(null, ex);
+      } finally {
+        _idleExecutors.add(executor);
+      }
+    }
+
+    /**
+     * Executes the remaining statements and waits until all statements have been executed.
+     */
+    public void finish() throws DatabaseOperationException {
+      submitCurrentGroup();
+      _lastBarrier.join();
+      CompletableFuture.allOf(_groupsSinceBarrier.toArray(new CompletableFuture<?>[0])).join();
+
+      RuntimeException failure = _failure.get();
+
+      if (failure instanceof DatabaseOperationException) {
+        throw (DatabaseOperationException) failure;
+      } else if (failure != null) {
+        throw new DatabaseOperationException("Error while executing SQL", failure);
+      }
+    }
+
+    /**
+     * Returns the number of errors.
+     *
+     * @return The number of errors
+     */
+    public int getErrors() {
+      int errors = 0;
+
+      for (StatementExecutor executor : _executors) {
+        errors += executor.getErrors();
+      }
+      return errors;
+    }
+
+    /**
+     * Logs the number of executed statements and errors.
+     */
+    public void logSummary() {
+      int commandCount = 0;
+
+      for (StatementExecutor executor : _executors) {
+        commandCount += executor.getCommandCount();
+      }
+      _log.info("Executed " + commandCount + " SQL command(s) on " + _executors.size() + " connections with " + getErrors() + " error(s)");
+    }
+
+    /**
+     * Stops the execution of groups that have not started yet, waits for the running ones and
+     * closes the statement objects.
+     */
+    public void close() {
+      _failure.compareAndSet(null, new DatabaseOperationException("The execution of the SQL has been aborted"));
+      _threadPool.shutdown();
+      try {
+        _threadPool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+      for (StatementExecutor executor : _executors) {
+        executor.close();
+      }
+    }
+  }
 }
@@ -0,0 +1,234 @@
+package org.apache.ddlutils.platform;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.util.Log;
+import org.apache.ddlutils.util.LogFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caches prepared statements per connection, keyed by their SQL, so that statements that are
+ * executed repeatedly on the same connection do not have to be prepared (and thus parsed by
+ * the database) again. Each connection has its own cache of a fixed size from which the least
+ * recently used statements are evicted (and closed).<br/>
+ * A statement taken from the cache via {@link #prepareStatement(Connection, String)} is not
+ * available to other callers until it is handed back via {@link #release(PreparedStatement)},
+ * so that the same SQL can be executed in a nested fashion on one connection. The cached
+ * statements of a connection have to be closed via {@link #close(Connection)} before the
+ * connection is closed or returned to a pool.
+ *
+ * @version $Revision: $
+ */
+public class PreparedStatementCache {
+  /**
+   * The log for this class.
+   */
+  private final Log _log = LogFactory.getLog(PreparedStatementCache.class);
+  /**
+   * The maximum number of statements cached per connection.
+   */
+  private final int _size;
+  /**
+   * The cached statements per connection, in the order of their last use.
+   */
+  private final Map<Connection, LinkedHashMap<String, PreparedStatement>> _statements = new IdentityHashMap<>();
+  /**
+   * The statements that are currently in use, with their connection and SQL.
+   */
+  private final Map<PreparedStatement, Object[]> _usedStatements = new IdentityHashMap<>();
+  /**
+   * The number of statements that were taken from the cache.
+   */
+  private long _hitCount;
+  /**
+   * The number of statements that had to be prepared.
+   */
+  private long _missCount;
+
+  /**
+   * Creates a new cache.
+   *
+   * @param size The maximum number of statements cached per connection
+   */
+  public PreparedStatementCache(int size) {
+    if (size < 1) {
+      throw new IllegalArgumentException("The cache size must be at least 1");
+    }
+    _size = size;
+  }
+
+  /**
+   * Returns the maximum number of statements cached per connection.
+   *
+   * @return The size
+   */
+  public int getSize() {
+    return _size;
+  }
+
+  /**
+   * Returns the number of times that a statement could be taken from the cache.
+   *
+   * @return The number of hits
+   */
+  public synchronized long getHitCount() {
+    return _hitCount;
+  }
+
+  /**
+   * Returns the number of times that a statement had to be prepared because it was not in the cache.
+   *
+   * @return The number of misses
+   */
+  public synchronized long getMissCount() {
+    return _missCount;
+  }
+
+  /**
+   * Returns a prepared statement for the given SQL, either from the cache or newly prepared.
+   *
+   * @param connection The connection
+   * @param sql        The SQL
+   * @return The statement
+   */
+  public synchronized PreparedStatement prepareStatement(Connection connection, String sql) throws SQLException {
+    LinkedHashMap<String, PreparedStatement> statements = _statements.get(connection);
+    PreparedStatement statement = statements == null ? null : statements.remove(sql);
+
+    if ((statement != null) && statement.isClosed()) {
+      statement = null;
+    }
+    if (statement != null) {
+      _hitCount++;
+    } else {
+      _missCount++;
+      statement = connection.prepareStatement(sql);
+    }
+    _usedStatements.put(statement, new Object[]{connection, sql});
+    return statement;
+  }
+
+  /**
+   * Hands a statement back to the cache. Statements that were not taken from this cache are
+   * left untouched.
+   *
+   * @param statement The statement
+   * @return <code>true</code> if the statement was taken from this cache (and it thus must not be closed)
+   */
+  public synchronized boolean release(PreparedStatement statement) {
+    Object[] usage = _usedStatements.remove(statement);
+
+    if (usage == null) {
+      return false;
+    }
+
+    Connection connection = (Connection) usage[0];
+    String sql = (String) usage[1];
+
+    try {
+      statement.clearParameters();
+      statement.clearBatch();
+    } catch (SQLException ex) {
+      // the statement is probably no longer usable
+      closeQuietly(statement);
+      return true;
+    }
+
+    LinkedHashMap<String, PreparedStatement> statements = _statements.get(connection);
+
+    if (statements == null) {
+      removeClosedConnections();
+      statements = new LinkedHashMap<>();
+      _statements.put(connection, statements);
+    }
+
+    PreparedStatement oldStatement = statements.put(sql, statement);
+
+    if (oldStatement != null) {
+      // the same SQL was used in a nested fashion
+      closeQuietly(oldStatement);
+    }
+    if (statements.size() > _size) {
+      Iterator<PreparedStatement> it = statements.values().iterator();
+
+      closeQuietly(it.next());
+      it.remove();
+    }
+    return true;
+  }
+
+  /**
+   * Closes the cached statements of the given connection.
+   *
+   * @param connection The connection
+   */
+  public synchronized void close(Connection connection) {
+    LinkedHashMap<String, PreparedStatement> statements = _statements.remove(connection);
+
+    if (statements != null) {
+      for (PreparedStatement statement : statements.values()) {
+        closeQuietly(statement);
+      }
+    }
+  }
+
+  /**
+   * Forgets the statements of connections that have been closed without closing the
+   * cached statements first (closing a connection closes its statements, too).
+   */
+  private void removeClosedConnections() {
+    List<Connection> closedConnections = new ArrayList<>();
+
+    for (Connection connection : _statements.keySet()) {
+      try {
+        if (connection.isClosed()) {
+          closedConnections.add(connection);
+        }
+      } catch (SQLException ex) {
+        closedConnections.add(connection);
+      }
+    }
+    for (Connection connection : closedConnections) {
+      close(connection);
+    }
+  }
+
+  /**
+   * Closes the given statement, ignoring any errors.
+   *
+   * @param statement The statement
+   */
+  private void closeQuietly(PreparedStatement statement) {
+    try {
+      statement.close();
+    } catch (SQLException ex) {
+      _log.debug("Ignoring exception that occurred while closing statement", ex);
+    }
+  }
+}
@@ -0,0 +1,124 @@
+package org.apache.ddlutils.platform;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.data.RowObject;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator over the rows of a query. The rows are read sequentially from the result set;
+ * splitting hands off the next batch of already read rows so that the rows of a batch can be
+ * processed in parallel while the remaining rows are still read by a single thread.
+ *
+ * @version $Revision: $
+ */
+public class ResultSetSpliterator implements Spliterator<RowObject> {
+  /**
+   * The iterator over the result set.
+   */
+  private final Iterator<RowObject> _iterator;
+  /**
+   * The number of rows handed off per split.
+   */
+  private final int _batchSize;
+
+  /**
+   * Creates a new spliterator.
+   *
+   * @param iterator  The iterator over the result set
+   * @param batchSize The number of rows handed off per split
+   */
+  public ResultSetSpliterator(Iterator<RowObject> iterator, int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("The batch size must be at least 1");
+    }
+    _iterator = iterator;
+    _batchSize = batchSize;
+  }
+
+  /**
+   * Returns the number of rows handed off per split.
+   *
+   * @return The batch size
+   */
+  public int getBatchSize() {
+    return _batchSize;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean tryAdvance(Consumer<? super RowObject> action) {
+    if (_iterator.hasNext()) {
+      action.accept(_iterator.next());
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void forEachRemaining(Consumer<? super RowObject> action) {
+    while (_iterator.hasNext()) {
+      action.accept(_iterator.next());
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Spliterator<RowObject> trySplit() {
+    if (!_iterator.hasNext()) {
+      return null;
+    }
+
+    Object[] batch = new Object[_batchSize];
+    int numRows = 0;
+
+    while ((numRows < _batchSize) && _iterator.hasNext()) {
+      batch[numRows++] = _iterator.next();
+    }
+    return Spliterators.spliterator(batch, 0, numRows, ORDERED | NONNULL);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long estimateSize() {
+    return Long.MAX_VALUE;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int characteristics() {
+    return ORDERED | NONNULL;
+  }
+}
@@ -0,0 +1,45 @@
+package org.apache.ddlutils.platform;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.model.Table;
+import org.apache.ddlutils.platform.DmlSqlCache.StatementType;
+
+/**
+ * Receives the row counts of the JDBC batches executed by the methods of a platform that
+ * insert, update, store or delete collections of rows, e.g.
+ * {@link org.apache.ddlutils.Platform#update(java.sql.Connection, org.apache.ddlutils.model.Database, java.util.Collection)}.
+ * The listener is invoked by the thread that executes the batch.
+ *
+ * @version $Revision: $
+ * @see org.apache.ddlutils.Platform#setRowBatchListener(RowBatchListener)
+ */
+public interface RowBatchListener {
+  /**
+   * Notifies the listener that a batch has been executed successfully.
+   *
+   * @param table           The table that the rows were written to
+   * @param type            The kind of statement, one of insert, update, upsert or delete
+   * @param rowCount        The number of rows in the batch
+   * @param changedRowCount The number of rows changed according to the driver, or -1 if the
+   *                        driver did not report the number for all rows
+   */
+  void batchExecuted(Table table, StatementType type, int rowCount, int changedRowCount);
+}
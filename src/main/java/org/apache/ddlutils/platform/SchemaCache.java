@@ -0,0 +1,252 @@
+package org.apache.ddlutils.platform;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.DdlUtilsException;
+import org.apache.ddlutils.io.DatabaseBinaryIO;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.util.Log;
+import org.apache.ddlutils.util.LogFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stores the schemas read by a {@link JdbcModelReader} in a directory on the local disk so that
+ * subsequent reads of an unchanged schema need not introspect it again. Each snapshot is stored
+ * together with the per-table change tokens (as determined by the model reader via cheap catalog
+ * queries) that were current when the schema was read; a table of a snapshot is only reused if
+ * its change token is still the same. The schemas are stored in the binary format of
+ * {@link DatabaseBinaryIO}.
+ *
+ * @version $Revision: $
+ */
+public class SchemaCache {
+  /**
+   * The version of the snapshot file format.
+   */
+  private static final int FORMAT_VERSION = 2;
+
+  /**
+   * The Log to which logging calls will be made.
+   */
+  private final Log _log = LogFactory.getLog(SchemaCache.class);
+  /**
+   * The directory that contains the snapshot files.
+   */
+  private final File _directory;
+
+  /**
+   * Creates a new schema cache.
+   *
+   * @param directory The directory for the snapshot files; will be created if necessary
+   */
+  public SchemaCache(File directory) {
+    _directory = directory;
+  }
+
+  /**
+   * Returns the directory that contains the snapshot files.
+   *
+   * @return The directory
+   */
+  public File getDirectory() {
+    return _directory;
+  }
+
+  /**
+   * Creates the key under which the snapshot of the indicated schema is stored.
+   *
+   * @param url           The connection url
+   * @param userName      The user name
+   * @param catalog       The catalog
+   * @param schemaPattern The schema pattern
+   * @param tablePattern  The table pattern
+   * @param tableTypes    The table types
+   * @return The key
+   */
+  public String createKey(String url, String userName, String catalog, String schemaPattern, String tablePattern, String[] tableTypes) {
+    StringBuilder key = new StringBuilder();
+
+    key.append(url);
+    key.append('\n');
+    key.append(userName);
+    key.append('\n');
+    key.append(catalog);
+    key.append('\n');
+    key.append(schemaPattern);
+    key.append('\n');
+    key.append(tablePattern);
+    if (tableTypes != null) {
+      for (String tableType : tableTypes) {
+        key.append('\n');
+        key.append(tableType);
+      }
+    }
+    return key.toString();
+  }
+
+  /**
+   * Loads the snapshot stored under the given key.
+   *
+   * @param key The key
+   * @return The snapshot or <code>null</code> if there is none or it could not be read
+   */
+  public Snapshot load(String key) {
+    File file = getFile(key);
+
+    if (!file.isFile()) {
+      return null;
+    }
+    try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      if ((input.readInt() != FORMAT_VERSION) || !key.equals(input.readUTF())) {
+        return null;
+      }
+
+      Map<String, String> changeTokens = new HashMap<>();
+      int tokenCount = input.readInt();
+
+      for (int idx = 0; idx < tokenCount; idx++) {
+        changeTokens.put(input.readUTF(), input.readUTF());
+      }
+
+      Database model = new DatabaseBinaryIO().read(input);
+
+      return new Snapshot(changeTokens, model);
+    } catch (IOException | DdlUtilsException ex) {
+      _log.warn("Could not read the schema snapshot " + file.getAbsolutePath(), ex);
+      return null;
+    }
+  }
+
+  /**
+   * Stores the snapshot under the given key, replacing any previous one.
+   *
+   * @param key      The key
+   * @param snapshot The snapshot
+   */
+  public void store(String key, Snapshot snapshot) {
+    File file = getFile(key);
+    File tmpFile = new File(file.getPath() + ".tmp");
+
+    if (!_directory.isDirectory() && !_directory.mkdirs()) {
+      _log.warn("Could not create the schema cache directory " + _directory.getAbsolutePath());
+      return;
+    }
+    try {
+      try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+        output.writeInt(FORMAT_VERSION);
+        output.writeUTF(key);
+        output.writeInt(snapshot.getChangeTokens().size());
+        for (Map.Entry<String, String> entry : snapshot.getChangeTokens().entrySet()) {
+          output.writeUTF(entry.getKey());
+          output.writeUTF(entry.getValue());
+        }
+        new DatabaseBinaryIO().write(snapshot.getModel(), output);
+      }
+      // we write to a temporary file first so that concurrent readers never see a partial snapshot
+      if (!tmpFile.renameTo(file)) {
+        if (!file.delete() || !tmpFile.renameTo(file)) {
+          throw new IOException("Could not rename " + tmpFile.getAbsolutePath() + " to " + file.getAbsolutePath());
+        }
+      }
+    } catch (IOException | DdlUtilsException ex) {
+      _log.warn("Could not write the schema snapshot " + file.getAbsolutePath(), ex);
+      if (tmpFile.exists() && !tmpFile.delete()) {
+        tmpFile.deleteOnExit();
+      }
+    }
+  }
+
+  /**
+   * Returns the file that holds the snapshot for the given key.
+   *
+   * @param key The key
+   * @return The file
+   */
+  private File getFile(String key) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes(StandardCharsets.UTF_8));
+      StringBuilder name = new StringBuilder();
+
+      for (byte value : digest) {
+        name.append(String.format("%02x", value));
+      }
+      name.append(".schema");
+      return new File(_directory, name.toString());
+    } catch (NoSuchAlgorithmException ex) {
+      throw new DdlUtilsException(ex);
+    }
+  }
+
+  /**
+   * A stored schema together with the change tokens of its tables.
+   */
+  public static class Snapshot {
+    /**
+     * The change tokens per table name.
+     */
+    private final Map<String, String> _changeTokens;
+    /**
+     * The schema; its tables are not initialized.
+     */
+    private final Database _model;
+
+    /**
+     * Creates a new snapshot.
+     *
+     * @param changeTokens The change tokens per table name
+     * @param model        The schema
+     */
+    public Snapshot(Map<String, String> changeTokens, Database model) {
+      _changeTokens = changeTokens;
+      _model = model;
+    }
+
+    /**
+     * Returns the change tokens per table name.
+     *
+     * @return The change tokens
+     */
+    public Map<String, String> getChangeTokens() {
+      return _changeTokens;
+    }
+
+    /**
+     * Returns the schema. Note that the foreign keys of the tables are not resolved.
+     *
+     * @return The schema
+     */
+    public Database getModel() {
+      return _model;
+    }
+  }
+}
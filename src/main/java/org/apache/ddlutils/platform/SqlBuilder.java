@@ -23,6 +23,7 @@ import org.apache.ddlutils.DdlUtilsException;
 import org.apache.ddlutils.Platform;
 import org.apache.ddlutils.PlatformInfo;
 import org.apache.ddlutils.model.CascadeActionEnum;
+import org.apache.ddlutils.model.CloneHelper;
 import org.apache.ddlutils.model.Column;
 import org.apache.ddlutils.model.Database;
 import org.apache.ddlutils.model.ForeignKey;
@@ -42,7 +43,12 @@ import java.rmi.server.UID;
 import java.sql.Types;
 import java.text.DateFormat;
 import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
@@ -81,6 +87,26 @@ public abstract class SqlBuilder {
    * The current Writer used to output the SQL to.
    */
   private Writer _writer;
+  /**
+   * The consumer that receives the individual statements; if set, the SQL is not printed to the writer.
+   */
+  private SqlStatementConsumer _statementConsumer;
+  /**
+   * Collects the text of the current statement if there is a statement consumer.
+   */
+  private final StringBuilder _statementBuffer = new StringBuilder();
+  /**
+   * The key column of the source table that limits the rows copied by {@link #copyData(Table, Table)}.
+   */
+  private Column _copyDataKeyColumn;
+  /**
+   * The smallest key value of the rows copied by {@link #copyData(Table, Table)}.
+   */
+  private long _copyDataLowerBound;
+  /**
+   * The largest key value of the rows copied by {@link #copyData(Table, Table)}.
+   */
+  private long _copyDataUpperBound;
   /**
    * The indentation used to indent commands.
    */
@@ -159,6 +185,76 @@ public abstract class SqlBuilder {
     _writer = writer;
   }
 
+  /**
+   * Returns the consumer that receives the generated statements.
+   *
+   * @return The statement consumer or <code>null</code> if the SQL is printed to the writer
+   */
+  public SqlStatementConsumer getStatementConsumer() {
+    return _statementConsumer;
+  }
+
+  /**
+   * Sets the consumer that receives the generated statements. While a consumer is set, the SQL
+   * is not printed to the writer; instead, each statement is handed to the consumer as soon as
+   * it is complete. Any statement text that has not been handed to the previous consumer yet, is
+   * discarded.
+   *
+   * @param statementConsumer The statement consumer or <code>null</code> to print the SQL to
+   *                          the writer again
+   */
+  public void setStatementConsumer(SqlStatementConsumer statementConsumer) {
+    _statementConsumer = statementConsumer;
+    _statementBuffer.setLength(0);
+  }
+
+  /**
+   * Hands the text generated since the end of the last statement to the statement consumer
+   * unless it is empty. This is only necessary at the end of the generation for text that was
+   * not followed by a statement end.
+   */
+  public void flushStatement() throws IOException {
+    if (_statementConsumer != null) {
+      String statement = _statementBuffer.toString().trim();
+
+      _statementBuffer.setLength(0);
+      if (!statement.isEmpty()) {
+        _statementConsumer.consume(statement);
+      }
+    }
+  }
+
+  /**
+   * Announces to the statement consumer that the statements generated after this call only
+   * affect the given tables (see {@link SqlStatementConsumer#startStatementGroup(Collection)}).
+   * This has no effect when generating a script.
+   *
+   * @param tableNames The names of the affected tables, or <code>null</code> if the following
+   *                   statements can affect any table
+   */
+  public void startStatementGroup(Collection<String> tableNames) throws IOException {
+    if (_statementConsumer != null) {
+      flushStatement();
+      _statementConsumer.startStatementGroup(tableNames);
+    }
+  }
+
+  /**
+   * Returns the names of the given table and of the tables referenced by its foreign keys.
+   *
+   * @param table The table
+   * @return The table names
+   */
+  protected Collection<String> getForeignKeyTableNames(Table table) {
+    Collection<String> result = new ArrayList<>();
+
+    result.add(table.getName());
+    for (int idx = 0; idx < table.getForeignKeyCount(); idx++) {
+      result.add(table.getForeignKey(idx).getForeignTableName());
+    }
+    return result;
+  }
+
   /**
    * Returns the default value helper.
    *
@@ -392,6 +488,7 @@ public abstract class SqlBuilder {
     for (int idx = 0; idx < database.getTableCount(); idx++) {
       Table table = database.getTable(idx);
 
+      startStatementGroup(Collections.singleton(table.getName()));
       writeTableComment(table);
       createTable(database,
         table,
@@ -399,7 +496,119 @@ public abstract class SqlBuilder {
     }
 
     // we're writing the external foreign keys last to ensure that all referenced tables are already defined
-    createForeignKeys(database);
+    for (int idx = 0; idx < database.getTableCount(); idx++) {
+      Table table = database.getTable(idx);
+
+      startStatementGroup(getForeignKeyTableNames(table));
+      createForeignKeys(database, table);
+    }
+    startStatementGroup(null);
+  }
+
+  /**
+   * Outputs the DDL required to drop (if requested) and (re)create all tables in the database model
+   * without their indexes and (unless the platform only supports embedded foreign keys) their
+   * foreign keys. This is intended for loading large amounts of data into the tables, after which
+   * the indexes and foreign keys are created via {@link #createIndexesAndForeignKeys(Database)}.
+   *
+   * @param database   The database
+   * @param params     The parameters used in the creation
+   * @param dropTables Whether to drop tables before creating them
+   */
+  public void createTablesWithoutConstraints(Database database, CreationParameters params, boolean dropTables) throws IOException {
+    if (dropTables) {
+      dropTables(database);
+    }
+
+    CloneHelper cloneHelper = new CloneHelper();
+    boolean keepForeignKeys = getPlatformInfo().isForeignKeysEmbedded();
+
+    for (int idx = 0; idx < database.getTableCount(); idx++) {
+      Table table = database.getTable(idx);
+
+      startStatementGroup(Collections.singleton(table.getName()));
+      writeTableComment(table);
+      createTable(database,
+        cloneHelper.clone(table, false, keepForeignKeys, database, getPlatform().isDelimitedIdentifierModeOn()),
+        params == null ? null : params.getParametersFor(table));
+    }
+    startStatementGroup(null);
+  }
+
+  /**
+   * Outputs the DDL to create the indexes and foreign keys of all tables in the database model
+   * that {@link #createTablesWithoutConstraints(Database, CreationParameters, boolean)} left out.
+   * The indexes of different tables are independent of each other and can thus be created concurrently.
+   *
+   * @param database The database
+   */
+  public void createIndexesAndForeignKeys(Database database) throws IOException {
+    for (int idx = 0; idx < database.getTableCount(); idx++) {
+      Table table = database.getTable(idx);
+
+      startStatementGroup(Collections.singleton(table.getName()));
+      createIndexes(table);
+    }
+    if (!getPlatformInfo().isForeignKeysEmbedded()) {
+      for (int idx = 0; idx < database.getTableCount(); idx++) {
+        Table table = database.getTable(idx);
+
+        startStatementGroup(getForeignKeyTableNames(table));
+        createForeignKeys(database, table);
+      }
+    }
+    startStatementGroup(null);
+  }
+
+  /**
+   * Outputs the DDL to disable the checking of the foreign keys of all tables in the database model.
+   *
+   * @param database The database
+   */
+  public void disableForeignKeys(Database database) throws IOException {
+    for (int idx = 0; idx < database.getTableCount(); idx++) {
+      Table table = database.getTable(idx);
+
+      startStatementGroup(Collections.singleton(table.getName()));
+      disableForeignKeys(database, table);
+    }
+    startStatementGroup(null);
+  }
+
+  /**
+   * Outputs the DDL to re-enable the checking of the foreign keys of all tables in the database model.
+   *
+   * @param database The database
+   */
+  public void enableForeignKeys(Database database) throws IOException {
+    for (int idx = 0; idx < database.getTableCount(); idx++) {
+      Table table = database.getTable(idx);
+
+      startStatementGroup(Collections.singleton(table.getName()));
+      enableForeignKeys(database, table);
+    }
+    startStatementGroup(null);
+  }
+
+  /**
+   * Outputs the DDL to disable the checking of the foreign keys of the given table, e.g. before
+   * loading data into an existing table. Platforms that support this, indicate it via
+   * {@link PlatformInfo#isForeignKeyDisablingSupported()}; per default, nothing is written.
+   *
+   * @param database The database model
+   * @param table    The table
+   */
+  public void disableForeignKeys(Database database, Table table) throws IOException {
+  }
+
+  /**
+   * Outputs the DDL to re-enable the checking of the foreign keys of the given table that have
+   * been disabled via {@link #disableForeignKeys(Database, Table)}.
+   *
+   * @param database The database model
+   * @param table    The table
+   */
+  public void enableForeignKeys(Database database, Table table) throws IOException {
   }
 
   /**
@@ -435,6 +644,25 @@ public abstract class SqlBuilder {
    * @param targetTable The target table
    */
   protected void copyData(Table sourceTable, Table targetTable) throws IOException {
+    print("INSERT INTO ");
+    printIdentifier(getTableName(targetTable));
+    print(" ");
+    writeCopyDataQuery(sourceTable, targetTable);
+    if (_copyDataKeyColumn != null) {
+      writeKeyRangeCondition(_copyDataKeyColumn, _copyDataLowerBound, _copyDataUpperBound);
+    }
+    printEndOfStatement();
+  }
+
+  /**
+   * Writes the column list and the query part of a statement that copies the data from the
+   * source to the target table, i.e. everything after the name of the target table. Note that
+   * this copies only those columns that are in both tables.
+   *
+   * @param sourceTable The source table
+   * @param targetTable The target table
+   */
+  protected void writeCopyDataQuery(Table sourceTable, Table targetTable) throws IOException {
     OrderedMap<Column, Column> columns = new OrderedMap<>();
 
     for (int idx = 0; idx < sourceTable.getColumnCount(); idx++) {
@@ -448,9 +676,7 @@ public abstract class SqlBuilder {
       }
     }
 
-    print("INSERT INTO ");
-    printIdentifier(getTableName(targetTable));
-    print(" (");
+    print("(");
     for (Iterator<Column> columnIt = columns.keySet().iterator(); columnIt.hasNext(); ) {
       printIdentifier(getColumnName(columnIt.next()));
       if (columnIt.hasNext()) {
@@ -469,7 +695,157 @@ public abstract class SqlBuilder {
     }
     print(" FROM ");
     printIdentifier(getTableName(sourceTable));
-    printEndOfStatement();
+  }
+
+  /**
+   * Returns those columns of the source table that are also present in the target table.
+   *
+   * @param sourceTable The source table
+   * @param targetTable The target table
+   * @return The columns of the source table
+   */
+  protected List<Column> getCommonColumns(Table sourceTable, Table targetTable) {
+    List<Column> result = new ArrayList<>();
+
+    for (int idx = 0; idx < sourceTable.getColumnCount(); idx++) {
+      Column sourceColumn = sourceTable.getColumn(idx);
+
+      if (targetTable.findColumn(sourceColumn.getName(), getPlatform().isDelimitedIdentifierModeOn()) != null) {
+        result.add(sourceColumn);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Writes a WHERE clause that restricts the rows to those whose value in the given column
+   * lies within the given range (inclusive).
+   *
+   * @param keyColumn  The column
+   * @param lowerBound The smallest value
+   * @param upperBound The largest value
+   */
+  protected void writeKeyRangeCondition(Column keyColumn, long lowerBound, long upperBound) throws IOException {
+    print(" WHERE ");
+    printIdentifier(getColumnName(keyColumn));
+    print(" BETWEEN ");
+    print(Long.toString(lowerBound));
+    print(" AND ");
+    print(Long.toString(upperBound));
+  }
+
+  /**
+   * Writes the statements that copy those rows from the source to the target table whose value
+   * in the given key column lies within the given range (inclusive). The statements are generated
+   * by {@link #copyData(Table, Table)}, so database-specific implementations of that method
+   * are used for the partial copy, too.
+   *
+   * @param sourceTable The source table
+   * @param targetTable The target table
+   * @param keyColumn   The integral key column of the source table
+   * @param lowerBound  The smallest key value to copy
+   * @param upperBound  The largest key value to copy
+   */
+  protected void copyData(Table sourceTable, Table targetTable, Column keyColumn, long lowerBound, long upperBound) throws IOException {
+    _copyDataKeyColumn = keyColumn;
+    _copyDataLowerBound = lowerBound;
+    _copyDataUpperBound = upperBound;
+    try {
+      copyData(sourceTable, targetTable);
+    } finally {
+      _copyDataKeyColumn = null;
+    }
+  }
+
+  /**
+   * Returns the name of the table that a table is renamed to when it is replaced by its shadow
+   * table during an online alteration (see {@link #swapShadowTable(Table, Table)}).
+   *
+   * @param table The table
+   * @return The name of the renamed table
+   */
+  protected String getOldTableName(Table table) {
+    return shortenName("_" + table.getName() + "_old", getMaxTableNameLength());
+  }
+
+  /**
+   * Writes the statements that create triggers on the source table which mirror all changes to
+   * its rows into the shadow table. The rows are identified by the given key column, which
+   * is the only primary key column of both tables. Only databases that support online table
+   * alteration ({@link org.apache.ddlutils.PlatformInfo#isOnlineTableAlterationSupported()})
+   * implement this method.
+   *
+   * @param sourceTable The source table
+   * @param shadowTable The shadow table
+   * @param keyColumn   The key column of the source table
+   */
+  public void createShadowTableTriggers(Table sourceTable, Table shadowTable, Column keyColumn) throws IOException {
+    throw new UnsupportedOperationException("Online table alteration is not supported for the database platform " + getPlatform().getName());
+  }
+
+  /**
+   * Writes the statements that copy those rows of the source table whose value in the given key
+   * column lies within the given range (inclusive) to the shadow table. Rows that the triggers
+   * have already copied to the shadow table, must be retained.
+   *
+   * @param sourceTable The source table
+   * @param shadowTable The shadow table
+   * @param keyColumn   The key column of the source table
+   * @param lowerBound  The smallest key value to copy
+   * @param upperBound  The largest key value to copy
+   */
+  public void backfillShadowTable(Table sourceTable, Table shadowTable, Column keyColumn, long lowerBound, long upperBound) throws IOException {
+    throw new UnsupportedOperationException("Online table alteration is not supported for the database platform " + getPlatform().getName());
+  }
+
+  /**
+   * Writes the statements that replace the source table with the shadow table by renaming
+   * the source table to {@link #getOldTableName(Table)} and the shadow table to the name
+   * of the source table. The platform executes these statements in one transaction.
+   *
+   * @param sourceTable The source table
+   * @param shadowTable The shadow table
+   */
+  public void swapShadowTable(Table sourceTable, Table shadowTable) throws IOException {
+    throw new UnsupportedOperationException("Online table alteration is not supported for the database platform " + getPlatform().getName());
+  }
+
+  /**
+   * Writes the statements that clean up after the shadow table has replaced the source table,
+   * i.e. that drop the renamed source table and its triggers. The shadow table now has the
+   * name of the source table.
+   *
+   * @param sourceTable The source table
+   * @param shadowTable The shadow table
+   * @param targetTable The target table, which has the definition that the shadow table shall
+   *                    have after the alteration
+   */
+  public void finishShadowTableSwap(Table sourceTable, Table shadowTable, Table targetTable) throws IOException {
+    throw new UnsupportedOperationException("Online table alteration is not supported for the database platform " + getPlatform().getName());
+  }
+
+  /**
+   * Writes the statements that abort an online alteration by dropping the triggers on the
+   * source table and the shadow table.
+   *
+   * @param sourceTable The source table
+   * @param shadowTable The shadow table
+   */
+  public void dropShadowTable(Table sourceTable, Table shadowTable) throws IOException {
+    throw new UnsupportedOperationException("Online table alteration is not supported for the database platform " + getPlatform().getName());
+  }
+
+  /**
+   * Generates the SQL for querying the number of rows of the two tables in a single statement,
+   * so that both numbers are determined at the same point in time.
+   *
+   * @param table1 The first table
+   * @param table2 The second table
+   * @return The sql
+   */
+  public String getCompareRowCountsSql(Table table1, Table table2) {
+    return "SELECT (SELECT COUNT(*) FROM " + getDelimitedIdentifier(getTableName(table1)) +
+      "), (SELECT COUNT(*) FROM " + getDelimitedIdentifier(getTableName(table2)) + ")";
   }
 
   /**
@@ -685,6 +1061,7 @@ public abstract class SqlBuilder {
 
       if ((table.getName() != null) &&
         (!table.getName().isEmpty())) {
+        startStatementGroup(getForeignKeyTableNames(table));
         dropForeignKeys(table);
       }
     }
@@ -698,10 +1075,12 @@ public abstract class SqlBuilder {
 
       if ((table.getName() != null) &&
         (!table.getName().isEmpty())) {
+        startStatementGroup(Collections.singleton(table.getName()));
         writeTableComment(table);
         dropTable(table);
       }
     }
+    startStatementGroup(null);
   }
 
   /**
@@ -718,7 +1097,8 @@ public abstract class SqlBuilder {
       ForeignKey[] fks = otherTable.getForeignKeys();
 
       for (int fkIdx = 0; (fks != null) && (fkIdx < fks.length); fkIdx++) {
-        if (fks[fkIdx].getForeignTable().equals(table)) {
+        // we compare by name as the foreign key might refer to another version of the table object
+        if (table.getName().equals(fks[fkIdx].getForeignTableName())) {
           dropForeignKey(otherTable, fks[fkIdx]);
         }
       }
@@ -985,6 +1365,149 @@ public abstract class SqlBuilder {
     return buffer.toString();
   }
 
+  /**
+   * Creates the SQL of a prepared statement that inserts a row into the specified table, or updates
+   * the existing row with the same primary key values, in a single statement. This default
+   * implementation returns <code>null</code> as there is no standard syntax for this; platforms
+   * with a native upsert or merge statement redefine this method.
+   *
+   * @param table            The table
+   * @param columns          The columns to write, in the order of the table; these contain all
+   *                         primary key columns of the table
+   * @param parameterColumns Receives the columns whose values have to be bound to the placeholders
+   *                         of the statement, in the order of the placeholders
+   * @return The upsert sql, or <code>null</code> if the platform does not support it
+   */
+  public String getUpsertSql(Table table, List<Column> columns, List<Column> parameterColumns) {
+    return null;
+  }
+
+  /**
+   * Creates a map with the names of the given columns as keys, as expected by
+   * {@link #getInsertSql(Table, Map, boolean)} for generating placeholders.
+   *
+   * @param columns The columns
+   * @return The map
+   */
+  protected Map<String, Object> toColumnMap(List<Column> columns) {
+    Map<String, Object> result = new LinkedHashMap<>();
+
+    for (Column column : columns) {
+      result.put(column.getName(), null);
+    }
+    return result;
+  }
+
+  /**
+   * Creates the SQL of a prepared <code>MERGE</code> statement that inserts or updates one row.
+   * This is the standard SQL syntax used by several platforms for implementing
+   * {@link #getUpsertSql(Table, List, List)}. The row to merge is produced by the source
+   * written by {@link #writeMergeSource(StringBuilder, List, List)}.
+   *
+   * @param table            The table
+   * @param columns          The columns to write, in the order of the table
+   * @param parameterColumns Receives the columns whose values have to be bound to the placeholders
+   * @return The merge sql
+   */
+  protected String getMergeSql(Table table, List<Column> columns, List<Column> parameterColumns) {
+    StringBuilder buffer = new StringBuilder("MERGE INTO ");
+    boolean addSep = false;
+
+    buffer.append(getDelimitedIdentifier(getTableName(table)));
+    buffer.append(" TGT USING ");
+    writeMergeSource(buffer, columns, parameterColumns);
+    buffer.append(" ON (");
+    for (Column column : columns) {
+      if (column.isPrimaryKey()) {
+        if (addSep) {
+          buffer.append(" AND ");
+        }
+        buffer.append("TGT.");
+        buffer.append(getDelimitedIdentifier(getColumnName(column)));
+        buffer.append(" = SRC.");
+        buffer.append(getDelimitedIdentifier(getColumnName(column)));
+        addSep = true;
+      }
+    }
+    buffer.append(")");
+    addSep = false;
+    for (Column column : columns) {
+      if (!column.isPrimaryKey()) {
+        buffer.append(addSep ? ", " : " WHEN MATCHED THEN UPDATE SET ");
+        buffer.append(getDelimitedIdentifier(getColumnName(column)));
+        buffer.append(" = SRC.");
+        buffer.append(getDelimitedIdentifier(getColumnName(column)));
+        addSep = true;
+      }
+    }
+    buffer.append(" WHEN NOT MATCHED THEN INSERT (");
+    addSep = false;
+    for (Column column : columns) {
+      if (addSep) {
+        buffer.append(", ");
+      }
+      buffer.append(getDelimitedIdentifier(getColumnName(column)));
+      addSep = true;
+    }
+    buffer.append(") VALUES (");
+    addSep = false;
+    for (Column column : columns) {
+      if (addSep) {
+        buffer.append(", ");
+      }
+      buffer.append("SRC.");
+      buffer.append(getDelimitedIdentifier(getColumnName(column)));
+      addSep = true;
+    }
+    buffer.append(")");
+    return buffer.toString();
+  }
+
+  /**
+   * Writes the source of a <code>MERGE</code> statement, which is a derived table named
+   * <code>SRC</code> that consists of one row with the parameters for the given columns.
+   * This default implementation uses a <code>VALUES</code> row constructor.
+   *
+   * @param buffer           The buffer to write to
+   * @param columns          The columns
+   * @param parameterColumns Receives the columns whose values have to be bound to the placeholders
+   */
+  protected void writeMergeSource(StringBuilder buffer, List<Column> columns, List<Column> parameterColumns) {
+    boolean addSep = false;
+
+    buffer.append("(VALUES (");
+    for (Column column : columns) {
+      if (addSep) {
+        buffer.append(", ");
+      }
+      buffer.append(getMergeParameter(column));
+      parameterColumns.add(column);
+      addSep = true;
+    }
+    buffer.append(")) AS SRC (");
+    addSep = false;
+    for (Column column : columns) {
+      if (addSep) {
+        buffer.append(", ");
+      }
+      buffer.append(getDelimitedIdentifier(getColumnName(column)));
+      addSep = true;
+    }
+    buffer.append(")");
+  }
+
+  /**
+   * Returns the placeholder for the value of the given column in the source of a <code>MERGE</code>
+   * statement. Platforms that cannot derive the type of an untyped placeholder there should
+   * return a typed placeholder, e.g. a <code>CAST</code>.
+   *
+   * @param column The column
+   * @return The placeholder
+   */
+  protected String getMergeParameter(Column column) {
+    return "?";
+  }
+
   /**
    * Generates the string representation of the given value.
    *
@@ -1063,6 +1586,20 @@ public abstract class SqlBuilder {
     return null;
   }
 
+  /**
+   * Generates the SQL for querying the smallest and the largest value of the given
+   * column of the table.
+   *
+   * @param table     The table
+   * @param keyColumn The column
+   * @return The sql
+   */
+  public String getSelectKeyRangeSql(Table table, Column keyColumn) {
+    String columnName = getDelimitedIdentifier(keyColumn.getName());
+
+    return "SELECT MIN(" + columnName + "), MAX(" + columnName + ") FROM " + getDelimitedIdentifier(getTableName(table));
+  }
+
   //
   // implementation methods that may be overridden by specific database builders
   //
@@ -1197,7 +1734,7 @@ public abstract class SqlBuilder {
    * @param column The column
    * @return The column name
    */
-  protected String getColumnName(Column column) throws IOException {
+  protected String getColumnName(Column column) {
     return shortenName(column.getName(), getMaxColumnNameLength());
   }
 
@@ -1837,10 +2374,24 @@ public abstract class SqlBuilder {
    * a carriage return.
    */
   protected void printEndOfStatement() throws IOException {
-    // TODO: It might make sense to use a special writer which stores the individual
-    //       statements separately (the end of a statement is identified by this method)
-    println(getPlatformInfo().getSqlCommandDelimiter());
-    println();
+    if (_statementConsumer != null) {
+      flushStatement();
+    } else {
+      println(getPlatformInfo().getSqlCommandDelimiter());
+      println();
+    }
+  }
+
+  /**
+   * Prints the end of a statement that is immediately followed by the next statement,
+   * which is typically a semicolon followed by a single carriage return.
+   */
+  protected void printEndOfInlineStatement() throws IOException {
+    if (_statementConsumer != null) {
+      flushStatement();
+    } else {
+      println(getPlatformInfo().getSqlCommandDelimiter());
+    }
   }
 
   /**
@@ -1856,7 +2407,11 @@ public abstract class SqlBuilder {
    * @param text The text to print
    */
   protected void print(String text) throws IOException {
-    _writer.write(text);
+    if (_statementConsumer != null) {
+      _statementBuffer.append(text);
+    } else {
+      _writer.write(text);
+    }
   }
 
   /**
@@ -0,0 +1,50 @@
+package org.apache.ddlutils.platform;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Receives the individual statements generated by a {@link SqlBuilder}, as an alternative
+ * to rendering them as a script via {@link SqlBuilder#setWriter(java.io.Writer)}.
+ *
+ * @version $Revision: $
+ * @see SqlBuilder#setStatementConsumer(SqlStatementConsumer)
+ */
+public interface SqlStatementConsumer {
+  /**
+   * Processes the next generated statement.
+   *
+   * @param statement The statement, without the command delimiter
+   */
+  void consume(String statement) throws IOException;
+
+  /**
+   * Announces that the statements following this call (up to the next call) only affect the
+   * given tables. Consumers that execute statements concurrently can use this to determine
+   * which statements are independent of each other. The default implementation does nothing.
+   *
+   * @param tableNames The names of the affected tables, or <code>null</code> if the statements
+   *                   can affect any table
+   */
+  default void startStatementGroup(Collection<String> tableNames) throws IOException {
+  }
+}
@@ -0,0 +1,108 @@
+package org.apache.ddlutils.platform;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+/**
+ * Holds cheap statistics about a table in the database, as far as they are known. The values
+ * are estimates as reported by the database (e.g. from the optimizer statistics), and thus
+ * are only suitable for deciding how to perform an operation on the table, not for exact
+ * computations. Unknown values are represented by {@link #UNKNOWN}.
+ *
+ * @version $Revision: $
+ */
+public class TableStatistics {
+  /**
+   * The value for unknown statistics values.
+   */
+  public static final long UNKNOWN = -1;
+
+  /**
+   * The estimated number of rows.
+   */
+  private final long _rowCount;
+  /**
+   * The estimated size of the table data in bytes.
+   */
+  private final long _dataSize;
+  /**
+   * The number of indexes of the table.
+   */
+  private final int _indexCount;
+
+  /**
+   * Creates a new statistics object.
+   *
+   * @param rowCount   The estimated number of rows, or {@link #UNKNOWN}
+   * @param dataSize   The estimated size of the table data in bytes, or {@link #UNKNOWN}
+   * @param indexCount The number of indexes of the table, or {@link #UNKNOWN}
+   */
+  public TableStatistics(long rowCount, long dataSize, int indexCount) {
+    _rowCount = rowCount < 0 ? UNKNOWN : rowCount;
+    _dataSize = dataSize < 0 ? UNKNOWN : dataSize;
+    _indexCount = indexCount < 0 ? (int) UNKNOWN : indexCount;
+  }
+
+  /**
+   * Returns the estimated number of rows.
+   *
+   * @return The row count, or {@link #UNKNOWN}
+   */
+  public long getRowCount() {
+    return _rowCount;
+  }
+
+  /**
+   * Returns the estimated size of the table data in bytes.
+   *
+   * @return The data size, or {@link #UNKNOWN}
+   */
+  public long getDataSize() {
+    return _dataSize;
+  }
+
+  /**
+   * Returns the number of indexes of the table.
+   *
+   * @return The index count, or {@link #UNKNOWN}
+   */
+  public int getIndexCount() {
+    return _indexCount;
+  }
+
+  /**
+   * Determines whether the number of rows of the table is known.
+   *
+   * @return <code>true</code> if the row count is known
+   */
+  public boolean isRowCountKnown() {
+    return _rowCount != UNKNOWN;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String toString() {
+    return "rows=" + (_rowCount == UNKNOWN ? "?" : String.valueOf(_rowCount)) +
+      ", size=" + (_dataSize == UNKNOWN ? "?" : String.valueOf(_dataSize)) +
+      ", indexes=" + (_indexCount == UNKNOWN ? "?" : String.valueOf(_indexCount));
+  }
+}
@@ -29,6 +29,7 @@ import org.apache.ddlutils.platform.SqlBuilder;
 
 import java.io.IOException;
 import java.sql.Types;
+import java.util.List;
 
 /**
  * The SQL Builder for DB2.
@@ -147,4 +148,21 @@ public class Db2Builder extends SqlBuilder {
       print(")");
     }
   }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String getUpsertSql(Table table, List<Column> columns, List<Column> parameterColumns) {
+    return getMergeSql(table, columns, parameterColumns);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected String getMergeParameter(Column column) {
+    // DB2 cannot determine the type of untyped parameter markers in a VALUES clause
+    return "CAST(? AS " + getSqlType(column) + ")";
+  }
 }
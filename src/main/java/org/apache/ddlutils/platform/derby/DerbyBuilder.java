@@ -29,6 +29,7 @@ import org.apache.ddlutils.platform.cloudscape.CloudscapeBuilder;
 
 import java.io.IOException;
 import java.sql.Types;
+import java.util.List;
 
 /**
  * The SQL Builder for Derby.
@@ -102,4 +103,63 @@ public class DerbyBuilder extends CloudscapeBuilder {
       printIdentifier(getColumnName(sourceColumn));
     }
   }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String getUpsertSql(Table table, List<Column> columns, List<Column> parameterColumns) {
+    // Derby (10.11 or newer) only accepts tables and views as the source of a MERGE, so
+    // we merge against a dummy row and use the parameters directly in the clauses
+    StringBuilder buffer = new StringBuilder("MERGE INTO ");
+    boolean addSep = false;
+
+    buffer.append(getDelimitedIdentifier(getTableName(table)));
+    buffer.append(" TGT USING SYSIBM.SYSDUMMY1 ON ");
+    for (Column column : columns) {
+      if (column.isPrimaryKey()) {
+        if (addSep) {
+          buffer.append(" AND ");
+        }
+        buffer.append("TGT.");
+        buffer.append(getDelimitedIdentifier(getColumnName(column)));
+        buffer.append(" = CAST(? AS ");
+        buffer.append(getSqlType(column));
+        buffer.append(")");
+        parameterColumns.add(column);
+        addSep = true;
+      }
+    }
+    addSep = false;
+    for (Column column : columns) {
+      if (!column.isPrimaryKey()) {
+        buffer.append(addSep ? ", " : " WHEN MATCHED THEN UPDATE SET ");
+        buffer.append(getDelimitedIdentifier(getColumnName(column)));
+        buffer.append(" = ?");
+        parameterColumns.add(column);
+        addSep = true;
+      }
+    }
+    buffer.append(" WHEN NOT MATCHED THEN INSERT (");
+    addSep = false;
+    for (Column column : columns) {
+      if (addSep) {
+        buffer.append(", ");
+      }
+      buffer.append(getDelimitedIdentifier(getColumnName(column)));
+      addSep = true;
+    }
+    buffer.append(") VALUES (");
+    addSep = false;
+    for (Column column : columns) {
+      if (addSep) {
+        buffer.append(", ");
+      }
+      buffer.append("?");
+      parameterColumns.add(column);
+      addSep = true;
+    }
+    buffer.append(")");
+    return buffer.toString();
+  }
 }
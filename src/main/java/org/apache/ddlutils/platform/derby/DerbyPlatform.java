@@ -32,7 +32,9 @@ import org.apache.ddlutils.platform.cloudscape.CloudscapePlatform;
 import org.apache.ddlutils.util.JdbcUtils;
 
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.DriverManager;
+import java.sql.SQLException;
 import java.sql.Types;
 import java.util.Map;
 
@@ -72,6 +74,18 @@ public class DerbyPlatform extends CloudscapePlatform {
     return BuiltinDriverType.DERBY.getName();
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected boolean isUpsertSupported(Connection connection) throws SQLException {
+    DatabaseMetaData metaData = connection.getMetaData();
+
+    // MERGE requires Derby 10.11 or newer
+    return (metaData.getDatabaseMajorVersion() > 10) ||
+      ((metaData.getDatabaseMajorVersion() == 10) && (metaData.getDatabaseMinorVersion() >= 11));
+  }
+
   /**
    * {@inheritDoc}
    */
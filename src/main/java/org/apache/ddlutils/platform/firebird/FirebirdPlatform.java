@@ -56,6 +56,7 @@ public class FirebirdPlatform extends PlatformImplBase {
     PlatformInfo info = getPlatformInfo();
 
     info.setMaxIdentifierLength(31);
+    info.setMaxInListSize(1500);
     info.setSystemForeignKeyIndicesAlwaysNonUnique(true);
     info.setPrimaryKeyColumnAutomaticallyRequired(true);
     info.setCommentPrefix("/*");
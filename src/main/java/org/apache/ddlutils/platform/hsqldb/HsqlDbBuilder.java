@@ -28,6 +28,7 @@ import org.apache.ddlutils.model.TypeMap;
 import org.apache.ddlutils.platform.SqlBuilder;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
  * The SQL Builder for the HsqlDb database.
@@ -168,4 +169,21 @@ public class HsqlDbBuilder extends SqlBuilder {
       super.writeCastExpression(sourceColumn, targetColumn);
     }
   }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String getUpsertSql(Table table, List<Column> columns, List<Column> parameterColumns) {
+    // note that MERGE requires HSQLDB 2.0 or newer, which the platform checks before using it
+    return getMergeSql(table, columns, parameterColumns);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected String getMergeParameter(Column column) {
+    return "CAST(? AS " + getSqlType(column) + ")";
+  }
 }
@@ -29,7 +29,10 @@ import org.apache.ddlutils.platform.DatabaseMetaDataWrapper;
 import org.apache.ddlutils.platform.JdbcModelReader;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Reads a database model from a HsqlDb database.
@@ -61,12 +64,34 @@ public class HsqlDbModelReader extends JdbcModelReader {
       // into the database metadata
       // Since Hsqldb only allows IDENTITY for primary key columns, we restrict
       // our search to those columns
-      determineAutoIncrementFromResultSetMetaData(table, table.getPrimaryKeyColumns());
+      determineAutoIncrementColumns(metaData, table, table.getPrimaryKeyColumns());
     }
 
     return table;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected Map<String, Set<String>> readAutoIncrementColumns(DatabaseMetaDataWrapper metaData) throws SQLException {
+    // Hsqldb 2.x has the identity status in the standard information schema, older
+    // versions fail the query and we fall back to the result set metadata
+    List<String> params = new ArrayList<>();
+    StringBuilder sql = new StringBuilder();
+
+    sql.append("SELECT TABLE_NAME, COLUMN_NAME FROM INFORMATION_SCHEMA.COLUMNS WHERE IS_IDENTITY = 'YES'");
+    if (metaData.getCatalog() != null) {
+      sql.append(" AND TABLE_CATALOG = ?");
+      params.add(metaData.getCatalog());
+    }
+    if (metaData.getSchemaPattern() != null) {
+      sql.append(" AND TABLE_SCHEMA LIKE ?");
+      params.add(metaData.getSchemaPattern());
+    }
+    return readAutoIncrementColumns(sql.toString(), params);
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -112,6 +112,15 @@ public class HsqlDbPlatform extends PlatformImplBase {
     }
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected boolean isUpsertSupported(Connection connection) throws SQLException {
+    // MERGE requires HSQLDB 2.0 or newer
+    return connection.getMetaData().getDatabaseMajorVersion() >= 2;
+  }
+
   /**
    * {@inheritDoc}
    */
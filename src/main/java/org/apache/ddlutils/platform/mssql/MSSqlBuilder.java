@@ -34,6 +34,7 @@ import java.io.IOException;
 import java.sql.Types;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -230,6 +231,35 @@ public class MSSqlBuilder extends SqlBuilder {
     printEndOfStatement();
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void disableForeignKeys(Database database, Table table) throws IOException {
+    for (int idx = 0; idx < table.getForeignKeyCount(); idx++) {
+      print("ALTER TABLE ");
+      printIdentifier(getTableName(table));
+      print(" NOCHECK CONSTRAINT ");
+      printIdentifier(getForeignKeyName(table, table.getForeignKey(idx)));
+      printEndOfStatement();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void enableForeignKeys(Database database, Table table) throws IOException {
+    // WITH CHECK makes sure that the existing rows are validated so that the constraint is trusted again
+    for (int idx = 0; idx < table.getForeignKeyCount(); idx++) {
+      print("ALTER TABLE ");
+      printIdentifier(getTableName(table));
+      print(" WITH CHECK CHECK CONSTRAINT ");
+      printIdentifier(getForeignKeyName(table, table.getForeignKey(idx)));
+      printEndOfStatement();
+    }
+  }
+
   /**
    * Returns the statement that turns on the ability to write delimited identifiers.
    *
@@ -247,7 +277,10 @@ public class MSSqlBuilder extends SqlBuilder {
    * If quotation mode is on, then this writes the statement that turns on the ability to write delimited identifiers.
    */
   protected void turnOnQuotation() throws IOException {
-    print(getQuotationOnStatement());
+    if (getPlatform().isDelimitedIdentifierModeOn()) {
+      print("SET quoted_identifier on");
+      printEndOfInlineStatement();
+    }
   }
 
   /**
@@ -517,4 +550,13 @@ public class MSSqlBuilder extends SqlBuilder {
       printIdentifier(getColumnName(sourceColumn));
     }
   }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String getUpsertSql(Table table, List<Column> columns, List<Column> parameterColumns) {
+    // Sql Server requires MERGE statements to be terminated
+    return getMergeSql(table, columns, parameterColumns) + ";";
+  }
 }
@@ -34,7 +34,10 @@ import java.sql.SQLException;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
@@ -95,7 +98,7 @@ public class MSSqlModelReader extends JdbcModelReader {
 
     if (table != null) {
       // Sql Server does not return the auto-increment status via the database metadata
-      determineAutoIncrementFromResultSetMetaData(table, table.getColumns());
+      determineAutoIncrementColumns(metaData, table, table.getColumns());
 
       // TODO: Replace this manual filtering using named pks once they are available
       //       This is then probably of interest to every platform
@@ -112,6 +115,28 @@ public class MSSqlModelReader extends JdbcModelReader {
     return table;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected Map<String, Set<String>> readAutoIncrementColumns(DatabaseMetaDataWrapper metaData) throws SQLException {
+    // the catalog views only cover the current database
+    if ((metaData.getCatalog() != null) && !metaData.getCatalog().equals(getConnection().getCatalog())) {
+      return null;
+    }
+
+    List<String> params = new ArrayList<>();
+    StringBuilder sql = new StringBuilder();
+
+    sql.append("SELECT t.name AS TABLE_NAME, c.name AS COLUMN_NAME FROM sys.identity_columns c");
+    sql.append(" JOIN sys.tables t ON t.object_id = c.object_id");
+    if (metaData.getSchemaPattern() != null) {
+      sql.append(" JOIN sys.schemas s ON s.schema_id = t.schema_id WHERE s.name LIKE ?");
+      params.add(metaData.getSchemaPattern());
+    }
+    return readAutoIncrementColumns(sql.toString(), params);
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -61,9 +61,11 @@ public class MSSqlPlatform extends PlatformImplBase {
     PlatformInfo info = getPlatformInfo();
 
     info.setMaxIdentifierLength(128);
+    info.setMaxParameterCount(2100);
     info.setPrimaryKeyColumnAutomaticallyRequired(true);
     info.setIdentityColumnAutomaticallyRequired(true);
     info.setMultipleIdentityColumnsSupported(false);
+    info.setForeignKeyDisablingSupported(true);
     info.setSupportedOnUpdateActions(new CascadeActionEnum[]{CascadeActionEnum.CASCADE, CascadeActionEnum.NONE});
     info.addEquivalentOnUpdateActions(CascadeActionEnum.NONE, CascadeActionEnum.RESTRICT);
     info.setSupportedOnDeleteActions(new CascadeActionEnum[]{CascadeActionEnum.CASCADE, CascadeActionEnum.NONE});
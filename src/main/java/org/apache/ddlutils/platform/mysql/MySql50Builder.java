@@ -20,9 +20,12 @@ package org.apache.ddlutils.platform.mysql;
  */
 
 import org.apache.ddlutils.Platform;
+import org.apache.ddlutils.model.Column;
 import org.apache.ddlutils.model.Table;
 
 import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
 
 /**
  * The SQL Builder for MySQL version 5 and above.
@@ -48,4 +51,145 @@ public class MySql50Builder extends MySqlBuilder {
     printEndOfStatement();
     super.copyData(sourceTable, targetTable);
   }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void createShadowTableTriggers(Table sourceTable, Table shadowTable, Column keyColumn) throws IOException {
+    List<Column> columns = getCommonColumns(sourceTable, shadowTable);
+
+    writeShadowTableTriggerStart(sourceTable, "ins", "INSERT");
+    writeShadowTableReplace(shadowTable, columns);
+    printEndOfStatement();
+
+    // the key might have been changed, so we remove the row with the old key first
+    writeShadowTableTriggerStart(sourceTable, "upd", "UPDATE");
+    print("BEGIN ");
+    writeShadowTableDelete(shadowTable, keyColumn);
+    print("; ");
+    writeShadowTableReplace(shadowTable, columns);
+    print("; END");
+    printEndOfStatement();
+
+    writeShadowTableTriggerStart(sourceTable, "del", "DELETE");
+    writeShadowTableDelete(shadowTable, keyColumn);
+    printEndOfStatement();
+  }
+
+  /**
+   * Writes the start of a statement that creates a trigger which mirrors changes into the shadow table.
+   *
+   * @param sourceTable The source table
+   * @param suffix      The suffix of the trigger name
+   * @param event       The event that the trigger handles
+   */
+  private void writeShadowTableTriggerStart(Table sourceTable, String suffix, String event) throws IOException {
+    print("CREATE TRIGGER ");
+    printIdentifier(getConstraintName(null, sourceTable, "osc", suffix));
+    print(" AFTER ");
+    print(event);
+    print(" ON ");
+    printIdentifier(getTableName(sourceTable));
+    print(" FOR EACH ROW ");
+  }
+
+  /**
+   * Writes a statement for a trigger that replaces the row in the shadow table with the new row.
+   *
+   * @param shadowTable The shadow table
+   * @param columns     The columns to copy
+   */
+  private void writeShadowTableReplace(Table shadowTable, List<Column> columns) throws IOException {
+    print("REPLACE INTO ");
+    printIdentifier(getTableName(shadowTable));
+    print(" (");
+    for (Iterator<Column> columnIt = columns.iterator(); columnIt.hasNext(); ) {
+      printIdentifier(getColumnName(columnIt.next()));
+      if (columnIt.hasNext()) {
+        print(",");
+      }
+    }
+    print(") VALUES (");
+    for (Iterator<Column> columnIt = columns.iterator(); columnIt.hasNext(); ) {
+      print("NEW.");
+      printIdentifier(getColumnName(columnIt.next()));
+      if (columnIt.hasNext()) {
+        print(",");
+      }
+    }
+    print(")");
+  }
+
+  /**
+   * Writes a statement for a trigger that deletes the old row from the shadow table.
+   *
+   * @param shadowTable The shadow table
+   * @param keyColumn   The key column
+   */
+  private void writeShadowTableDelete(Table shadowTable, Column keyColumn) throws IOException {
+    print("DELETE IGNORE FROM ");
+    printIdentifier(getTableName(shadowTable));
+    print(" WHERE ");
+    printIdentifier(getColumnName(keyColumn));
+    print(" = OLD.");
+    printIdentifier(getColumnName(keyColumn));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void backfillShadowTable(Table sourceTable, Table shadowTable, Column keyColumn, long lowerBound, long upperBound) throws IOException {
+    // rows that the triggers have already copied are newer, so we ignore the duplicates;
+    // the shared locks ensure that rows which are being changed, are copied after the change
+    print("INSERT IGNORE INTO ");
+    printIdentifier(getTableName(shadowTable));
+    print(" ");
+    writeCopyDataQuery(sourceTable, shadowTable);
+    writeKeyRangeCondition(keyColumn, lowerBound, upperBound);
+    print(" LOCK IN SHARE MODE");
+    printEndOfStatement();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void swapShadowTable(Table sourceTable, Table shadowTable) throws IOException {
+    // MySql renames both tables atomically
+    print("RENAME TABLE ");
+    printIdentifier(getTableName(sourceTable));
+    print(" TO ");
+    printIdentifier(getOldTableName(sourceTable));
+    print(", ");
+    printIdentifier(getTableName(shadowTable));
+    print(" TO ");
+    printIdentifier(getTableName(sourceTable));
+    printEndOfStatement();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void finishShadowTableSwap(Table sourceTable, Table shadowTable, Table targetTable) throws IOException {
+    // the triggers are dropped together with the table
+    print("DROP TABLE ");
+    printIdentifier(getOldTableName(sourceTable));
+    printEndOfStatement();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void dropShadowTable(Table sourceTable, Table shadowTable) throws IOException {
+    for (String suffix : new String[]{"ins", "upd", "del"}) {
+      print("DROP TRIGGER IF EXISTS ");
+      printIdentifier(getConstraintName(null, sourceTable, "osc", suffix));
+      printEndOfStatement();
+    }
+    dropTable(shadowTable);
+  }
 }
@@ -40,6 +40,8 @@ public class MySql50Platform extends MySqlPlatform {
     // MySql 5.0 returns an empty string for default values for pk columns
     // which is different from the MySql 4 behaviour
     info.setSyntheticDefaultValueForRequiredReturned(false);
+    // triggers are available since MySql 5.0
+    info.setOnlineTableAlterationSupported(true);
 
     setSqlBuilder(new MySql50Builder(this));
     setModelReader(new MySql50ModelReader(this));
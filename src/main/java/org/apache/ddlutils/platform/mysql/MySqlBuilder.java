@@ -30,6 +30,7 @@ import org.apache.ddlutils.platform.SqlBuilder;
 import java.io.IOException;
 import java.sql.Types;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -276,4 +277,37 @@ public class MySqlBuilder extends SqlBuilder {
       printIdentifier(getColumnName(sourceColumn));
     }
   }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String getUpsertSql(Table table, List<Column> columns, List<Column> parameterColumns) {
+    StringBuilder buffer = new StringBuilder(getInsertSql(table, toColumnMap(columns), true));
+    boolean addSep = false;
+
+    parameterColumns.addAll(columns);
+    buffer.append(" ON DUPLICATE KEY UPDATE ");
+    for (Column column : columns) {
+      if (!column.isPrimaryKey()) {
+        if (addSep) {
+          buffer.append(", ");
+        }
+        buffer.append(getDelimitedIdentifier(column.getName()));
+        buffer.append(" = VALUES(");
+        buffer.append(getDelimitedIdentifier(column.getName()));
+        buffer.append(")");
+        addSep = true;
+      }
+    }
+    if (!addSep) {
+      // there is nothing to update, but the clause must not be empty
+      Column pkColumn = table.getPrimaryKeyColumns()[0];
+
+      buffer.append(getDelimitedIdentifier(pkColumn.getName()));
+      buffer.append(" = ");
+      buffer.append(getDelimitedIdentifier(pkColumn.getName()));
+    }
+    return buffer.toString();
+  }
 }
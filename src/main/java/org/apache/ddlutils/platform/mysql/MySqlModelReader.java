@@ -24,12 +24,19 @@ import org.apache.ddlutils.model.Column;
 import org.apache.ddlutils.model.ForeignKey;
 import org.apache.ddlutils.model.Index;
 import org.apache.ddlutils.model.Table;
+import org.apache.ddlutils.platform.CatalogMetaData;
 import org.apache.ddlutils.platform.DatabaseMetaDataWrapper;
 import org.apache.ddlutils.platform.JdbcModelReader;
+import org.apache.ddlutils.platform.MetaDataColumnDescriptor;
 
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Reads a database model from a MySql database.
@@ -37,6 +44,45 @@ import java.util.Map;
  * @version $Revision: $
  */
 public class MySqlModelReader extends JdbcModelReader {
+  /**
+   * The JDBC type codes of the MySQL data types as reported by the MySQL JDBC driver.
+   */
+  private static final Map<String, Integer> JDBC_TYPES_BY_NAME = new HashMap<>();
+
+  static {
+    JDBC_TYPES_BY_NAME.put("bit", Types.BIT);
+    JDBC_TYPES_BY_NAME.put("tinyint", Types.TINYINT);
+    JDBC_TYPES_BY_NAME.put("smallint", Types.SMALLINT);
+    JDBC_TYPES_BY_NAME.put("mediumint", Types.INTEGER);
+    JDBC_TYPES_BY_NAME.put("int", Types.INTEGER);
+    JDBC_TYPES_BY_NAME.put("integer", Types.INTEGER);
+    JDBC_TYPES_BY_NAME.put("bigint", Types.BIGINT);
+    JDBC_TYPES_BY_NAME.put("float", Types.REAL);
+    JDBC_TYPES_BY_NAME.put("double", Types.DOUBLE);
+    JDBC_TYPES_BY_NAME.put("decimal", Types.DECIMAL);
+    JDBC_TYPES_BY_NAME.put("date", Types.DATE);
+    JDBC_TYPES_BY_NAME.put("year", Types.DATE);
+    JDBC_TYPES_BY_NAME.put("time", Types.TIME);
+    JDBC_TYPES_BY_NAME.put("datetime", Types.TIMESTAMP);
+    JDBC_TYPES_BY_NAME.put("timestamp", Types.TIMESTAMP);
+    JDBC_TYPES_BY_NAME.put("char", Types.CHAR);
+    JDBC_TYPES_BY_NAME.put("varchar", Types.VARCHAR);
+    JDBC_TYPES_BY_NAME.put("tinytext", Types.VARCHAR);
+    JDBC_TYPES_BY_NAME.put("text", Types.LONGVARCHAR);
+    JDBC_TYPES_BY_NAME.put("mediumtext", Types.LONGVARCHAR);
+    JDBC_TYPES_BY_NAME.put("longtext", Types.LONGVARCHAR);
+    JDBC_TYPES_BY_NAME.put("json", Types.LONGVARCHAR);
+    JDBC_TYPES_BY_NAME.put("enum", Types.CHAR);
+    JDBC_TYPES_BY_NAME.put("set", Types.CHAR);
+    JDBC_TYPES_BY_NAME.put("binary", Types.BINARY);
+    JDBC_TYPES_BY_NAME.put("varbinary", Types.VARBINARY);
+    JDBC_TYPES_BY_NAME.put("tinyblob", Types.VARBINARY);
+    JDBC_TYPES_BY_NAME.put("blob", Types.LONGVARBINARY);
+    JDBC_TYPES_BY_NAME.put("mediumblob", Types.LONGVARBINARY);
+    JDBC_TYPES_BY_NAME.put("longblob", Types.LONGVARBINARY);
+    JDBC_TYPES_BY_NAME.put("geometry", Types.BINARY);
+  }
+
   /**
    * Creates a new model reader for MySql databases.
    *
@@ -61,11 +107,210 @@ public class MySqlModelReader extends JdbcModelReader {
     Table table = super.readTable(metaData, values);
 
     if (table != null) {
-      determineAutoIncrementFromResultSetMetaData(table, table.getPrimaryKeyColumns());
+      determineAutoIncrementColumns(metaData, table, table.getPrimaryKeyColumns());
     }
     return table;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected CatalogMetaData readCatalogMetaData(DatabaseMetaDataWrapper metaData) throws SQLException {
+    List<String> params = new ArrayList<>();
+    String schemaFilter = createSchemaFilter(metaData, "", params);
+
+    CatalogMetaData catalogMetaData = new CatalogMetaData();
+    List<String> tableTypes = Arrays.asList(metaData.getTableTypes());
+
+    for (Map<String, Object> values : readCatalogRows(
+      "SELECT TABLE_SCHEMA AS TABLE_CAT, NULL AS TABLE_SCHEM, TABLE_NAME," +
+        " CASE WHEN TABLE_TYPE = 'BASE TABLE' THEN" +
+        " CASE WHEN TABLE_SCHEMA IN ('mysql', 'performance_schema') THEN 'SYSTEM TABLE' ELSE 'TABLE' END" +
+        " WHEN TABLE_TYPE = 'TEMPORARY' THEN 'LOCAL_TEMPORARY' ELSE TABLE_TYPE END AS TABLE_TYPE," +
+        " TABLE_COMMENT AS REMARKS" +
+        " FROM information_schema.TABLES" +
+        " WHERE" + schemaFilter +
+        " ORDER BY TABLE_TYPE, TABLE_SCHEMA, TABLE_NAME",
+      params, getColumnsForTable())) {
+      if (tableTypes.contains(values.get("TABLE_TYPE"))) {
+        catalogMetaData.addTable(values);
+      }
+    }
+
+    for (Map<String, Object> values : readCatalogRows(
+      "SELECT TABLE_NAME, COLUMN_NAME, COLUMN_DEFAULT AS COLUMN_DEF, DATA_TYPE AS TYPE_NAME, COLUMN_TYPE," +
+        " CHARACTER_MAXIMUM_LENGTH, NUMERIC_PRECISION, NUMERIC_SCALE, IS_NULLABLE, COLUMN_COMMENT AS REMARKS" +
+        " FROM information_schema.COLUMNS" +
+        " WHERE" + schemaFilter +
+        " ORDER BY TABLE_NAME, ORDINAL_POSITION",
+      params, Arrays.asList(new MetaDataColumnDescriptor("COLUMN_DEF", Types.VARCHAR),
+        new MetaDataColumnDescriptor("TABLE_NAME", Types.VARCHAR),
+        new MetaDataColumnDescriptor("COLUMN_NAME", Types.VARCHAR),
+        new MetaDataColumnDescriptor("TYPE_NAME", Types.VARCHAR),
+        new MetaDataColumnDescriptor("COLUMN_TYPE", Types.VARCHAR),
+        new MetaDataColumnDescriptor("CHARACTER_MAXIMUM_LENGTH", Types.VARCHAR),
+        new MetaDataColumnDescriptor("NUMERIC_PRECISION", Types.VARCHAR),
+        new MetaDataColumnDescriptor("NUMERIC_SCALE", Types.INTEGER),
+        new MetaDataColumnDescriptor("IS_NULLABLE", Types.VARCHAR),
+        new MetaDataColumnDescriptor("REMARKS", Types.VARCHAR)))) {
+      determineColumnType(values);
+      catalogMetaData.addColumn((String) values.get("TABLE_NAME"), values);
+    }
+
+    for (Map<String, Object> values : readCatalogRows(
+      "SELECT TABLE_NAME, COLUMN_NAME, CONSTRAINT_NAME AS PK_NAME" +
+        " FROM information_schema.KEY_COLUMN_USAGE" +
+        " WHERE CONSTRAINT_NAME = 'PRIMARY' AND" + schemaFilter +
+        " ORDER BY TABLE_NAME, ORDINAL_POSITION",
+      params, getColumnsForPK())) {
+      catalogMetaData.addPrimaryKey((String) values.get("TABLE_NAME"), values);
+    }
+
+    for (Map<String, Object> values : readCatalogRows(
+      "SELECT k.TABLE_NAME AS FKTABLE_NAME, k.COLUMN_NAME AS FKCOLUMN_NAME," +
+        " k.REFERENCED_TABLE_NAME AS PKTABLE_NAME, k.REFERENCED_COLUMN_NAME AS PKCOLUMN_NAME," +
+        " k.ORDINAL_POSITION AS KEY_SEQ, k.CONSTRAINT_NAME AS FK_NAME," +
+        " CASE r.UPDATE_RULE WHEN 'CASCADE' THEN 0 WHEN 'RESTRICT' THEN 1 WHEN 'SET NULL' THEN 2 WHEN 'SET DEFAULT' THEN 4 ELSE 3 END AS UPDATE_RULE," +
+        " CASE r.DELETE_RULE WHEN 'CASCADE' THEN 0 WHEN 'RESTRICT' THEN 1 WHEN 'SET NULL' THEN 2 WHEN 'SET DEFAULT' THEN 4 ELSE 3 END AS DELETE_RULE" +
+        " FROM information_schema.KEY_COLUMN_USAGE k" +
+        " JOIN information_schema.REFERENTIAL_CONSTRAINTS r ON r.CONSTRAINT_SCHEMA = k.CONSTRAINT_SCHEMA" +
+        " AND r.CONSTRAINT_NAME = k.CONSTRAINT_NAME AND r.TABLE_NAME = k.TABLE_NAME" +
+        " WHERE k.REFERENCED_TABLE_NAME IS NOT NULL AND" + createSchemaFilter(metaData, "k.", new ArrayList<>()) +
+        " ORDER BY k.TABLE_NAME, k.REFERENCED_TABLE_SCHEMA, k.REFERENCED_TABLE_NAME, k.CONSTRAINT_NAME, k.ORDINAL_POSITION",
+      params, getColumnsForFK())) {
+      catalogMetaData.addForeignKey((String) values.get("FKTABLE_NAME"), values);
+    }
+
+    for (Map<String, Object> values : readCatalogRows(
+      "SELECT TABLE_NAME, NON_UNIQUE, INDEX_NAME, SEQ_IN_INDEX AS ORDINAL_POSITION, COLUMN_NAME," +
+        " CASE WHEN INDEX_TYPE = 'HASH' THEN 2 ELSE 3 END AS TYPE" +
+        " FROM information_schema.STATISTICS" +
+        " WHERE" + schemaFilter +
+        " ORDER BY TABLE_NAME, NON_UNIQUE, TYPE, INDEX_NAME, SEQ_IN_INDEX",
+      params, getColumnsForIndex())) {
+      catalogMetaData.addIndex((String) values.get("TABLE_NAME"), values);
+    }
+    return catalogMetaData;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected Map<String, String> readTableChangeTokens(DatabaseMetaDataWrapper metaData) throws SQLException {
+    // The token consists of checksums over the information schema rows describing the table,
+    // its columns, indices and foreign keys
+    List<String> params = new ArrayList<>();
+    List<MetaDataColumnDescriptor> columnDescriptors = new ArrayList<>();
+    Map<String, String> changeTokens = new HashMap<>();
+
+    columnDescriptors.add(new MetaDataColumnDescriptor("TABLE_NAME", Types.VARCHAR));
+    columnDescriptors.add(new MetaDataColumnDescriptor("CHANGE_TOKEN", Types.VARCHAR));
+    for (Map<String, Object> values : readCatalogRows(
+      "SELECT t.TABLE_NAME, CONCAT_WS(':', t.TABLE_TYPE, CRC32(t.TABLE_COMMENT)," +
+        " (SELECT CONCAT(COUNT(*), '/', COALESCE(SUM(CRC32(CONCAT_WS('|', c.COLUMN_NAME, c.ORDINAL_POSITION," +
+        " c.COLUMN_TYPE, c.IS_NULLABLE, c.COLUMN_DEFAULT, c.EXTRA, c.COLUMN_COMMENT))), 0))" +
+        " FROM information_schema.COLUMNS c WHERE c.TABLE_SCHEMA = t.TABLE_SCHEMA AND c.TABLE_NAME = t.TABLE_NAME)," +
+        " (SELECT CONCAT(COUNT(*), '/', COALESCE(SUM(CRC32(CONCAT_WS('|', s.INDEX_NAME, s.NON_UNIQUE," +
+        " s.SEQ_IN_INDEX, s.COLUMN_NAME, s.INDEX_TYPE))), 0))" +
+        " FROM information_schema.STATISTICS s WHERE s.TABLE_SCHEMA = t.TABLE_SCHEMA AND s.TABLE_NAME = t.TABLE_NAME)," +
+        " (SELECT CONCAT(COUNT(*), '/', COALESCE(SUM(CRC32(CONCAT_WS('|', k.CONSTRAINT_NAME, k.COLUMN_NAME," +
+        " k.ORDINAL_POSITION, k.REFERENCED_TABLE_NAME, k.REFERENCED_COLUMN_NAME))), 0))" +
+        " FROM information_schema.KEY_COLUMN_USAGE k WHERE k.TABLE_SCHEMA = t.TABLE_SCHEMA AND k.TABLE_NAME = t.TABLE_NAME)," +
+        " (SELECT CONCAT(COUNT(*), '/', COALESCE(SUM(CRC32(CONCAT_WS('|', r.CONSTRAINT_NAME, r.UPDATE_RULE, r.DELETE_RULE))), 0))" +
+        " FROM information_schema.REFERENTIAL_CONSTRAINTS r WHERE r.CONSTRAINT_SCHEMA = t.TABLE_SCHEMA AND r.TABLE_NAME = t.TABLE_NAME))" +
+        " AS CHANGE_TOKEN" +
+        " FROM information_schema.TABLES t" +
+        " WHERE" + createSchemaFilter(metaData, "t.", params),
+      params, columnDescriptors)) {
+      changeTokens.put((String) values.get("TABLE_NAME"), (String) values.get("CHANGE_TOKEN"));
+    }
+    return changeTokens;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected Map<String, Set<String>> readAutoIncrementColumns(DatabaseMetaDataWrapper metaData) throws SQLException {
+    List<String> params = new ArrayList<>();
+
+    return readAutoIncrementColumns(
+      "SELECT TABLE_NAME, COLUMN_NAME FROM information_schema.COLUMNS" +
+        " WHERE EXTRA LIKE '%auto_increment%' AND" + createSchemaFilter(metaData, "", params),
+      params);
+  }
+
+  /**
+   * Creates the condition that restricts the information schema queries to the tables to read.
+   * MySQL uses the database as the JDBC catalog; if none is given, we read the current one.
+   *
+   * @param metaData     The database metadata settings
+   * @param columnPrefix The prefix for the column names, e.g. a table alias followed by a dot
+   * @param params       Receives the values for the query parameters in the condition
+   * @return The condition
+   */
+  private String createSchemaFilter(DatabaseMetaDataWrapper metaData, String columnPrefix, List<String> params) {
+    StringBuilder filter = new StringBuilder();
+
+    filter.append(" ");
+    filter.append(columnPrefix);
+    if (metaData.getCatalog() != null) {
+      filter.append("TABLE_SCHEMA = ?");
+      params.add(metaData.getCatalog());
+    } else {
+      filter.append("TABLE_SCHEMA = DATABASE()");
+    }
+    if (getDefaultTablePattern() != null) {
+      filter.append(" AND ");
+      filter.append(columnPrefix);
+      filter.append("TABLE_NAME LIKE ?");
+      params.add(getDefaultTablePattern());
+    }
+    return filter.toString();
+  }
+
+  /**
+   * Determines the JDBC type, size, scale and radix of a column read via the catalog queries
+   * from the information schema values in the same way that the MySQL JDBC driver does it for
+   * {@link java.sql.DatabaseMetaData#getColumns(String, String, String, String)}.
+   *
+   * @param values The column values
+   */
+  private void determineColumnType(Map<String, Object> values) {
+    String typeName = ((String) values.get("TYPE_NAME")).toLowerCase();
+    String columnType = ((String) values.get("COLUMN_TYPE")).toLowerCase();
+    Integer typeCode = JDBC_TYPES_BY_NAME.get(typeName);
+    String size = (String) values.get("CHARACTER_MAXIMUM_LENGTH");
+
+    if (typeCode == null) {
+      typeCode = Types.OTHER;
+    } else if ((typeCode == Types.TINYINT) && columnType.startsWith("tinyint(1)")) {
+      // the driver reports TINYINT(1) as BIT per default (tinyInt1isBit)
+      typeCode = Types.BIT;
+    }
+    if (size != null) {
+      if (Long.parseLong(size) > Integer.MAX_VALUE) {
+        size = String.valueOf(Integer.MAX_VALUE);
+      }
+    } else if (values.get("NUMERIC_PRECISION") != null) {
+      size = (String) values.get("NUMERIC_PRECISION");
+    } else if ("date".equals(typeName)) {
+      size = "10";
+    } else if ("time".equals(typeName)) {
+      size = "8";
+    } else if ("datetime".equals(typeName) || "timestamp".equals(typeName)) {
+      size = "19";
+    } else if ("year".equals(typeName)) {
+      size = "4";
+    }
+    values.put("DATA_TYPE", typeCode);
+    values.put("COLUMN_SIZE", size);
+    values.put("DECIMAL_DIGITS", values.get("NUMERIC_SCALE"));
+    values.put("NUM_PREC_RADIX", 10);
+  }
+
   /**
    * {@inheritDoc}
    */
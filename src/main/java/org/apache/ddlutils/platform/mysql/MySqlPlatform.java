@@ -37,8 +37,15 @@ import org.apache.ddlutils.platform.BuiltinDriverType;
 import org.apache.ddlutils.platform.CreationParameters;
 import org.apache.ddlutils.platform.DefaultTableDefinitionChangesPredicate;
 import org.apache.ddlutils.platform.PlatformImplBase;
+import org.apache.ddlutils.platform.TableStatistics;
+import org.apache.ddlutils.util.SqlTokenizer;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Types;
 
 /**
@@ -115,6 +122,37 @@ public class MySqlPlatform extends PlatformImplBase {
     return BuiltinDriverType.MYSQL.getName();
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected SqlTokenizer createSqlTokenizer(Reader sql) {
+    // MySql has # comments, backtick identifiers and backslash escapes in string literals
+    return new SqlTokenizer(sql, true);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected TableStatistics readTableStatistics(Connection connection, Table table) throws SQLException {
+    // the row count in the information schema is an estimate for InnoDB tables, but it is cheap to read
+    try (PreparedStatement statement = connection.prepareStatement(
+      "SELECT t.TABLE_ROWS, t.DATA_LENGTH, " +
+        "(SELECT COUNT(DISTINCT s.INDEX_NAME) FROM information_schema.STATISTICS s " +
+        "WHERE s.TABLE_SCHEMA = t.TABLE_SCHEMA AND s.TABLE_NAME = t.TABLE_NAME) " +
+        "FROM information_schema.TABLES t WHERE t.TABLE_SCHEMA = COALESCE(?, DATABASE()) AND t.TABLE_NAME = ?")) {
+      statement.setString(1, table.getCatalog());
+      statement.setString(2, table.getName());
+      try (ResultSet resultSet = statement.executeQuery()) {
+        if (resultSet.next()) {
+          return new TableStatistics(resultSet.getLong(1), resultSet.getLong(2), resultSet.getInt(3));
+        }
+      }
+    }
+    return super.readTableStatistics(connection, table);
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -32,6 +32,7 @@ import org.apache.ddlutils.util.StringUtils;
 
 import java.io.IOException;
 import java.sql.Types;
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
@@ -230,6 +231,34 @@ public class Oracle8Builder extends SqlBuilder {
     // no need to as we drop the table with CASCASE CONSTRAINTS
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void disableForeignKeys(Database database, Table table) throws IOException {
+    for (int idx = 0; idx < table.getForeignKeyCount(); idx++) {
+      print("ALTER TABLE ");
+      printIdentifier(getTableName(table));
+      print(" DISABLE CONSTRAINT ");
+      printIdentifier(getForeignKeyName(table, table.getForeignKey(idx)));
+      printEndOfStatement();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void enableForeignKeys(Database database, Table table) throws IOException {
+    for (int idx = 0; idx < table.getForeignKeyCount(); idx++) {
+      print("ALTER TABLE ");
+      printIdentifier(getTableName(table));
+      print(" ENABLE CONSTRAINT ");
+      printIdentifier(getForeignKeyName(table, table.getForeignKey(idx)));
+      printEndOfStatement();
+    }
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -397,4 +426,33 @@ public class Oracle8Builder extends SqlBuilder {
       print(")");
     }
   }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String getUpsertSql(Table table, List<Column> columns, List<Column> parameterColumns) {
+    return getMergeSql(table, columns, parameterColumns);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected void writeMergeSource(StringBuilder buffer, List<Column> columns, List<Column> parameterColumns) {
+    boolean addSep = false;
+
+    // Oracle has no VALUES row constructor, so we select the row from DUAL
+    buffer.append("(SELECT ");
+    for (Column column : columns) {
+      if (addSep) {
+        buffer.append(", ");
+      }
+      buffer.append("? ");
+      buffer.append(getDelimitedIdentifier(getColumnName(column)));
+      parameterColumns.add(column);
+      addSep = true;
+    }
+    buffer.append(" FROM DUAL) SRC");
+  }
 }
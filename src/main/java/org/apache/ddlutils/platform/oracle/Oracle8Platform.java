@@ -57,8 +57,10 @@ public class Oracle8Platform extends PlatformImplBase {
     PlatformInfo info = getPlatformInfo();
 
     info.setMaxIdentifierLength(30);
+    info.setMaxInListSize(1000);
     info.setIdentityStatusReadingSupported(false);
     info.setPrimaryKeyColumnAutomaticallyRequired(true);
+    info.setForeignKeyDisablingSupported(true);
     info.setSupportedOnUpdateActions(new CascadeActionEnum[]{CascadeActionEnum.NONE});
     info.setSupportedOnDeleteActions(new CascadeActionEnum[]{CascadeActionEnum.CASCADE, CascadeActionEnum.SET_NULL, CascadeActionEnum.NONE});
     info.addEquivalentOnDeleteActions(CascadeActionEnum.NONE, CascadeActionEnum.RESTRICT);
@@ -28,6 +28,8 @@ import org.apache.ddlutils.model.Table;
 import org.apache.ddlutils.platform.SqlBuilder;
 
 import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -203,4 +205,212 @@ public class PostgreSqlBuilder extends SqlBuilder {
       printIdentifier(getColumnName(sourceColumn));
     }
   }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void createShadowTableTriggers(Table sourceTable, Table shadowTable, Column keyColumn) throws IOException {
+    List<Column> columns = getCommonColumns(sourceTable, shadowTable);
+
+    // the key might have been changed by an update, so we remove the row with the old key first
+    print("CREATE OR REPLACE FUNCTION ");
+    printIdentifier(getShadowTableFunctionName(sourceTable));
+    print("() RETURNS trigger AS $$ BEGIN IF TG_OP <> 'INSERT' THEN ");
+    writeShadowTableDelete(shadowTable, keyColumn, "OLD");
+    print("; END IF; IF TG_OP <> 'DELETE' THEN ");
+    writeShadowTableDelete(shadowTable, keyColumn, "NEW");
+    print("; INSERT INTO ");
+    printIdentifier(getTableName(shadowTable));
+    print(" (");
+    for (Iterator<Column> columnIt = columns.iterator(); columnIt.hasNext(); ) {
+      printIdentifier(getColumnName(columnIt.next()));
+      if (columnIt.hasNext()) {
+        print(",");
+      }
+    }
+    print(") VALUES (");
+    for (Iterator<Column> columnIt = columns.iterator(); columnIt.hasNext(); ) {
+      print("NEW.");
+      printIdentifier(getColumnName(columnIt.next()));
+      if (columnIt.hasNext()) {
+        print(",");
+      }
+    }
+    print("); END IF; RETURN NULL; END $$ LANGUAGE plpgsql");
+    printEndOfStatement();
+
+    print("CREATE TRIGGER ");
+    printIdentifier(getConstraintName(null, sourceTable, "osc", "trg"));
+    print(" AFTER INSERT OR UPDATE OR DELETE ON ");
+    printIdentifier(getTableName(sourceTable));
+    print(" FOR EACH ROW EXECUTE PROCEDURE ");
+    printIdentifier(getShadowTableFunctionName(sourceTable));
+    print("()");
+    printEndOfStatement();
+  }
+
+  /**
+   * Returns the name of the trigger function that mirrors changes into the shadow table.
+   *
+   * @param sourceTable The source table
+   * @return The function name
+   */
+  private String getShadowTableFunctionName(Table sourceTable) {
+    return getConstraintName(null, sourceTable, "osc", "fn");
+  }
+
+  /**
+   * Writes a statement for the trigger function that deletes a row from the shadow table.
+   *
+   * @param shadowTable The shadow table
+   * @param keyColumn   The key column
+   * @param rowVariable The trigger variable that holds the key value, <code>OLD</code> or <code>NEW</code>
+   */
+  private void writeShadowTableDelete(Table shadowTable, Column keyColumn, String rowVariable) throws IOException {
+    print("DELETE FROM ");
+    printIdentifier(getTableName(shadowTable));
+    print(" WHERE ");
+    printIdentifier(getColumnName(keyColumn));
+    print(" = ");
+    print(rowVariable);
+    print(".");
+    printIdentifier(getColumnName(keyColumn));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void backfillShadowTable(Table sourceTable, Table shadowTable, Column keyColumn, long lowerBound, long upperBound) throws IOException {
+    // rows that the trigger has already copied are newer, so we keep them; the shared locks
+    // make the copy wait for concurrent changes and skip the rows that these deleted
+    print("INSERT INTO ");
+    printIdentifier(getTableName(shadowTable));
+    print(" ");
+    writeCopyDataQuery(sourceTable, shadowTable);
+    writeKeyRangeCondition(keyColumn, lowerBound, upperBound);
+    print(" FOR SHARE ON CONFLICT DO NOTHING");
+    printEndOfStatement();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void swapShadowTable(Table sourceTable, Table shadowTable) throws IOException {
+    print("ALTER TABLE ");
+    printIdentifier(getTableName(sourceTable));
+    print(" RENAME TO ");
+    printIdentifier(getOldTableName(sourceTable));
+    printEndOfStatement();
+    print("ALTER TABLE ");
+    printIdentifier(getTableName(shadowTable));
+    print(" RENAME TO ");
+    printIdentifier(getTableName(sourceTable));
+    printEndOfStatement();
+    // the auto-increment columns continue to use the sequences of the source table; sequences
+    // of SERIAL columns are owned by the old table and would be dropped together with it
+    for (Column column : shadowTable.getAutoIncrementColumns()) {
+      String sequenceName = getConstraintName(null, sourceTable, column.getName(), "seq");
+
+      print("ALTER TABLE ");
+      printIdentifier(getTableName(sourceTable));
+      print(" ALTER COLUMN ");
+      printIdentifier(getColumnName(column));
+      print(" SET DEFAULT nextval('");
+      printIdentifier(sequenceName);
+      print("')");
+      printEndOfStatement();
+      print("ALTER SEQUENCE ");
+      printIdentifier(sequenceName);
+      print(" OWNED BY NONE");
+      printEndOfStatement();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void finishShadowTableSwap(Table sourceTable, Table shadowTable, Table targetTable) throws IOException {
+    // the trigger is dropped together with the table; we don't cascade so that the drop fails
+    // instead of silently removing objects that still depend on the old table
+    print("DROP TABLE ");
+    printIdentifier(getOldTableName(sourceTable));
+    printEndOfStatement();
+    print("DROP FUNCTION ");
+    printIdentifier(getShadowTableFunctionName(sourceTable));
+    print("()");
+    printEndOfStatement();
+    for (Column column : shadowTable.getAutoIncrementColumns()) {
+      dropAutoIncrementSequence(shadowTable, column);
+    }
+    // now that the indices of the source table are gone, we can give the indices their target names
+    for (int idx = 0; idx < shadowTable.getIndexCount(); idx++) {
+      String shadowIndexName = getIndexName(shadowTable.getIndex(idx));
+      String targetIndexName = getIndexName(targetTable.getIndex(idx));
+
+      if (!shadowIndexName.equals(targetIndexName)) {
+        print("ALTER INDEX ");
+        printIdentifier(shadowIndexName);
+        print(" RENAME TO ");
+        printIdentifier(targetIndexName);
+        printEndOfStatement();
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void dropShadowTable(Table sourceTable, Table shadowTable) throws IOException {
+    print("DROP TRIGGER IF EXISTS ");
+    printIdentifier(getConstraintName(null, sourceTable, "osc", "trg"));
+    print(" ON ");
+    printIdentifier(getTableName(sourceTable));
+    printEndOfStatement();
+    print("DROP FUNCTION IF EXISTS ");
+    printIdentifier(getShadowTableFunctionName(sourceTable));
+    print("()");
+    printEndOfStatement();
+    dropTable(shadowTable);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public String getUpsertSql(Table table, List<Column> columns, List<Column> parameterColumns) {
+    StringBuilder buffer = new StringBuilder(getInsertSql(table, toColumnMap(columns), true));
+    boolean addSep = false;
+
+    parameterColumns.addAll(columns);
+    buffer.append(" ON CONFLICT (");
+    for (Column column : columns) {
+      if (column.isPrimaryKey()) {
+        if (addSep) {
+          buffer.append(", ");
+        }
+        buffer.append(getDelimitedIdentifier(column.getName()));
+        addSep = true;
+      }
+    }
+    buffer.append(")");
+    addSep = false;
+    for (Column column : columns) {
+      if (!column.isPrimaryKey()) {
+        buffer.append(addSep ? ", " : " DO UPDATE SET ");
+        buffer.append(getDelimitedIdentifier(column.getName()));
+        buffer.append(" = EXCLUDED.");
+        buffer.append(getDelimitedIdentifier(column.getName()));
+        addSep = true;
+      }
+    }
+    if (!addSep) {
+      buffer.append(" DO NOTHING");
+    }
+    return buffer.toString();
+  }
 }
@@ -25,13 +25,19 @@ import org.apache.ddlutils.model.ForeignKey;
 import org.apache.ddlutils.model.Index;
 import org.apache.ddlutils.model.Table;
 import org.apache.ddlutils.model.TypeMap;
+import org.apache.ddlutils.platform.CatalogMetaData;
 import org.apache.ddlutils.platform.DatabaseMetaDataWrapper;
 import org.apache.ddlutils.platform.JdbcModelReader;
+import org.apache.ddlutils.platform.MetaDataColumnDescriptor;
 
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Reads a database model from a PostgreSql database.
@@ -39,6 +45,36 @@ import java.util.Map;
  * @version $Revision: $
  */
 public class PostgreSqlModelReader extends JdbcModelReader {
+  /**
+   * The JDBC type codes of the PostgreSQL type names as reported by the PostgreSQL JDBC driver.
+   */
+  private static final Map<String, Integer> JDBC_TYPES_BY_NAME = new HashMap<>();
+
+  static {
+    JDBC_TYPES_BY_NAME.put("int2", Types.SMALLINT);
+    JDBC_TYPES_BY_NAME.put("int4", Types.INTEGER);
+    JDBC_TYPES_BY_NAME.put("oid", Types.BIGINT);
+    JDBC_TYPES_BY_NAME.put("int8", Types.BIGINT);
+    JDBC_TYPES_BY_NAME.put("money", Types.DOUBLE);
+    JDBC_TYPES_BY_NAME.put("numeric", Types.NUMERIC);
+    JDBC_TYPES_BY_NAME.put("float4", Types.REAL);
+    JDBC_TYPES_BY_NAME.put("float8", Types.DOUBLE);
+    JDBC_TYPES_BY_NAME.put("char", Types.CHAR);
+    JDBC_TYPES_BY_NAME.put("bpchar", Types.CHAR);
+    JDBC_TYPES_BY_NAME.put("varchar", Types.VARCHAR);
+    JDBC_TYPES_BY_NAME.put("text", Types.VARCHAR);
+    JDBC_TYPES_BY_NAME.put("name", Types.VARCHAR);
+    JDBC_TYPES_BY_NAME.put("bytea", Types.BINARY);
+    JDBC_TYPES_BY_NAME.put("bool", Types.BIT);
+    JDBC_TYPES_BY_NAME.put("bit", Types.BIT);
+    JDBC_TYPES_BY_NAME.put("date", Types.DATE);
+    JDBC_TYPES_BY_NAME.put("time", Types.TIME);
+    JDBC_TYPES_BY_NAME.put("timetz", Types.TIME);
+    JDBC_TYPES_BY_NAME.put("timestamp", Types.TIMESTAMP);
+    JDBC_TYPES_BY_NAME.put("timestamptz", Types.TIMESTAMP);
+    JDBC_TYPES_BY_NAME.put("xml", Types.SQLXML);
+  }
+
   /**
    * Creates a new model reader for PostgreSql databases.
    *
@@ -59,6 +95,9 @@ public class PostgreSqlModelReader extends JdbcModelReader {
     Table table = super.readTable(metaData, values);
 
     if (table != null) {
+      // serial columns are recognized from their default value, identity columns via the catalog
+      determineAutoIncrementColumns(metaData, table, table.getColumns());
+
       // PostgreSQL also returns unique indexes for pk and non-pk auto-increment columns
       // which are of the form "[table]_[column]_key"
       HashMap<String, Index> uniquesByName = new HashMap<>();
@@ -86,6 +125,342 @@ public class PostgreSqlModelReader extends JdbcModelReader {
     return table;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected CatalogMetaData readCatalogMetaData(DatabaseMetaDataWrapper metaData) throws SQLException {
+    List<String> params = new ArrayList<>();
+    String relationFilter = createRelationFilter(metaData, params);
+
+    if (relationFilter == null) {
+      return null;
+    }
+
+    CatalogMetaData catalogMetaData = new CatalogMetaData();
+
+    for (Map<String, Object> values : readCatalogRows(
+      "SELECT NULL AS \"TABLE_CAT\", n.nspname AS \"TABLE_SCHEM\", c.relname AS \"TABLE_NAME\"," +
+        " CASE c.relkind WHEN 'r' THEN 'TABLE' ELSE 'VIEW' END AS \"TABLE_TYPE\", dsc.description AS \"REMARKS\"" +
+        " FROM pg_catalog.pg_class c" +
+        " JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace" +
+        " LEFT JOIN pg_catalog.pg_description dsc ON dsc.objoid = c.oid AND dsc.objsubid = 0" +
+        " AND dsc.classoid = 'pg_catalog.pg_class'::regclass" +
+        " WHERE" + relationFilter +
+        " ORDER BY \"TABLE_TYPE\", \"TABLE_SCHEM\", \"TABLE_NAME\"",
+      params, getColumnsForTable())) {
+      catalogMetaData.addTable(values);
+    }
+
+    // domains are reported with their base type, as the JDBC driver does it
+    for (Map<String, Object> values : readCatalogRows(
+      "SELECT c.relname AS \"TABLE_NAME\", a.attname AS \"COLUMN_NAME\"," +
+        " pg_catalog.pg_get_expr(def.adbin, def.adrelid) AS \"COLUMN_DEF\"," +
+        " COALESCE(bt.typname, t.typname) AS \"TYPE_NAME\", COALESCE(bt.typtype, t.typtype) AS \"TYPE_TYPE\"," +
+        " CASE WHEN t.typtype = 'd' THEN t.typtypmod ELSE a.atttypmod END AS \"TYPE_MOD\"," +
+        " CASE WHEN a.attnotnull OR (t.typtype = 'd' AND t.typnotnull) THEN 'NO' ELSE 'YES' END AS \"IS_NULLABLE\"," +
+        " dsc.description AS \"REMARKS\"" +
+        " FROM pg_catalog.pg_attribute a" +
+        " JOIN pg_catalog.pg_class c ON c.oid = a.attrelid" +
+        " JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace" +
+        " JOIN pg_catalog.pg_type t ON t.oid = a.atttypid" +
+        " LEFT JOIN pg_catalog.pg_type bt ON t.typtype = 'd' AND bt.oid = t.typbasetype" +
+        " LEFT JOIN pg_catalog.pg_attrdef def ON def.adrelid = a.attrelid AND def.adnum = a.attnum" +
+        " LEFT JOIN pg_catalog.pg_description dsc ON dsc.objoid = a.attrelid AND dsc.objsubid = a.attnum" +
+        " AND dsc.classoid = 'pg_catalog.pg_class'::regclass" +
+        " WHERE a.attnum > 0 AND NOT a.attisdropped AND" + relationFilter +
+        " ORDER BY c.relname, a.attnum",
+      params, Arrays.asList(new MetaDataColumnDescriptor("COLUMN_DEF", Types.VARCHAR),
+        new MetaDataColumnDescriptor("TABLE_NAME", Types.VARCHAR),
+        new MetaDataColumnDescriptor("COLUMN_NAME", Types.VARCHAR),
+        new MetaDataColumnDescriptor("TYPE_NAME", Types.VARCHAR),
+        new MetaDataColumnDescriptor("TYPE_TYPE", Types.VARCHAR),
+        new MetaDataColumnDescriptor("TYPE_MOD", Types.INTEGER),
+        new MetaDataColumnDescriptor("IS_NULLABLE", Types.VARCHAR),
+        new MetaDataColumnDescriptor("REMARKS", Types.VARCHAR)))) {
+      determineColumnType(values);
+      catalogMetaData.addColumn((String) values.get("TABLE_NAME"), values);
+    }
+
+    for (Map<String, Object> values : readCatalogRows(
+      "SELECT c.relname AS \"TABLE_NAME\", a.attname AS \"COLUMN_NAME\", ci.relname AS \"PK_NAME\"" +
+        " FROM pg_catalog.pg_index i" +
+        " JOIN pg_catalog.pg_class c ON c.oid = i.indrelid" +
+        " JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace" +
+        " JOIN pg_catalog.pg_class ci ON ci.oid = i.indexrelid" +
+        " JOIN pg_catalog.pg_attribute a ON a.attrelid = c.oid AND a.attnum = ANY (i.indkey)" +
+        " WHERE i.indisprimary AND" + relationFilter +
+        " ORDER BY c.relname, a.attnum",
+      params, getColumnsForPK())) {
+      catalogMetaData.addPrimaryKey((String) values.get("TABLE_NAME"), values);
+    }
+
+    for (Map<String, Object> values : readCatalogRows(
+      "SELECT c.relname AS \"FKTABLE_NAME\", fa.attname AS \"FKCOLUMN_NAME\"," +
+        " pc.relname AS \"PKTABLE_NAME\", pa.attname AS \"PKCOLUMN_NAME\"," +
+        " pos.n AS \"KEY_SEQ\", con.conname AS \"FK_NAME\"," +
+        " CASE con.confupdtype WHEN 'c' THEN 0 WHEN 'r' THEN 1 WHEN 'n' THEN 2 WHEN 'd' THEN 4 ELSE 3 END AS \"UPDATE_RULE\"," +
+        " CASE con.confdeltype WHEN 'c' THEN 0 WHEN 'r' THEN 1 WHEN 'n' THEN 2 WHEN 'd' THEN 4 ELSE 3 END AS \"DELETE_RULE\"" +
+        " FROM pg_catalog.pg_constraint con" +
+        " JOIN pg_catalog.pg_class c ON c.oid = con.conrelid" +
+        " JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace" +
+        " JOIN pg_catalog.pg_class pc ON pc.oid = con.confrelid" +
+        " JOIN pg_catalog.pg_namespace pn ON pn.oid = pc.relnamespace" +
+        " JOIN pg_catalog.generate_series(1, current_setting('max_index_keys')::int) pos(n) ON pos.n <= array_upper(con.conkey, 1)" +
+        " JOIN pg_catalog.pg_attribute fa ON fa.attrelid = con.conrelid AND fa.attnum = con.conkey[pos.n]" +
+        " JOIN pg_catalog.pg_attribute pa ON pa.attrelid = con.confrelid AND pa.attnum = con.confkey[pos.n]" +
+        " WHERE con.contype = 'f' AND" + relationFilter +
+        " ORDER BY c.relname, pn.nspname, pc.relname, con.conname, pos.n",
+      params, getColumnsForFK())) {
+      catalogMetaData.addForeignKey((String) values.get("FKTABLE_NAME"), values);
+    }
+
+    for (Map<String, Object> values : readCatalogRows(
+      "SELECT c.relname AS \"TABLE_NAME\", NOT i.indisunique AS \"NON_UNIQUE\", ci.relname AS \"INDEX_NAME\"," +
+        " CASE WHEN i.indisclustered THEN 1 WHEN am.amname = 'hash' THEN 2 ELSE 3 END AS \"TYPE\"," +
+        " pos.n AS \"ORDINAL_POSITION\"," +
+        " trim(both '\"' from pg_catalog.pg_get_indexdef(ci.oid, pos.n, false)) AS \"COLUMN_NAME\"" +
+        " FROM pg_catalog.pg_index i" +
+        " JOIN pg_catalog.pg_class c ON c.oid = i.indrelid" +
+        " JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace" +
+        " JOIN pg_catalog.pg_class ci ON ci.oid = i.indexrelid" +
+        " JOIN pg_catalog.pg_am am ON am.oid = ci.relam" +
+        " JOIN pg_catalog.generate_series(1, current_setting('max_index_keys')::int) pos(n) ON pos.n <= i.indnatts" +
+        " WHERE" + relationFilter +
+        " ORDER BY c.relname, \"NON_UNIQUE\", \"TYPE\", \"INDEX_NAME\", \"ORDINAL_POSITION\"",
+      params, getColumnsForIndex())) {
+      catalogMetaData.addIndex((String) values.get("TABLE_NAME"), values);
+    }
+    return catalogMetaData;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected Map<String, String> readTableChangeTokens(DatabaseMetaDataWrapper metaData) throws SQLException {
+    List<String> params = new ArrayList<>();
+    String relationFilter = createRelationFilter(metaData, params);
+
+    if (relationFilter == null) {
+      return null;
+    }
+
+    // Every DDL statement inserts or updates rows in the catalog tables, which gives them a new
+    // transaction id (xmin), and dropping catalog rows changes their count. So the token combines
+    // count and newest xmin of the catalog rows describing the table, its columns, defaults,
+    // indices, foreign keys (including the referenced columns) and comments
+    List<MetaDataColumnDescriptor> columnDescriptors = new ArrayList<>();
+    Map<String, String> changeTokens = new HashMap<>();
+
+    columnDescriptors.add(new MetaDataColumnDescriptor("TABLE_NAME", Types.VARCHAR));
+    columnDescriptors.add(new MetaDataColumnDescriptor("CHANGE_TOKEN", Types.VARCHAR));
+    for (Map<String, Object> values : readCatalogRows(
+      "SELECT c.relname AS \"TABLE_NAME\", concat_ws(':', n.nspname, c.xmin::text," +
+        " (SELECT count(*) || '/' || COALESCE(max(a.xmin::text::bigint), 0)" +
+        " FROM pg_catalog.pg_attribute a WHERE a.attrelid = c.oid)," +
+        " (SELECT count(*) || '/' || COALESCE(max(def.xmin::text::bigint), 0)" +
+        " FROM pg_catalog.pg_attrdef def WHERE def.adrelid = c.oid)," +
+        " (SELECT count(*) || '/' || COALESCE(max(GREATEST(i.xmin::text::bigint, ci.xmin::text::bigint)), 0)" +
+        " FROM pg_catalog.pg_index i JOIN pg_catalog.pg_class ci ON ci.oid = i.indexrelid WHERE i.indrelid = c.oid)," +
+        " (SELECT count(*) || '/' || COALESCE(max(GREATEST(con.xmin::text::bigint, pc.xmin::text::bigint, pa.xmin::text::bigint)), 0)" +
+        " FROM pg_catalog.pg_constraint con" +
+        " JOIN pg_catalog.pg_class pc ON pc.oid = con.confrelid" +
+        " JOIN pg_catalog.pg_attribute pa ON pa.attrelid = con.confrelid AND pa.attnum = ANY (con.confkey)" +
+        " WHERE con.conrelid = c.oid AND con.contype = 'f')," +
+        " (SELECT count(*) || '/' || COALESCE(max(dsc.xmin::text::bigint), 0)" +
+        " FROM pg_catalog.pg_description dsc WHERE dsc.objoid = c.oid)) AS \"CHANGE_TOKEN\"" +
+        " FROM pg_catalog.pg_class c" +
+        " JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace" +
+        " WHERE" + relationFilter,
+      params, columnDescriptors)) {
+      String tableName = (String) values.get("TABLE_NAME");
+      String changeToken = (String) values.get("CHANGE_TOKEN");
+
+      // like the metadata, the model contains only one table of the same name in multiple schemas
+      changeTokens.merge(tableName, changeToken, (token1, token2) -> token1 + "|" + token2);
+    }
+    return changeTokens;
+  }
+
+  /**
+   * Creates the condition that restricts the catalog queries to the relations to read.
+   *
+   * @param metaData The database metadata settings
+   * @param params   Receives the values for the query parameters in the condition
+   * @return The condition or <code>null</code> if the table types cannot be read via catalog queries
+   */
+  private String createRelationFilter(DatabaseMetaDataWrapper metaData, List<String> params) {
+    StringBuilder relKinds = new StringBuilder();
+
+    for (String tableType : metaData.getTableTypes()) {
+      if (relKinds.length() > 0) {
+        relKinds.append(",");
+      }
+      if ("TABLE".equals(tableType)) {
+        relKinds.append("'r'");
+      } else if ("VIEW".equals(tableType)) {
+        relKinds.append("'v'");
+      } else {
+        // the system and temporary table types are only supported via the metadata
+        return null;
+      }
+    }
+
+    // PostgreSQL has no catalogs in the JDBC sense, so like the driver we only restrict the schema
+    StringBuilder relationFilter = new StringBuilder();
+
+    relationFilter.append(" c.relkind IN (");
+    relationFilter.append(relKinds);
+    relationFilter.append(") AND n.nspname !~ '^pg_' AND n.nspname <> 'information_schema'");
+    if (metaData.getSchemaPattern() != null) {
+      relationFilter.append(" AND n.nspname LIKE ?");
+      params.add(metaData.getSchemaPattern());
+    }
+    if (getDefaultTablePattern() != null) {
+      relationFilter.append(" AND c.relname LIKE ?");
+      params.add(getDefaultTablePattern());
+    }
+    return relationFilter.toString();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected Map<String, Set<String>> readAutoIncrementColumns(DatabaseMetaDataWrapper metaData) throws SQLException {
+    // identity columns were introduced with PostgreSQL 10
+    if (getConnection().getMetaData().getDatabaseMajorVersion() < 10) {
+      return new HashMap<>();
+    }
+
+    List<String> params = new ArrayList<>();
+    StringBuilder sql = new StringBuilder();
+
+    sql.append("SELECT c.relname AS \"TABLE_NAME\", a.attname AS \"COLUMN_NAME\" FROM pg_catalog.pg_attribute a");
+    sql.append(" JOIN pg_catalog.pg_class c ON c.oid = a.attrelid");
+    sql.append(" JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace");
+    sql.append(" WHERE a.attidentity IN ('a', 'd') AND NOT a.attisdropped");
+    if (metaData.getSchemaPattern() != null) {
+      sql.append(" AND n.nspname LIKE ?");
+      params.add(metaData.getSchemaPattern());
+    }
+    return readAutoIncrementColumns(sql.toString(), params);
+  }
+
+  /**
+   * Determines the JDBC type, size, scale and radix of a column read via the catalog queries
+   * from the PostgreSQL type name and type modifier in the same way that the PostgreSQL JDBC
+   * driver does it for {@link java.sql.DatabaseMetaData#getColumns(String, String, String, String)}.
+   *
+   * @param values The column values
+   */
+  private void determineColumnType(Map<String, Object> values) {
+    String typeName = (String) values.get("TYPE_NAME");
+    String typeType = (String) values.get("TYPE_TYPE");
+    Integer typeModObj = (Integer) values.get("TYPE_MOD");
+    int typeMod = typeModObj == null ? -1 : typeModObj;
+    Integer typeCode = JDBC_TYPES_BY_NAME.get(typeName);
+    int size;
+    int scale = 0;
+
+    if (typeCode == null) {
+      if (typeName.startsWith("_")) {
+        typeCode = Types.ARRAY;
+      } else if ("c".equals(typeType)) {
+        typeCode = Types.STRUCT;
+      } else if ("e".equals(typeType)) {
+        typeCode = Types.VARCHAR;
+      } else {
+        typeCode = Types.OTHER;
+      }
+    }
+    switch (typeName) {
+      case "int2":
+        size = 5;
+        break;
+      case "int4":
+      case "oid":
+        size = 10;
+        break;
+      case "int8":
+        size = 19;
+        break;
+      case "float4":
+        size = 8;
+        scale = 8;
+        break;
+      case "float8":
+        size = 17;
+        scale = 17;
+        break;
+      case "numeric":
+        if (typeMod == -1) {
+          // the driver falls back to the display size of an unconstrained numeric
+          size = 131089;
+        } else {
+          size = ((typeMod - 4) & 0xFFFF0000) >> 16;
+          scale = (typeMod - 4) & 0xFFFF;
+        }
+        break;
+      case "char":
+      case "bool":
+        size = 1;
+        break;
+      case "bpchar":
+      case "varchar":
+        size = typeMod == -1 ? Integer.MAX_VALUE : typeMod - 4;
+        break;
+      case "bit":
+        size = typeMod;
+        break;
+      case "varbit":
+        size = typeMod == -1 ? Integer.MAX_VALUE : typeMod;
+        break;
+      case "date":
+        size = 13;
+        break;
+      case "time":
+      case "timetz":
+      case "timestamp":
+      case "timestamptz":
+        int secondsSize;
+
+        switch (typeMod) {
+          case -1:
+            secondsSize = 7;
+            break;
+          case 0:
+            secondsSize = 0;
+            break;
+          case 1:
+            secondsSize = 3;
+            break;
+          default:
+            secondsSize = typeMod + 1;
+            break;
+        }
+        scale = typeMod == -1 ? 6 : typeMod;
+        if ("time".equals(typeName)) {
+          size = 8 + secondsSize;
+        } else if ("timetz".equals(typeName)) {
+          size = 8 + secondsSize + 6;
+        } else if ("timestamp".equals(typeName)) {
+          size = 13 + 1 + 8 + secondsSize;
+        } else {
+          size = 13 + 1 + 8 + secondsSize + 6;
+        }
+        break;
+      default:
+        size = Integer.MAX_VALUE;
+        break;
+    }
+    values.put("DATA_TYPE", typeCode);
+    values.put("COLUMN_SIZE", String.valueOf(size));
+    values.put("DECIMAL_DIGITS", scale);
+    values.put("NUM_PREC_RADIX", "bit".equals(typeName) || "varbit".equals(typeName) ? 2 : 10);
+  }
+
   /**
    * {@inheritDoc}
    */
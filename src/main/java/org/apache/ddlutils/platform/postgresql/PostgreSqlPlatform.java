@@ -30,16 +30,19 @@ import org.apache.ddlutils.data.RowObject;
 import org.apache.ddlutils.data.ColumnProperty;
 import org.apache.ddlutils.model.Column;
 import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.Index;
 import org.apache.ddlutils.model.Table;
 import org.apache.ddlutils.platform.BuiltinDriverType;
 import org.apache.ddlutils.platform.CreationParameters;
 import org.apache.ddlutils.platform.DefaultTableDefinitionChangesPredicate;
 import org.apache.ddlutils.platform.PlatformImplBase;
+import org.apache.ddlutils.platform.TableStatistics;
 
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Types;
@@ -62,6 +65,9 @@ public class PostgreSqlPlatform extends PlatformImplBase {
     // this is the default length though it might be changed when building PostgreSQL
     // in file src/include/postgres_ext.h
     info.setMaxIdentifierLength(31);
+    info.setMaxParameterCount(Short.MAX_VALUE);
+    // requires PostgreSQL 9.5 or newer for INSERT ... ON CONFLICT
+    info.setOnlineTableAlterationSupported(true);
 
     info.addNativeTypeMapping(Types.ARRAY, "BYTEA", Types.LONGVARBINARY);
     info.addNativeTypeMapping(Types.BINARY, "BYTEA", Types.LONGVARBINARY);
@@ -219,6 +225,47 @@ public class PostgreSqlPlatform extends PlatformImplBase {
     }
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected Table getShadowTableFor(Table targetTable) {
+    Table table = super.getShadowTableFor(targetTable);
+
+    // index names are unique per schema, so the indices of the shadow table need different names
+    for (int idx = 0; idx < table.getIndexCount(); idx++) {
+      Index index = table.getIndex(idx);
+
+      index.setName("_" + index.getName() + "_new");
+    }
+    return table;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected TableStatistics readTableStatistics(Connection connection, Table table) throws SQLException {
+    String delimiter = isDelimitedIdentifierModeOn() ? getPlatformInfo().getDelimiterToken() : "";
+    String qualifiedName = delimiter + table.getName() + delimiter;
+
+    if (table.getSchema() != null) {
+      qualifiedName = delimiter + table.getSchema() + delimiter + "." + qualifiedName;
+    }
+    // reltuples is only an estimate maintained by VACUUM and ANALYZE, but it is cheap to read
+    try (PreparedStatement statement = connection.prepareStatement(
+      "SELECT c.reltuples, pg_relation_size(c.oid), (SELECT COUNT(*) FROM pg_index i WHERE i.indrelid = c.oid) " +
+        "FROM pg_class c WHERE c.oid = to_regclass(?)")) {
+      statement.setString(1, qualifiedName);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        if (resultSet.next()) {
+          return new TableStatistics(resultSet.getLong(1), resultSet.getLong(2), resultSet.getInt(3));
+        }
+      }
+    }
+    return super.readTableStatistics(connection, table);
+  }
+
   /**
    * {@inheritDoc}
    */
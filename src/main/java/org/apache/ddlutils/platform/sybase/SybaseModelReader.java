@@ -39,7 +39,9 @@ import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
@@ -87,11 +89,34 @@ public class SybaseModelReader extends JdbcModelReader {
 
     if (table != null) {
       // Sybase does not return the auto-increment status via the database metadata
-      determineAutoIncrementFromResultSetMetaData(table, table.getColumns());
+      determineAutoIncrementColumns(metaData, table, table.getColumns());
     }
     return table;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected Map<String, Set<String>> readAutoIncrementColumns(DatabaseMetaDataWrapper metaData) throws SQLException {
+    // the system tables only cover the current database
+    if ((metaData.getCatalog() != null) && !metaData.getCatalog().equals(getConnection().getCatalog())) {
+      return null;
+    }
+
+    List<String> params = new ArrayList<>();
+    StringBuilder sql = new StringBuilder();
+
+    // status bit 0x80 marks identity columns
+    sql.append("SELECT o.name AS TABLE_NAME, c.name AS COLUMN_NAME FROM syscolumns c");
+    sql.append(" JOIN sysobjects o ON o.id = c.id WHERE o.type = 'U' AND (c.status & 128) = 128");
+    if (metaData.getSchemaPattern() != null) {
+      sql.append(" AND user_name(o.uid) LIKE ?");
+      params.add(metaData.getSchemaPattern());
+    }
+    return readAutoIncrementColumns(sql.toString(), params);
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -25,6 +25,7 @@ import org.apache.ddlutils.task.command.Command;
 import org.apache.ddlutils.task.command.DatabaseCommand;
 
 import javax.sql.DataSource;
+import java.io.File;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
@@ -204,6 +205,123 @@ public abstract class DatabaseTask extends Task {
     _platformConf.setShutdownDatabase(shutdownDatabase);
   }
 
+  /**
+   * Specifies a directory in which DdlUtils shall cache the schemas read from the database.
+   * Subsequent runs then only read the tables that have changed in the meantime. This is
+   * currently supported for PostgreSql and MySql.
+   *
+   * @param schemaCacheDir The cache directory
+   * @ant.not-required Per default, schemas are not cached.
+   */
+  public void setSchemaCacheDir(File schemaCacheDir) {
+    _platformConf.setSchemaCacheDir(schemaCacheDir);
+  }
+
+  /**
+   * Specifies whether tables which have to be recreated when altering the database, shall be
+   * altered online. Then a shadow table with the new definition is kept in sync with the table
+   * via triggers while the data is copied in chunks, and replaces the table at the end. This
+   * is currently supported for PostgreSql and MySql 5.
+   *
+   * @param onlineTableAlteration <code>true</code> if tables shall be altered online
+   * @ant.not-required Default is <code>false</code>.
+   */
+  public void setOnlineTableAlteration(boolean onlineTableAlteration) {
+    _platformConf.setOnlineTableAlteration(onlineTableAlteration);
+  }
+
+  /**
+   * Specifies the number of connections on which the statements for creating, altering or
+   * dropping the database are executed. With more than one connection, statements that
+   * affect different tables (e.g. creating the indices of different tables) run concurrently.
+   * Data of recreated tables is then neither copied in chunks nor online.
+   *
+   * @param ddlParallelism The number of connections
+   * @ant.not-required Default is <code>1</code>.
+   */
+  public void setDdlParallelism(int ddlParallelism) {
+    _platformConf.setDdlParallelism(ddlParallelism);
+  }
+
+  /**
+   * Specifies the maximum number of rows that are inserted, updated or deleted in one JDBC
+   * batch when writing collections of rows to the database.
+   *
+   * @param rowBatchSize The batch size
+   * @ant.not-required Default is <code>1000</code>.
+   */
+  public void setRowBatchSize(int rowBatchSize) {
+    _platformConf.setRowBatchSize(rowBatchSize);
+  }
+
+  /**
+   * Specifies the maximum number of prepared statements that are cached per connection when
+   * writing rows to the database, so that statements executed repeatedly are not prepared again.
+   *
+   * @param preparedStatementCacheSize The cache size
+   * @ant.not-required Default is <code>0</code>, i.e. prepared statements are not cached.
+   */
+  public void setPreparedStatementCacheSize(int preparedStatementCacheSize) {
+    _platformConf.setPreparedStatementCacheSize(preparedStatementCacheSize);
+  }
+
+  /**
+   * Specifies the maximum number of connections of the built-in connection pool, which is used
+   * if the database is specified by its connection url instead of a data source.
+   *
+   * @param maxPoolSize The maximum number of connections
+   * @ant.not-required Default is <code>8</code>.
+   */
+  public void setMaxPoolSize(int maxPoolSize) {
+    _platformConf.setMaxPoolSize(maxPoolSize);
+  }
+
+  /**
+   * Specifies the time in milliseconds after which the built-in connection pool closes
+   * unused connections.
+   *
+   * @param poolMaxIdleTime The maximum idle time, -1 if unused connections shall be kept
+   * @ant.not-required Default is <code>60000</code>.
+   */
+  public void setPoolMaxIdleTime(long poolMaxIdleTime) {
+    _platformConf.setPoolMaxIdleTime(poolMaxIdleTime);
+  }
+
+  /**
+   * Specifies the number of seconds to wait for the validation of a connection from the
+   * built-in connection pool before it is reused.
+   *
+   * @param poolValidationTimeout The timeout in seconds, 0 if connections shall not be validated
+   * @ant.not-required Default is <code>5</code>.
+   */
+  public void setPoolValidationTimeout(int poolValidationTimeout) {
+    _platformConf.setPoolValidationTimeout(poolValidationTimeout);
+  }
+
+  /**
+   * Specifies that the data of tables which have to be recreated when altering the database,
+   * shall be copied in chunks of primary key ranges of the given size. Each chunk is committed
+   * separately. This is only possible for tables with a single primary key column of an
+   * integral type.
+   *
+   * @param dataCopyChunkSize The size of the key ranges
+   * @ant.not-required Per default, the data is copied in a single statement.
+   */
+  public void setDataCopyChunkSize(int dataCopyChunkSize) {
+    _platformConf.setDataCopyChunkSize(dataCopyChunkSize);
+  }
+
+  /**
+   * Specifies a pause in milliseconds after each chunk when copying data in chunks
+   * (see <code>dataCopyChunkSize</code>), which limits the load put on the database.
+   *
+   * @param dataCopyThrottleDelay The pause in milliseconds
+   * @ant.not-required Per default, there is no pause.
+   */
+  public void setDataCopyThrottleDelay(long dataCopyThrottleDelay) {
+    _platformConf.setDataCopyThrottleDelay(dataCopyThrottleDelay);
+  }
+
   /**
    * Adds a command.
    *
@@ -258,7 +376,7 @@ public abstract class DatabaseTask extends Task {
     if (driverClassName == null || driverClassName.isEmpty()) {
       throw new IllegalArgumentException("driverClassName cannot be null.");
     }
-    return getPlatform(url, driverClassName);
+    return _platformConf.getPlatform(url, driverClassName, properties.getProperty("username"), properties.getProperty("password"));
   }
 
   /**
@@ -313,6 +431,7 @@ public abstract class DatabaseTask extends Task {
         if ((getDataSource() != null) && isShutdownDatabase()) {
           getPlatform().shutdownDatabase();
         }
+        _platformConf.closeConnectionPool();
         // rollback of our classloader change
         Thread.currentThread().setContextClassLoader(sysClassLoader);
       }
@@ -22,8 +22,12 @@ package org.apache.ddlutils.task;
 import org.apache.ddlutils.Platform;
 import org.apache.ddlutils.PlatformFactory;
 import org.apache.ddlutils.PlatformUtils;
+import org.apache.ddlutils.platform.PlatformImplBase;
+import org.apache.ddlutils.platform.SchemaCache;
+import org.apache.ddlutils.util.PooledDataSource;
 
 import javax.sql.DataSource;
+import java.io.File;
 
 /**
  * Encloses the platform configuration for the Ant tasks.
@@ -66,6 +70,50 @@ public class PlatformConfiguration {
    * The schema pattern.
    */
   private String _schemaPattern;
+  /**
+   * The directory for caching the read schemas.
+   */
+  private File _schemaCacheDir;
+  /**
+   * Whether to alter tables online via shadow tables.
+   */
+  private boolean _onlineTableAlteration;
+  /**
+   * The number of connections on which generated statements are executed.
+   */
+  private int _ddlParallelism = 1;
+  /**
+   * The maximum number of rows written in one JDBC batch.
+   */
+  private int _rowBatchSize = PlatformImplBase.DEFAULT_ROW_BATCH_SIZE;
+  /**
+   * The maximum number of prepared statements cached per connection.
+   */
+  private int _preparedStatementCacheSize;
+  /**
+   * The size of the key ranges in which data is copied when recreating tables.
+   */
+  private int _dataCopyChunkSize;
+  /**
+   * The pause in milliseconds after each chunk of copied data.
+   */
+  private long _dataCopyThrottleDelay;
+  /**
+   * The maximum number of connections of the built-in connection pool.
+   */
+  private int _maxPoolSize = PooledDataSource.DEFAULT_MAX_SIZE;
+  /**
+   * The maximum time in milliseconds that the built-in connection pool keeps an unused connection.
+   */
+  private long _poolMaxIdleTime = PooledDataSource.DEFAULT_MAX_IDLE_TIME;
+  /**
+   * The number of seconds to wait for the validation of a pooled connection.
+   */
+  private int _poolValidationTimeout = PooledDataSource.DEFAULT_VALIDATION_TIMEOUT;
+  /**
+   * The built-in connection pool if it is used because no data source was specified.
+   */
+  private PooledDataSource _connectionPool;
   /**
    * The platform object.
    */
@@ -190,6 +238,134 @@ public class PlatformConfiguration {
     return _shutdownDatabase;
   }
 
+  /**
+   * Returns the directory in which the schemas read from the database are cached.
+   *
+   * @return The cache directory or <code>null</code> if schemas are not cached
+   */
+  public File getSchemaCacheDir() {
+    return _schemaCacheDir;
+  }
+
+  /**
+   * Specifies the directory in which the schemas read from the database shall be cached.
+   *
+   * @param schemaCacheDir The cache directory or <code>null</code> if schemas shall not be cached
+   */
+  public void setSchemaCacheDir(File schemaCacheDir) {
+    _schemaCacheDir = schemaCacheDir;
+  }
+
+  /**
+   * Determines whether tables that have to be recreated shall be altered online via shadow tables.
+   *
+   * @return <code>true</code> if tables shall be altered online
+   */
+  public boolean isOnlineTableAlteration() {
+    return _onlineTableAlteration;
+  }
+
+  /**
+   * Specifies whether tables that have to be recreated shall be altered online via shadow tables.
+   *
+   * @param onlineTableAlteration <code>true</code> if tables shall be altered online
+   */
+  public void setOnlineTableAlteration(boolean onlineTableAlteration) {
+    _onlineTableAlteration = onlineTableAlteration;
+  }
+
+  /**
+   * Returns the number of connections on which the statements generated for creating, altering
+   * or dropping the database are executed.
+   *
+   * @return The number of connections
+   */
+  public int getDdlParallelism() {
+    return _ddlParallelism;
+  }
+
+  /**
+   * Specifies the number of connections on which the statements generated for creating, altering
+   * or dropping the database are executed.
+   *
+   * @param ddlParallelism The number of connections
+   */
+  public void setDdlParallelism(int ddlParallelism) {
+    _ddlParallelism = ddlParallelism;
+  }
+
+  /**
+   * Returns the maximum number of rows that are inserted, updated or deleted in one JDBC batch.
+   *
+   * @return The batch size
+   */
+  public int getRowBatchSize() {
+    return _rowBatchSize;
+  }
+
+  /**
+   * Specifies the maximum number of rows that are inserted, updated or deleted in one JDBC batch.
+   *
+   * @param rowBatchSize The batch size
+   */
+  public void setRowBatchSize(int rowBatchSize) {
+    _rowBatchSize = rowBatchSize;
+  }
+
+  /**
+   * Returns the maximum number of prepared statements that are cached per connection.
+   *
+   * @return The cache size, 0 if statements are not cached
+   */
+  public int getPreparedStatementCacheSize() {
+    return _preparedStatementCacheSize;
+  }
+
+  /**
+   * Specifies the maximum number of prepared statements that are cached per connection.
+   *
+   * @param preparedStatementCacheSize The cache size, 0 to disable the caching
+   */
+  public void setPreparedStatementCacheSize(int preparedStatementCacheSize) {
+    _preparedStatementCacheSize = preparedStatementCacheSize;
+  }
+
+  /**
+   * Returns the size of the primary key ranges in which data is copied when tables are recreated.
+   *
+   * @return The chunk size, <code>0</code> if data is copied in a single statement
+   */
+  public int getDataCopyChunkSize() {
+    return _dataCopyChunkSize;
+  }
+
+  /**
+   * Specifies the size of the primary key ranges in which data is copied when tables are recreated.
+   *
+   * @param dataCopyChunkSize The chunk size, <code>0</code> if data shall be copied in a single statement
+   */
+  public void setDataCopyChunkSize(int dataCopyChunkSize) {
+    _dataCopyChunkSize = dataCopyChunkSize;
+  }
+
+  /**
+   * Returns the pause in milliseconds after each chunk of data copied when tables are recreated.
+   *
+   * @return The pause in milliseconds
+   */
+  public long getDataCopyThrottleDelay() {
+    return _dataCopyThrottleDelay;
+  }
+
+  /**
+   * Specifies the pause in milliseconds after each chunk of data copied when tables are recreated.
+   *
+   * @param dataCopyThrottleDelay The pause in milliseconds
+   */
+  public void setDataCopyThrottleDelay(long dataCopyThrottleDelay) {
+    _dataCopyThrottleDelay = dataCopyThrottleDelay;
+  }
+
   public String getDriverClassName() {
     return driverClassName;
   }
@@ -198,6 +374,78 @@ public class PlatformConfiguration {
     this.driverClassName = driverClassName;
   }
 
+  /**
+   * Returns the maximum number of connections of the built-in connection pool.
+   *
+   * @return The maximum number of connections
+   */
+  public int getMaxPoolSize() {
+    return _maxPoolSize;
+  }
+
+  /**
+   * Specifies the maximum number of connections of the built-in connection pool.
+   *
+   * @param maxPoolSize The maximum number of connections
+   */
+  public void setMaxPoolSize(int maxPoolSize) {
+    _maxPoolSize = maxPoolSize;
+  }
+
+  /**
+   * Returns the maximum time in milliseconds that the built-in connection pool keeps an unused connection.
+   *
+   * @return The maximum idle time, -1 if unused connections are kept
+   */
+  public long getPoolMaxIdleTime() {
+    return _poolMaxIdleTime;
+  }
+
+  /**
+   * Specifies the maximum time in milliseconds that the built-in connection pool keeps an unused connection.
+   *
+   * @param poolMaxIdleTime The maximum idle time, -1 if unused connections shall be kept
+   */
+  public void setPoolMaxIdleTime(long poolMaxIdleTime) {
+    _poolMaxIdleTime = poolMaxIdleTime;
+  }
+
+  /**
+   * Returns the number of seconds to wait for the validation of a pooled connection before it is reused.
+   *
+   * @return The timeout in seconds, 0 if pooled connections are not validated
+   */
+  public int getPoolValidationTimeout() {
+    return _poolValidationTimeout;
+  }
+
+  /**
+   * Specifies the number of seconds to wait for the validation of a pooled connection before it is reused.
+   *
+   * @param poolValidationTimeout The timeout in seconds, 0 if pooled connections shall not be validated
+   */
+  public void setPoolValidationTimeout(int poolValidationTimeout) {
+    _poolValidationTimeout = poolValidationTimeout;
+  }
+
+  /**
+   * Returns the built-in connection pool if it is used because no data source was specified.
+   *
+   * @return The connection pool or <code>null</code>
+   */
+  public PooledDataSource getConnectionPool() {
+    return _connectionPool;
+  }
+
+  /**
+   * Closes the built-in connection pool if it has been created.
+   */
+  public void closeConnectionPool() {
+    if (_connectionPool != null) {
+      _connectionPool.close();
+    }
+  }
+
   /**
    * Specifies whether the database shall be shut down after the task has finished.
    *
@@ -210,10 +458,33 @@ public class PlatformConfiguration {
   /**
    * Creates the platform for the configured database.
    *
+   * @param url             The connection url (optional)
+   * @param driverClassName The class name of the JDBC driver (optional)
    * @return The platform
    */
   public Platform getPlatform(String url, String driverClassName) throws RuntimeException {
+    return getPlatform(url, driverClassName, null, null);
+  }
+
+  /**
+   * Creates the platform for the configured database. If no data source has been specified, then
+   * the platform uses a built-in connection pool for the given connection parameters.
+   *
+   * @param url             The connection url (optional)
+   * @param driverClassName The class name of the JDBC driver (optional)
+   * @param username        The username (optional)
+   * @param password        The password (optional)
+   * @return The platform
+   */
+  public Platform getPlatform(String url, String driverClassName, String username, String password) throws RuntimeException {
     if (_platform == null) {
+      if ((_dataSource == null) && (url != null)) {
+        _connectionPool = new PooledDataSource(driverClassName, url, username, password);
+        _connectionPool.setMaxSize(getMaxPoolSize());
+        _connectionPool.setMaxIdleTime(getPoolMaxIdleTime());
+        _connectionPool.setValidationTimeout(getPoolValidationTimeout());
+        _dataSource = _connectionPool;
+      }
       if (_databaseType == null) {
         if (_dataSource == null) {
           throw new RuntimeException("No database specified.");
@@ -234,6 +505,15 @@ public class PlatformConfiguration {
       _platform.setDataSource(_dataSource);
       _platform.setDelimitedIdentifierModeOn(isUseDelimitedSqlIdentifiers());
       _platform.setForeignKeysSorted(isSortForeignKeys());
+      _platform.setDataCopyChunkSize(getDataCopyChunkSize());
+      _platform.setDataCopyThrottleDelay(getDataCopyThrottleDelay());
+      _platform.setOnlineTableAlterationOn(isOnlineTableAlteration());
+      _platform.setDdlParallelism(getDdlParallelism());
+      _platform.setRowBatchSize(getRowBatchSize());
+      _platform.setPreparedStatementCacheSize(getPreparedStatementCacheSize());
+      if (_schemaCacheDir != null) {
+        _platform.getModelReader().setSchemaCache(new SchemaCache(_schemaCacheDir));
+      }
     }
 
     return _platform;
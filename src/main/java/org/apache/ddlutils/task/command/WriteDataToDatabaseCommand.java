@@ -55,6 +55,16 @@ public class WriteDataToDatabaseCommand extends ConvertingDatabaseCommand {
    */
   private boolean _useExplicitIdentityValues;
 
+  /**
+   * Whether to create the schema before loading the data, and its indexes and foreign keys afterwards.
+   */
+  private boolean _createSchema;
+
+  /**
+   * Whether to disable the foreign keys of the existing tables while loading the data.
+   */
+  private boolean _disableForeignKeys;
+
   public WriteDataToDatabaseCommand(Properties properties) {
     super(properties);
   }
@@ -75,6 +85,34 @@ public class WriteDataToDatabaseCommand extends ConvertingDatabaseCommand {
     _useExplicitIdentityValues = useExplicitIdentityValues;
   }
 
+  /**
+   * Specifies whether to create the schema before inserting the data (create-then-load). The
+   * tables are dropped if they exist, and then created without their indexes and foreign keys
+   * so that the rows don't have to be checked against foreign keys or written into the indexes
+   * while they are inserted. Once the data is loaded, the indexes and foreign keys are created,
+   * concurrently for different tables if the <code>ddlParallelism</code> of the enclosing task
+   * is greater than 1.
+   *
+   * @param createSchema <code>true</code> if the schema shall be created around the data load
+   * @ant.not-required Per default the schema is expected to exist already.
+   */
+  public void setCreateSchema(boolean createSchema) {
+    _createSchema = createSchema;
+  }
+
+  /**
+   * Specifies whether the checking of the foreign keys of the existing tables shall be disabled
+   * while the data is inserted, and re-enabled (including the check of the inserted data) afterwards.
+   * This is only supported by some databases (currently Oracle and Microsoft SQL Server), and is
+   * ignored for the others or if <code>createSchema</code> is used.
+   *
+   * @param disableForeignKeys <code>true</code> if the foreign keys shall be disabled during the load
+   * @ant.not-required Per default foreign keys are checked while the data is inserted.
+   */
+  public void setDisableForeignKeys(boolean disableForeignKeys) {
+    _disableForeignKeys = disableForeignKeys;
+  }
+
   /**
    * Specifies the name of the single XML file that contains the data to insert into the database.
    *
@@ -112,6 +150,19 @@ public class WriteDataToDatabaseCommand extends ConvertingDatabaseCommand {
     getDataIO().setUseBatchMode(useBatchMode);
   }
 
+  /**
+   * Specifies whether rows that already exist in the database (as identified by their primary key)
+   * shall be updated with the data from the XML instead of being inserted. Where the database
+   * supports it, the rows are written with its native upsert statement (e.g. <code>MERGE</code>
+   * or <code>INSERT ... ON CONFLICT</code>), otherwise DdlUtils checks which rows exist first.
+   *
+   * @param upsert <code>true</code> if existing rows shall be updated
+   * @ant.not-required Per default all rows are inserted.
+   */
+  public void setUpsert(boolean upsert) {
+    getDataIO().setUpsert(upsert);
+  }
+
   /**
    * Specifies whether the foreign key order shall be honored when inserting data into the database.
    * If not, DdlUtils will simply assume that the entry order is correct, i.e. that referenced rows
@@ -137,9 +188,24 @@ public class WriteDataToDatabaseCommand extends ConvertingDatabaseCommand {
 
     Platform platform = getPlatform();
     DataReader dataReader = null;
+    boolean constraintsDeferred = false;
+    boolean foreignKeysDisabled = false;
 
     platform.setIdentityOverrideOn(_useExplicitIdentityValues);
     try {
+      if (_createSchema) {
+        platform.setScriptModeOn(false);
+        platform.setSqlCommentsOn(false);
+        platform.createModelWithoutConstraints(model, null, true, true);
+        constraintsDeferred = true;
+      } else if (_disableForeignKeys) {
+        if (platform.getPlatformInfo().isForeignKeyDisablingSupported()) {
+          platform.disableForeignKeys(model, false);
+          foreignKeysDisabled = true;
+        } else {
+          _log.info("The platform " + platform.getName() + " does not support disabling foreign keys");
+        }
+      }
       dataReader = getDataIO().getConfiguredDataReader(platform, model);
       dataReader.getSink().start();
       if (_singleDataFile != null) {
@@ -155,6 +221,28 @@ public class WriteDataToDatabaseCommand extends ConvertingDatabaseCommand {
       if (dataReader != null) {
         dataReader.getSink().end();
       }
+      finishDataLoad(platform, model, constraintsDeferred, foreignKeysDisabled);
+    }
+  }
+
+  /**
+   * Creates the deferred indexes and foreign keys, or re-enables the disabled foreign keys,
+   * after the data has been loaded.
+   *
+   * @param platform            The platform
+   * @param model               The database model
+   * @param constraintsDeferred Whether the tables have been created without indexes and foreign keys
+   * @param foreignKeysDisabled Whether the foreign keys have been disabled before loading the data
+   */
+  private void finishDataLoad(Platform platform, Database model, boolean constraintsDeferred, boolean foreignKeysDisabled) throws CommandExecuteException {
+    try {
+      if (constraintsDeferred) {
+        platform.createIndexesAndForeignKeys(model, false);
+      } else if (foreignKeysDisabled) {
+        platform.enableForeignKeys(model, false);
+      }
+    } catch (Exception ex) {
+      handleException(ex, ex.getMessage());
     }
   }
 
@@ -21,6 +21,8 @@ package org.apache.ddlutils.task.command;
 
 import org.apache.ddlutils.Platform;
 import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.platform.AlterationPlan;
+import org.apache.ddlutils.platform.AlterationPlanner;
 import org.apache.ddlutils.platform.CreationParameters;
 import org.apache.ddlutils.task.DatabaseTask;
 
@@ -42,6 +44,14 @@ public class WriteSchemaToDatabaseCommand extends DatabaseCommandWithCreationPar
    * Whether to drop tables and the associated constraints if necessary.
    */
   private boolean _doDrops = true;
+  /**
+   * Whether to only report the planned alteration instead of performing it.
+   */
+  private boolean _dryRun;
+  /**
+   * The number of rows from which on a table is considered large when planning the alteration.
+   */
+  private long _largeTableRowCount = AlterationPlanner.DEFAULT_LARGE_TABLE_ROW_COUNT;
 
   public WriteSchemaToDatabaseCommand(Properties properties) {
     super(properties);
@@ -88,6 +98,50 @@ public class WriteSchemaToDatabaseCommand extends DatabaseCommandWithCreationPar
     _doDrops = doDrops;
   }
 
+  /**
+   * Determines whether the alteration of the database is only planned and reported, but not performed.
+   *
+   * @return <code>true</code> if this is a dry run
+   */
+  protected boolean isDryRun() {
+    return _dryRun;
+  }
+
+  /**
+   * Specifies whether DdlUtils shall only log the planned alteration of the database, i.e. the
+   * changes together with the chosen strategies, their estimated costs and the SQL, instead of
+   * performing it. Note that this is only relevant when <code>alterDatabase</code> is <code>true</code>.
+   *
+   * @param dryRun <code>true</code> if the alteration shall only be reported
+   * @ant.not-required Per default the database is altered
+   */
+  public void setDryRun(boolean dryRun) {
+    _dryRun = dryRun;
+  }
+
+  /**
+   * Returns the number of rows from which on a table is considered large when planning the
+   * alteration of the database.
+   *
+   * @return The row count
+   */
+  protected long getLargeTableRowCount() {
+    return _largeTableRowCount;
+  }
+
+  /**
+   * Specifies the number of rows from which on a table is considered large when planning the
+   * alteration of the database. Tables with at least that many rows are altered in place
+   * whenever the database supports it, whereas smaller tables are recreated if that is
+   * estimated to be cheaper.
+   *
+   * @param largeTableRowCount The row count
+   * @ant.not-required Per default tables with at least 100000 rows are considered large
+   */
+  public void setLargeTableRowCount(long largeTableRowCount) {
+    _largeTableRowCount = largeTableRowCount;
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -108,7 +162,17 @@ public class WriteSchemaToDatabaseCommand extends DatabaseCommandWithCreationPar
       if (isAlterDatabase()) {
         Database currentModel = platform.readModelFromDatabase(model.getName(), getCatalogPattern(), getSchemaPattern(), null);
 
-        platform.alterModel(currentModel, model, params, true);
+        platform.setLargeTableRowCount(_largeTableRowCount);
+
+        AlterationPlan plan = platform.planAlteration(currentModel, model);
+
+        _log.info(plan.getReport());
+        if (_dryRun) {
+          _log.info("Dry run, the database is not altered; the alteration would execute this SQL:\n" +
+            platform.getAlterModelSql(plan, params));
+        } else {
+          platform.alterModel(plan, params, true);
+        }
       } else {
         platform.createModel(model,
           params,
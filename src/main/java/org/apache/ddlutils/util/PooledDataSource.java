@@ -0,0 +1,816 @@
+package org.apache.ddlutils.util;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+/**
+ * A small connection pool for databases that are specified by a JDBC driver, url and credentials
+ * rather than by a data source. The pool holds at most a fixed number of connections; callers
+ * have to wait for a connection to be returned when all of them are in use. Idle connections
+ * are validated before they are handed out again, and closed once they have been idle for
+ * longer than the maximum idle time (checked whenever a connection is borrowed). Connections
+ * are returned to the pool by closing them, which also rolls back any uncommitted changes and
+ * switches the connection back to auto-commit mode. The statements and result sets of a pooled
+ * connection refer back to the pooled connection rather than the physical one.
+ *
+ * @version $Revision: $
+ */
+public class PooledDataSource implements DataSource {
+  /**
+   * The default maximum number of connections.
+   */
+  public static final int DEFAULT_MAX_SIZE = 8;
+  /**
+   * The default maximum time in milliseconds that a connection is kept in the pool unused.
+   */
+  public static final long DEFAULT_MAX_IDLE_TIME = 60000L;
+  /**
+   * The default number of seconds to wait for the validation of a connection.
+   */
+  public static final int DEFAULT_VALIDATION_TIMEOUT = 5;
+  /**
+   * The default maximum time in milliseconds to wait for a connection if all connections are in use.
+   */
+  public static final long DEFAULT_MAX_WAIT_TIME = 30000L;
+
+  /**
+   * The log for this class.
+   */
+  private final Log _log = LogFactory.getLog(PooledDataSource.class);
+  /**
+   * The class name of the JDBC driver.
+   */
+  private final String _driverClassName;
+  /**
+   * The connection url.
+   */
+  private final String _url;
+  /**
+   * The username.
+   */
+  private final String _username;
+  /**
+   * The password.
+   */
+  private final String _password;
+  /**
+   * The maximum number of connections.
+   */
+  private int _maxSize = DEFAULT_MAX_SIZE;
+  /**
+   * The maximum time in milliseconds that a connection is kept in the pool unused.
+   */
+  private long _maxIdleTime = DEFAULT_MAX_IDLE_TIME;
+  /**
+   * The number of seconds to wait for the validation of a connection.
+   */
+  private int _validationTimeout = DEFAULT_VALIDATION_TIMEOUT;
+  /**
+   * The maximum time in milliseconds to wait for a connection.
+   */
+  private long _maxWaitTime = DEFAULT_MAX_WAIT_TIME;
+  /**
+   * The driver, created when the first connection is opened.
+   */
+  private Driver _driver;
+  /**
+   * The unused connections, the most recently returned one first.
+   */
+  private final Deque<IdleConnection> _idleConnections = new ArrayDeque<>();
+  /**
+   * The number of connections that are currently in use (or being opened).
+   */
+  private int _activeCount;
+  /**
+   * Whether the pool has been closed.
+   */
+  private boolean _closed;
+  /**
+   * The number of opened connections.
+   */
+  private long _createdCount;
+  /**
+   * The number of times that a connection was handed out.
+   */
+  private long _borrowedCount;
+  /**
+   * The number of times that a caller found all connections in use.
+   */
+  private long _waitCount;
+  /**
+   * The number of connections that were closed because they were idle for too long.
+   */
+  private long _evictedCount;
+  /**
+   * The number of connections that were discarded because their validation failed.
+   */
+  private long _invalidatedCount;
+  /**
+   * The log writer.
+   */
+  private PrintWriter _logWriter;
+  /**
+   * The login timeout.
+   */
+  private int _loginTimeout;
+
+  /**
+   * An unused connection of the pool.
+   */
+  private static class IdleConnection {
+    /**
+     * The connection.
+     */
+    private final Connection _connection;
+    /**
+     * The time when the connection was returned to the pool.
+     */
+    private final long _idleSince;
+
+    /**
+     * Creates a new idle connection.
+     *
+     * @param connection The connection
+     * @param idleSince  The time when the connection was returned to the pool
+     */
+    IdleConnection(Connection connection, long idleSince) {
+      _connection = connection;
+      _idleSince = idleSince;
+    }
+  }
+
+  /**
+   * The settings of a connection that the users of the pool may change and that are
+   * restored when the connection is returned.
+   */
+  private static class ConnectionSettings {
+    /**
+     * The transaction isolation level.
+     */
+    private final int _transactionIsolation;
+    /**
+     * Whether the connection is read-only.
+     */
+    private final boolean _readOnly;
+    /**
+     * The catalog.
+     */
+    private final String _catalog;
+
+    /**
+     * Records the current settings of the given connection.
+     *
+     * @param connection The connection
+     */
+    ConnectionSettings(Connection connection) throws SQLException {
+      _transactionIsolation = connection.getTransactionIsolation();
+      _readOnly = connection.isReadOnly();
+      _catalog = connection.getCatalog();
+    }
+
+    /**
+     * Restores the recorded settings of the given connection where they have been changed.
+     *
+     * @param connection The connection
+     */
+    void restore(Connection connection) throws SQLException {
+      if (connection.getTransactionIsolation() != _transactionIsolation) {
+        connection.setTransactionIsolation(_transactionIsolation);
+      }
+      if (connection.isReadOnly() != _readOnly) {
+        connection.setReadOnly(_readOnly);
+      }
+      if ((_catalog != null) && !_catalog.equals(connection.getCatalog())) {
+        connection.setCatalog(_catalog);
+      }
+    }
+  }
+
+  /**
+   * Creates a new connection pool.
+   *
+   * @param driverClassName The class name of the JDBC driver; if <code>null</code>, then the driver is
+   *                        determined via the {@link DriverManager}
+   * @param url             The connection url
+   * @param username        The username (optional)
+   * @param password        The password (optional)
+   */
+  public PooledDataSource(String driverClassName, String url, String username, String password) {
+    if (url == null) {
+      throw new IllegalArgumentException("The connection url must be specified");
+    }
+    _driverClassName = driverClassName;
+    _url = url;
+    _username = username;
+    _password = password;
+  }
+
+  /**
+   * Returns the connection url.
+   *
+   * @return The url
+   */
+  public String getUrl() {
+    return _url;
+  }
+
+  /**
+   * Returns the maximum number of connections.
+   *
+   * @return The maximum number of connections
+   */
+  public synchronized int getMaxSize() {
+    return _maxSize;
+  }
+
+  /**
+   * Specifies the maximum number of connections.
+   *
+   * @param maxSize The maximum number of connections
+   */
+  public synchronized void setMaxSize(int maxSize) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("The maximum pool size must be at least 1");
+    }
+    _maxSize = maxSize;
+    notifyAll();
+  }
+
+  /**
+   * Returns the maximum time in milliseconds that a connection is kept in the pool unused.
+   *
+   * @return The maximum idle time, -1 if idle connections are never closed
+   */
+  public synchronized long getMaxIdleTime() {
+    return _maxIdleTime;
+  }
+
+  /**
+   * Specifies the maximum time in milliseconds that a connection is kept in the pool unused.
+   *
+   * @param maxIdleTime The maximum idle time, -1 if idle connections shall never be closed
+   */
+  public synchronized void setMaxIdleTime(long maxIdleTime) {
+    _maxIdleTime = maxIdleTime;
+  }
+
+  /**
+   * Returns the number of seconds to wait for the validation of an idle connection before it
+   * is handed out again.
+   *
+   * @return The timeout in seconds, 0 if connections are not validated
+   */
+  public synchronized int getValidationTimeout() {
+    return _validationTimeout;
+  }
+
+  /**
+   * Specifies the number of seconds to wait for the validation of an idle connection before it
+   * is handed out again.
+   *
+   * @param validationTimeout The timeout in seconds, 0 if connections shall not be validated
+   */
+  public synchronized void setValidationTimeout(int validationTimeout) {
+    if (validationTimeout < 0) {
+      throw new IllegalArgumentException("The validation timeout must not be negative");
+    }
+    _validationTimeout = validationTimeout;
+  }
+
+  /**
+   * Returns the maximum time in milliseconds to wait for a connection if all connections are in use.
+   *
+   * @return The maximum wait time
+   */
+  public synchronized long getMaxWaitTime() {
+    return _maxWaitTime;
+  }
+
+  /**
+   * Specifies the maximum time in milliseconds to wait for a connection if all connections are in use.
+   *
+   * @param maxWaitTime The maximum wait time
+   */
+  public synchronized void setMaxWaitTime(long maxWaitTime) {
+    if (maxWaitTime < 0) {
+      throw new IllegalArgumentException("The maximum wait time must not be negative");
+    }
+    _maxWaitTime = maxWaitTime;
+  }
+
+  /**
+   * Returns the number of connections that are currently in use.
+   *
+   * @return The number of connections
+   */
+  public synchronized int getActiveCount() {
+    return _activeCount;
+  }
+
+  /**
+   * Returns the number of unused connections in the pool.
+   *
+   * @return The number of connections
+   */
+  public synchronized int getIdleCount() {
+    return _idleConnections.size();
+  }
+
+  /**
+   * Returns the number of connections that the pool has opened so far.
+   *
+   * @return The number of connections
+   */
+  public synchronized long getCreatedCount() {
+    return _createdCount;
+  }
+
+  /**
+   * Returns the number of times that a connection was handed out.
+   *
+   * @return The number of borrowed connections
+   */
+  public synchronized long getBorrowedCount() {
+    return _borrowedCount;
+  }
+
+  /**
+   * Returns the number of times that a caller found all connections in use and thus had to
+   * wait for a connection (or gave up).
+   *
+   * @return The number of waits
+   */
+  public synchronized long getWaitCount() {
+    return _waitCount;
+  }
+
+  /**
+   * Returns the number of connections that were closed because they were unused for too long.
+   *
+   * @return The number of evicted connections
+   */
+  public synchronized long getEvictedCount() {
+    return _evictedCount;
+  }
+
+  /**
+   * Returns the number of connections that were discarded because their validation failed.
+   *
+   * @return The number of invalid connections
+   */
+  public synchronized long getInvalidatedCount() {
+    return _invalidatedCount;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Connection getConnection() throws SQLException {
+    Connection connection = null;
+
+    synchronized (this) {
+      long deadline = System.currentTimeMillis() + _maxWaitTime;
+      boolean waited = false;
+
+      evictIdleConnections();
+      while (true) {
+        if (_closed) {
+          throw new SQLException("The connection pool has been closed");
+        }
+        if (!_idleConnections.isEmpty()) {
+          connection = _idleConnections.pop()._connection;
+          break;
+        }
+        if (_activeCount < _maxSize) {
+          break;
+        }
+
+        long waitTime = deadline - System.currentTimeMillis();
+
+        if (!waited) {
+          _waitCount++;
+          waited = true;
+        }
+        if (waitTime <= 0) {
+          throw new SQLException("Timed out while waiting for a connection from the pool for " + _url);
+        }
+        try {
+          wait(waitTime);
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          throw new SQLException("Interrupted while waiting for a connection from the pool", ex);
+        }
+      }
+      _activeCount++;
+      _borrowedCount++;
+    }
+    // validating and opening connections can take a while, so we do this outside of the lock
+    ConnectionSettings settings;
+
+    try {
+      if ((connection != null) && !isValid(connection)) {
+        synchronized (this) {
+          _invalidatedCount++;
+        }
+        JdbcUtils.closeSilently(connection);
+        connection = null;
+      }
+      if (connection == null) {
+        connection = openConnection();
+        synchronized (this) {
+          _createdCount++;
+        }
+      }
+      settings = new ConnectionSettings(connection);
+    } catch (SQLException | RuntimeException ex) {
+      synchronized (this) {
+        _activeCount--;
+        notifyAll();
+      }
+      throw ex;
+    }
+    return createPooledConnection(connection, settings);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    if (equal(_username, username) && equal(_password, password)) {
+      return getConnection();
+    } else {
+      // connections for other users are not pooled
+      return openConnection(username, password);
+    }
+  }
+
+  /**
+   * Closes the unused connections and marks the pool as closed. Connections that are
+   * still in use are closed when they are returned.
+   */
+  public synchronized void close() {
+    _closed = true;
+    for (IdleConnection idleConnection : _idleConnections) {
+      JdbcUtils.closeSilently(idleConnection._connection);
+    }
+    _idleConnections.clear();
+    notifyAll();
+  }
+
+  /**
+   * Closes the connections that have been unused for longer than the maximum idle time.
+   */
+  private void evictIdleConnections() {
+    if (_maxIdleTime < 0) {
+      return;
+    }
+
+    long now = System.currentTimeMillis();
+
+    // the least recently returned connections are at the end
+    for (Iterator<IdleConnection> it = _idleConnections.descendingIterator(); it.hasNext(); ) {
+      IdleConnection idleConnection = it.next();
+
+      if (now - idleConnection._idleSince <= _maxIdleTime) {
+        break;
+      }
+      it.remove();
+      JdbcUtils.closeSilently(idleConnection._connection);
+      _evictedCount++;
+    }
+  }
+
+  /**
+   * Determines whether the given unused connection can still be used.
+   *
+   * @param connection The connection
+   * @return <code>true</code> if the connection is valid
+   */
+  private boolean isValid(Connection connection) {
+    int validationTimeout = getValidationTimeout();
+
+    if (validationTimeout == 0) {
+      return true;
+    }
+    try {
+      return connection.isValid(validationTimeout);
+    } catch (SQLFeatureNotSupportedException | AbstractMethodError ex) {
+      // drivers prior to JDBC 4 cannot validate connections
+      return true;
+    } catch (SQLException ex) {
+      _log.debug("Discarding connection whose validation failed", ex);
+      return false;
+    }
+  }
+
+  /**
+   * Hands the given connection back to the pool. Open transactions are rolled back, and the
+   * auto-commit mode, the transaction isolation level, the read-only flag and the catalog are
+   * reset to the state when the connection was borrowed.
+   *
+   * @param connection The connection
+   * @param settings   The settings of the connection when it was borrowed
+   */
+  private void release(Connection connection, ConnectionSettings settings) {
+    boolean reusable;
+
+    try {
+      reusable = !connection.isClosed();
+      if (reusable && !connection.getAutoCommit()) {
+        connection.rollback();
+        connection.setAutoCommit(true);
+      }
+      if (reusable) {
+        settings.restore(connection);
+      }
+    } catch (SQLException ex) {
+      _log.debug("Discarding connection that could not be reset", ex);
+      reusable = false;
+    }
+    synchronized (this) {
+      _activeCount--;
+      if (reusable && !_closed) {
+        _idleConnections.push(new IdleConnection(connection, System.currentTimeMillis()));
+      } else {
+        JdbcUtils.closeSilently(connection);
+      }
+      notifyAll();
+    }
+  }
+
+  /**
+   * Opens a new physical connection with the configured credentials.
+   *
+   * @return The connection
+   */
+  private Connection openConnection() throws SQLException {
+    return openConnection(_username, _password);
+  }
+
+  /**
+   * Opens a new physical connection.
+   *
+   * @param username The username
+   * @param password The password
+   * @return The connection
+   */
+  private Connection openConnection(String username, String password) throws SQLException {
+    Properties info = new Properties();
+
+    if (username != null) {
+      info.setProperty("user", username);
+    }
+    if (password != null) {
+      info.setProperty("password", password);
+    }
+
+    Connection connection = getDriver().connect(_url, info);
+
+    if (connection == null) {
+      throw new SQLException("The driver does not accept the url " + _url);
+    }
+    return connection;
+  }
+
+  /**
+   * Returns the JDBC driver, creating it if necessary.
+   *
+   * @return The driver
+   */
+  private synchronized Driver getDriver() throws SQLException {
+    if (_driver == null) {
+      if (_driverClassName == null) {
+        _driver = DriverManager.getDriver(_url);
+      } else {
+        // we instantiate the driver directly as the driver manager does not accept drivers from
+        // class loaders other than the one of the caller (e.g. the one of the Ant task)
+        try {
+          _driver = (Driver) Class.forName(_driverClassName, true, ClassUtils.getDefaultClassLoader()).getDeclaredConstructor().newInstance();
+        } catch (Exception ex) {
+          throw new SQLException("Could not create the JDBC driver " + _driverClassName, ex);
+        }
+      }
+    }
+    return _driver;
+  }
+
+  /**
+   * Wraps the given physical connection so that closing it returns it to the pool.
+   *
+   * @param connection The physical connection
+   * @param settings   The settings of the connection when it was borrowed
+   * @return The connection to hand out
+   */
+  private Connection createPooledConnection(Connection connection, ConnectionSettings settings) {
+    boolean[] closed = new boolean[1];
+
+    return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+      new Class<?>[]{Connection.class},
+      (proxy, method, args) -> {
+        String name = method.getName();
+
+        if ("close".equals(name)) {
+          if (!closed[0]) {
+            closed[0] = true;
+            release(connection, settings);
+          }
+          return null;
+        } else if ("isClosed".equals(name)) {
+          return closed[0] || connection.isClosed();
+        } else if ("equals".equals(name)) {
+          return proxy == args[0];
+        } else if ("hashCode".equals(name)) {
+          return System.identityHashCode(proxy);
+        } else if ("toString".equals(name)) {
+          return "Pooled " + connection;
+        } else if (closed[0]) {
+          throw new SQLException("The connection has already been returned to the pool");
+        }
+
+        Object result = invoke(connection, method, args);
+
+        if (result instanceof Statement) {
+          result = createPooledStatement((Statement) result, method.getReturnType(), (Connection) proxy);
+        }
+        return result;
+      });
+  }
+
+  /**
+   * Wraps the given statement so that it returns the pooled connection instead of the physical
+   * one, e.g. for code that returns the connection of a result set's statement.
+   *
+   * @param statement     The statement
+   * @param statementType The statement interface
+   * @param connection    The pooled connection
+   * @return The wrapped statement
+   */
+  private Statement createPooledStatement(Statement statement, Class<?> statementType, Connection connection) {
+    return (Statement) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+      new Class<?>[]{statementType},
+      (proxy, method, args) -> {
+        String name = method.getName();
+
+        if ("getConnection".equals(name)) {
+          return connection;
+        } else if ("equals".equals(name)) {
+          return proxy == args[0];
+        } else if ("hashCode".equals(name)) {
+          return System.identityHashCode(proxy);
+        }
+
+        Object result = invoke(statement, method, args);
+
+        if (result instanceof ResultSet) {
+          result = createPooledResultSet((ResultSet) result, (Statement) proxy);
+        }
+        return result;
+      });
+  }
+
+  /**
+   * Wraps the given result set so that it returns the wrapped statement.
+   *
+   * @param resultSet The result set
+   * @param statement The wrapped statement
+   * @return The wrapped result set
+   */
+  private ResultSet createPooledResultSet(ResultSet resultSet, Statement statement) {
+    return (ResultSet) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+      new Class<?>[]{ResultSet.class},
+      (proxy, method, args) -> {
+        String name = method.getName();
+
+        if ("getStatement".equals(name)) {
+          return statement;
+        } else if ("equals".equals(name)) {
+          return proxy == args[0];
+        } else if ("hashCode".equals(name)) {
+          return System.identityHashCode(proxy);
+        }
+        return invoke(resultSet, method, args);
+      });
+  }
+
+  /**
+   * Invokes the given method on the wrapped JDBC object.
+   *
+   * @param target The JDBC object
+   * @param method The method
+   * @param args   The arguments
+   * @return The result of the method
+   */
+  private Object invoke(Object target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException ex) {
+      throw ex.getTargetException();
+    }
+  }
+
+  /**
+   * Compares the given strings, which can be <code>null</code>.
+   *
+   * @param a The first string
+   * @param b The second string
+   * @return <code>true</code> if both strings are equal or both are <code>null</code>
+   */
+  private static boolean equal(String a, String b) {
+    return a == null ? b == null : a.equals(b);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public PrintWriter getLogWriter() {
+    return _logWriter;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void setLogWriter(PrintWriter out) {
+    _logWriter = out;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getLoginTimeout() {
+    return _loginTimeout;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void setLoginTimeout(int seconds) {
+    _loginTimeout = seconds;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    if (iface.isInstance(this)) {
+      return iface.cast(this);
+    }
+    throw new SQLException("Not a wrapper for " + iface.getName());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean isWrapperFor(Class<?> iface) {
+    return iface.isInstance(this);
+  }
+}
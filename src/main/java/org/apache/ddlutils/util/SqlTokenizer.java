@@ -19,33 +19,41 @@ package org.apache.ddlutils.util;
  * under the License.
  */
 
+import org.apache.ddlutils.DdlUtilsException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
 /**
  * A statement tokenizer for SQL strings that splits only at delimiters that
- * are at the end of a line or the end of the SQL (row mode).
- * <p>
- * TODO: Add awareness of strings, so that semicolons within strings are not parsed
+ * are at the end of a line or the end of the SQL (row mode). Delimiters within
+ * string literals, delimited identifiers and comments are ignored. The SQL is
+ * read as a stream, so that arbitrarily large scripts can be tokenized without
+ * having to be held in memory completely.
  *
  * @version $Revision: $
  */
 public class SqlTokenizer {
   /**
-   * The SQL to tokenize.
+   * The reader to read the SQL from.
    */
-  private final String _sql;
+  private final Reader _reader;
   /**
-   * The index of the last character in the string.
+   * Whether the SQL uses the MySql syntax for comments, identifiers and string literals.
    */
-  private final int _lastCharIdx;
+  private final boolean _mySqlSyntax;
   /**
-   * The last delimiter position in the string.
+   * The character that has been read ahead, or -2 if none.
    */
-  private int _lastDelimiterPos = -1;
+  private int _peekedChar = -2;
   /**
-   * The next delimiter position in the string.
+   * The next statement, <code>null</code> if not read yet.
    */
-  private int _nextDelimiterPos = -1;
+  private String _nextStatement;
   /**
-   * Whether there are no more tokens.
+   * Whether the end of the SQL has been reached.
    */
   private boolean _finished;
 
@@ -55,8 +63,20 @@ public class SqlTokenizer {
    * @param sql The sql text
    */
   public SqlTokenizer(String sql) {
-    _sql = sql;
-    _lastCharIdx = sql.length() - 1;
+    this(new StringReader(sql), false);
+  }
+
+  /**
+   * Creates a new sql tokenizer that reads the SQL from the given reader.
+   *
+   * @param reader      The reader; it is not closed by the tokenizer
+   * @param mySqlSyntax Whether the SQL uses the MySql syntax, i.e. <code>#</code> also starts a
+   *                    line comment, identifiers can be delimited by backticks, and a backslash
+   *                    escapes the next character in string literals
+   */
+  public SqlTokenizer(Reader reader, boolean mySqlSyntax) {
+    _reader = (reader instanceof BufferedReader) || (reader instanceof StringReader) ? reader : new BufferedReader(reader);
+    _mySqlSyntax = mySqlSyntax;
   }
 
   /**
@@ -65,22 +85,14 @@ public class SqlTokenizer {
    * @return <code>true</code> if there are more statements
    */
   public boolean hasMoreStatements() {
-    if (_finished) {
-      return false;
-    } else {
-      if (_nextDelimiterPos <= _lastDelimiterPos) {
-        _nextDelimiterPos = _sql.indexOf(';', _lastDelimiterPos + 1);
-        while ((_nextDelimiterPos >= 0) && (_nextDelimiterPos < _lastCharIdx)) {
-          char nextChar = _sql.charAt(_nextDelimiterPos + 1);
-
-          if ((nextChar == '\r') || (nextChar == '\n')) {
-            break;
-          }
-          _nextDelimiterPos = _sql.indexOf(';', _nextDelimiterPos + 1);
-        }
+    if ((_nextStatement == null) && !_finished) {
+      try {
+        _nextStatement = readStatement();
+      } catch (IOException ex) {
+        throw new DdlUtilsException("Could not read the SQL", ex);
       }
-      return (_nextDelimiterPos >= 0) || (_lastDelimiterPos < _lastCharIdx);
     }
+    return _nextStatement != null;
   }
 
   /**
@@ -92,14 +104,89 @@ public class SqlTokenizer {
     String result = null;
 
     if (hasMoreStatements()) {
-      if (_nextDelimiterPos >= 0) {
-        result = _sql.substring(_lastDelimiterPos + 1, _nextDelimiterPos);
-        _lastDelimiterPos = _nextDelimiterPos;
+      result = _nextStatement;
+      _nextStatement = null;
+    }
+    return result;
+  }
+
+  /**
+   * Reads the text up to the next delimiter at the end of a line.
+   *
+   * @return The text without the delimiter, or <code>null</code> if there is no more text
+   */
+  private String readStatement() throws IOException {
+    StringBuilder result = new StringBuilder();
+    char quoteChar = 0;
+    boolean inLineComment = false;
+    boolean inBlockComment = false;
+    int curChar;
+
+    while ((curChar = read()) >= 0) {
+      if (quoteChar != 0) {
+        result.append((char) curChar);
+        if (curChar == quoteChar) {
+          // a doubled quote char simply re-opens the literal
+          quoteChar = 0;
+        } else if (_mySqlSyntax && (curChar == '\\') && (quoteChar != '`') && (peek() >= 0)) {
+          result.append((char) read());
+        }
+      } else if (inLineComment) {
+        result.append((char) curChar);
+        inLineComment = (curChar != '\n') && (curChar != '\r');
+      } else if (inBlockComment) {
+        result.append((char) curChar);
+        if ((curChar == '*') && (peek() == '/')) {
+          result.append((char) read());
+          inBlockComment = false;
+        }
+      } else if (curChar == ';') {
+        int nextChar = peek();
+
+        if ((nextChar < 0) || (nextChar == '\n') || (nextChar == '\r')) {
+          return result.toString();
+        }
+        result.append((char) curChar);
       } else {
-        result = _sql.substring(_lastDelimiterPos + 1);
-        _finished = true;
+        result.append((char) curChar);
+        if ((curChar == '\'') || (curChar == '"') || (_mySqlSyntax && (curChar == '`'))) {
+          quoteChar = (char) curChar;
+        } else if ((curChar == '-') && (peek() == '-')) {
+          result.append((char) read());
+          inLineComment = true;
+        } else if (_mySqlSyntax && (curChar == '#')) {
+          inLineComment = true;
+        } else if ((curChar == '/') && (peek() == '*')) {
+          result.append((char) read());
+          inBlockComment = true;
+        }
       }
     }
+    _finished = true;
+    return result.length() > 0 ? result.toString() : null;
+  }
+
+  /**
+   * Reads the next character.
+   *
+   * @return The character or -1 if the end of the SQL has been reached
+   */
+  private int read() throws IOException {
+    int result = peek();
+
+    _peekedChar = -2;
     return result;
   }
+
+  /**
+   * Returns the next character without consuming it.
+   *
+   * @return The character or -1 if the end of the SQL has been reached
+   */
+  private int peek() throws IOException {
+    if (_peekedChar == -2) {
+      _peekedChar = _reader.read();
+    }
+    return _peekedChar;
+  }
 }
@@ -0,0 +1,71 @@
+package org.apache.ddlutils.util;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.sql.Types;
+import java.util.Date;
+
+/**
+ * Helper class containing functions for column values.
+ *
+ * @version $Revision: $
+ */
+public class ValueUtils {
+  /**
+   * Returns a representation of the given column value that is equal to the representation of
+   * the same value as returned by another database or driver, or as set by the application,
+   * which might be of a different type. The representations can thus be compared via
+   * {@link Object#equals(Object)} and used as hash keys: numbers are converted to big decimals
+   * without trailing zeros, dates to their time in milliseconds, binary values to byte buffers
+   * wrapping them, and trailing spaces of fixed-length character values are removed.
+   *
+   * @param typeCode The JDBC type code of the column
+   * @param value    The value
+   * @return The comparable representation of the value
+   */
+  public static Object getComparableValue(int typeCode, Object value) {
+    if (value instanceof BigDecimal) {
+      return ((BigDecimal) value).stripTrailingZeros();
+    } else if (value instanceof BigInteger) {
+      return new BigDecimal((BigInteger) value).stripTrailingZeros();
+    } else if ((value instanceof Byte) || (value instanceof Short) || (value instanceof Integer) || (value instanceof Long)) {
+      return BigDecimal.valueOf(((Number) value).longValue()).stripTrailingZeros();
+    } else if (((value instanceof Float) || (value instanceof Double)) && !Double.isNaN(((Number) value).doubleValue()) && !Double.isInfinite(((Number) value).doubleValue())) {
+      return BigDecimal.valueOf(((Number) value).doubleValue()).stripTrailingZeros();
+    } else if (value instanceof Date) {
+      return ((Date) value).getTime();
+    } else if (value instanceof byte[]) {
+      return ByteBuffer.wrap((byte[]) value);
+    } else if ((value instanceof String) && ((typeCode == Types.CHAR) || (typeCode == Types.NCHAR))) {
+      String text = (String) value;
+      int length = text.length();
+
+      while ((length > 0) && (text.charAt(length - 1) == ' ')) {
+        length--;
+      }
+      return text.substring(0, length);
+    } else {
+      return value;
+    }
+  }
+}
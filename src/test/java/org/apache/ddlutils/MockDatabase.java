@@ -0,0 +1,844 @@
+package org.apache.ddlutils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A fake database for unit tests that is accessed via mocked JDBC objects. It records the
+ * prepared and executed statements, and answers queries and updates via configurable handlers.
+ * The mocks are thread-safe so that they can be used by tests of concurrent operations.
+ *
+ * @version $Revision: $
+ */
+public class MockDatabase {
+  /**
+   * Answers the queries executed against the database.
+   */
+  public interface QueryHandler {
+    /**
+     * Returns the result of the given query.
+     *
+     * @param sql        The SQL of the query
+     * @param parameters The values of the parameters of the query
+     * @return The result
+     */
+    MockResult query(String sql, List<Object> parameters) throws SQLException;
+  }
+
+  /**
+   * Executes the updates, i.e. the statements other than queries, against the database.
+   */
+  public interface UpdateHandler {
+    /**
+     * Executes the given statement.
+     *
+     * @param sql        The SQL of the statement
+     * @param parameters The values of the parameters of the statement
+     * @return The number of affected rows
+     */
+    int update(String sql, List<Object> parameters) throws SQLException;
+  }
+
+  /**
+   * The result of a query.
+   */
+  public static class MockResult {
+    /**
+     * The table that the columns belong to.
+     */
+    private final String _tableName;
+    /**
+     * The names of the columns.
+     */
+    private final List<String> _columnNames;
+    /**
+     * The rows with the values in the order of the columns.
+     */
+    private final List<Object[]> _rows;
+
+    /**
+     * Creates a new result.
+     *
+     * @param tableName   The table that the columns belong to
+     * @param columnNames The names of the columns
+     * @param rows        The rows with the values in the order of the columns
+     */
+    public MockResult(String tableName, List<String> columnNames, List<Object[]> rows) {
+      _tableName = tableName;
+      _columnNames = columnNames;
+      _rows = rows;
+    }
+
+    /**
+     * Returns the index of the column of the given name.
+     *
+     * @param columnName The column name
+     * @return The 1-based index
+     */
+    private int findColumn(String columnName) throws SQLException {
+      for (int idx = 0; idx < _columnNames.size(); idx++) {
+        if (_columnNames.get(idx).equalsIgnoreCase(columnName)) {
+          return idx + 1;
+        }
+      }
+      throw new SQLException("Unknown column " + columnName);
+    }
+  }
+
+  /**
+   * The state of a connection to the database.
+   */
+  public static class ConnectionState {
+    /**
+     * Whether the connection has been closed.
+     */
+    private boolean _closed;
+    /**
+     * Whether the connection is valid.
+     */
+    private boolean _valid = true;
+    /**
+     * Whether the connection is in auto-commit mode.
+     */
+    private boolean _autoCommit = true;
+    /**
+     * The transaction isolation level of the connection.
+     */
+    private int _transactionIsolation = Connection.TRANSACTION_READ_COMMITTED;
+    /**
+     * Whether the connection is read-only.
+     */
+    private boolean _readOnly;
+    /**
+     * The catalog of the connection.
+     */
+    private String _catalog;
+    /**
+     * The number of rollbacks.
+     */
+    private int _rollbackCount;
+    /**
+     * The number of times that the warnings have been read.
+     */
+    private int _warningPollCount;
+
+    /**
+     * Determines whether the connection has been closed.
+     *
+     * @return <code>true</code> if the connection has been closed
+     */
+    public synchronized boolean isClosed() {
+      return _closed;
+    }
+
+    /**
+     * Determines whether the connection is valid.
+     *
+     * @return <code>true</code> if the connection is valid
+     */
+    public synchronized boolean isValid() {
+      return _valid;
+    }
+
+    /**
+     * Specifies whether the connection is valid.
+     *
+     * @param valid <code>true</code> if the connection shall be valid
+     */
+    public synchronized void setValid(boolean valid) {
+      _valid = valid;
+    }
+
+    /**
+     * Determines whether the connection is in auto-commit mode.
+     *
+     * @return <code>true</code> if the connection is in auto-commit mode
+     */
+    public synchronized boolean isAutoCommit() {
+      return _autoCommit;
+    }
+
+    /**
+     * Returns the transaction isolation level of the connection.
+     *
+     * @return The isolation level
+     */
+    public synchronized int getTransactionIsolation() {
+      return _transactionIsolation;
+    }
+
+    /**
+     * Determines whether the connection is read-only.
+     *
+     * @return <code>true</code> if the connection is read-only
+     */
+    public synchronized boolean isReadOnly() {
+      return _readOnly;
+    }
+
+    /**
+     * Returns the catalog of the connection.
+     *
+     * @return The catalog
+     */
+    public synchronized String getCatalog() {
+      return _catalog;
+    }
+
+    /**
+     * Returns the number of rollbacks on the connection.
+     *
+     * @return The number of rollbacks
+     */
+    public synchronized int getRollbackCount() {
+      return _rollbackCount;
+    }
+
+    /**
+     * Returns the number of times that the warnings of the connection have been read.
+     *
+     * @return The number of reads
+     */
+    public synchronized int getWarningPollCount() {
+      return _warningPollCount;
+    }
+  }
+
+  /**
+   * Answers the queries, per default with an empty result.
+   */
+  private volatile QueryHandler _queryHandler = (sql, parameters) -> new MockResult(null, Collections.emptyList(), Collections.emptyList());
+  /**
+   * Executes the updates, per default affecting one row.
+   */
+  private volatile UpdateHandler _updateHandler = (sql, parameters) -> 1;
+  /**
+   * Invoked when a statement is cancelled.
+   */
+  private volatile Runnable _cancelHandler;
+  /**
+   * Whether batches continue with the next statement if a statement fails.
+   */
+  private volatile boolean _continueBatchOnError;
+  /**
+   * The major version reported by the metadata of the connections.
+   */
+  private volatile int _databaseMajorVersion;
+  /**
+   * The minor version reported by the metadata of the connections.
+   */
+  private volatile int _databaseMinorVersion;
+  /**
+   * The states of the connections opened so far.
+   */
+  private final List<ConnectionState> _connections = Collections.synchronizedList(new ArrayList<>());
+  /**
+   * The SQL of the prepared statements.
+   */
+  private final List<String> _preparedSql = Collections.synchronizedList(new ArrayList<>());
+  /**
+   * The SQL of the executed updates, including those executed in batches.
+   */
+  private final List<String> _executedSql = Collections.synchronizedList(new ArrayList<>());
+  /**
+   * The parameter values of the executed updates.
+   */
+  private final List<List<Object>> _executedParameters = Collections.synchronizedList(new ArrayList<>());
+  /**
+   * The sizes of the executed batches.
+   */
+  private final List<Integer> _batchSizes = Collections.synchronizedList(new ArrayList<>());
+  /**
+   * The number of closed statements.
+   */
+  private final AtomicInteger _closedStatementCount = new AtomicInteger();
+  /**
+   * The number of rows that have been read from result sets.
+   */
+  private final AtomicInteger _readRowCount = new AtomicInteger();
+
+  /**
+   * Specifies the handler that answers the queries.
+   *
+   * @param queryHandler The handler
+   */
+  public void setQueryHandler(QueryHandler queryHandler) {
+    _queryHandler = queryHandler;
+  }
+
+  /**
+   * Specifies the handler that executes the updates.
+   *
+   * @param updateHandler The handler
+   */
+  public void setUpdateHandler(UpdateHandler updateHandler) {
+    _updateHandler = updateHandler;
+  }
+
+  /**
+   * Specifies the action that is run when a statement is cancelled.
+   *
+   * @param cancelHandler The action
+   */
+  public void setCancelHandler(Runnable cancelHandler) {
+    _cancelHandler = cancelHandler;
+  }
+
+  /**
+   * Specifies whether a batch continues with the next statement when one fails (reporting
+   * {@link Statement#EXECUTE_FAILED} for it), or stops at the failed statement. Either way, a
+   * {@link BatchUpdateException} is thrown at the end.
+   *
+   * @param continueBatchOnError <code>true</code> if batches shall continue
+   */
+  public void setContinueBatchOnError(boolean continueBatchOnError) {
+    _continueBatchOnError = continueBatchOnError;
+  }
+
+  /**
+   * Specifies the version of the database as reported by the metadata of the connections.
+   *
+   * @param majorVersion The major version
+   * @param minorVersion The minor version
+   */
+  public void setDatabaseVersion(int majorVersion, int minorVersion) {
+    _databaseMajorVersion = majorVersion;
+    _databaseMinorVersion = minorVersion;
+  }
+
+  /**
+   * Returns a data source that opens new connections to the database.
+   *
+   * @return The data source
+   */
+  public DataSource getDataSource() {
+    return createProxy(DataSource.class, (proxy, method, args) -> {
+      if ("getConnection".equals(method.getName())) {
+        return createConnection();
+      }
+      return handleObjectMethod(proxy, method, args);
+    });
+  }
+
+  /**
+   * Opens a new connection to the database.
+   *
+   * @return The connection
+   */
+  public Connection createConnection() {
+    ConnectionState state = new ConnectionState();
+
+    _connections.add(state);
+    return createProxy(Connection.class, (proxy, method, args) -> {
+      synchronized (state) {
+        switch (method.getName()) {
+          case "close":
+            state._closed = true;
+            return null;
+          case "isClosed":
+            return state._closed;
+          case "isValid":
+            return state._valid;
+          case "getAutoCommit":
+            return state._autoCommit;
+          case "setAutoCommit":
+            state._autoCommit = (Boolean) args[0];
+            return null;
+          case "getTransactionIsolation":
+            return state._transactionIsolation;
+          case "setTransactionIsolation":
+            state._transactionIsolation = (Integer) args[0];
+            return null;
+          case "isReadOnly":
+            return state._readOnly;
+          case "setReadOnly":
+            state._readOnly = (Boolean) args[0];
+            return null;
+          case "getCatalog":
+            return state._catalog;
+          case "setCatalog":
+            state._catalog = (String) args[0];
+            return null;
+          case "rollback":
+            state._rollbackCount++;
+            return null;
+          case "getWarnings":
+            state._warningPollCount++;
+            return null;
+          default:
+            break;
+        }
+      }
+      switch (method.getName()) {
+        case "prepareStatement":
+          _preparedSql.add((String) args[0]);
+          return createStatement((Connection) proxy, (String) args[0]);
+        case "createStatement":
+          return createStatement((Connection) proxy, null);
+        case "getMetaData":
+          return createMetaData((Connection) proxy);
+        default:
+          return handleObjectMethod(proxy, method, args);
+      }
+    });
+  }
+
+  /**
+   * Creates the metadata of the given connection, which only knows the version of the database.
+   *
+   * @param connection The connection
+   * @return The metadata
+   */
+  private DatabaseMetaData createMetaData(Connection connection) {
+    return createProxy(DatabaseMetaData.class, (proxy, method, args) -> {
+      switch (method.getName()) {
+        case "getConnection":
+          return connection;
+        case "getDatabaseMajorVersion":
+          return _databaseMajorVersion;
+        case "getDatabaseMinorVersion":
+          return _databaseMinorVersion;
+        default:
+          return handleObjectMethod(proxy, method, args);
+      }
+    });
+  }
+
+  /**
+   * Returns the states of the connections opened so far.
+   *
+   * @return The states in the order of opening
+   */
+  public List<ConnectionState> getConnections() {
+    synchronized (_connections) {
+      return new ArrayList<>(_connections);
+    }
+  }
+
+  /**
+   * Returns the number of connections that have been opened and not been closed yet.
+   *
+   * @return The number of connections
+   */
+  public int getOpenConnectionCount() {
+    int result = 0;
+
+    for (ConnectionState state : getConnections()) {
+      if (!state.isClosed()) {
+        result++;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the SQL of the prepared statements.
+   *
+   * @return The SQL in the order of preparation
+   */
+  public List<String> getPreparedSql() {
+    return _preparedSql;
+  }
+
+  /**
+   * Returns the SQL of the executed updates, including those executed in batches.
+   *
+   * @return The SQL in the order of execution
+   */
+  public List<String> getExecutedSql() {
+    return _executedSql;
+  }
+
+  /**
+   * Returns the parameter values of the executed updates, including those executed in batches.
+   *
+   * @return The parameter values in the order of execution
+   */
+  public List<List<Object>> getExecutedParameters() {
+    return _executedParameters;
+  }
+
+  /**
+   * Returns the sizes of the executed batches.
+   *
+   * @return The sizes in the order of execution
+   */
+  public List<Integer> getBatchSizes() {
+    return _batchSizes;
+  }
+
+  /**
+   * Returns the number of statements that have been closed.
+   *
+   * @return The number of statements
+   */
+  public int getClosedStatementCount() {
+    return _closedStatementCount.get();
+  }
+
+  /**
+   * Returns the number of rows that have been read from result sets.
+   *
+   * @return The number of rows
+   */
+  public int getReadRowCount() {
+    return _readRowCount.get();
+  }
+
+  /**
+   * Creates a statement.
+   *
+   * @param connection The connection of the statement
+   * @param sql        The SQL of the prepared statement, or <code>null</code> for a plain statement
+   * @return The statement
+   */
+  private PreparedStatement createStatement(Connection connection, String sql) {
+    Map<Integer, Object> parameters = new TreeMap<>();
+    List<String> batchSql = new ArrayList<>();
+    List<List<Object>> batchParameters = new ArrayList<>();
+    boolean[] closed = new boolean[1];
+
+    return createProxy(PreparedStatement.class, (proxy, method, args) -> {
+      String name = method.getName();
+
+      if (name.startsWith("set") && (args != null) && (args.length >= 2) && (args[0] instanceof Integer)) {
+        synchronized (parameters) {
+          parameters.put((Integer) args[0], "setNull".equals(name) ? null : args[1]);
+        }
+        return null;
+      }
+      switch (name) {
+        case "clearParameters":
+          synchronized (parameters) {
+            parameters.clear();
+          }
+          return null;
+        case "executeQuery":
+          return createResultSet((Statement) proxy,
+            _queryHandler.query(args == null ? sql : (String) args[0], getParameters(parameters, args == null)));
+        case "execute":
+        case "executeUpdate":
+        case "executeLargeUpdate":
+          int count = executeUpdate(args == null ? sql : (String) args[0], getParameters(parameters, args == null));
+
+          if ("execute".equals(name)) {
+            return Boolean.FALSE;
+          }
+          return "executeLargeUpdate".equals(name) ? (Object) (long) count : (Object) count;
+        case "addBatch":
+          synchronized (batchSql) {
+            batchSql.add(args == null ? sql : (String) args[0]);
+            batchParameters.add(getParameters(parameters, args == null));
+          }
+          return null;
+        case "clearBatch":
+          synchronized (batchSql) {
+            batchSql.clear();
+            batchParameters.clear();
+          }
+          return null;
+        case "executeBatch":
+          synchronized (batchSql) {
+            try {
+              return executeBatch(batchSql, batchParameters);
+            } finally {
+              batchSql.clear();
+              batchParameters.clear();
+            }
+          }
+        case "getUpdateCount":
+          return -1;
+        case "getConnection":
+          return connection;
+        case "cancel":
+          Runnable cancelHandler = _cancelHandler;
+
+          if (cancelHandler != null) {
+            cancelHandler.run();
+          }
+          return null;
+        case "close":
+          synchronized (closed) {
+            if (!closed[0]) {
+              closed[0] = true;
+              _closedStatementCount.incrementAndGet();
+            }
+          }
+          return null;
+        case "isClosed":
+          synchronized (closed) {
+            return closed[0];
+          }
+        default:
+          return handleObjectMethod(proxy, method, args);
+      }
+    });
+  }
+
+  /**
+   * Returns the parameter values of a statement.
+   *
+   * @param parameters The parameter values by index
+   * @param prepared   Whether the statement is executed as a prepared statement
+   * @return The values in the order of their indices
+   */
+  private List<Object> getParameters(Map<Integer, Object> parameters, boolean prepared) {
+    if (!prepared) {
+      return Collections.emptyList();
+    }
+    synchronized (parameters) {
+      return new ArrayList<>(parameters.values());
+    }
+  }
+
+  /**
+   * Executes and records an update.
+   *
+   * @param sql        The SQL
+   * @param parameters The parameter values
+   * @return The number of affected rows
+   */
+  private int executeUpdate(String sql, List<Object> parameters) throws SQLException {
+    synchronized (_executedSql) {
+      _executedSql.add(sql);
+      _executedParameters.add(parameters);
+    }
+    return _updateHandler.update(sql, parameters);
+  }
+
+  /**
+   * Executes the statements of a batch.
+   *
+   * @param batchSql        The SQL of the statements
+   * @param batchParameters The parameter values of the statements
+   * @return The update counts
+   */
+  private int[] executeBatch(List<String> batchSql, List<List<Object>> batchParameters) throws SQLException {
+    List<Integer> counts = new ArrayList<>();
+    SQLException failure = null;
+
+    _batchSizes.add(batchSql.size());
+    for (int idx = 0; idx < batchSql.size(); idx++) {
+      try {
+        counts.add(executeUpdate(batchSql.get(idx), batchParameters.get(idx)));
+      } catch (SQLException ex) {
+        if (failure == null) {
+          failure = ex;
+        }
+        if (!_continueBatchOnError) {
+          break;
+        }
+        counts.add(Statement.EXECUTE_FAILED);
+      }
+    }
+
+    int[] result = counts.stream().mapToInt(Integer::intValue).toArray();
+
+    if (failure != null) {
+      throw new BatchUpdateException(failure.getMessage(), failure.getSQLState(), failure.getErrorCode(), result, failure);
+    }
+    return result;
+  }
+
+  /**
+   * Creates a result set for the given result.
+   *
+   * @param statement The statement that produced the result set
+   * @param result    The result
+   * @return The result set
+   */
+  private ResultSet createResultSet(Statement statement, MockResult result) {
+    ResultSetMetaData metaData = createProxy(ResultSetMetaData.class, (proxy, method, args) -> {
+      switch (method.getName()) {
+        case "getColumnCount":
+          return result._columnNames.size();
+        case "getColumnName":
+        case "getColumnLabel":
+          return result._columnNames.get((Integer) args[0] - 1);
+        case "getTableName":
+          return result._tableName;
+        default:
+          return handleObjectMethod(proxy, method, args);
+      }
+    });
+    int[] rowIdx = {-1};
+    Object[] lastValue = new Object[1];
+
+    return createProxy(ResultSet.class, (proxy, method, args) -> {
+      String name = method.getName();
+
+      synchronized (rowIdx) {
+        switch (name) {
+          case "getMetaData":
+            return metaData;
+          case "getStatement":
+            return statement;
+          case "next":
+            if (rowIdx[0] < result._rows.size()) {
+              rowIdx[0]++;
+            }
+            if (rowIdx[0] < result._rows.size()) {
+              _readRowCount.incrementAndGet();
+              return Boolean.TRUE;
+            }
+            return Boolean.FALSE;
+          case "wasNull":
+            return lastValue[0] == null;
+          case "findColumn":
+            return result.findColumn((String) args[0]);
+          default:
+            if (name.startsWith("get") && (args != null) && (args.length >= 1) &&
+              ((args[0] instanceof Integer) || (args[0] instanceof String))) {
+              int columnIdx = args[0] instanceof Integer ? (Integer) args[0] : result.findColumn((String) args[0]);
+
+              lastValue[0] = result._rows.get(rowIdx[0])[columnIdx - 1];
+              return convert(lastValue[0], method.getReturnType());
+            }
+            return handleObjectMethod(proxy, method, args);
+        }
+      }
+    });
+  }
+
+  /**
+   * Converts the given value to the return type of a result set getter.
+   *
+   * @param value The value
+   * @param type  The return type
+   * @return The converted value
+   */
+  private static Object convert(Object value, Class<?> type) {
+    if (value == null) {
+      return getDefaultValue(type);
+    }
+    if ((value instanceof Number) && (type != Object.class)) {
+      Number number = (Number) value;
+
+      if ((type == int.class) || (type == Integer.class)) {
+        return number.intValue();
+      } else if ((type == long.class) || (type == Long.class)) {
+        return number.longValue();
+      } else if ((type == short.class) || (type == Short.class)) {
+        return number.shortValue();
+      } else if ((type == byte.class) || (type == Byte.class)) {
+        return number.byteValue();
+      } else if ((type == float.class) || (type == Float.class)) {
+        return number.floatValue();
+      } else if ((type == double.class) || (type == Double.class)) {
+        return number.doubleValue();
+      } else if ((type == boolean.class) || (type == Boolean.class)) {
+        return number.intValue() != 0;
+      } else if (type == BigDecimal.class) {
+        return new BigDecimal(number.toString());
+      }
+    }
+    if (type == String.class) {
+      return value.toString();
+    }
+    return value;
+  }
+
+  /**
+   * Returns the value that a method of the given return type returns by default.
+   *
+   * @param type The return type
+   * @return The default value
+   */
+  private static Object getDefaultValue(Class<?> type) {
+    if (type == boolean.class) {
+      return Boolean.FALSE;
+    } else if ((type == int.class) || (type == short.class) || (type == byte.class)) {
+      return type == int.class ? (Object) 0 : type == short.class ? (Object) (short) 0 : (Object) (byte) 0;
+    } else if (type == long.class) {
+      return 0L;
+    } else if (type == float.class) {
+      return 0f;
+    } else if (type == double.class) {
+      return 0d;
+    }
+    return null;
+  }
+
+  /**
+   * Handles the methods that are not specific to the mocked JDBC object, i.e. the methods of
+   * {@link Object} and the methods whose default value suffices.
+   *
+   * @param proxy  The proxy
+   * @param method The method
+   * @param args   The arguments
+   * @return The result
+   */
+  private static Object handleObjectMethod(Object proxy, Method method, Object[] args) {
+    switch (method.getName()) {
+      case "equals":
+        return proxy == args[0];
+      case "hashCode":
+        return System.identityHashCode(proxy);
+      case "toString":
+        return proxy.getClass().getInterfaces()[0].getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+      default:
+        return getDefaultValue(method.getReturnType());
+    }
+  }
+
+  /**
+   * Creates a proxy for the given interface.
+   *
+   * @param type    The interface
+   * @param handler The invocation handler
+   * @param <T>     The type of the interface
+   * @return The proxy
+   */
+  private static <T> T createProxy(Class<T> type, InvocationHandler handler) {
+    return type.cast(Proxy.newProxyInstance(MockDatabase.class.getClassLoader(), new Class<?>[]{type}, handler));
+  }
+
+  /**
+   * Creates a result with the given rows.
+   *
+   * @param tableName   The table that the columns belong to
+   * @param columnNames The names of the columns
+   * @param rows        The rows
+   * @return The result
+   */
+  public static MockResult result(String tableName, List<String> columnNames, Object[]... rows) {
+    return new MockResult(tableName, columnNames, Arrays.asList(rows));
+  }
+}
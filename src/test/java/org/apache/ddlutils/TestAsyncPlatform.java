@@ -0,0 +1,370 @@
+package org.apache.ddlutils;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.data.RowObject;
+import org.apache.ddlutils.io.DatabaseIO;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.platform.TestPlatform;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the {@link AsyncPlatform} class.
+ *
+ * @version $Revision: $
+ */
+public class TestAsyncPlatform extends TestBase {
+  /**
+   * The test model.
+   */
+  private static final String TEST_MODEL =
+    "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+      "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='test'>\n" +
+      "  <table name='table1'>\n" +
+      "    <column name='pk' type='INTEGER' primaryKey='true' required='true'/>\n" +
+      "  </table>\n" +
+      "</database>";
+
+  /**
+   * The mocked database.
+   */
+  private final MockDatabase _database = new MockDatabase();
+  /**
+   * Counted down when a statement starts executing.
+   */
+  private CountDownLatch _executing;
+  /**
+   * Counted down when a statement is cancelled; executing statements wait for it if set.
+   */
+  private CountDownLatch _cancelled;
+  /**
+   * The tasks handed to the manual executor.
+   */
+  private final List<Runnable> _tasks = new ArrayList<>();
+  /**
+   * The platform.
+   */
+  private Platform _platform;
+
+  /**
+   * Creates the platform with the mock data source.
+   */
+  @Before
+  public void setUp() {
+    _platform = new TestPlatform();
+    _platform.setDataSource(_database.getDataSource());
+    // updates wait for being cancelled if requested
+    _database.setUpdateHandler((sql, parameters) -> {
+      if (_cancelled != null) {
+        _executing.countDown();
+        try {
+          if (!_cancelled.await(10, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("The statement has not been cancelled");
+          }
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        }
+        throw new SQLException("Statement cancelled");
+      }
+      return 1;
+    });
+    _database.setCancelHandler(() -> {
+      if (_cancelled != null) {
+        _cancelled.countDown();
+      }
+    });
+  }
+
+  /**
+   * Creates a row of the test table.
+   *
+   * @param model The model
+   * @param pk    The primary key value
+   * @return The row
+   */
+  private RowObject createRow(Database model, int pk) {
+    RowObject row = model.createRowObjectFor(model.findTable("table1"));
+
+    row.set("pk", pk);
+    return row;
+  }
+
+  /**
+   * Tests that operations beyond the maximum concurrency wait without being handed to the
+   * executor, and that each operation uses and returns its own connection.
+   */
+  @Test
+  public void testBoundedConcurrency() throws Exception {
+    Database model = parseDatabaseFromString(TEST_MODEL);
+    AsyncPlatform asyncPlatform = new AsyncPlatform(_platform, _tasks::add, 1);
+    CompletableFuture<Void> future1 = asyncPlatform.insertAsync(model, createRow(model, 1));
+    CompletableFuture<Void> future2 = asyncPlatform.insertAsync(model, createRow(model, 2));
+
+    assertEquals(1, _tasks.size());
+    assertEquals(1, asyncPlatform.getRunningCount());
+    assertEquals(1, asyncPlatform.getPendingCount());
+
+    _tasks.remove(0).run();
+    assertTrue(future1.isDone());
+    assertFalse(future2.isDone());
+    assertEquals(1, _tasks.size());
+    assertEquals(0, asyncPlatform.getPendingCount());
+
+    _tasks.remove(0).run();
+    future2.get();
+    assertEquals(0, asyncPlatform.getRunningCount());
+    assertEquals(2, _database.getConnections().size());
+    assertEquals(0, _database.getOpenConnectionCount());
+  }
+
+  /**
+   * Tests that errors of an operation complete the future exceptionally.
+   */
+  @Test
+  public void testFailure() throws Exception {
+    AsyncPlatform asyncPlatform = new AsyncPlatform(_platform, _tasks::add, 1);
+    CompletableFuture<Object> future = asyncPlatform.executeAsync(connection -> {
+      throw new DatabaseOperationException("failed");
+    });
+
+    _tasks.remove(0).run();
+    try {
+      future.get();
+      fail();
+    } catch (ExecutionException ex) {
+      assertTrue(ex.getCause() instanceof DatabaseOperationException);
+    }
+    assertEquals(0, asyncPlatform.getRunningCount());
+    assertEquals(0, _database.getOpenConnectionCount());
+  }
+
+  /**
+   * Tests that operations cancelled before they started are skipped.
+   */
+  @Test
+  public void testCancelPendingOperation() {
+    Database model = parseDatabaseFromString(TEST_MODEL);
+    AsyncPlatform asyncPlatform = new AsyncPlatform(_platform, _tasks::add, 1);
+
+    asyncPlatform.insertAsync(model, createRow(model, 1));
+
+    CompletableFuture<Void> future = asyncPlatform.insertAsync(model, createRow(model, 2));
+
+    assertTrue(future.cancel(true));
+    _tasks.remove(0).run();
+    _tasks.remove(0).run();
+    assertEquals(1, _database.getConnections().size());
+    assertEquals(0, asyncPlatform.getRunningCount());
+  }
+
+  /**
+   * Tests that cancelling a running operation cancels its statement and returns its connection.
+   */
+  @Test
+  public void testCancelRunningOperation() throws Exception {
+    Database model = parseDatabaseFromString(TEST_MODEL);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    AsyncPlatform asyncPlatform = new AsyncPlatform(_platform, executor, 1);
+
+    _executing = new CountDownLatch(1);
+    _cancelled = new CountDownLatch(1);
+
+    CompletableFuture<Void> future = asyncPlatform.insertAsync(model, createRow(model, 1));
+
+    assertTrue(_executing.await(10, TimeUnit.SECONDS));
+    assertTrue(future.cancel(true));
+    assertEquals(0, _cancelled.getCount());
+    try {
+      future.join();
+      fail();
+    } catch (CancellationException ex) {
+      // expected
+    }
+    for (int idx = 0; (idx < 100) && (asyncPlatform.getRunningCount() > 0); idx++) {
+      Thread.sleep(10);
+    }
+    executor.shutdown();
+    assertEquals(0, asyncPlatform.getRunningCount());
+    assertEquals(0, _database.getOpenConnectionCount());
+  }
+
+  /**
+   * A platform that records how many schema operations run at the same time. Reading a model
+   * waits for the given latch, if any.
+   */
+  private static class SchemaRecordingPlatform extends TestPlatform {
+    /**
+     * The number of schema operations that currently run.
+     */
+    private final AtomicInteger _activeCount = new AtomicInteger();
+    /**
+     * The maximum number of schema operations that ran at the same time.
+     */
+    private final AtomicInteger _maxActiveCount = new AtomicInteger();
+    /**
+     * The current models passed to the alterations.
+     */
+    private final List<Database> _alteredModels = Collections.synchronizedList(new ArrayList<>());
+    /**
+     * The latch that the model reading waits for, if any.
+     */
+    private volatile CountDownLatch _readLatch;
+
+    /**
+     * Records the start of a schema operation.
+     */
+    private void start() {
+      _maxActiveCount.accumulateAndGet(_activeCount.incrementAndGet(), Math::max);
+    }
+
+    /**
+     * Lets the current thread sleep a bit so that overlapping operations are likely.
+     */
+    private void pause() {
+      try {
+        Thread.sleep(20);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Database readModelFromDatabase(Connection connection, String name) {
+      start();
+      try {
+        CountDownLatch latch = _readLatch;
+
+        if (latch != null) {
+          if (!latch.await(10, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("The read has not been released");
+          }
+        } else {
+          pause();
+        }
+        return new Database(name);
+      } catch (InterruptedException ex) {
+        throw new DatabaseOperationException(ex);
+      } finally {
+        _activeCount.decrementAndGet();
+      }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void alterModel(Connection connection, Database currentModel, Database desiredModel, boolean continueOnError) {
+      start();
+      try {
+        pause();
+        _alteredModels.add(currentModel);
+      } finally {
+        _activeCount.decrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Tests that model reads and alterations submitted concurrently are executed one after the other.
+   */
+  @Test
+  public void testSchemaOperationsSerialized() throws Exception {
+    SchemaRecordingPlatform platform = new SchemaRecordingPlatform();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    AsyncPlatform asyncPlatform = new AsyncPlatform(platform, executor, 4);
+    List<CompletableFuture<?>> futures = new ArrayList<>();
+
+    platform.setDataSource(_database.getDataSource());
+    try {
+      for (int idx = 0; idx < 3; idx++) {
+        futures.add(asyncPlatform.readModelFromDatabaseAsync("model" + idx));
+        futures.add(asyncPlatform.alterTablesAsync(parseDatabaseFromString(TEST_MODEL), false));
+      }
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+    assertEquals("model1", ((Database) futures.get(2).get()).getName());
+    assertEquals(1, platform._maxActiveCount.get());
+    assertEquals(3, platform._alteredModels.size());
+    assertEquals("test", platform._alteredModels.get(0).getName());
+    assertEquals(0, asyncPlatform.getRunningCount());
+    assertEquals(0, _database.getOpenConnectionCount());
+  }
+
+  /**
+   * Tests that waiting schema operations occupy neither an executor thread nor a connection,
+   * and that other operations run while a schema operation is running.
+   */
+  @Test
+  public void testOperationsDuringSchemaOperation() throws Exception {
+    SchemaRecordingPlatform platform = new SchemaRecordingPlatform();
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    AsyncPlatform asyncPlatform = new AsyncPlatform(platform, executor, 2);
+    Database model = parseDatabaseFromString(TEST_MODEL);
+
+    platform.setDataSource(_database.getDataSource());
+    platform._readLatch = new CountDownLatch(1);
+    try {
+      CompletableFuture<Database> read1 = asyncPlatform.readModelFromDatabaseAsync("model1");
+      CompletableFuture<Database> read2 = asyncPlatform.readModelFromDatabaseAsync("model2");
+
+      assertEquals(1, asyncPlatform.getPendingCount());
+      for (int idx = 0; (idx < 100) && (platform._activeCount.get() == 0); idx++) {
+        Thread.sleep(10);
+      }
+      asyncPlatform.insertAsync(model, createRow(model, 1)).get(10, TimeUnit.SECONDS);
+      assertFalse(read1.isDone());
+      assertEquals(2, _database.getConnections().size());
+
+      platform._readLatch.countDown();
+      assertEquals("model1", read1.get(10, TimeUnit.SECONDS).getName());
+      assertEquals("model2", read2.get(10, TimeUnit.SECONDS).getName());
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(1, platform._maxActiveCount.get());
+    assertEquals(3, _database.getConnections().size());
+  }
+}
@@ -20,12 +20,16 @@ package org.apache.ddlutils;
  */
 
 import org.apache.ddlutils.io.DatabaseIO;
+import org.apache.ddlutils.model.Column;
 import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.Table;
 import org.apache.ddlutils.platform.SqlBuilder;
 import org.apache.ddlutils.util.DatabaseTestHelper;
 
 import java.io.IOException;
 import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * Base class for builder tests.
@@ -258,6 +262,60 @@ public abstract class TestPlatformBase extends TestBase {
     return getDatabaseCreationSql(schema);
   }
 
+  /**
+   * Returns the SQL to disable and then to enable again the foreign keys of a test database
+   * with two foreign keys.
+   *
+   * @return The SQL
+   */
+  protected String getForeignKeyDisablingTestSql() throws IOException {
+    final String schema =
+      "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+        "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='fktest'>\n" +
+        "  <table name='parent'>\n" +
+        "    <column name='COL_PK' type='INTEGER' primaryKey='true' required='true'/>\n" +
+        "  </table>\n" +
+        "  <table name='child'>\n" +
+        "    <column name='COL_PK' type='INTEGER' primaryKey='true' required='true'/>\n" +
+        "    <column name='COL_FK_1' type='INTEGER'/>\n" +
+        "    <column name='COL_FK_2' type='INTEGER'/>\n" +
+        "    <foreign-key foreignTable='parent' name='child_fk_1'>\n" +
+        "      <reference local='COL_FK_1' foreign='COL_PK'/>\n" +
+        "    </foreign-key>\n" +
+        "    <foreign-key foreignTable='parent' name='child_fk_2'>\n" +
+        "      <reference local='COL_FK_2' foreign='COL_PK'/>\n" +
+        "    </foreign-key>\n" +
+        "  </table>\n" +
+        "</database>";
+    Database testDb = parseDatabaseFromString(schema);
+
+    getSqlBuilder().disableForeignKeys(testDb);
+    getSqlBuilder().enableForeignKeys(testDb);
+    return getBuilderOutput();
+  }
+
+  /**
+   * Returns the upsert SQL for a test table with a composite primary key and two other columns.
+   *
+   * @param parameterColumns Receives the columns bound to the placeholders
+   * @return The SQL
+   */
+  protected String getUpsertTestSql(List<Column> parameterColumns) {
+    final String schema =
+      "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+        "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='upserttest'>\n" +
+        "  <table name='upsert'>\n" +
+        "    <column name='COL_PK_1' type='INTEGER' primaryKey='true' required='true'/>\n" +
+        "    <column name='COL_PK_2' type='VARCHAR' size='16' primaryKey='true' required='true'/>\n" +
+        "    <column name='COL_TEXT' type='VARCHAR' size='32'/>\n" +
+        "    <column name='COL_NUM' type='INTEGER'/>\n" +
+        "  </table>\n" +
+        "</database>";
+    Table table = parseDatabaseFromString(schema).getTable(0);
+
+    return getSqlBuilder().getUpsertSql(table, Arrays.asList(table.getColumns()), parameterColumns);
+  }
+
   /**
    * 读取指定类相同包名下的指定名称的文件文本内容
    *
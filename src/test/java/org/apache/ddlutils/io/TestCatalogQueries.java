@@ -0,0 +1,140 @@
+package org.apache.ddlutils.io;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.TestAgainstLiveDatabaseBase;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.platform.BuiltinDriverType;
+import org.apache.ddlutils.platform.JdbcModelReader;
+import org.junit.Test;
+
+/**
+ * Tests that reading the model via the platform-specific catalog queries results in the
+ * same model as reading it via the JDBC metadata.
+ *
+ * @version $Revision: $
+ */
+public class TestCatalogQueries extends TestAgainstLiveDatabaseBase {
+  /**
+   * Determines whether the current platform has catalog queries.
+   *
+   * @return <code>true</code> if the model reader of the platform supports catalog queries
+   */
+  private boolean isCatalogQueriesSupported() {
+    return BuiltinDriverType.POSTGRE_SQL.getName().equals(getPlatform().getName()) ||
+      BuiltinDriverType.MYSQL.getName().equals(getPlatform().getName()) ||
+      BuiltinDriverType.MYSQL5X.getName().equals(getPlatform().getName()) ||
+      BuiltinDriverType.MYSQL8X.getName().equals(getPlatform().getName());
+  }
+
+  /**
+   * Reads the model with and without the catalog queries and compares the results.
+   */
+  private void assertCatalogQueriesReadSameModel() {
+    JdbcModelReader reader = getPlatform().getModelReader();
+    Database metaDataModel;
+    Database catalogModel;
+
+    reader.setCatalogQueriesUsed(false);
+    metaDataModel = readModelFromDatabase("roundtriptest");
+    try {
+      reader.setCatalogQueriesUsed(true);
+      catalogModel = readModelFromDatabase("roundtriptest");
+    } finally {
+      reader.setCatalogQueriesUsed(false);
+    }
+
+    assertEquals(getAdjustedModel(), catalogModel);
+    assertEquals(metaDataModel, catalogModel, true);
+  }
+
+  /**
+   * Tests the catalog queries for tables with various column types, defaults and nullability.
+   */
+  @Test
+  public void testColumns() {
+    if (!isCatalogQueriesSupported()) {
+      return;
+    }
+
+    final String modelXml =
+      "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+        "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='roundtriptest'>\n" +
+        "  <table name='roundtrip1'>\n" +
+        "    <column name='pk' type='INTEGER' primaryKey='true' required='true' autoIncrement='true'/>\n" +
+        "    <column name='avalue1' type='VARCHAR' size='32' required='true' default='some text'/>\n" +
+        "    <column name='avalue2' type='DECIMAL' size='15,3' default='-1.5'/>\n" +
+        "    <column name='avalue3' type='CHAR' size='8'/>\n" +
+        "    <column name='avalue4' type='BIGINT' default='-9000000000000000000'/>\n" +
+        "    <column name='avalue5' type='LONGVARCHAR'/>\n" +
+        "    <column name='avalue6' type='TIMESTAMP'/>\n" +
+        "    <column name='avalue7' type='DOUBLE'/>\n" +
+        "  </table>\n" +
+        "  <table name='roundtrip2'>\n" +
+        "    <column name='pk1' type='VARCHAR' size='16' primaryKey='true' required='true'/>\n" +
+        "    <column name='pk2' type='INTEGER' primaryKey='true' required='true'/>\n" +
+        "    <column name='avalue' type='SMALLINT'/>\n" +
+        "  </table>\n" +
+        "</database>";
+
+    createDatabase(modelXml);
+    assertCatalogQueriesReadSameModel();
+  }
+
+  /**
+   * Tests the catalog queries for foreign keys and indices.
+   */
+  @Test
+  public void testForeignKeysAndIndices() {
+    if (!isCatalogQueriesSupported()) {
+      return;
+    }
+
+    final String modelXml =
+      "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+        "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='roundtriptest'>\n" +
+        "  <table name='roundtrip1'>\n" +
+        "    <column name='pk1' type='INTEGER' primaryKey='true' required='true'/>\n" +
+        "    <column name='pk2' type='VARCHAR' size='16' primaryKey='true' required='true'/>\n" +
+        "    <column name='avalue1' type='INTEGER'/>\n" +
+        "    <column name='avalue2' type='VARCHAR' size='32'/>\n" +
+        "    <unique name='testunique'>\n" +
+        "      <unique-column name='avalue2'/>\n" +
+        "    </unique>\n" +
+        "    <index name='testindex'>\n" +
+        "      <index-column name='avalue2'/>\n" +
+        "      <index-column name='avalue1'/>\n" +
+        "    </index>\n" +
+        "  </table>\n" +
+        "  <table name='roundtrip2'>\n" +
+        "    <column name='pk' type='INTEGER' primaryKey='true' required='true'/>\n" +
+        "    <column name='fk1' type='INTEGER'/>\n" +
+        "    <column name='fk2' type='VARCHAR' size='16'/>\n" +
+        "    <foreign-key name='testfk' foreignTable='roundtrip1' onDelete='cascade'>\n" +
+        "      <reference local='fk1' foreign='pk1'/>\n" +
+        "      <reference local='fk2' foreign='pk2'/>\n" +
+        "    </foreign-key>\n" +
+        "  </table>\n" +
+        "</database>";
+
+    createDatabase(modelXml);
+    assertCatalogQueriesReadSameModel();
+  }
+}
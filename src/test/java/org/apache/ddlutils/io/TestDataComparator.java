@@ -0,0 +1,425 @@
+package org.apache.ddlutils.io;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.DdlUtilsException;
+import org.apache.ddlutils.MockDatabase;
+import org.apache.ddlutils.Platform;
+import org.apache.ddlutils.TestBase;
+import org.apache.ddlutils.data.RowObject;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.Table;
+import org.apache.ddlutils.platform.TestPlatform;
+import org.apache.ddlutils.util.PooledDataSource;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the {@link DataComparator} class.
+ *
+ * @version $Revision: $
+ */
+public class TestDataComparator extends TestBase {
+  /**
+   * The model of the source database.
+   */
+  private static final String SOURCE_MODEL =
+    "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+      "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='source'>\n" +
+      "  <table name='table1'>\n" +
+      "    <column name='pk' type='INTEGER' primaryKey='true' required='true'/>\n" +
+      "    <column name='avalue' type='VARCHAR' size='32'/>\n" +
+      "    <column name='anumber' type='INTEGER'/>\n" +
+      "  </table>\n" +
+      "  <table name='table2'>\n" +
+      "    <column name='pk' type='INTEGER' primaryKey='true' required='true'/>\n" +
+      "  </table>\n" +
+      "</database>";
+
+  /**
+   * The model of the target database, which has an additional column.
+   */
+  private static final String TARGET_MODEL =
+    "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+      "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='target'>\n" +
+      "  <table name='table1'>\n" +
+      "    <column name='pk' type='INTEGER' primaryKey='true' required='true'/>\n" +
+      "    <column name='avalue' type='VARCHAR' size='32'/>\n" +
+      "    <column name='anumber' type='INTEGER'/>\n" +
+      "    <column name='extra' type='VARCHAR' size='32'/>\n" +
+      "  </table>\n" +
+      "  <table name='table2'>\n" +
+      "    <column name='pk' type='INTEGER' primaryKey='true' required='true'/>\n" +
+      "  </table>\n" +
+      "</database>";
+
+  /**
+   * A model where the first table references the second one.
+   */
+  private static final String FK_MODEL =
+    "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+      "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='fk'>\n" +
+      "  <table name='child'>\n" +
+      "    <column name='pk' type='INTEGER' primaryKey='true' required='true'/>\n" +
+      "    <column name='parentpk' type='INTEGER'/>\n" +
+      "    <foreign-key foreignTable='parent'>\n" +
+      "      <reference local='parentpk' foreign='pk'/>\n" +
+      "    </foreign-key>\n" +
+      "  </table>\n" +
+      "  <table name='parent'>\n" +
+      "    <column name='pk' type='INTEGER' primaryKey='true' required='true'/>\n" +
+      "  </table>\n" +
+      "</database>";
+
+  /**
+   * Records the reported operations.
+   */
+  private static class RecordingListener implements DataDiffListener {
+    /**
+     * The operations as strings of the form <code>kind table pk</code>.
+     */
+    private final List<String> _operations = Collections.synchronizedList(new ArrayList<>());
+    /**
+     * The updated rows.
+     */
+    private final List<RowObject> _updatedRows = Collections.synchronizedList(new ArrayList<>());
+    /**
+     * The tables that have been completed.
+     */
+    private final List<String> _completedTables = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void insert(RowObject row) {
+      _operations.add("insert " + row.getTableClass().getTableName() + " " + row.get("pk"));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void update(RowObject row) {
+      _operations.add("update " + row.getTableClass().getTableName() + " " + row.get("pk"));
+      _updatedRows.add(row);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void delete(RowObject row) {
+      _operations.add("delete " + row.getTableClass().getTableName() + " " + row.get("pk"));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endTable(Table table, boolean completed) {
+      if (completed) {
+        _completedTables.add(table.getName());
+      }
+    }
+  }
+
+  /**
+   * Creates a platform whose queries of the form <code>SELECT columns FROM table ORDER BY keys</code>
+   * return the given rows of the queried table. The rows must contain the values of all queried columns.
+   *
+   * @param rows The rows per table
+   * @return The platform
+   */
+  private Platform createPlatform(Map<String, List<Map<String, Object>>> rows) {
+    MockDatabase database = new MockDatabase();
+    Platform platform = new TestPlatform();
+
+    database.setQueryHandler((sql, parameters) -> {
+      List<String> columns = Arrays.asList(sql.substring("SELECT ".length(), sql.indexOf(" FROM ")).split(", "));
+      String tableName = sql.substring(sql.indexOf(" FROM ") + " FROM ".length(), sql.indexOf(" ORDER BY "));
+      List<Object[]> result = new ArrayList<>();
+
+      for (Map<String, Object> row : rows.getOrDefault(tableName, Collections.emptyList())) {
+        result.add(columns.stream().map(row::get).toArray());
+      }
+      return new MockDatabase.MockResult(tableName, columns, result);
+    });
+    platform.setDataSource(database.getDataSource());
+    return platform;
+  }
+
+  /**
+   * Creates a row of the first table.
+   *
+   * @param pk      The primary key value
+   * @param avalue  The text value
+   * @param anumber The number value
+   * @return The row
+   */
+  private Map<String, Object> row(int pk, String avalue, Integer anumber) {
+    Map<String, Object> row = new LinkedHashMap<>();
+
+    row.put("pk", pk);
+    row.put("avalue", avalue);
+    row.put("anumber", anumber);
+    return row;
+  }
+
+  /**
+   * Creates a row of the second table.
+   *
+   * @param pk The primary key value
+   * @return The row
+   */
+  private Map<String, Object> row(int pk) {
+    return Collections.singletonMap("pk", pk);
+  }
+
+  /**
+   * Creates a row of the referencing table.
+   *
+   * @param pk       The primary key value
+   * @param parentpk The primary key value of the referenced row
+   * @return The row
+   */
+  private Map<String, Object> childRow(int pk, Integer parentpk) {
+    Map<String, Object> row = new LinkedHashMap<>();
+
+    row.put("pk", pk);
+    row.put("parentpk", parentpk);
+    return row;
+  }
+
+  /**
+   * Creates the comparator for the tables with the foreign key, where the target database
+   * contains rows to delete in both tables.
+   *
+   * @return The comparator
+   */
+  private DataComparator createFkComparator() {
+    Map<String, List<Map<String, Object>>> sourceRows = new HashMap<>();
+    Map<String, List<Map<String, Object>>> targetRows = new HashMap<>();
+
+    sourceRows.put("parent", Arrays.asList(row(1), row(2)));
+    sourceRows.put("child", Collections.singletonList(childRow(10, 1)));
+    targetRows.put("parent", Collections.singletonList(row(3)));
+    targetRows.put("child", Collections.singletonList(childRow(11, 3)));
+    return new DataComparator(createPlatform(sourceRows), parseDatabaseFromString(FK_MODEL),
+      createPlatform(targetRows), parseDatabaseFromString(FK_MODEL));
+  }
+
+  /**
+   * Creates the comparator for the given rows.
+   *
+   * @param sourceRows The rows of the source database
+   * @param targetRows The rows of the target database
+   * @return The comparator
+   */
+  private DataComparator createComparator(Map<String, List<Map<String, Object>>> sourceRows,
+                                          Map<String, List<Map<String, Object>>> targetRows) {
+    return new DataComparator(createPlatform(sourceRows), parseDatabaseFromString(SOURCE_MODEL),
+      createPlatform(targetRows), parseDatabaseFromString(TARGET_MODEL));
+  }
+
+  /**
+   * Tests that the minimal operations are determined.
+   */
+  @Test
+  public void testCompareTable() {
+    Map<String, List<Map<String, Object>>> sourceRows = new HashMap<>();
+    Map<String, List<Map<String, Object>>> targetRows = new HashMap<>();
+
+    sourceRows.put("table1", Arrays.asList(row(1, "a", 1), row(2, "b", 2), row(3, "c", 3), row(5, "e", null)));
+    targetRows.put("table1", Arrays.asList(row(1, "a", 1), row(2, "x", 2), row(4, "d", 4), row(5, "e", null)));
+
+    DataComparator comparator = createComparator(sourceRows, targetRows);
+    RecordingListener listener = new RecordingListener();
+    Table table = parseDatabaseFromString(SOURCE_MODEL).findTable("table1");
+
+    assertEquals(3, comparator.compareTable(table, listener));
+    assertEquals(Arrays.asList("update table1 2", "insert table1 3", "delete table1 4"), listener._operations);
+    assertEquals(Collections.singleton("avalue"), listener._updatedRows.get(0).getChangedProperties());
+    assertEquals("b", listener._updatedRows.get(0).get("avalue"));
+    assertEquals(Collections.singletonList("table1"), listener._completedTables);
+  }
+
+  /**
+   * Tests that the comparison fails if the rows are not ordered as expected.
+   */
+  @Test
+  public void testInconsistentOrder() {
+    Map<String, List<Map<String, Object>>> sourceRows = new HashMap<>();
+
+    sourceRows.put("table2", Arrays.asList(row(2), row(1)));
+
+    DataComparator comparator = createComparator(sourceRows, new HashMap<>());
+    RecordingListener listener = new RecordingListener();
+
+    try {
+      comparator.compareTable(parseDatabaseFromString(SOURCE_MODEL).findTable("table2"), listener);
+      fail();
+    } catch (DdlUtilsException ex) {
+      // expected
+    }
+    assertTrue(listener._completedTables.isEmpty());
+  }
+
+  /**
+   * Tests that all tables can be compared concurrently.
+   */
+  @Test
+  public void testParallelCompare() {
+    Map<String, List<Map<String, Object>>> sourceRows = new HashMap<>();
+    Map<String, List<Map<String, Object>>> targetRows = new HashMap<>();
+
+    sourceRows.put("table1", Arrays.asList(row(1, "a", 1), row(2, "b", 2)));
+    sourceRows.put("table2", Arrays.asList(row(1), row(2), row(3)));
+    targetRows.put("table2", Collections.singletonList(row(2)));
+
+    DataComparator comparator = createComparator(sourceRows, targetRows);
+    RecordingListener listener = new RecordingListener();
+
+    comparator.setParallelism(2);
+    assertEquals(4, comparator.compare(listener));
+    assertEquals(2, listener._completedTables.size());
+    assertTrue(listener._operations.contains("insert table2 3"));
+    assertFalse(listener._operations.contains("insert table2 2"));
+  }
+
+  /**
+   * Tests that the script only updates the differing columns.
+   */
+  @Test
+  public void testSqlWriter() {
+    Map<String, List<Map<String, Object>>> sourceRows = new HashMap<>();
+    Map<String, List<Map<String, Object>>> targetRows = new HashMap<>();
+
+    sourceRows.put("table1", Arrays.asList(row(1, "a", 10), row(2, "b", 2)));
+    targetRows.put("table1", Arrays.asList(row(1, "a", 1), row(3, "c", 3)));
+
+    Database targetModel = parseDatabaseFromString(TARGET_MODEL);
+    Platform targetPlatform = createPlatform(targetRows);
+    DataComparator comparator = new DataComparator(createPlatform(sourceRows), parseDatabaseFromString(SOURCE_MODEL),
+      targetPlatform, targetModel);
+    StringWriter writer = new StringWriter();
+
+    comparator.compare(new DataDiffSqlWriter(targetPlatform, targetModel, writer));
+
+    String[] statements = writer.toString().trim().split(System.lineSeparator());
+
+    assertEquals(3, statements.length);
+    assertTrue(statements[0], statements[0].startsWith("UPDATE table1 SET anumber = '10' WHERE"));
+    assertTrue(statements[1], statements[1].startsWith("INSERT INTO table1"));
+    assertTrue(statements[2], statements[2].startsWith("DELETE FROM table1 WHERE"));
+  }
+
+  /**
+   * Tests that inserts are reported for referenced tables first, and deletes for referencing
+   * tables first.
+   */
+  @Test
+  public void testFkOrder() {
+    DataComparator comparator = createFkComparator();
+    RecordingListener listener = new RecordingListener();
+
+    assertEquals(5, comparator.compare(listener));
+    assertEquals(Arrays.asList("insert parent 1", "insert parent 2", "insert child 10", "delete child 11", "delete parent 3"),
+      listener._operations);
+    assertEquals(Arrays.asList("parent", "child", "parent"), listener._completedTables);
+  }
+
+  /**
+   * Tests that the foreign key order is kept when comparing tables concurrently.
+   */
+  @Test
+  public void testFkOrderWithParallelism() {
+    DataComparator comparator = createFkComparator();
+    RecordingListener listener = new RecordingListener();
+
+    comparator.setParallelism(2);
+    assertEquals(5, comparator.compare(listener));
+    assertEquals(5, listener._operations.size());
+    assertTrue(listener._operations.indexOf("insert parent 2") < listener._operations.indexOf("insert child 10"));
+    assertTrue(listener._operations.indexOf("delete child 11") < listener._operations.indexOf("delete parent 3"));
+  }
+
+  /**
+   * Tests that all operations of a table are reported in one pass in model order if the foreign
+   * key order is not ensured.
+   */
+  @Test
+  public void testWithoutFkOrder() {
+    DataComparator comparator = createFkComparator();
+    RecordingListener listener = new RecordingListener();
+
+    comparator.setEnsureFkOrder(false);
+    assertEquals(5, comparator.compare(listener));
+    assertEquals(Arrays.asList("insert child 10", "delete child 11", "insert parent 1", "insert parent 2", "delete parent 3"),
+      listener._operations);
+    assertEquals(Arrays.asList("child", "parent"), listener._completedTables);
+  }
+
+  /**
+   * Tests that the parallelism is limited by the maximum size of the connection pools.
+   */
+  @Test
+  public void testEffectiveParallelism() {
+    PooledDataSource sharedPool = new PooledDataSource(null, "jdbc:mock:shared", null, null);
+    PooledDataSource sourcePool = new PooledDataSource(null, "jdbc:mock:source", null, null);
+    PooledDataSource targetPool = new PooledDataSource(null, "jdbc:mock:target", null, null);
+    Platform sourcePlatform = new TestPlatform();
+    Platform targetPlatform = new TestPlatform();
+    DataComparator comparator = new DataComparator(sourcePlatform, parseDatabaseFromString(SOURCE_MODEL),
+      targetPlatform, parseDatabaseFromString(TARGET_MODEL));
+
+    comparator.setParallelism(4);
+    sourcePlatform.setDataSource(new MockDatabase().getDataSource());
+    targetPlatform.setDataSource(new MockDatabase().getDataSource());
+    assertEquals(4, comparator.getEffectiveParallelism());
+
+    sharedPool.setMaxSize(7);
+    sourcePlatform.setDataSource(sharedPool);
+    targetPlatform.setDataSource(sharedPool);
+    assertEquals(2, comparator.getEffectiveParallelism());
+
+    sourcePool.setMaxSize(3);
+    targetPool.setMaxSize(10);
+    sourcePlatform.setDataSource(sourcePool);
+    targetPlatform.setDataSource(targetPool);
+    assertEquals(3, comparator.getEffectiveParallelism());
+
+    targetPool.setMaxSize(1);
+    assertEquals(1, comparator.getEffectiveParallelism());
+  }
+}
@@ -0,0 +1,297 @@
+package org.apache.ddlutils.io;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.DdlUtilsException;
+import org.apache.ddlutils.MockDatabase;
+import org.apache.ddlutils.Platform;
+import org.apache.ddlutils.TestBase;
+import org.apache.ddlutils.model.Table;
+import org.apache.ddlutils.platform.TestPlatform;
+import org.apache.ddlutils.util.PooledDataSource;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the {@link DataCopier} class.
+ *
+ * @version $Revision: $
+ */
+public class TestDataCopier extends TestBase {
+  /**
+   * The model of the source database.
+   */
+  private static final String SOURCE_MODEL =
+    "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+      "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='source'>\n" +
+      "  <table name='child'>\n" +
+      "    <column name='pk' type='INTEGER' primaryKey='true' required='true'/>\n" +
+      "    <column name='parentpk' type='INTEGER'/>\n" +
+      "    <column name='flag' type='INTEGER'/>\n" +
+      "    <foreign-key foreignTable='parent'>\n" +
+      "      <reference local='parentpk' foreign='pk'/>\n" +
+      "    </foreign-key>\n" +
+      "  </table>\n" +
+      "  <table name='parent'>\n" +
+      "    <column name='pk' type='INTEGER' primaryKey='true' required='true'/>\n" +
+      "    <column name='avalue' type='VARCHAR' size='32'/>\n" +
+      "  </table>\n" +
+      "  <table name='other'>\n" +
+      "    <column name='pk' type='INTEGER' primaryKey='true' required='true'/>\n" +
+      "  </table>\n" +
+      "</database>";
+
+  /**
+   * The model of the target database, which has a differently typed column.
+   */
+  private static final String TARGET_MODEL =
+    "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+      "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='target'>\n" +
+      "  <table name='child'>\n" +
+      "    <column name='pk' type='INTEGER' primaryKey='true' required='true'/>\n" +
+      "    <column name='parentpk' type='INTEGER'/>\n" +
+      "    <column name='flag' type='VARCHAR' size='8'/>\n" +
+      "    <foreign-key foreignTable='parent'>\n" +
+      "      <reference local='parentpk' foreign='pk'/>\n" +
+      "    </foreign-key>\n" +
+      "  </table>\n" +
+      "  <table name='parent'>\n" +
+      "    <column name='pk' type='INTEGER' primaryKey='true' required='true'/>\n" +
+      "    <column name='avalue' type='VARCHAR' size='32'/>\n" +
+      "  </table>\n" +
+      "  <table name='other'>\n" +
+      "    <column name='pk' type='INTEGER' primaryKey='true' required='true'/>\n" +
+      "  </table>\n" +
+      "</database>";
+
+  /**
+   * Records the reported progress.
+   */
+  private static class RecordingListener implements DataCopyListener {
+    /**
+     * The events as strings of the form <code>kind table count</code>.
+     */
+    private final List<String> _events = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableStarted(Table table) {
+      _events.add("start " + table.getName());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void progress(Table table, long rowCount, long elapsedMillis) {
+      _events.add("progress " + table.getName() + " " + rowCount);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void tableFinished(Table table, long rowCount, long elapsedMillis, boolean completed) {
+      _events.add((completed ? "end " : "abort ") + table.getName() + " " + rowCount);
+    }
+  }
+
+  /**
+   * Creates a platform whose queries of the form <code>SELECT columns FROM table</code> return
+   * the given rows of the queried table.
+   *
+   * @param rows The rows per table, with the values in the order of the columns in the model
+   * @return The platform
+   */
+  private Platform createSourcePlatform(Map<String, List<Object[]>> rows) {
+    MockDatabase database = new MockDatabase();
+    Platform platform = new TestPlatform();
+
+    database.setQueryHandler((sql, parameters) -> {
+      List<String> columns = Arrays.asList(sql.substring("SELECT ".length(), sql.indexOf(" FROM ")).split(", "));
+      String tableName = sql.substring(sql.indexOf(" FROM ") + " FROM ".length());
+
+      if ("broken".equals(tableName)) {
+        throw new SQLException("Table broken cannot be read");
+      }
+      return new MockDatabase.MockResult(tableName, columns, rows.getOrDefault(tableName, Collections.emptyList()));
+    });
+    platform.setDataSource(database.getDataSource());
+    return platform;
+  }
+
+  /**
+   * Creates a platform that writes to the given database.
+   *
+   * @param database The mocked target database
+   * @return The platform
+   */
+  private Platform createTargetPlatform(MockDatabase database) {
+    Platform platform = new TestPlatform();
+
+    platform.setDataSource(database.getDataSource());
+    return platform;
+  }
+
+  /**
+   * Returns the rows inserted into the given database.
+   *
+   * @param database The mocked target database
+   * @return The rows as strings of the form <code>table: values</code>
+   */
+  private List<String> getInserts(MockDatabase database) {
+    List<String> result = new ArrayList<>();
+
+    for (int idx = 0; idx < database.getExecutedSql().size(); idx++) {
+      String sql = database.getExecutedSql().get(idx);
+
+      result.add(sql.substring("INSERT INTO ".length(), sql.indexOf(' ', "INSERT INTO ".length())) + ": " +
+        database.getExecutedParameters().get(idx));
+    }
+    return result;
+  }
+
+  /**
+   * Creates the source rows used by the tests.
+   *
+   * @return The rows per table
+   */
+  private Map<String, List<Object[]>> createSourceRows() {
+    Map<String, List<Object[]>> rows = new HashMap<>();
+
+    rows.put("parent", Arrays.asList(new Object[]{1, "a"}, new Object[]{2, null}, new Object[]{3, "c"}));
+    rows.put("child", Arrays.asList(new Object[]{10, 1, 7}, new Object[]{11, null, null}));
+    rows.put("other", Collections.singletonList(new Object[]{100}));
+    return rows;
+  }
+
+  /**
+   * Tests that all rows are copied with referenced tables copied first.
+   */
+  @Test
+  public void testCopy() {
+    MockDatabase targetDatabase = new MockDatabase();
+    DataCopier copier = new DataCopier(createSourcePlatform(createSourceRows()), parseDatabaseFromString(SOURCE_MODEL),
+      createTargetPlatform(targetDatabase), parseDatabaseFromString(TARGET_MODEL));
+    RecordingListener listener = new RecordingListener();
+
+    copier.setParallelism(2);
+    copier.setQueueSize(1);
+    copier.setReportInterval(2);
+    assertEquals(6, copier.copy(listener));
+
+    List<String> inserts = getInserts(targetDatabase);
+
+    assertEquals(6, inserts.size());
+    assertTrue(inserts.contains("parent: [1, a]"));
+    assertTrue(inserts.contains("parent: [2, null]"));
+    assertTrue(inserts.contains("other: [100]"));
+    assertTrue(inserts.toString(), inserts.contains("child: [10, 1, 7]"));
+    assertTrue(inserts.contains("child: [11, null, null]"));
+    assertTrue(inserts.indexOf("parent: [3, c]") < inserts.indexOf("child: [10, 1, 7]"));
+
+    assertTrue(listener._events.indexOf("end parent 3") < listener._events.indexOf("start child"));
+    assertTrue(listener._events.contains("progress parent 2"));
+    assertTrue(listener._events.contains("end child 2"));
+    assertTrue(listener._events.contains("end other 1"));
+  }
+
+  /**
+   * Tests the conversion of the values according to the target column types.
+   */
+  @Test
+  public void testConvertValue() {
+    DataCopier copier = new DataCopier(createSourcePlatform(createSourceRows()), parseDatabaseFromString(SOURCE_MODEL),
+      createTargetPlatform(new MockDatabase()), parseDatabaseFromString(TARGET_MODEL));
+    Table sourceTable = parseDatabaseFromString(SOURCE_MODEL).findTable("child");
+    Table targetTable = parseDatabaseFromString(TARGET_MODEL).findTable("child");
+
+    assertEquals("7", copier.convertValue(sourceTable.findColumn("flag"), targetTable.findColumn("flag"), 7));
+    assertEquals(7, copier.convertValue(sourceTable.findColumn("pk"), targetTable.findColumn("pk"), 7));
+    assertEquals(1, copier.convertValue(sourceTable.findColumn("pk"), targetTable.findColumn("pk"), Boolean.TRUE));
+    assertEquals(null, copier.convertValue(sourceTable.findColumn("flag"), targetTable.findColumn("flag"), null));
+  }
+
+  /**
+   * Tests that an error while reading aborts the copying.
+   */
+  @Test
+  public void testReadError() {
+    String model =
+      "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+        "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='broken'>\n" +
+        "  <table name='broken'>\n" +
+        "    <column name='pk' type='INTEGER' primaryKey='true' required='true'/>\n" +
+        "  </table>\n" +
+        "</database>";
+    DataCopier copier = new DataCopier(createSourcePlatform(createSourceRows()), parseDatabaseFromString(model),
+      createTargetPlatform(new MockDatabase()), parseDatabaseFromString(model));
+    RecordingListener listener = new RecordingListener();
+
+    try {
+      copier.copy(listener);
+      fail();
+    } catch (DdlUtilsException ex) {
+      // expected
+    }
+    assertEquals(Arrays.asList("start broken", "abort broken 0"), listener._events);
+  }
+
+  /**
+   * Tests that the parallelism is limited by the maximum size of the connection pools.
+   */
+  @Test
+  public void testEffectiveParallelism() {
+    PooledDataSource sharedPool = new PooledDataSource(null, "jdbc:mock:shared", null, null);
+    PooledDataSource targetPool = new PooledDataSource(null, "jdbc:mock:target", null, null);
+    Platform sourcePlatform = new TestPlatform();
+    Platform targetPlatform = new TestPlatform();
+    DataCopier copier = new DataCopier(sourcePlatform, parseDatabaseFromString(SOURCE_MODEL),
+      targetPlatform, parseDatabaseFromString(TARGET_MODEL));
+
+    copier.setParallelism(4);
+    sourcePlatform.setDataSource(new MockDatabase().getDataSource());
+    targetPlatform.setDataSource(new MockDatabase().getDataSource());
+    assertEquals(4, copier.getEffectiveParallelism());
+
+    sharedPool.setMaxSize(5);
+    sourcePlatform.setDataSource(sharedPool);
+    targetPlatform.setDataSource(sharedPool);
+    assertEquals(2, copier.getEffectiveParallelism());
+
+    targetPool.setMaxSize(3);
+    sourcePlatform.setDataSource(new MockDatabase().getDataSource());
+    targetPlatform.setDataSource(targetPool);
+    assertEquals(3, copier.getEffectiveParallelism());
+  }
+}
@@ -0,0 +1,116 @@
+package org.apache.ddlutils.io;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.MockDatabase;
+import org.apache.ddlutils.Platform;
+import org.apache.ddlutils.TestBase;
+import org.apache.ddlutils.data.RowObject;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.Table;
+import org.apache.ddlutils.platform.TestPlatform;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the {@link DataDiffDatabaseWriter} class.
+ *
+ * @version $Revision: $
+ */
+public class TestDataDiffDatabaseWriter extends TestBase {
+  /**
+   * A model with an auto-increment primary key.
+   */
+  private static final String TEST_MODEL =
+    "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+      "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='test'>\n" +
+      "  <table name='table1'>\n" +
+      "    <column name='pk' type='INTEGER' primaryKey='true' required='true' autoIncrement='true'/>\n" +
+      "    <column name='avalue' type='VARCHAR' size='32'/>\n" +
+      "  </table>\n" +
+      "</database>";
+
+  /**
+   * The mocked database.
+   */
+  private final MockDatabase _database = new MockDatabase();
+
+  /**
+   * Creates the platform for the mocked database.
+   *
+   * @return The platform
+   */
+  private Platform createPlatform() {
+    Platform platform = new TestPlatform();
+
+    platform.setDataSource(_database.getDataSource());
+    return platform;
+  }
+
+  /**
+   * Tests that inserted rows keep the values of their auto-increment primary key.
+   */
+  @Test
+  public void testInsertRetainsAutoIncrementValues() throws DataSinkException {
+    Database model = parseDatabaseFromString(TEST_MODEL);
+    Table table = model.findTable("table1");
+    Platform platform = createPlatform();
+    DataDiffDatabaseWriter writer = new DataDiffDatabaseWriter(platform, model);
+    RowObject row = model.createRowObjectFor(table);
+
+    row.set("pk", 5);
+    row.set("avalue", "text");
+    writer.startTable(table);
+    writer.insert(row);
+    writer.endTable(table, true);
+
+    assertTrue(platform.isIdentityOverrideOn());
+    assertEquals(Collections.singletonList(Arrays.asList(5, "text")), _database.getExecutedParameters());
+    assertEquals(0, _database.getOpenConnectionCount());
+  }
+
+  /**
+   * Tests that tables with auto-increment columns are rejected if the platform does not allow
+   * identity override.
+   */
+  @Test
+  public void testNoIdentityOverride() {
+    Database model = parseDatabaseFromString(TEST_MODEL);
+    Platform platform = createPlatform();
+
+    platform.getPlatformInfo().setIdentityOverrideAllowed(false);
+
+    DataDiffDatabaseWriter writer = new DataDiffDatabaseWriter(platform, model);
+
+    try {
+      writer.startTable(model.findTable("table1"));
+      fail();
+    } catch (DataSinkException ex) {
+      // expected
+    }
+    assertEquals(0, _database.getOpenConnectionCount());
+  }
+}
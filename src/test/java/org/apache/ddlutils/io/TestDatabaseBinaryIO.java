@@ -0,0 +1,187 @@
+package org.apache.ddlutils.io;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.DdlUtilsException;
+import org.apache.ddlutils.TestBase;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.ForeignKey;
+import org.apache.ddlutils.model.Reference;
+import org.apache.ddlutils.model.Table;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the {@link DatabaseBinaryIO} class.
+ *
+ * @version $Revision: $
+ */
+public class TestDatabaseBinaryIO extends TestBase {
+  /**
+   * The test model.
+   */
+  private static final String TEST_MODEL =
+    "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+      "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='test'>\n" +
+      "  <table name='table1' description='The first table'>\n" +
+      "    <column name='pk' type='INTEGER' primaryKey='true' required='true' autoIncrement='true'/>\n" +
+      "    <column name='avalue1' type='VARCHAR' size='32' default='text' javaName='aValue1' description='Some text'/>\n" +
+      "    <column name='avalue2' type='DECIMAL' size='15,3' required='true'/>\n" +
+      "    <unique name='testunique'>\n" +
+      "      <unique-column name='avalue2'/>\n" +
+      "    </unique>\n" +
+      "    <index name='testindex'>\n" +
+      "      <index-column name='avalue1' size='16'/>\n" +
+      "      <index-column name='pk'/>\n" +
+      "    </index>\n" +
+      "  </table>\n" +
+      "  <table name='table2'>\n" +
+      "    <column name='pk' type='INTEGER' primaryKey='true' required='true'/>\n" +
+      "    <column name='fk1' type='INTEGER'/>\n" +
+      "    <column name='fk2' type='INTEGER'/>\n" +
+      "    <foreign-key name='fk_to_table1' foreignTable='table1' onDelete='cascade' onUpdate='restrict'>\n" +
+      "      <reference local='fk1' foreign='pk'/>\n" +
+      "    </foreign-key>\n" +
+      "    <foreign-key foreignTable='table2'>\n" +
+      "      <reference local='fk2' foreign='pk'/>\n" +
+      "    </foreign-key>\n" +
+      "  </table>\n" +
+      "</database>";
+
+  /**
+   * Writes the model to the binary format and reads it again.
+   *
+   * @param model The model
+   * @return The read model
+   */
+  private Database roundtrip(Database model) {
+    DatabaseBinaryIO binaryIO = new DatabaseBinaryIO();
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    binaryIO.write(model, output);
+    return binaryIO.read(new ByteArrayInputStream(output.toByteArray()));
+  }
+
+  /**
+   * Writes the given database model to XML.
+   *
+   * @param model The database model
+   * @return The database model XML
+   */
+  private String writeModel(Database model) {
+    StringWriter writer = new StringWriter();
+
+    new DatabaseIO().write(model, writer);
+    return writer.toString();
+  }
+
+  /**
+   * Tests that an initialized model is read back with all references resolved.
+   */
+  @Test
+  public void testRoundtrip() {
+    Database model = parseDatabaseFromString(TEST_MODEL);
+    Database readModel = roundtrip(model);
+
+    assertEquals(model, readModel);
+    assertEquals(writeModel(model), writeModel(readModel));
+
+    Table table1 = readModel.getTable(0);
+    Table table2 = readModel.getTable(1);
+    ForeignKey fk1 = table2.getForeignKey(0);
+    ForeignKey fk2 = table2.getForeignKey(1);
+
+    assertSame(table1, fk1.getForeignTable());
+    assertSame(table2.getColumn(1), fk1.getFirstReference().getLocalColumn());
+    assertSame(table1.getColumn(0), fk1.getFirstReference().getForeignColumn());
+    assertSame(table2, fk2.getForeignTable());
+    assertSame(table2.getColumn(0), fk2.getFirstReference().getForeignColumn());
+    assertSame(table1.getColumn(1), table1.getIndex(1).getColumn(0).getColumn());
+    assertSame(table1.getColumn(0), table1.getIndex(1).getColumn(1).getColumn());
+  }
+
+  /**
+   * Tests that the references of an uninitialized model remain unresolved.
+   */
+  @Test
+  public void testUninitializedModel() throws Exception {
+    DatabaseIO dbIO = new DatabaseIO();
+    Database model = dbIO.read(new StringReader(TEST_MODEL));
+    Database uninitializedModel = new Database("test");
+
+    // we build the uninitialized model from copies of the tables without the resolved objects
+    for (Table table : model.getTables()) {
+      Table clone = new Table();
+
+      clone.setName(table.getName());
+      clone.addColumns(Arrays.asList(table.getColumns()));
+      for (ForeignKey fk : table.getForeignKeys()) {
+        ForeignKey fkClone = new ForeignKey(fk.getName());
+
+        fkClone.setForeignTableName(fk.getForeignTableName());
+        for (int idx = 0; idx < fk.getReferenceCount(); idx++) {
+          Reference ref = new Reference();
+
+          ref.setLocalColumnName(fk.getReference(idx).getLocalColumnName());
+          ref.setForeignColumnName(fk.getReference(idx).getForeignColumnName());
+          fkClone.addReference(ref);
+        }
+        clone.addForeignKey(fkClone);
+      }
+      uninitializedModel.addTable(clone);
+    }
+
+    Database readModel = roundtrip(uninitializedModel);
+    ForeignKey fk = readModel.getTable(1).getForeignKey(0);
+
+    assertNull(fk.getForeignTable());
+    assertEquals("table1", fk.getForeignTableName());
+    assertNull(fk.getFirstReference().getLocalColumn());
+    assertEquals("fk1", fk.getFirstReference().getLocalColumnName());
+    assertEquals("pk", fk.getFirstReference().getForeignColumnName());
+
+    readModel.initialize();
+    assertSame(readModel.getTable(0), fk.getForeignTable());
+    assertSame(readModel.getTable(0).getColumn(0), fk.getFirstReference().getForeignColumn());
+  }
+
+  /**
+   * Tests that data that is not a binary model is rejected.
+   */
+  @Test
+  public void testInvalidData() {
+    try {
+      new DatabaseBinaryIO().read(new ByteArrayInputStream(TEST_MODEL.getBytes()));
+      fail();
+    } catch (DdlUtilsException ex) {
+      // expected
+    }
+  }
+}
@@ -0,0 +1,193 @@
+package org.apache.ddlutils.io;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.TestBase;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.util.StringUtils;
+import org.junit.Test;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.stream.StreamSource;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the validation of database models while they are read via the
+ * {@link ValidatingXMLStreamReader} and {@link ModelValidator} classes.
+ *
+ * @version $Revision: $
+ */
+public class TestValidatingXMLStreamReader extends TestBase {
+  /**
+   * A valid model.
+   */
+  private static final String VALID_MODEL =
+    "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+      "<database xmlns=\"" + DatabaseIO.DDLUTILS_NAMESPACE + "\" name=\"test\">\n" +
+      "  <table name=\"table1\" description=\"Some table\">\n" +
+      "    <column name=\"pk\" primaryKey=\"true\" required=\"true\" type=\"INTEGER\" autoIncrement=\"true\"></column>\n" +
+      "    <column name=\"avalue\" primaryKey=\"false\" required=\"false\" type=\"VARCHAR\" size=\"32\" autoIncrement=\"false\"></column>\n" +
+      "  </table>\n" +
+      "</database>\n";
+
+  /**
+   * Reads the database model from the given string with validation turned on.
+   *
+   * @param modelAsXml The database model XML
+   * @return The database model
+   */
+  private Database readModel(String modelAsXml) {
+    DatabaseIO dbIO = new DatabaseIO();
+
+    dbIO.setValidateXml(true);
+    return dbIO.read(new StringReader(modelAsXml));
+  }
+
+  /**
+   * Writes the given database model to a string.
+   *
+   * @param model The database model
+   * @return The database model XML
+   */
+  private String writeModel(Database model) {
+    StringWriter writer = new StringWriter();
+
+    new DatabaseIO().write(model, writer);
+    return StringUtils.replace(writer.toString(), "\r\n", "\n");
+  }
+
+  /**
+   * Asserts that reading the given model fails with a validation error at the given line.
+   *
+   * @param modelAsXml The database model XML
+   * @param lineNumber The expected line number of the error
+   */
+  private void assertInvalid(String modelAsXml, int lineNumber) {
+    try {
+      readModel(modelAsXml);
+      fail();
+    } catch (DdlUtilsXMLException ex) {
+      assertTrue(ex.getCause() instanceof XMLStreamException);
+
+      XMLStreamException streamEx = (XMLStreamException) ex.getCause();
+
+      assertEquals(lineNumber, streamEx.getLocation().getLineNumber());
+    }
+  }
+
+  /**
+   * Tests that a valid model is read and written unchanged.
+   */
+  @Test
+  public void testValidModelRoundTrip() {
+    Database model = readModel(VALID_MODEL);
+
+    assertEquals(1, model.getTableCount());
+    assertTrue(model.findTable("table1").findColumn("pk").isAutoIncrement());
+    assertEquals(VALID_MODEL, writeModel(model));
+    assertEquals(VALID_MODEL, writeModel(readModel(writeModel(model))));
+  }
+
+  /**
+   * Tests that an invalid element is reported with its position while the document is streamed,
+   * i.e. before the parser reaches the unterminated end of the document.
+   */
+  @Test
+  public void testInvalidElementReportedWhileStreaming() {
+    assertInvalid(
+      "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='test'>\n" +
+        "  <table name='table1'>\n" +
+        "    <column name='pk' type='INTEGER'/>\n" +
+        "    <unknown-element/>\n" +
+        "  </table>\n" +
+        "  <table name='table2'>\n",
+      4);
+  }
+
+  /**
+   * Tests that an invalid attribute value is reported with its position.
+   */
+  @Test
+  public void testInvalidAttributeValue() {
+    assertInvalid(
+      "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='test'>\n" +
+        "  <table name='table1'>\n" +
+        "    <column name='pk' type='INTEGER'\n" +
+        "            primaryKey='maybe'/>\n" +
+        "  </table>\n" +
+        "</database>",
+      4);
+  }
+
+  /**
+   * Tests that the reader validates the events that {@link XMLStreamReader#nextTag()} skips.
+   */
+  @Test
+  public void testNextTag() throws Exception {
+    XMLStreamReader reader = new ValidatingXMLStreamReader(
+      XMLInputFactory.newInstance().createXMLStreamReader(new StringReader(VALID_MODEL)),
+      new ModelValidator().newValidatorHandler());
+
+    assertEquals(XMLStreamReader.START_ELEMENT, reader.nextTag());
+    assertEquals("database", reader.getLocalName());
+    assertEquals(XMLStreamReader.START_ELEMENT, reader.nextTag());
+    assertEquals("table", reader.getLocalName());
+    while (reader.hasNext()) {
+      reader.next();
+    }
+    reader.close();
+  }
+
+  /**
+   * Tests that the cached schema can be used for validating several documents concurrently.
+   */
+  @Test
+  public void testConcurrentValidation() throws Exception {
+    ModelValidator validator = new ModelValidator();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<Future<Database>> results = new ArrayList<>();
+
+    assertNotSame(validator.newValidatorHandler(), validator.newValidatorHandler());
+    try {
+      for (int idx = 0; idx < 16; idx++) {
+        results.add(executor.submit(() -> readModel(VALID_MODEL)));
+      }
+      for (Future<Database> result : results) {
+        assertEquals("test", result.get().getName());
+      }
+    } finally {
+      executor.shutdown();
+    }
+    validator.validate(new StreamSource(new StringReader(VALID_MODEL)));
+  }
+}
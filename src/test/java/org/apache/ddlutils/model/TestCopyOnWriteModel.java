@@ -0,0 +1,116 @@
+package org.apache.ddlutils.model;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.TestBase;
+import org.apache.ddlutils.io.DatabaseIO;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link CopyOnWriteModel} class.
+ *
+ * @version $Revision: $
+ */
+public class TestCopyOnWriteModel extends TestBase {
+  /**
+   * The test model.
+   */
+  private static final String TEST_MODEL =
+    "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+      "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='test'>\n" +
+      "  <table name='table1'>\n" +
+      "    <column name='pk' type='INTEGER' primaryKey='true' required='true'/>\n" +
+      "    <column name='parent' type='INTEGER'/>\n" +
+      "    <foreign-key foreignTable='table1'>\n" +
+      "      <reference local='parent' foreign='pk'/>\n" +
+      "    </foreign-key>\n" +
+      "  </table>\n" +
+      "  <table name='table2'>\n" +
+      "    <column name='pk' type='INTEGER' primaryKey='true' required='true'/>\n" +
+      "    <column name='fk' type='INTEGER'/>\n" +
+      "    <foreign-key foreignTable='table1'>\n" +
+      "      <reference local='fk' foreign='pk'/>\n" +
+      "    </foreign-key>\n" +
+      "    <index name='testindex'>\n" +
+      "      <index-column name='fk'/>\n" +
+      "    </index>\n" +
+      "  </table>\n" +
+      "</database>";
+
+  /**
+   * Tests that tables are shared until they are prepared for a change.
+   */
+  @Test
+  public void testPrepareTableForChange() {
+    Database source = parseDatabaseFromString(TEST_MODEL);
+    Database original = parseDatabaseFromString(TEST_MODEL);
+    CopyOnWriteModel workingModel = new CopyOnWriteModel(source);
+    Database model = workingModel.getModel();
+
+    assertSame(source.getTable(0), model.getTable(0));
+    assertSame(source.getTable(1), model.getTable(1));
+
+    workingModel.prepareTableForChange("TABLE2");
+
+    Table table2 = model.getTable(1);
+
+    assertSame(source.getTable(0), model.getTable(0));
+    assertNotSame(source.getTable(1), table2);
+    assertTrue(workingModel.isOwned(table2));
+    assertFalse(workingModel.isOwned(model.getTable(0)));
+    assertEquals(source.getTable(1), table2);
+    assertSame(table2.getColumn(1), table2.getIndex(0).getColumn(0).getColumn());
+    assertSame(model.getTable(0), table2.getForeignKey(0).getForeignTable());
+
+    // changing the copy must not affect the source model
+    table2.removeIndex(0);
+    table2.addColumn(new Column());
+    model.removeTable(0);
+    assertEquals(original, source);
+
+    // preparing a table again keeps the existing copy
+    workingModel.prepareTableForChange("table2");
+    assertSame(table2, model.getTable(0));
+  }
+
+  /**
+   * Tests that a copied table refers to itself in self-referencing foreign keys.
+   */
+  @Test
+  public void testSelfReference() {
+    Database source = parseDatabaseFromString(TEST_MODEL);
+    CopyOnWriteModel workingModel = new CopyOnWriteModel(source);
+
+    workingModel.prepareAllTablesForChange();
+
+    Table table1 = workingModel.getModel().getTable(0);
+
+    assertNotSame(source.getTable(0), table1);
+    assertSame(table1, table1.getForeignKey(0).getForeignTable());
+    assertSame(table1.getColumn(0), table1.getForeignKey(0).getFirstReference().getForeignColumn());
+    assertSame(table1, workingModel.getModel().getTable(1).getForeignKey(0).getForeignTable());
+  }
+}
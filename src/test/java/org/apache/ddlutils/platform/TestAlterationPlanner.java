@@ -0,0 +1,139 @@
+package org.apache.ddlutils.platform;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+import org.apache.ddlutils.TestBase;
+import org.apache.ddlutils.alteration.AddColumnChange;
+import org.apache.ddlutils.alteration.RecreateTableChange;
+import org.apache.ddlutils.io.DatabaseIO;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.platform.AlterationPlan.Step;
+import org.apache.ddlutils.platform.AlterationPlan.Strategy;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link AlterationPlanner} class.
+ *
+ * @version $Revision: $
+ */
+public class TestAlterationPlanner extends TestBase {
+  /**
+   * The current model.
+   */
+  private static final String CURRENT_MODEL =
+    "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+      "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='test'>\n" +
+      "  <table name='table1'>\n" +
+      "    <column name='pk' type='INTEGER' primaryKey='true' required='true'/>\n" +
+      "    <column name='avalue' type='INTEGER'/>\n" +
+      "  </table>\n" +
+      "</database>";
+  /**
+   * The desired model, which adds four columns that have to be filled with default values.
+   */
+  private static final String DESIRED_MODEL =
+    "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+      "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='test'>\n" +
+      "  <table name='table1'>\n" +
+      "    <column name='pk' type='INTEGER' primaryKey='true' required='true'/>\n" +
+      "    <column name='avalue' type='INTEGER'/>\n" +
+      "    <column name='col1' type='INTEGER' default='1'/>\n" +
+      "    <column name='col2' type='INTEGER' default='2'/>\n" +
+      "    <column name='col3' type='INTEGER' default='3'/>\n" +
+      "    <column name='col4' type='INTEGER' default='4'/>\n" +
+      "  </table>\n" +
+      "</database>";
+
+  /**
+   * Plans the alteration from the current to the desired model for the given statistics of the table.
+   *
+   * @param statistics The statistics of the table
+   * @return The plan
+   */
+  private AlterationPlan plan(TableStatistics statistics) {
+    TestPlatform platform = new TestPlatform();
+    AlterationPlanner planner = platform.createAlterationPlanner();
+    Map<String, TableStatistics> statisticsMap = planner.createStatisticsMap();
+
+    statisticsMap.put("TABLE1", statistics);
+    return platform.planAlteration(planner,
+      parseDatabaseFromString(CURRENT_MODEL),
+      parseDatabaseFromString(DESIRED_MODEL),
+      statisticsMap);
+  }
+
+  /**
+   * Tests that a small table is recreated if that is cheaper than altering it in place.
+   */
+  @Test
+  public void testSmallTableIsRecreated() {
+    AlterationPlan plan = plan(new TableStatistics(10, 1024, 1));
+
+    assertEquals(1, plan.getSteps().size());
+
+    Step step = plan.getSteps().get(0);
+
+    assertTrue(step.getChange() instanceof RecreateTableChange);
+    assertEquals(Strategy.RECREATE, step.getStrategy());
+    assertEquals("table1", step.getTableName());
+    assertEquals(20, step.getRowsTouched());
+    assertEquals(30, step.getCost());
+    assertEquals(30, plan.getEstimatedCost());
+    assertFalse(plan.hasUnknownCosts());
+    assertTrue(plan.getReport().contains("RECREATE RecreateTableChange on table table1 (rows=10, size=1024, indexes=1)"));
+  }
+
+  /**
+   * Tests that a large table is altered in place.
+   */
+  @Test
+  public void testLargeTableIsAlteredInPlace() {
+    AlterationPlan plan = plan(new TableStatistics(1000000, TableStatistics.UNKNOWN, 1));
+
+    assertEquals(4, plan.getSteps().size());
+    for (Step step : plan.getSteps()) {
+      assertTrue(step.getChange() instanceof AddColumnChange);
+      assertEquals(Strategy.IN_PLACE, step.getStrategy());
+      assertEquals(1000000, step.getRowsTouched());
+    }
+    assertEquals(4000000, plan.getEstimatedCost());
+  }
+
+  /**
+   * Tests that a table without statistics is altered in place, with unknown costs.
+   */
+  @Test
+  public void testUnknownStatistics() {
+    AlterationPlan plan = plan(new TableStatistics(TableStatistics.UNKNOWN, TableStatistics.UNKNOWN, (int) TableStatistics.UNKNOWN));
+
+    assertEquals(4, plan.getSteps().size());
+    assertEquals(Strategy.IN_PLACE, plan.getSteps().get(0).getStrategy());
+    assertEquals(TableStatistics.UNKNOWN, plan.getSteps().get(0).getCost());
+    assertTrue(plan.hasUnknownCosts());
+    assertEquals(0, plan.getEstimatedCost());
+  }
+}
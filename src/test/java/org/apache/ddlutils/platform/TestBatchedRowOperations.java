@@ -0,0 +1,255 @@
+package org.apache.ddlutils.platform;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+import org.apache.ddlutils.MockDatabase;
+import org.apache.ddlutils.TestBase;
+import org.apache.ddlutils.data.RowObject;
+import org.apache.ddlutils.io.DatabaseIO;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.Table;
+import org.apache.ddlutils.platform.derby.DerbyPlatform;
+import org.apache.ddlutils.platform.hsqldb.HsqlDbPlatform;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the batched update and delete of collections of rows.
+ *
+ * @version $Revision: $
+ */
+public class TestBatchedRowOperations extends TestBase {
+  /**
+   * The test model.
+   */
+  private static final String TEST_MODEL =
+    "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+      "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='test'>\n" +
+      "  <table name='table1'>\n" +
+      "    <column name='pk' type='INTEGER' primaryKey='true' required='true'/>\n" +
+      "    <column name='avalue' type='VARCHAR' size='32'/>\n" +
+      "  </table>\n" +
+      "  <table name='table2'>\n" +
+      "    <column name='pk' type='INTEGER' primaryKey='true' required='true'/>\n" +
+      "  </table>\n" +
+      "  <table name='table3'>\n" +
+      "    <column name='pk' type='INTEGER' primaryKey='true' required='true'/>\n" +
+      "    <column name='fk' type='INTEGER'/>\n" +
+      "    <foreign-key foreignTable='table1'>\n" +
+      "      <reference local='fk' foreign='pk'/>\n" +
+      "    </foreign-key>\n" +
+      "  </table>\n" +
+      "</database>";
+
+  /**
+   * The mocked database.
+   */
+  private final MockDatabase _database = new MockDatabase();
+  /**
+   * The invocations of the update hooks.
+   */
+  private final List<String> _hookCalls = new ArrayList<>();
+
+  /**
+   * Creates the platform, which records the invocations of the update hooks.
+   *
+   * @return The platform
+   */
+  private PlatformImplBase createPlatform() {
+    PlatformImplBase platform = new TestPlatform() {
+      @Override
+      protected void beforeUpdate(Connection connection, Table table) {
+        _hookCalls.add("before " + table.getName());
+      }
+
+      @Override
+      protected void afterUpdate(Connection connection, Table table) {
+        _hookCalls.add("after " + table.getName());
+      }
+    };
+
+    platform.setRowBatchSize(2);
+    return platform;
+  }
+
+  /**
+   * Creates the given number of rows for the specified table.
+   *
+   * @param model     The model
+   * @param tableName The table name
+   * @param count     The number of rows
+   * @param result    The list to add the rows to
+   */
+  private void addRows(Database model, String tableName, int count, List<RowObject> result) {
+    for (int idx = 0; idx < count; idx++) {
+      RowObject row = model.createRowObjectFor(model.findTable(tableName));
+
+      row.set("pk", idx);
+      result.add(row);
+    }
+  }
+
+  /**
+   * Tests that updates are executed in batches of the configured size with one hook invocation per batch.
+   */
+  @Test
+  public void testUpdateInBatches() {
+    Database model = parseDatabaseFromString(TEST_MODEL);
+    List<RowObject> rows = new ArrayList<>();
+
+    addRows(model, "table1", 5, rows);
+    createPlatform().update(_database.createConnection(), model, rows);
+
+    assertEquals(1, _database.getPreparedSql().size());
+    assertEquals(Arrays.asList(2, 2, 1), _database.getBatchSizes());
+    assertEquals(Arrays.asList("before table1", "after table1",
+      "before table1", "after table1",
+      "before table1", "after table1"), _hookCalls);
+  }
+
+  /**
+   * Tests that deletes are grouped per table.
+   */
+  @Test
+  public void testDeleteGroupedPerTable() {
+    Database model = parseDatabaseFromString(TEST_MODEL);
+    List<RowObject> rows = new ArrayList<>();
+
+    addRows(model, "table1", 3, rows);
+    addRows(model, "table2", 1, rows);
+    createPlatform().delete(_database.createConnection(), model, rows);
+
+    assertEquals(2, _database.getPreparedSql().size());
+    assertEquals(Arrays.asList(2, 1, 1), _database.getBatchSizes());
+    assertEquals(0, _hookCalls.size());
+  }
+
+  /**
+   * Tests that interleaved rows of unrelated tables are still grouped per table.
+   */
+  @Test
+  public void testInterleavedRowsGroupedPerTable() {
+    Database model = parseDatabaseFromString(TEST_MODEL);
+    List<RowObject> rows = new ArrayList<>();
+
+    for (int idx = 0; idx < 4; idx++) {
+      addRows(model, idx % 2 == 0 ? "table1" : "table2", 1, rows);
+    }
+    createPlatform().delete(_database.createConnection(), model, rows);
+
+    assertEquals(2, _database.getPreparedSql().size());
+    assertEquals(Arrays.asList(2, 2), _database.getBatchSizes());
+  }
+
+  /**
+   * Tests that the rows of tables related by a foreign key are written in the given order.
+   */
+  @Test
+  public void testRelatedTablesKeepOrder() {
+    Database model = parseDatabaseFromString(TEST_MODEL);
+    List<RowObject> rows = new ArrayList<>();
+
+    addRows(model, "table1", 1, rows);
+    addRows(model, "table3", 1, rows);
+    addRows(model, "table1", 1, rows);
+    createPlatform().delete(_database.createConnection(), model, rows);
+
+    assertEquals(2, _database.getPreparedSql().size());
+    assertEquals(Arrays.asList(1, 1, 1), _database.getBatchSizes());
+
+    List<String> tables = new ArrayList<>();
+
+    for (String sql : _database.getExecutedSql()) {
+      tables.add(sql.contains("table3") ? "table3" : "table1");
+    }
+    assertEquals(Arrays.asList("table1", "table3", "table1"), tables);
+  }
+
+  /**
+   * Tests that the row counts of each batch are reported to the listener.
+   */
+  @Test
+  public void testRowBatchListener() {
+    Database model = parseDatabaseFromString(TEST_MODEL);
+    List<RowObject> rows = new ArrayList<>();
+    List<String> batches = new ArrayList<>();
+    PlatformImplBase platform = createPlatform();
+
+    _database.setUpdateHandler((sql, parameters) -> sql.contains("table2") ? 0 : 1);
+    platform.setRowBatchListener((table, type, rowCount, changedRowCount) ->
+      batches.add(type + " " + table.getName() + " " + rowCount + " " + changedRowCount));
+    addRows(model, "table1", 3, rows);
+    addRows(model, "table2", 1, rows);
+    platform.delete(_database.createConnection(), model, rows);
+
+    assertEquals(Arrays.asList("DELETE table1 2 2", "DELETE table1 1 1", "DELETE table2 1 0"), batches);
+  }
+
+  /**
+   * Stores two rows with the given platform in a database of the given version.
+   *
+   * @param platform     The platform
+   * @param majorVersion The major version of the database
+   * @param minorVersion The minor version of the database
+   * @return <code>true</code> if the rows were stored with a <code>MERGE</code> statement
+   */
+  private boolean storeWithMerge(PlatformImplBase platform, int majorVersion, int minorVersion) {
+    MockDatabase database = new MockDatabase();
+    Database model = parseDatabaseFromString(TEST_MODEL);
+    List<RowObject> rows = new ArrayList<>();
+
+    database.setDatabaseVersion(majorVersion, minorVersion);
+    addRows(model, "table1", 2, rows);
+    platform.store(database.createConnection(), model, rows);
+
+    boolean merged = database.getPreparedSql().toString().contains("MERGE INTO");
+
+    // without MERGE, the existing rows are queried and the others are inserted
+    assertEquals(!merged, database.getPreparedSql().toString().contains("INSERT INTO"));
+    return merged;
+  }
+
+  /**
+   * Tests that HSQLDB only uses <code>MERGE</code> from version 2.0 on.
+   */
+  @Test
+  public void testHsqlDbMergeRequiresVersion2() {
+    assertFalse(storeWithMerge(new HsqlDbPlatform(), 1, 8));
+    assertTrue(storeWithMerge(new HsqlDbPlatform(), 2, 0));
+  }
+
+  /**
+   * Tests that Derby only uses <code>MERGE</code> from version 10.11 on.
+   */
+  @Test
+  public void testDerbyMergeRequiresVersion10_11() {
+    assertFalse(storeWithMerge(new DerbyPlatform(), 10, 10));
+    assertTrue(storeWithMerge(new DerbyPlatform(), 10, 11));
+  }
+}
@@ -0,0 +1,207 @@
+package org.apache.ddlutils.platform;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.DatabaseOperationException;
+import org.apache.ddlutils.MockDatabase;
+import org.apache.ddlutils.TestBase;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the execution of scripts in JDBC batches via
+ * {@link PlatformImplBase#evaluateBatch(Connection, String, boolean)}.
+ *
+ * @version $Revision: $
+ */
+public class TestBatchedScriptExecution extends TestBase {
+  /**
+   * A script with four inserts of which the second one fails.
+   */
+  private static final String FAILING_SCRIPT =
+    "INSERT INTO table1 VALUES (1);\n" +
+      "INSERT INTO table1 VALUES (2) FAIL;\n" +
+      "INSERT INTO table1 VALUES (3);\n" +
+      "INSERT INTO table1 VALUES (4);\n";
+
+  /**
+   * The mocked database.
+   */
+  private MockDatabase _database;
+  /**
+   * The platform.
+   */
+  private TestPlatform _platform;
+
+  /**
+   * Creates the platform with a batch size of 10.
+   */
+  @Before
+  public void setUpPlatform() {
+    _database = new MockDatabase();
+    _platform = new TestPlatform();
+    _platform.setStatementBatchSize(10);
+    _database.setUpdateHandler((sql, parameters) -> {
+      if (sql.contains("FAIL")) {
+        throw new SQLException("Statement " + sql + " failed");
+      }
+      return 1;
+    });
+  }
+
+  /**
+   * Executes the given script on a new connection.
+   *
+   * @param sql             The script
+   * @param continueOnError Whether to continue executing statements when an error occurred
+   * @return The number of errors
+   */
+  private int evaluateBatch(String sql, boolean continueOnError) {
+    return _platform.evaluateBatch(_database.createConnection(), sql, continueOnError);
+  }
+
+  /**
+   * Tests that consecutive data manipulation statements are executed in batches that are
+   * interrupted by other statements.
+   */
+  @Test
+  public void testBatches() {
+    String script =
+      "INSERT INTO table1 VALUES (1);\n" +
+        "-- the second row\n" +
+        "INSERT INTO table1 VALUES (2);\n" +
+        "CREATE INDEX index1 ON table1 (avalue);\n" +
+        "/* updates */ UPDATE table1 SET avalue = 1;\n" +
+        "DELETE FROM table1 WHERE pk = 2;\n";
+
+    assertEquals(0, evaluateBatch(script, true));
+    assertEquals(Arrays.asList(2, 2), _database.getBatchSizes());
+    assertEquals(5, _database.getExecutedSql().size());
+    assertTrue(_database.getExecutedSql().get(2).startsWith("CREATE INDEX"));
+    assertTrue(_database.getExecutedSql().get(4).startsWith("DELETE"));
+  }
+
+  /**
+   * Tests that the statements that the driver skipped after a failed statement in a batch are
+   * executed one by one.
+   */
+  @Test
+  public void testBatchUpdateExceptionFallback() {
+    assertEquals(1, evaluateBatch(FAILING_SCRIPT, true));
+    assertEquals(Collections.singletonList(4), _database.getBatchSizes());
+    assertEquals(Arrays.asList("INSERT INTO table1 VALUES (1)",
+        "INSERT INTO table1 VALUES (2) FAIL",
+        "INSERT INTO table1 VALUES (3)",
+        "INSERT INTO table1 VALUES (4)"),
+      _database.getExecutedSql());
+  }
+
+  /**
+   * Tests that the statements are not batched unless continuing on errors, so that a failed
+   * statement stops the execution even with drivers that execute the rest of a batch.
+   */
+  @Test
+  public void testNoBatchesWithoutContinue() {
+    _database.setContinueBatchOnError(true);
+    try {
+      evaluateBatch(FAILING_SCRIPT, false);
+      fail();
+    } catch (DatabaseOperationException ex) {
+      assertTrue(ex.getMessage(), ex.getMessage().contains("INSERT INTO table1 VALUES (2) FAIL"));
+    }
+    assertTrue(_database.getBatchSizes().isEmpty());
+    assertEquals(2, _database.getExecutedSql().size());
+    assertFalse(_database.getExecutedSql().contains("INSERT INTO table1 VALUES (3)"));
+  }
+
+  /**
+   * Tests that statements that the driver reports as failed, while executing the rest of the
+   * batch, are counted as errors without being executed again.
+   */
+  @Test
+  public void testExecuteFailed() {
+    _database.setContinueBatchOnError(true);
+    assertEquals(2, evaluateBatch(FAILING_SCRIPT + "UPDATE table1 FAIL;\n", true));
+    assertEquals(Collections.singletonList(5), _database.getBatchSizes());
+    assertEquals(5, _database.getExecutedSql().size());
+  }
+
+  /**
+   * Tests the recognition of data manipulation statements.
+   */
+  @Test
+  public void testIsDataManipulation() {
+    assertTrue(_platform.isDataManipulation("INSERT INTO table1 VALUES (1)"));
+    assertTrue(_platform.isDataManipulation("  update table1 SET avalue = 1"));
+    assertTrue(_platform.isDataManipulation("Delete FROM table1"));
+    assertTrue(_platform.isDataManipulation("-- a comment\n  INSERT INTO table1 VALUES (1)"));
+    assertTrue(_platform.isDataManipulation("/* a\n comment */ /* another one */DELETE FROM table1"));
+    assertTrue(_platform.isDataManipulation("UPDATE"));
+    assertFalse(_platform.isDataManipulation("CREATE TABLE table1 (pk INTEGER)"));
+    assertFalse(_platform.isDataManipulation("-- INSERT INTO table1 VALUES (1)\nDROP TABLE table1"));
+    assertFalse(_platform.isDataManipulation("/* DELETE */ TRUNCATE TABLE table1"));
+    assertFalse(_platform.isDataManipulation("UPDATES"));
+    assertFalse(_platform.isDataManipulation("-- only a comment"));
+    assertFalse(_platform.isDataManipulation(""));
+  }
+
+  /**
+   * Tests that the warnings are only read every configured number of executions, and once
+   * at the end.
+   */
+  @Test
+  public void testWarningPollInterval() {
+    StringBuilder script = new StringBuilder();
+
+    for (int idx = 0; idx < 7; idx++) {
+      script.append("CREATE INDEX index").append(idx).append(" ON table1 (avalue);\n");
+    }
+    _platform.setWarningPollInterval(3);
+    assertEquals(0, evaluateBatch(script.toString(), false));
+    assertEquals(3, _database.getConnections().get(0).getWarningPollCount());
+  }
+
+  /**
+   * Tests that a batch counts as one execution for the warning poll interval.
+   */
+  @Test
+  public void testWarningPollIntervalWithBatches() {
+    StringBuilder script = new StringBuilder();
+
+    for (int idx = 0; idx < 8; idx++) {
+      script.append("INSERT INTO table1 VALUES (").append(idx).append(");\n");
+    }
+    _platform.setStatementBatchSize(2);
+    _platform.setWarningPollInterval(2);
+    assertEquals(0, evaluateBatch(script.toString(), true));
+    assertEquals(Arrays.asList(2, 2, 2, 2), _database.getBatchSizes());
+    assertEquals(2, _database.getConnections().get(0).getWarningPollCount());
+  }
+}
@@ -0,0 +1,196 @@
+package org.apache.ddlutils.platform;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.MockDatabase;
+import org.apache.ddlutils.TestBase;
+import org.apache.ddlutils.data.RowObject;
+import org.apache.ddlutils.io.DatabaseIO;
+import org.apache.ddlutils.model.Database;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the bulk probing for existing rows.
+ *
+ * @version $Revision: $
+ */
+public class TestBulkExistenceProbe extends TestBase {
+  /**
+   * The test model.
+   */
+  private static final String TEST_MODEL =
+    "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+      "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='test'>\n" +
+      "  <table name='table1'>\n" +
+      "    <column name='pk' type='INTEGER' primaryKey='true' required='true'/>\n" +
+      "    <column name='avalue' type='VARCHAR' size='32'/>\n" +
+      "  </table>\n" +
+      "  <table name='table2'>\n" +
+      "    <column name='id' type='INTEGER' primaryKey='true' required='true'/>\n" +
+      "    <column name='code' type='CHAR' size='4' primaryKey='true' required='true'/>\n" +
+      "  </table>\n" +
+      "</database>";
+
+  /**
+   * The mocked database.
+   */
+  private final MockDatabase _database = new MockDatabase();
+  /**
+   * The primary key values of the rows in the mocked database.
+   */
+  private final Set<List<Object>> _existingKeys = new HashSet<>();
+
+  /**
+   * Creates a connection whose queries return those of the queried keys that are contained
+   * in {@link #_existingKeys}.
+   *
+   * @param numPrimaryKeys The number of primary key columns of the queried table
+   * @return The connection
+   */
+  private Connection createMockConnection(int numPrimaryKeys) {
+    _database.setQueryHandler((sql, parameters) -> {
+      List<Object[]> rows = new ArrayList<>();
+
+      for (int idx = 0; idx < parameters.size(); idx += numPrimaryKeys) {
+        List<Object> key = parameters.subList(idx, idx + numPrimaryKeys);
+
+        if (_existingKeys.contains(key)) {
+          rows.add(padCharValues(key).toArray());
+        }
+      }
+      return new MockDatabase.MockResult(null, Collections.nCopies(numPrimaryKeys, "key"), rows);
+    });
+    return _database.createConnection();
+  }
+
+  /**
+   * Pads the string values to the length of the CHAR column in the test model as a database would.
+   *
+   * @param key The key values
+   * @return The padded key values
+   */
+  private List<Object> padCharValues(List<Object> key) {
+    List<Object> result = new ArrayList<>();
+
+    for (Object value : key) {
+      result.add(value instanceof String ? String.format("%-4s", value) : value);
+    }
+    return result;
+  }
+
+  /**
+   * Creates a row of the first table.
+   *
+   * @param model The model
+   * @param pk    The primary key value
+   * @return The row
+   */
+  private RowObject createRow1(Database model, Object pk) {
+    RowObject row = model.createRowObjectFor(model.findTable("table1"));
+
+    row.set("pk", pk);
+    return row;
+  }
+
+  /**
+   * Creates a row of the second table.
+   *
+   * @param model The model
+   * @param id    The id value
+   * @param code  The code value
+   * @return The row
+   */
+  private RowObject createRow2(Database model, Object id, String code) {
+    RowObject row = model.createRowObjectFor(model.findTable("table2"));
+
+    row.set("id", id);
+    row.set("code", code);
+    return row;
+  }
+
+  /**
+   * Tests that single-column keys are queried with IN lists limited by the maximum IN list size.
+   */
+  @Test
+  public void testSingleColumnKey() {
+    Database model = parseDatabaseFromString(TEST_MODEL);
+    PlatformImplBase platform = new TestPlatform();
+    List<RowObject> rows = new ArrayList<>();
+
+    platform.getPlatformInfo().setMaxInListSize(2);
+    for (int idx = 0; idx < 5; idx++) {
+      rows.add(createRow1(model, idx));
+    }
+    _existingKeys.add(Arrays.asList(1));
+    _existingKeys.add(Arrays.asList(4));
+
+    Set<RowObject> existing = platform.findExisting(createMockConnection(1), model, rows);
+
+    assertEquals(Arrays.asList(
+      "SELECT pk FROM table1 WHERE pk IN (?, ?)",
+      "SELECT pk FROM table1 WHERE pk IN (?, ?)",
+      "SELECT pk FROM table1 WHERE pk=?"), _database.getPreparedSql());
+    assertEquals(2, existing.size());
+    assertTrue(existing.contains(rows.get(1)));
+    assertTrue(existing.contains(rows.get(4)));
+  }
+
+  /**
+   * Tests that composite keys are queried with OR'ed conditions limited by the maximum number of
+   * parameters, that duplicate keys are queried once, and that the values read from the database
+   * are matched even if their representation differs.
+   */
+  @Test
+  public void testCompositeKey() {
+    Database model = parseDatabaseFromString(TEST_MODEL);
+    PlatformImplBase platform = new TestPlatform();
+    RowObject row1 = createRow2(model, 1, "ab");
+    RowObject row2 = createRow2(model, 1L, "ab");
+    RowObject row3 = createRow2(model, 2, "ab");
+    RowObject row4 = createRow2(model, 3, "cd");
+
+    platform.getPlatformInfo().setMaxParameterCount(7);
+    _existingKeys.add(Arrays.asList(1, "ab"));
+    _existingKeys.add(Arrays.asList(3, "cd"));
+
+    Set<RowObject> existing = platform.findExisting(createMockConnection(2), model, Arrays.asList(row1, row2, row3, row4));
+
+    assertEquals(Arrays.asList(
+      "SELECT id, code FROM table2 WHERE (id=? AND code=?) OR (id=? AND code=?)",
+      "SELECT id, code FROM table2 WHERE id=? AND code=?"), _database.getPreparedSql());
+    assertEquals(3, existing.size());
+    assertTrue(existing.contains(row1));
+    assertTrue(existing.contains(row2));
+    assertFalse(existing.contains(row3));
+    assertTrue(existing.contains(row4));
+  }
+}
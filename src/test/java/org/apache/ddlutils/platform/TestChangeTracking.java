@@ -0,0 +1,215 @@
+package org.apache.ddlutils.platform;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.MockDatabase;
+import org.apache.ddlutils.TestBase;
+import org.apache.ddlutils.data.RowObject;
+import org.apache.ddlutils.io.DatabaseIO;
+import org.apache.ddlutils.model.Database;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the change tracking of {@link RowObject} and its use when updating rows.
+ *
+ * @version $Revision: $
+ */
+public class TestChangeTracking extends TestBase {
+  /**
+   * The test model.
+   */
+  private static final String TEST_MODEL =
+    "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+      "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='test'>\n" +
+      "  <table name='table1'>\n" +
+      "    <column name='pk' type='INTEGER' primaryKey='true' required='true'/>\n" +
+      "    <column name='col1' type='VARCHAR' size='32'/>\n" +
+      "    <column name='col2' type='INTEGER'/>\n" +
+      "  </table>\n" +
+      "</database>";
+
+  /**
+   * The mocked database.
+   */
+  private final MockDatabase _database = new MockDatabase();
+  /**
+   * The model.
+   */
+  private Database _model;
+
+  /**
+   * Parses the test model.
+   */
+  @Before
+  public void setUp() {
+    _model = parseDatabaseFromString(TEST_MODEL);
+  }
+
+  /**
+   * Creates a row as if read from the database.
+   *
+   * @param pk The primary key value
+   * @return The row
+   */
+  private RowObject createLoadedRow(int pk) {
+    RowObject row = _model.createRowObjectFor(_model.findTable("table1"));
+
+    row.set("pk", pk);
+    row.set("col1", "text");
+    row.set("col2", 1);
+    row.markUnchanged();
+    return row;
+  }
+
+  /**
+   * Tests the tracking of the changed properties.
+   */
+  @Test
+  public void testTracking() {
+    RowObject row = _model.createRowObjectFor(_model.findTable("table1"));
+
+    row.set("col1", "text");
+    assertFalse(row.isChangeTracked());
+    assertTrue(row.isChanged("col2"));
+    assertNull(row.getChangedProperties());
+
+    row.markUnchanged();
+    row.set("col1", "text");
+    assertTrue(row.getChangedProperties().isEmpty());
+
+    row.set("col2", 2);
+    assertTrue(row.isChanged("col2"));
+    assertFalse(row.isChanged("col1"));
+    assertEquals(Collections.singleton("col2"), row.getChangedProperties());
+  }
+
+  /**
+   * Tests that changes made via the map methods are tracked.
+   */
+  @Test
+  public void testTrackingOfMapMethods() {
+    RowObject row = createLoadedRow(1);
+
+    row.put("col1", "text");
+    row.putAll(Collections.singletonMap("col2", 1));
+    assertTrue(row.getChangedProperties().isEmpty());
+
+    row.put("col1", "other");
+    assertEquals(Collections.singleton("col1"), row.getChangedProperties());
+
+    row = createLoadedRow(1);
+    row.merge("col2", 1, (oldValue, value) -> (Integer) oldValue + (Integer) value);
+    assertEquals(Collections.singleton("col2"), row.getChangedProperties());
+
+    row = createLoadedRow(1);
+    row.compute("col1", (key, value) -> value);
+    row.replace("col2", 1);
+    assertTrue(row.getChangedProperties().isEmpty());
+    row.remove("col1");
+    assertEquals(Collections.singleton("col1"), row.getChangedProperties());
+
+    row = createLoadedRow(1);
+    row.markChanged("col2");
+    assertEquals(Collections.singleton("col2"), row.getChangedProperties());
+  }
+
+  /**
+   * Tests that an update can be retried with all columns after the change tracking was stopped.
+   */
+  @Test
+  public void testRetryAfterStoppedTracking() {
+    PlatformImplBase platform = new TestPlatform();
+    Connection connection = _database.createConnection();
+    RowObject row = createLoadedRow(1);
+
+    row.put("col2", 2);
+    platform.update(connection, _model, row);
+    assertEquals(1, _database.getPreparedSql().size());
+
+    // e.g. after the transaction has been rolled back
+    row.stopChangeTracking();
+    platform.update(connection, _model, row);
+    assertEquals(2, _database.getPreparedSql().size());
+    assertTrue(_database.getPreparedSql().get(1).contains("col1"));
+    assertTrue(_database.getPreparedSql().get(1).contains("col2"));
+  }
+
+  /**
+   * Tests that updates only write the changed columns, and are skipped if nothing has changed.
+   */
+  @Test
+  public void testUpdateChangedColumns() {
+    PlatformImplBase platform = new TestPlatform();
+    Connection connection = _database.createConnection();
+    RowObject row = createLoadedRow(1);
+
+    platform.update(connection, _model, row);
+    assertTrue(_database.getPreparedSql().isEmpty());
+
+    row.set("col2", 2);
+    platform.update(connection, _model, row);
+    assertEquals(1, _database.getPreparedSql().size());
+    assertTrue(_database.getPreparedSql().get(0).contains("col2"));
+    assertFalse(_database.getPreparedSql().get(0).contains("col1"));
+    assertTrue(row.getChangedProperties().isEmpty());
+
+    RowObject newRow = _model.createRowObjectFor(_model.findTable("table1"));
+
+    newRow.set("pk", 2);
+    platform.update(connection, _model, newRow);
+    assertTrue(_database.getPreparedSql().get(1).contains("col1"));
+    assertTrue(_database.getPreparedSql().get(1).contains("col2"));
+    assertTrue(newRow.isChangeTracked());
+  }
+
+  /**
+   * Tests that batch updates group the rows by their changed columns.
+   */
+  @Test
+  public void testBatchUpdateChangedColumns() {
+    PlatformImplBase platform = new TestPlatform();
+    RowObject row1 = createLoadedRow(1);
+    RowObject row2 = createLoadedRow(2);
+    RowObject row3 = createLoadedRow(3);
+    RowObject row4 = createLoadedRow(4);
+
+    row1.set("col1", "a");
+    row2.set("col1", "b");
+    row3.set("col2", 3);
+    platform.update(_database.createConnection(), _model, Arrays.asList(row1, row2, row3, row4));
+
+    assertEquals(2, _database.getPreparedSql().size());
+    assertFalse(_database.getPreparedSql().get(0).contains("col2"));
+    assertFalse(_database.getPreparedSql().get(1).contains("col1"));
+    assertEquals(Arrays.asList(2, 1), _database.getBatchSizes());
+    assertTrue(row1.getChangedProperties().isEmpty());
+    assertTrue(row3.getChangedProperties().isEmpty());
+  }
+}
@@ -20,8 +20,14 @@ package org.apache.ddlutils.platform;
  */
 
 import org.apache.ddlutils.TestPlatformBase;
+import org.apache.ddlutils.model.Column;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
 /**
  * Tests the Derby platform.
  *
@@ -154,4 +160,23 @@ public class TestDerbyPlatform extends TestPlatformBase {
         ");\n",
       getCharEscapingTestDatabaseCreationSql());
   }
+
+  /**
+   * Tests the upsert statement, which repeats the parameters in the clauses.
+   */
+  @Test
+  public void testUpsertSql() {
+    List<Column> parameterColumns = new ArrayList<>();
+
+    assertEqualsIgnoringWhitespaces(
+      "MERGE INTO \"upsert\" TGT USING SYSIBM.SYSDUMMY1 " +
+        "ON TGT.\"COL_PK_1\" = CAST(? AS INTEGER) AND TGT.\"COL_PK_2\" = CAST(? AS VARCHAR(16)) " +
+        "WHEN MATCHED THEN UPDATE SET \"COL_TEXT\" = ?, \"COL_NUM\" = ? " +
+        "WHEN NOT MATCHED THEN INSERT (\"COL_PK_1\", \"COL_PK_2\", \"COL_TEXT\", \"COL_NUM\") VALUES (?, ?, ?, ?)",
+      getUpsertTestSql(parameterColumns));
+    assertEquals(8, parameterColumns.size());
+    assertEquals("COL_PK_2", parameterColumns.get(1).getName());
+    assertEquals("COL_TEXT", parameterColumns.get(2).getName());
+    assertEquals("COL_PK_1", parameterColumns.get(4).getName());
+  }
 }
@@ -0,0 +1,90 @@
+package org.apache.ddlutils.platform;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.TestBase;
+import org.apache.ddlutils.data.ColumnProperty;
+import org.apache.ddlutils.data.TableClass;
+import org.apache.ddlutils.io.DatabaseIO;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.platform.DmlSqlCache.SqlTemplate;
+import org.apache.ddlutils.platform.DmlSqlCache.StatementType;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests the {@link DmlSqlCache} class.
+ *
+ * @version $Revision: $
+ */
+public class TestDmlSqlCache extends TestBase {
+  /**
+   * The test model.
+   */
+  private static final String TEST_MODEL =
+    "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+      "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='test'>\n" +
+      "  <table name='table1'>\n" +
+      "    <column name='pk' type='INTEGER' primaryKey='true' required='true'/>\n" +
+      "    <column name='avalue1' type='VARCHAR' size='32'/>\n" +
+      "    <column name='avalue2' type='INTEGER'/>\n" +
+      "  </table>\n" +
+      "</database>";
+
+  /**
+   * Tests that the SQL is only generated once per statement type and set of properties.
+   */
+  @Test
+  public void testTemplatesPerShape() {
+    Database model = parseDatabaseFromString(TEST_MODEL);
+    TableClass tableClass = model.getTableClassFor("table1");
+    ColumnProperty[] allProperties = tableClass.getSqlDynaProperties();
+    ColumnProperty[] someProperties = new ColumnProperty[]{allProperties[0], allProperties[2]};
+    DmlSqlCache cache = new DmlSqlCache();
+    AtomicInteger generated = new AtomicInteger();
+
+    SqlTemplate template1 = cache.getTemplate(StatementType.INSERT, tableClass, allProperties,
+      () -> allProperties, () -> "SQL" + generated.incrementAndGet());
+    SqlTemplate template2 = cache.getTemplate(StatementType.INSERT, tableClass, tableClass.getSqlDynaProperties(),
+      () -> allProperties, () -> "SQL" + generated.incrementAndGet());
+    SqlTemplate template3 = cache.getTemplate(StatementType.INSERT, tableClass, someProperties,
+      () -> someProperties, () -> "SQL" + generated.incrementAndGet());
+    SqlTemplate template4 = cache.getTemplate(StatementType.DELETE, tableClass, someProperties,
+      () -> someProperties, () -> "SQL" + generated.incrementAndGet());
+
+    assertSame(template1, template2);
+    assertEquals("SQL1", template1.getSql());
+    assertArrayEquals(allProperties, template1.getParameters());
+    assertEquals("SQL2", template3.getSql());
+    assertArrayEquals(someProperties, template3.getParameters());
+    assertEquals("SQL3", template4.getSql());
+    assertEquals(3, generated.get());
+
+    cache.clear();
+    assertNotSame(template1, cache.getTemplate(StatementType.INSERT, tableClass, allProperties,
+      () -> allProperties, () -> "SQL" + generated.incrementAndGet()));
+  }
+}
@@ -0,0 +1,179 @@
+package org.apache.ddlutils.platform;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.TestBase;
+import org.apache.ddlutils.io.DatabaseIO;
+import org.apache.ddlutils.model.Column;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.Table;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the determination of the auto-increment columns in the {@link JdbcModelReader} class.
+ *
+ * @version $Revision: $
+ */
+public class TestJdbcModelReader extends TestBase {
+  /**
+   * The test model.
+   */
+  private static final String TEST_MODEL =
+    "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+      "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='test'>\n" +
+      "  <table name='table1'>\n" +
+      "    <column name='pk' type='INTEGER' primaryKey='true' required='true'/>\n" +
+      "    <column name='avalue' type='INTEGER'/>\n" +
+      "  </table>\n" +
+      "  <table name='table2'>\n" +
+      "    <column name='pk' type='INTEGER' primaryKey='true' required='true'/>\n" +
+      "  </table>\n" +
+      "</database>";
+
+  /**
+   * A model reader whose auto-increment columns are given by the test instead of the catalog.
+   */
+  private static class StubbedModelReader extends JdbcModelReader {
+    /**
+     * The auto-increment columns to return, or the exception to throw.
+     */
+    private final Object _autoIncrementColumns;
+    /**
+     * The number of times that the auto-increment columns have been read.
+     */
+    private int _readCount;
+    /**
+     * The tables for which the fallback via the result set metadata has been used.
+     */
+    private final List<String> _fallbackTables = new ArrayList<>();
+
+    /**
+     * Creates a new reader.
+     *
+     * @param autoIncrementColumns The auto-increment columns per table, <code>null</code>, or
+     *                             the exception to throw when reading them
+     */
+    StubbedModelReader(Object autoIncrementColumns) {
+      super(new TestPlatform());
+      _autoIncrementColumns = autoIncrementColumns;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    protected Map<String, Set<String>> readAutoIncrementColumns(DatabaseMetaDataWrapper metaData) throws SQLException {
+      _readCount++;
+      if (_autoIncrementColumns instanceof SQLException) {
+        throw (SQLException) _autoIncrementColumns;
+      }
+      return (Map<String, Set<String>>) _autoIncrementColumns;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void determineAutoIncrementFromResultSetMetaData(Table table, Column[] columnsToCheck) {
+      _fallbackTables.add(table.getName());
+    }
+  }
+
+  /**
+   * Determines the auto-increment status of all columns of all tables of the test model.
+   *
+   * @param reader The reader
+   * @return The model
+   */
+  private Database determineAutoIncrementColumns(JdbcModelReader reader) throws SQLException {
+    Database model = parseDatabaseFromString(TEST_MODEL);
+
+    for (Table table : model.getTables()) {
+      reader.determineAutoIncrementColumns(new DatabaseMetaDataWrapper(), table, table.getColumns());
+    }
+    return model;
+  }
+
+  /**
+   * Tests that the auto-increment columns read from the catalog are merged into the columns.
+   */
+  @Test
+  public void testMergeAutoIncrementColumns() throws SQLException {
+    Map<String, Set<String>> autoIncrementColumns = new HashMap<>();
+
+    autoIncrementColumns.put("table1", new HashSet<>(Arrays.asList("pk", "unknown")));
+    autoIncrementColumns.put("other", Collections.singleton("pk"));
+
+    StubbedModelReader reader = new StubbedModelReader(autoIncrementColumns);
+    Database model = determineAutoIncrementColumns(reader);
+
+    assertTrue(model.findTable("table1").findColumn("pk").isAutoIncrement());
+    assertFalse(model.findTable("table1").findColumn("avalue").isAutoIncrement());
+    assertFalse(model.findTable("table2").findColumn("pk").isAutoIncrement());
+    assertEquals(1, reader._readCount);
+    assertTrue(reader._fallbackTables.isEmpty());
+  }
+
+  /**
+   * Tests that the columns are left untouched and the tables are checked individually if the
+   * auto-increment columns cannot be read from the catalog.
+   */
+  @Test
+  public void testNoAutoIncrementColumns() throws SQLException {
+    StubbedModelReader reader = new StubbedModelReader(null);
+    Database model = determineAutoIncrementColumns(reader);
+
+    for (Table table : model.getTables()) {
+      for (Column column : table.getColumns()) {
+        assertFalse(column.isAutoIncrement());
+      }
+    }
+    assertEquals(1, reader._readCount);
+    assertEquals(Arrays.asList("table1", "table2"), reader._fallbackTables);
+  }
+
+  /**
+   * Tests that the tables are checked individually if reading the auto-increment columns
+   * from the catalog fails.
+   */
+  @Test
+  public void testAutoIncrementColumnsReadError() throws SQLException {
+    StubbedModelReader reader = new StubbedModelReader(new SQLException("No access to the catalog"));
+
+    determineAutoIncrementColumns(reader);
+    assertEquals(1, reader._readCount);
+    assertEquals(Arrays.asList("table1", "table2"), reader._fallbackTables);
+  }
+}
@@ -330,4 +330,17 @@ public class TestMSSqlPlatform extends TestPlatformBase {
         ");\n",
       sql);
   }
+
+  /**
+   * Tests the disabling and enabling of foreign keys.
+   */
+  @Test
+  public void testForeignKeyDisabling() throws Exception {
+    assertEqualsIgnoringWhitespaces(
+      "ALTER TABLE \"child\" NOCHECK CONSTRAINT \"child_fk_1\";\n" +
+        "ALTER TABLE \"child\" NOCHECK CONSTRAINT \"child_fk_2\";\n" +
+        "ALTER TABLE \"child\" WITH CHECK CHECK CONSTRAINT \"child_fk_1\";\n" +
+        "ALTER TABLE \"child\" WITH CHECK CHECK CONSTRAINT \"child_fk_2\";\n",
+      getForeignKeyDisablingTestSql());
+  }
 }
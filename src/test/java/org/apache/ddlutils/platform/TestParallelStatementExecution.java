@@ -0,0 +1,255 @@
+package org.apache.ddlutils.platform;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.DatabaseOperationException;
+import org.apache.ddlutils.MockDatabase;
+import org.apache.ddlutils.TestBase;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the concurrent execution of generated statements on several connections via
+ * {@link PlatformImplBase#executeGeneratedStatements(Connection, boolean, PlatformImplBase.SqlGenerator)}.
+ *
+ * @version $Revision: $
+ */
+public class TestParallelStatementExecution extends TestBase {
+  /**
+   * The mocked database.
+   */
+  private MockDatabase _database;
+  /**
+   * The platform.
+   */
+  private TestPlatform _platform;
+  /**
+   * The statements in the order in which their execution finished.
+   */
+  private List<String> _finishedStatements;
+
+  /**
+   * Creates the platform with a DDL parallelism of 3.
+   */
+  @Before
+  public void setUpPlatform() {
+    _database = new MockDatabase();
+    _platform = new TestPlatform();
+    _finishedStatements = Collections.synchronizedList(new ArrayList<>());
+    _platform.setDataSource(_database.getDataSource());
+    _platform.setDdlParallelism(3);
+  }
+
+  /**
+   * Makes the database execute the statements by recording them, and by failing the statements
+   * that contain the word <code>FAIL</code>. The waiting statement does not finish before the
+   * releasing one, which thus has to be executed concurrently.
+   *
+   * @param waitingStatement   The statement that waits for the releasing one, if any
+   * @param releasingStatement The statement that releases the waiting one, if any
+   */
+  private void setUpdateHandler(String waitingStatement, String releasingStatement) {
+    CountDownLatch latch = new CountDownLatch(1);
+
+    _database.setUpdateHandler((sql, parameters) -> {
+      if (sql.equals(waitingStatement)) {
+        try {
+          if (!latch.await(10, TimeUnit.SECONDS)) {
+            throw new SQLException("Timed out while waiting in " + sql);
+          }
+        } catch (InterruptedException ex) {
+          throw new SQLException(ex);
+        }
+      }
+      if (sql.contains("FAIL")) {
+        throw new SQLException("Statement " + sql + " failed");
+      }
+      _finishedStatements.add(sql);
+      if (sql.equals(releasingStatement)) {
+        latch.countDown();
+      }
+      return 0;
+    });
+  }
+
+  /**
+   * Generates the given statements.
+   *
+   * @param builder    The sql builder
+   * @param statements The statements
+   */
+  private void printStatements(SqlBuilder builder, String... statements) throws IOException {
+    for (String statement : statements) {
+      builder.print(statement);
+      builder.printEndOfStatement();
+    }
+  }
+
+  /**
+   * Executes the statements generated by the given generator on a new connection.
+   *
+   * @param continueOnError Whether to continue executing statements when an error occurred
+   * @param generator       The generator
+   * @return The number of errors
+   */
+  private int execute(boolean continueOnError, PlatformImplBase.SqlGenerator generator) {
+    Connection connection = _database.createConnection();
+
+    try {
+      return _platform.executeGeneratedStatements(connection, continueOnError, generator);
+    } finally {
+      _platform.returnConnection(connection);
+    }
+  }
+
+  /**
+   * Asserts that the borrowed connections have been returned.
+   */
+  private void assertConnectionsReturned() {
+    assertEquals(0, _database.getOpenConnectionCount());
+    assertEquals(3, _database.getConnections().size());
+  }
+
+  /**
+   * Tests that the groups of one table are executed in order while other tables are
+   * processed concurrently.
+   */
+  @Test
+  public void testPerTableOrdering() {
+    SqlBuilder builder = _platform.getSqlBuilder();
+
+    setUpdateHandler("UPDATE table1 SET a = 1", "UPDATE table2 SET b = 2");
+
+    int errors = execute(false, () -> {
+      builder.startStatementGroup(Collections.singleton("table1"));
+      printStatements(builder, "UPDATE table1 SET a = 1", "UPDATE table1 SET a = 2");
+      builder.startStatementGroup(Collections.singleton("table2"));
+      printStatements(builder, "UPDATE table2 SET b = 1");
+      builder.startStatementGroup(Collections.singleton("table2"));
+      printStatements(builder, "UPDATE table2 SET b = 2");
+      builder.startStatementGroup(Collections.singleton("table1"));
+      printStatements(builder, "UPDATE table1 SET a = 3");
+    });
+
+    assertEquals(0, errors);
+    assertEquals(5, _finishedStatements.size());
+    assertTrue(_finishedStatements.indexOf("UPDATE table2 SET b = 2") < _finishedStatements.indexOf("UPDATE table1 SET a = 1"));
+    assertTrue(_finishedStatements.indexOf("UPDATE table1 SET a = 1") < _finishedStatements.indexOf("UPDATE table1 SET a = 2"));
+    assertTrue(_finishedStatements.indexOf("UPDATE table1 SET a = 2") < _finishedStatements.indexOf("UPDATE table1 SET a = 3"));
+    assertTrue(_finishedStatements.indexOf("UPDATE table2 SET b = 1") < _finishedStatements.indexOf("UPDATE table2 SET b = 2"));
+    assertConnectionsReturned();
+  }
+
+  /**
+   * Tests that a group that can affect any table waits for all previous groups, and that all
+   * later groups wait for it.
+   */
+  @Test
+  public void testBarrierGroup() {
+    SqlBuilder builder = _platform.getSqlBuilder();
+
+    setUpdateHandler("UPDATE table1 SET a = 1", "UPDATE table2 SET b = 1");
+
+    int errors = execute(false, () -> {
+      builder.startStatementGroup(Collections.singleton("table1"));
+      printStatements(builder, "UPDATE table1 SET a = 1");
+      builder.startStatementGroup(Collections.singleton("table2"));
+      printStatements(builder, "UPDATE table2 SET b = 1");
+      builder.startStatementGroup(null);
+      printStatements(builder, "CREATE VIEW view1 AS SELECT * FROM table1");
+      builder.startStatementGroup(Collections.singleton("table3"));
+      printStatements(builder, "UPDATE table3 SET c = 1");
+    });
+
+    assertEquals(0, errors);
+    assertEquals(Arrays.asList("UPDATE table2 SET b = 1", "UPDATE table1 SET a = 1"), _finishedStatements.subList(0, 2));
+    assertEquals(Arrays.asList("CREATE VIEW view1 AS SELECT * FROM table1", "UPDATE table3 SET c = 1"),
+      _finishedStatements.subList(2, 4));
+    assertConnectionsReturned();
+  }
+
+  /**
+   * Tests that the groups that have not started yet are skipped once a statement failed.
+   */
+  @Test
+  public void testFailFast() {
+    SqlBuilder builder = _platform.getSqlBuilder();
+
+    setUpdateHandler(null, null);
+    try {
+      execute(false, () -> {
+        builder.startStatementGroup(Collections.singleton("table1"));
+        printStatements(builder, "UPDATE table1 SET a = 1", "UPDATE table1 FAIL", "UPDATE table1 SET a = 2");
+        builder.startStatementGroup(null);
+        printStatements(builder, "CREATE VIEW view1 AS SELECT * FROM table1");
+        builder.startStatementGroup(Collections.singleton("table2"));
+        printStatements(builder, "UPDATE table2 SET b = 1");
+      });
+      fail();
+    } catch (DatabaseOperationException ex) {
+      assertTrue(ex.getMessage(), ex.getMessage().contains("UPDATE table1 FAIL"));
+    }
+    assertEquals(Collections.singletonList("UPDATE table1 SET a = 1"), _finishedStatements);
+    assertFalse(_database.getExecutedSql().contains("UPDATE table2 SET b = 1"));
+    assertConnectionsReturned();
+  }
+
+  /**
+   * Tests that the errors of all groups are counted when continuing on errors.
+   */
+  @Test
+  public void testContinueOnError() {
+    SqlBuilder builder = _platform.getSqlBuilder();
+
+    setUpdateHandler(null, null);
+
+    int errors = execute(true, () -> {
+      builder.startStatementGroup(Collections.singleton("table1"));
+      printStatements(builder, "UPDATE table1 FAIL", "UPDATE table1 SET a = 1");
+      builder.startStatementGroup(Collections.singleton("table2"));
+      printStatements(builder, "UPDATE table2 FAIL");
+      builder.startStatementGroup(null);
+      printStatements(builder, "DROP VIEW view1 FAIL");
+      builder.startStatementGroup(Collections.singleton("table2"));
+      printStatements(builder, "UPDATE table2 SET b = 1");
+    });
+
+    assertEquals(3, errors);
+    assertEquals(2, _finishedStatements.size());
+    assertTrue(_finishedStatements.contains("UPDATE table1 SET a = 1"));
+    assertTrue(_finishedStatements.contains("UPDATE table2 SET b = 1"));
+    assertConnectionsReturned();
+  }
+}
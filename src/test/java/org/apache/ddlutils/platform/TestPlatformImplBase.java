@@ -20,6 +20,7 @@ package org.apache.ddlutils.platform;
  */
 
 import org.apache.ddlutils.TestBase;
+import org.apache.ddlutils.alteration.AddColumnChange;
 import org.apache.ddlutils.data.RowObject;
 import org.apache.ddlutils.data.TableClass;
 import org.apache.ddlutils.io.DatabaseIO;
@@ -28,6 +29,9 @@ import org.apache.ddlutils.model.Table;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -56,4 +60,32 @@ public class TestPlatformImplBase extends TestBase {
     Assert.assertEquals("name", map.get("name"));
     Assert.assertTrue(map.containsKey("id"));
   }
+
+  /**
+   * Tests that the change handlers defined in platform subclasses override the ones of the base classes.
+   */
+  @Test
+  public void testChangeHandlerOverride() {
+    final String model1Xml = "<?xml version='1.0' encoding='ISO-8859-1'?>\n" + "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='ddlutils'>\n" + "  <table name='TestTable'>\n" + "    <column name='id' type='INTEGER' primaryKey='true' required='true'/>\n" + "  </table>\n" + "</database>";
+    final String model2Xml = "<?xml version='1.0' encoding='ISO-8859-1'?>\n" + "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='ddlutils'>\n" + "  <table name='TestTable'>\n" + "    <column name='id' type='INTEGER' primaryKey='true' required='true'/>\n" + "    <column name='name' type='VARCHAR' size='15'/>\n" + "  </table>\n" + "</database>";
+    final List<String> handledColumns = new ArrayList<>();
+
+    PlatformImplBase platform = new TestPlatform() {
+      @Override
+      public void processChange(Database currentModel, CreationParameters params, AddColumnChange change) throws IOException {
+        handledColumns.add(change.getNewColumn().getName());
+        super.processChange(currentModel, params, change);
+      }
+    };
+
+    for (int idx = 0; idx < 2; idx++) {
+      platform.getAlterModelSql(parseDatabaseFromString(model1Xml), parseDatabaseFromString(model2Xml));
+    }
+    Assert.assertEquals(2, handledColumns.size());
+    Assert.assertEquals("name", handledColumns.get(0));
+
+    // a platform of the base class must not use the handler of the subclass
+    new TestPlatform().getAlterModelSql(parseDatabaseFromString(model1Xml), parseDatabaseFromString(model2Xml));
+    Assert.assertEquals(2, handledColumns.size());
+  }
 }
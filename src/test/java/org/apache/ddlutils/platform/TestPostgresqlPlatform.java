@@ -21,8 +21,16 @@ package org.apache.ddlutils.platform;
 
 import org.apache.ddlutils.TestPlatformBase;
 import org.apache.ddlutils.io.DatabaseIO;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.Column;
+import org.apache.ddlutils.model.Table;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
 /**
  * Tests the PostgreSQL platform.
  *
@@ -170,4 +178,122 @@ public class TestPostgresqlPlatform extends TestPlatformBase {
         ");\n",
       getDatabaseCreationSql(schema));
   }
+
+  /**
+   * Tests the statements for altering a table online via a shadow table.
+   */
+  @Test
+  public void testShadowTableStatements() throws Exception {
+    final String schema =
+      "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+        "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='shadowtest'>\n" +
+        "  <table name='orders'>\n" +
+        "    <column name='id' type='INTEGER' primaryKey='true' required='true' autoIncrement='true'/>\n" +
+        "    <column name='amount' type='INTEGER'/>\n" +
+        "    <column name='note' type='VARCHAR' size='32'/>\n" +
+        "    <index name='orders_amount'>\n" +
+        "      <index-column name='amount'/>\n" +
+        "    </index>\n" +
+        "  </table>\n" +
+        "  <table name='orders_target'>\n" +
+        "    <column name='id' type='INTEGER' primaryKey='true' required='true' autoIncrement='true'/>\n" +
+        "    <column name='amount' type='INTEGER'/>\n" +
+        "    <index name='orders_amount'>\n" +
+        "      <index-column name='amount'/>\n" +
+        "    </index>\n" +
+        "  </table>\n" +
+        "  <table name='_orders_new'>\n" +
+        "    <column name='id' type='INTEGER' primaryKey='true' required='true' autoIncrement='true'/>\n" +
+        "    <column name='amount' type='INTEGER'/>\n" +
+        "    <index name='_orders_amount_new'>\n" +
+        "      <index-column name='amount'/>\n" +
+        "    </index>\n" +
+        "  </table>\n" +
+        "</database>";
+
+    Database model = parseDatabaseFromString(schema);
+    Table sourceTable = model.getTable(0);
+    Table targetTable = model.getTable(1);
+    Table shadowTable = model.getTable(2);
+
+    getSqlBuilder().createShadowTableTriggers(sourceTable, shadowTable, sourceTable.getColumn(0));
+    getSqlBuilder().backfillShadowTable(sourceTable, shadowTable, sourceTable.getColumn(0), 1, 1000);
+    getSqlBuilder().swapShadowTable(sourceTable, shadowTable);
+    getSqlBuilder().finishShadowTableSwap(sourceTable, shadowTable, targetTable);
+    assertEqualsIgnoringWhitespaces(
+      "CREATE OR REPLACE FUNCTION \"orders_osc_fn\"() RETURNS trigger AS $$ BEGIN " +
+        "IF TG_OP <> 'INSERT' THEN DELETE FROM \"_orders_new\" WHERE \"id\" = OLD.\"id\"; END IF; " +
+        "IF TG_OP <> 'DELETE' THEN DELETE FROM \"_orders_new\" WHERE \"id\" = NEW.\"id\"; " +
+        "INSERT INTO \"_orders_new\" (\"id\",\"amount\") VALUES (NEW.\"id\",NEW.\"amount\"); END IF; " +
+        "RETURN NULL; END $$ LANGUAGE plpgsql;\n" +
+        "CREATE TRIGGER \"orders_osc_trg\" AFTER INSERT OR UPDATE OR DELETE ON \"orders\" " +
+        "FOR EACH ROW EXECUTE PROCEDURE \"orders_osc_fn\"();\n" +
+        "INSERT INTO \"_orders_new\" (\"id\",\"amount\") SELECT \"id\",\"amount\" FROM \"orders\" " +
+        "WHERE \"id\" BETWEEN 1 AND 1000 FOR SHARE ON CONFLICT DO NOTHING;\n" +
+        "ALTER TABLE \"orders\" RENAME TO \"_orders_old\";\n" +
+        "ALTER TABLE \"_orders_new\" RENAME TO \"orders\";\n" +
+        "ALTER TABLE \"orders\" ALTER COLUMN \"id\" SET DEFAULT nextval('\"orders_id_seq\"');\n" +
+        "ALTER SEQUENCE \"orders_id_seq\" OWNED BY NONE;\n" +
+        "DROP TABLE \"_orders_old\";\n" +
+        "DROP FUNCTION \"orders_osc_fn\"();\n" +
+        "DROP SEQUENCE \"_orders_new_id_seq\";\n" +
+        "ALTER INDEX \"_orders_amount_new\" RENAME TO \"orders_amount\";\n",
+      getBuilderOutput());
+  }
+
+  /**
+   * Tests that the sequence of a SERIAL column, which is owned by the column, is released
+   * before the old table is dropped so that the swapped table keeps its auto-increment.
+   */
+  @Test
+  public void testShadowTableSwapOfSerialColumn() throws Exception {
+    final String schema =
+      "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+        "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='shadowtest'>\n" +
+        "  <table name='events'>\n" +
+        "    <column name='id' type='BIGINT' primaryKey='true' required='true' autoIncrement='true'/>\n" +
+        "    <column name='seqno' type='INTEGER' autoIncrement='true'/>\n" +
+        "    <column name='payload' type='VARCHAR' size='64'/>\n" +
+        "  </table>\n" +
+        "  <table name='_events_new'>\n" +
+        "    <column name='id' type='BIGINT' primaryKey='true' required='true' autoIncrement='true'/>\n" +
+        "    <column name='seqno' type='INTEGER' autoIncrement='true'/>\n" +
+        "    <column name='payload' type='VARCHAR' size='128'/>\n" +
+        "  </table>\n" +
+        "</database>";
+
+    Database model = parseDatabaseFromString(schema);
+    Table sourceTable = model.getTable(0);
+    Table shadowTable = model.getTable(1);
+
+    getSqlBuilder().swapShadowTable(sourceTable, shadowTable);
+    getSqlBuilder().finishShadowTableSwap(sourceTable, shadowTable, sourceTable);
+    assertEqualsIgnoringWhitespaces(
+      "ALTER TABLE \"events\" RENAME TO \"_events_old\";\n" +
+        "ALTER TABLE \"_events_new\" RENAME TO \"events\";\n" +
+        "ALTER TABLE \"events\" ALTER COLUMN \"id\" SET DEFAULT nextval('\"events_id_seq\"');\n" +
+        "ALTER SEQUENCE \"events_id_seq\" OWNED BY NONE;\n" +
+        "ALTER TABLE \"events\" ALTER COLUMN \"seqno\" SET DEFAULT nextval('\"events_seqno_seq\"');\n" +
+        "ALTER SEQUENCE \"events_seqno_seq\" OWNED BY NONE;\n" +
+        "DROP TABLE \"_events_old\";\n" +
+        "DROP FUNCTION \"events_osc_fn\"();\n" +
+        "DROP SEQUENCE \"_events_new_id_seq\";\n" +
+        "DROP SEQUENCE \"_events_new_seqno_seq\";\n",
+      getBuilderOutput());
+  }
+
+  /**
+   * Tests the upsert statement.
+   */
+  @Test
+  public void testUpsertSql() {
+    List<Column> parameterColumns = new ArrayList<>();
+
+    assertEqualsIgnoringWhitespaces(
+      "INSERT INTO \"upsert\" (\"COL_PK_1\", \"COL_PK_2\", \"COL_TEXT\", \"COL_NUM\") VALUES (?, ?, ?, ?) " +
+        "ON CONFLICT (\"COL_PK_1\", \"COL_PK_2\") " +
+        "DO UPDATE SET \"COL_TEXT\" = EXCLUDED.\"COL_TEXT\", \"COL_NUM\" = EXCLUDED.\"COL_NUM\"",
+      getUpsertTestSql(parameterColumns));
+    assertEquals(4, parameterColumns.size());
+  }
 }
@@ -0,0 +1,139 @@
+package org.apache.ddlutils.platform;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.MockDatabase;
+import org.apache.ddlutils.TestBase;
+import org.apache.ddlutils.data.RowObject;
+import org.apache.ddlutils.io.DatabaseIO;
+import org.apache.ddlutils.model.Database;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link PreparedStatementCache} class and its use by the platform.
+ *
+ * @version $Revision: $
+ */
+public class TestPreparedStatementCache extends TestBase {
+  /**
+   * The test model.
+   */
+  private static final String TEST_MODEL =
+    "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+      "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='test'>\n" +
+      "  <table name='table1'>\n" +
+      "    <column name='pk' type='INTEGER' primaryKey='true' required='true'/>\n" +
+      "    <column name='avalue' type='VARCHAR' size='32'/>\n" +
+      "  </table>\n" +
+      "</database>";
+
+  /**
+   * The mocked database.
+   */
+  private final MockDatabase _database = new MockDatabase();
+
+  /**
+   * Tests that released statements are reused and that the least recently used statements are evicted.
+   */
+  @Test
+  public void testLeastRecentlyUsedEviction() throws Exception {
+    PreparedStatementCache cache = new PreparedStatementCache(2);
+    Connection connection = _database.createConnection();
+    PreparedStatement stmtA = cache.prepareStatement(connection, "A");
+
+    assertTrue(cache.release(stmtA));
+    assertSame(stmtA, cache.prepareStatement(connection, "A"));
+    cache.release(stmtA);
+
+    PreparedStatement stmtB = cache.prepareStatement(connection, "B");
+
+    cache.release(stmtB);
+    // A is now the least recently used statement
+    cache.release(cache.prepareStatement(connection, "C"));
+
+    assertTrue(stmtA.isClosed());
+    assertFalse(stmtB.isClosed());
+    assertSame(stmtB, cache.prepareStatement(connection, "B"));
+    assertEquals(2, cache.getHitCount());
+    assertEquals(3, cache.getMissCount());
+
+    cache.release(stmtB);
+    cache.close(connection);
+    assertEquals(3, _database.getClosedStatementCount());
+  }
+
+  /**
+   * Tests that a statement in use is not handed out a second time.
+   */
+  @Test
+  public void testNestedUse() throws Exception {
+    PreparedStatementCache cache = new PreparedStatementCache(2);
+    Connection connection = _database.createConnection();
+    PreparedStatement outer = cache.prepareStatement(connection, "A");
+    PreparedStatement inner = cache.prepareStatement(connection, "A");
+
+    assertNotSame(outer, inner);
+    assertFalse(cache.release(connection.prepareStatement("A")));
+    cache.release(inner);
+    cache.release(outer);
+    assertTrue(inner.isClosed());
+    assertEquals(0, cache.getHitCount());
+    assertEquals(2, cache.getMissCount());
+  }
+
+  /**
+   * Tests that the platform reuses the statements of repeated updates on a connection, and that
+   * returning the connection closes the cached statements.
+   */
+  @Test
+  public void testPlatformUsesCache() {
+    Database model = parseDatabaseFromString(TEST_MODEL);
+    PlatformImplBase platform = new TestPlatform();
+    Connection connection = _database.createConnection();
+
+    assertNull(platform.getPreparedStatementCache());
+    platform.setPreparedStatementCacheSize(4);
+    for (int idx = 0; idx < 3; idx++) {
+      RowObject row = model.createRowObjectFor(model.findTable("table1"));
+
+      row.set("pk", idx);
+      row.set("avalue", "text" + idx);
+      platform.update(connection, model, row);
+    }
+
+    assertEquals(1, _database.getPreparedSql().size());
+    assertEquals(2, platform.getPreparedStatementCache().getHitCount());
+    assertEquals(1, platform.getPreparedStatementCache().getMissCount());
+    assertEquals(0, _database.getClosedStatementCount());
+
+    platform.returnConnection(connection);
+    assertEquals(1, _database.getClosedStatementCount());
+  }
+}
@@ -0,0 +1,134 @@
+package org.apache.ddlutils.platform;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.MockDatabase;
+import org.apache.ddlutils.TestBase;
+import org.apache.ddlutils.data.RowObject;
+import org.apache.ddlutils.io.DatabaseIO;
+import org.apache.ddlutils.model.Database;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the query streams of the platform.
+ *
+ * @version $Revision: $
+ */
+public class TestQueryStream extends TestBase {
+  /**
+   * The test model.
+   */
+  private static final String TEST_MODEL =
+    "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+      "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='test'>\n" +
+      "  <table name='table1'>\n" +
+      "    <column name='pk' type='INTEGER' primaryKey='true' required='true'/>\n" +
+      "  </table>\n" +
+      "</database>";
+
+  /**
+   * The number of rows returned by the mocked query.
+   */
+  private static final int NUM_ROWS = 100;
+
+  /**
+   * The mocked database.
+   */
+  private final MockDatabase _database = new MockDatabase();
+  /**
+   * The platform.
+   */
+  private PlatformImplBase _platform;
+  /**
+   * The model.
+   */
+  private Database _model;
+
+  /**
+   * Creates the platform with a data source whose queries return {@link #NUM_ROWS} rows.
+   */
+  @Before
+  public void setUp() {
+    _model = parseDatabaseFromString(TEST_MODEL);
+    _platform = new TestPlatform();
+    _platform.setDataSource(_database.getDataSource());
+    _database.setQueryHandler((sql, parameters) -> new MockDatabase.MockResult("table1", Collections.singletonList("pk"),
+      IntStream.range(0, NUM_ROWS).mapToObj(idx -> new Object[]{idx}).collect(Collectors.toList())));
+  }
+
+  /**
+   * Tests that closing a stream that has not been fully consumed releases the statement and connection.
+   */
+  @Test
+  public void testCloseReleasesConnection() {
+    try (Stream<RowObject> stream = _platform.stream(_model, "SELECT pk FROM table1")) {
+      assertEquals(5, stream.limit(5).count());
+      assertFalse(_database.getConnections().get(0).isClosed());
+    }
+    assertEquals(1, _database.getClosedStatementCount());
+    assertTrue(_database.getConnections().get(0).isClosed());
+    assertTrue(_database.getReadRowCount() < NUM_ROWS);
+  }
+
+  /**
+   * Tests that a parallel stream processes all rows in order, and that reading all rows releases
+   * the connection.
+   */
+  @Test
+  public void testParallelStream() {
+    _platform.setStreamBatchSize(7);
+
+    List<Integer> values = _platform.stream(_model, "SELECT pk FROM table1")
+      .parallel()
+      .map(row -> (Integer) row.get("pk"))
+      .collect(Collectors.toList());
+
+    assertEquals(IntStream.range(0, NUM_ROWS).boxed().collect(Collectors.toList()), values);
+    assertTrue(_database.getConnections().get(0).isClosed());
+  }
+
+  /**
+   * Tests that the spliterator hands off batches of the configured size.
+   */
+  @Test
+  public void testSplitBatches() {
+    List<RowObject> rows = IntStream.range(0, 5).mapToObj(idx -> _model.createRowObjectFor(_model.findTable("table1"))).collect(Collectors.toList());
+    ResultSetSpliterator spliterator = new ResultSetSpliterator(rows.iterator(), 2);
+
+    assertEquals(2, spliterator.trySplit().estimateSize());
+    assertEquals(2, spliterator.trySplit().estimateSize());
+    assertEquals(1, spliterator.trySplit().estimateSize());
+    assertNull(spliterator.trySplit());
+    assertTrue(spliterator.hasCharacteristics(Spliterator.ORDERED));
+  }
+}
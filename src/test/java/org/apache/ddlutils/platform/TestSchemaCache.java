@@ -0,0 +1,252 @@
+package org.apache.ddlutils.platform;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.MockDatabase;
+import org.apache.ddlutils.TestBase;
+import org.apache.ddlutils.io.DatabaseIO;
+import org.apache.ddlutils.model.Column;
+import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.Table;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests the {@link SchemaCache} class and its use by the {@link JdbcModelReader}.
+ *
+ * @version $Revision: $
+ */
+public class TestSchemaCache extends TestBase {
+  /**
+   * The test model.
+   */
+  private static final String TEST_MODEL =
+    "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+      "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='test'>\n" +
+      "  <table name='table1'>\n" +
+      "    <column name='pk' type='INTEGER' primaryKey='true' required='true' autoIncrement='true'/>\n" +
+      "    <column name='avalue' type='VARCHAR' size='32' default='text'/>\n" +
+      "    <index name='testindex'>\n" +
+      "      <index-column name='avalue'/>\n" +
+      "    </index>\n" +
+      "  </table>\n" +
+      "  <table name='table2'>\n" +
+      "    <column name='pk' type='INTEGER' primaryKey='true' required='true'/>\n" +
+      "    <column name='fk' type='INTEGER'/>\n" +
+      "    <foreign-key foreignTable='table1'>\n" +
+      "      <reference local='fk' foreign='pk'/>\n" +
+      "    </foreign-key>\n" +
+      "  </table>\n" +
+      "</database>";
+
+  /**
+   * A model reader whose change tokens and catalog are given by the test, and that records
+   * the tables that it reads.
+   */
+  private static class RecordingModelReader extends JdbcModelReader {
+    /**
+     * The change tokens per table name, in the order of the tables in the catalog.
+     */
+    private Map<String, String> _changeTokens = new LinkedHashMap<>();
+    /**
+     * The names of the tables that have been read from the metadata.
+     */
+    private final List<String> _readTables = new ArrayList<>();
+    /**
+     * The number of tables read so far, used to tell the individual reads apart.
+     */
+    private int _readCount;
+
+    /**
+     * Creates a new reader.
+     */
+    RecordingModelReader() {
+      super(new TestPlatform());
+      setCatalogQueriesUsed(true);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Map<String, String> readTableChangeTokens(DatabaseMetaDataWrapper metaData) {
+      return new HashMap<>(_changeTokens);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected CatalogMetaData readCatalogMetaData(DatabaseMetaDataWrapper metaData) {
+      CatalogMetaData result = new CatalogMetaData();
+
+      for (String tableName : _changeTokens.keySet()) {
+        result.addTable(Collections.singletonMap("TABLE_NAME", tableName));
+      }
+      return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Table readTable(DatabaseMetaDataWrapper metaData, Map<String, Object> values) {
+      Table table = new Table();
+      Column column = new Column();
+
+      table.setName((String) values.get("TABLE_NAME"));
+      table.setDescription("read " + (++_readCount));
+      column.setName("pk");
+      column.setPrimaryKey(true);
+      column.setTypeCode(Types.INTEGER);
+      table.addColumn(column);
+      _readTables.add(table.getName());
+      return table;
+    }
+  }
+
+  /**
+   * Creates an empty temporary directory for the cache.
+   *
+   * @return The directory
+   */
+  private File createCacheDir() throws Exception {
+    File dir = Files.createTempDirectory("schemacache").toFile();
+
+    dir.deleteOnExit();
+    return dir;
+  }
+
+  /**
+   * Tests that a stored snapshot is loaded again.
+   */
+  @Test
+  public void testStoreAndLoad() throws Exception {
+    SchemaCache cache = new SchemaCache(createCacheDir());
+    Database model = parseDatabaseFromString(TEST_MODEL);
+    Map<String, String> changeTokens = new HashMap<>();
+    String key = cache.createKey("jdbc:test:db", "sa", null, "public", null, new String[]{"TABLE"});
+
+    changeTokens.put("table1", "1:2");
+    changeTokens.put("table2", "3:4");
+    assertNull(cache.load(key));
+
+    cache.store(key, new SchemaCache.Snapshot(changeTokens, model));
+
+    SchemaCache.Snapshot snapshot = cache.load(key);
+
+    assertNotNull(snapshot);
+    assertEquals(changeTokens, snapshot.getChangeTokens());
+    assertEquals(model, snapshot.getModel());
+    for (File file : cache.getDirectory().listFiles()) {
+      file.deleteOnExit();
+    }
+  }
+
+  /**
+   * Tests that snapshots are distinguished by their keys.
+   */
+  @Test
+  public void testKeys() throws Exception {
+    SchemaCache cache = new SchemaCache(createCacheDir());
+    String key1 = cache.createKey("jdbc:test:db", "sa", null, "public", null, new String[]{"TABLE"});
+    String key2 = cache.createKey("jdbc:test:db", "sa", null, "public", null, new String[]{"TABLE", "VIEW"});
+
+    cache.store(key1, new SchemaCache.Snapshot(new HashMap<>(), parseDatabaseFromString(TEST_MODEL)));
+
+    assertNotNull(cache.load(key1));
+    assertNull(cache.load(key2));
+    for (File file : cache.getDirectory().listFiles()) {
+      file.deleteOnExit();
+    }
+  }
+
+  /**
+   * Reads the model with the given reader.
+   *
+   * @param reader The reader
+   * @return The names and descriptions of the read tables
+   */
+  private List<String> readModel(RecordingModelReader reader) throws SQLException {
+    Connection connection = new MockDatabase().createConnection();
+    Database model = reader.getDatabase(connection, "test");
+    List<String> result = new ArrayList<>();
+
+    for (Table table : model.getTables()) {
+      result.add(table.getName() + ": " + table.getDescription());
+    }
+    return result;
+  }
+
+  /**
+   * Tests that the model reader only reads the tables that changed since the cached snapshot
+   * was taken, and takes the unchanged tables from the cache.
+   */
+  @Test
+  public void testReuseUnchangedTables() throws Exception {
+    SchemaCache cache = new SchemaCache(createCacheDir());
+    RecordingModelReader reader = new RecordingModelReader();
+
+    reader.setSchemaCache(cache);
+    reader._changeTokens.put("table1", "1");
+    reader._changeTokens.put("table2", "1");
+    reader._changeTokens.put("table3", "1");
+
+    // nothing cached yet
+    assertEquals(Arrays.asList("table1: read 1", "table2: read 2", "table3: read 3"), readModel(reader));
+    assertEquals(Arrays.asList("table1", "table2", "table3"), reader._readTables);
+
+    // nothing changed
+    reader._readTables.clear();
+    assertEquals(Arrays.asList("table1: read 1", "table2: read 2", "table3: read 3"), readModel(reader));
+    assertEquals(Collections.emptyList(), reader._readTables);
+
+    // one table changed, one was dropped and one was added
+    reader._changeTokens.put("table2", "2");
+    reader._changeTokens.remove("table3");
+    reader._changeTokens.put("table4", "1");
+    assertEquals(Arrays.asList("table1: read 1", "table2: read 4", "table4: read 5"), readModel(reader));
+    assertEquals(Arrays.asList("table2", "table4"), reader._readTables);
+
+    // the partially read model has been stored again
+    reader._readTables.clear();
+    assertEquals(Arrays.asList("table1: read 1", "table2: read 4", "table4: read 5"), readModel(reader));
+    assertEquals(Collections.emptyList(), reader._readTables);
+    for (File file : cache.getDirectory().listFiles()) {
+      file.deleteOnExit();
+    }
+  }
+}
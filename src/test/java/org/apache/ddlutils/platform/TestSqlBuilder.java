@@ -23,10 +23,17 @@ import org.apache.ddlutils.TestBase;
 import org.apache.ddlutils.io.DatabaseIO;
 import org.apache.ddlutils.model.Database;
 import org.apache.ddlutils.model.Table;
+import org.apache.ddlutils.platform.postgresql.PostgreSqlPlatform;
+import org.apache.ddlutils.util.SqlTokenizer;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -97,4 +104,192 @@ public class TestSqlBuilder extends TestBase {
     Assert.assertEquals("UPDATE \"TestTable\" SET \"id\" = '1', \"name\" = 'ddlutils' WHERE \"id\" = '0'",
       sql);
   }
+
+  /**
+   * Tests that a statement consumer receives the same statements that the script contains.
+   */
+  @Test
+  public void testStatementConsumer() throws Exception {
+    final String modelXml =
+      "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+        "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='ddlutils'>\n" +
+        "  <table name='TestTable1'>\n" +
+        "    <column name='id' autoIncrement='true' type='INTEGER' primaryKey='true'/>\n" +
+        "    <column name='name' type='VARCHAR' size='15' default='a;b'/>\n" +
+        "    <index name='TestIndex'>\n" +
+        "      <index-column name='name'/>\n" +
+        "    </index>\n" +
+        "  </table>\n" +
+        "  <table name='TestTable2'>\n" +
+        "    <column name='id' type='INTEGER' primaryKey='true'/>\n" +
+        "    <column name='fk' type='INTEGER'/>\n" +
+        "    <foreign-key foreignTable='TestTable1'>\n" +
+        "      <reference local='fk' foreign='id'/>\n" +
+        "    </foreign-key>\n" +
+        "  </table>\n" +
+        "</database>";
+
+    PostgreSqlPlatform platform = new PostgreSqlPlatform();
+    SqlBuilder sqlBuilder = platform.getSqlBuilder();
+    Database database = parseDatabaseFromString(modelXml);
+    StringWriter script = new StringWriter();
+    List<String> expectedStatements = new ArrayList<>();
+    List<String> statements = new ArrayList<>();
+
+    platform.setSqlCommentsOn(false);
+    sqlBuilder.setWriter(script);
+    sqlBuilder.createTables(database, true);
+
+    SqlTokenizer tokenizer = new SqlTokenizer(script.toString());
+
+    while (tokenizer.hasMoreStatements()) {
+      String statement = tokenizer.getNextStatement().trim();
+
+      if (!statement.isEmpty()) {
+        expectedStatements.add(statement);
+      }
+    }
+
+    sqlBuilder.setStatementConsumer(statements::add);
+    sqlBuilder.createTables(database, true);
+    sqlBuilder.flushStatement();
+    sqlBuilder.setStatementConsumer(null);
+
+    Assert.assertFalse(statements.isEmpty());
+    Assert.assertEquals(expectedStatements, statements);
+  }
+
+  /**
+   * Tests that copying data of a key range restricts the copy statement to that range.
+   */
+  @Test
+  public void testCopyDataInRange() throws Exception {
+    final String modelXml =
+      "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+        "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='ddlutils'>\n" +
+        "  <table name='TestTable1'>\n" +
+        "    <column name='id' type='INTEGER' primaryKey='true'/>\n" +
+        "    <column name='name' type='VARCHAR' size='15'/>\n" +
+        "  </table>\n" +
+        "  <table name='TestTable2'>\n" +
+        "    <column name='id' type='INTEGER' primaryKey='true'/>\n" +
+        "    <column name='name' type='VARCHAR' size='15'/>\n" +
+        "  </table>\n" +
+        "</database>";
+
+    PostgreSqlPlatform platform = new PostgreSqlPlatform();
+    SqlBuilder sqlBuilder = platform.getSqlBuilder();
+    Database database = parseDatabaseFromString(modelXml);
+    Table sourceTable = database.getTable(0);
+    Table targetTable = database.getTable(1);
+    List<String> statements = new ArrayList<>();
+
+    sqlBuilder.setStatementConsumer(statements::add);
+    sqlBuilder.copyData(sourceTable, targetTable, sourceTable.getColumn(0), 1, 100);
+    sqlBuilder.copyData(sourceTable, targetTable);
+    sqlBuilder.setStatementConsumer(null);
+
+    Assert.assertEquals(2, statements.size());
+    Assert.assertEquals("INSERT INTO TestTable2 (id,name) SELECT id,name FROM TestTable1 WHERE id BETWEEN 1 AND 100",
+      statements.get(0).trim());
+    Assert.assertEquals("INSERT INTO TestTable2 (id,name) SELECT id,name FROM TestTable1",
+      statements.get(1).trim());
+    Assert.assertEquals("SELECT MIN(id), MAX(id) FROM TestTable1",
+      sqlBuilder.getSelectKeyRangeSql(sourceTable, sourceTable.getColumn(0)));
+  }
+
+  /**
+   * Tests that the generated statements are grouped by the tables that they affect.
+   */
+  @Test
+  public void testStatementGroups() throws Exception {
+    final String modelXml =
+      "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+        "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='ddlutils'>\n" +
+        "  <table name='TestTable1'>\n" +
+        "    <column name='id' type='INTEGER' primaryKey='true'/>\n" +
+        "  </table>\n" +
+        "  <table name='TestTable2'>\n" +
+        "    <column name='id' type='INTEGER' primaryKey='true'/>\n" +
+        "    <column name='fk' type='INTEGER'/>\n" +
+        "    <foreign-key foreignTable='TestTable1'>\n" +
+        "      <reference local='fk' foreign='id'/>\n" +
+        "    </foreign-key>\n" +
+        "  </table>\n" +
+        "</database>";
+
+    PostgreSqlPlatform platform = new PostgreSqlPlatform();
+    SqlBuilder sqlBuilder = platform.getSqlBuilder();
+    Database database = parseDatabaseFromString(modelXml);
+    List<String> events = new ArrayList<>();
+
+    sqlBuilder.setStatementConsumer(new SqlStatementConsumer() {
+      @Override
+      public void consume(String statement) {
+        // we only record the first keyword of the statement, not the comments in front of it
+        events.add(statement.replaceAll("(?m)^--.*$", "").trim().split("\\s+")[0]);
+      }
+
+      @Override
+      public void startStatementGroup(Collection<String> tableNames) {
+        events.add(String.valueOf(tableNames));
+      }
+    });
+    sqlBuilder.createTables(database, false);
+    sqlBuilder.setStatementConsumer(null);
+
+    Assert.assertEquals(Arrays.asList("[TestTable1]", "CREATE",
+        "[TestTable2]", "CREATE",
+        "[TestTable1]",
+        "[TestTable2, TestTable1]", "ALTER",
+        "null"),
+      events);
+  }
+
+  /**
+   * Tests that the indexes and foreign keys can be created after the tables.
+   */
+  @Test
+  public void testDeferredIndexesAndForeignKeys() throws Exception {
+    final String modelXml =
+      "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+        "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='ddlutils'>\n" +
+        "  <table name='TestTable1'>\n" +
+        "    <column name='id' type='INTEGER' primaryKey='true'/>\n" +
+        "  </table>\n" +
+        "  <table name='TestTable2'>\n" +
+        "    <column name='id' type='INTEGER' primaryKey='true'/>\n" +
+        "    <column name='fk' type='INTEGER'/>\n" +
+        "    <foreign-key foreignTable='TestTable1' name='TestFk'>\n" +
+        "      <reference local='fk' foreign='id'/>\n" +
+        "    </foreign-key>\n" +
+        "    <index name='TestIndex'>\n" +
+        "      <index-column name='fk'/>\n" +
+        "    </index>\n" +
+        "  </table>\n" +
+        "</database>";
+
+    PostgreSqlPlatform platform = new PostgreSqlPlatform();
+    SqlBuilder sqlBuilder = platform.getSqlBuilder();
+    Database database = parseDatabaseFromString(modelXml);
+    List<String> tableStatements = new ArrayList<>();
+    List<String> constraintStatements = new ArrayList<>();
+
+    platform.setSqlCommentsOn(false);
+    sqlBuilder.setStatementConsumer(tableStatements::add);
+    sqlBuilder.createTablesWithoutConstraints(database, null, false);
+    sqlBuilder.setStatementConsumer(constraintStatements::add);
+    sqlBuilder.createIndexesAndForeignKeys(database);
+    sqlBuilder.setStatementConsumer(null);
+
+    Assert.assertEquals(2, tableStatements.size());
+    Assert.assertTrue(tableStatements.get(0).trim().startsWith("CREATE TABLE TestTable1"));
+    Assert.assertTrue(tableStatements.get(1).trim().startsWith("CREATE TABLE TestTable2"));
+    Assert.assertEquals(Arrays.asList("CREATE INDEX TestIndex ON TestTable2 (fk)",
+        "ALTER TABLE TestTable2\n    ADD CONSTRAINT TestFk FOREIGN KEY (fk) REFERENCES TestTable1 (id)"),
+      Arrays.asList(constraintStatements.get(0).trim(), constraintStatements.get(1).trim()));
+    // the model itself is not changed
+    Assert.assertEquals(1, database.getTable(1).getIndexCount());
+    Assert.assertEquals(1, database.getTable(1).getForeignKeyCount());
+  }
 }
@@ -22,6 +22,7 @@ package org.apache.ddlutils.platform.mysql;
 import org.apache.ddlutils.TestPlatformBase;
 import org.apache.ddlutils.io.DatabaseIO;
 import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.Table;
 import org.apache.ddlutils.platform.BuiltinDriverType;
 import org.apache.ddlutils.platform.CreationParameters;
 import org.junit.Test;
@@ -215,4 +216,46 @@ public class TestMySql50Platform extends TestPlatformBase {
         ");\n",
       getDatabaseCreationSql(schema));
   }
+
+  /**
+   * Tests the statements for altering a table online via a shadow table.
+   */
+  @Test
+  public void testShadowTableStatements() throws Exception {
+    final String schema =
+      "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+        "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='shadowtest'>\n" +
+        "  <table name='orders'>\n" +
+        "    <column name='id' type='INTEGER' primaryKey='true' required='true'/>\n" +
+        "    <column name='amount' type='INTEGER'/>\n" +
+        "    <column name='note' type='VARCHAR' size='32'/>\n" +
+        "  </table>\n" +
+        "  <table name='_orders_new'>\n" +
+        "    <column name='id' type='INTEGER' primaryKey='true' required='true'/>\n" +
+        "    <column name='amount' type='BIGINT'/>\n" +
+        "  </table>\n" +
+        "</database>";
+
+    Database model = parseDatabaseFromString(schema);
+    Table sourceTable = model.getTable(0);
+    Table shadowTable = model.getTable(1);
+
+    getSqlBuilder().createShadowTableTriggers(sourceTable, shadowTable, sourceTable.getColumn(0));
+    getSqlBuilder().backfillShadowTable(sourceTable, shadowTable, sourceTable.getColumn(0), 1, 1000);
+    getSqlBuilder().swapShadowTable(sourceTable, shadowTable);
+    getSqlBuilder().finishShadowTableSwap(sourceTable, shadowTable, shadowTable);
+    assertEqualsIgnoringWhitespaces(
+      "CREATE TRIGGER `orders_osc_ins` AFTER INSERT ON `orders` FOR EACH ROW " +
+        "REPLACE INTO `_orders_new` (`id`,`amount`) VALUES (NEW.`id`,NEW.`amount`);\n" +
+        "CREATE TRIGGER `orders_osc_upd` AFTER UPDATE ON `orders` FOR EACH ROW " +
+        "BEGIN DELETE IGNORE FROM `_orders_new` WHERE `id` = OLD.`id`; " +
+        "REPLACE INTO `_orders_new` (`id`,`amount`) VALUES (NEW.`id`,NEW.`amount`); END;\n" +
+        "CREATE TRIGGER `orders_osc_del` AFTER DELETE ON `orders` FOR EACH ROW " +
+        "DELETE IGNORE FROM `_orders_new` WHERE `id` = OLD.`id`;\n" +
+        "INSERT IGNORE INTO `_orders_new` (`id`,`amount`) SELECT `id`,CAST(`amount` AS SIGNED) FROM `orders` " +
+        "WHERE `id` BETWEEN 1 AND 1000 LOCK IN SHARE MODE;\n" +
+        "RENAME TABLE `orders` TO `_orders_old`, `_orders_new` TO `orders`;\n" +
+        "DROP TABLE `_orders_old`;\n",
+      getBuilderOutput());
+  }
 }
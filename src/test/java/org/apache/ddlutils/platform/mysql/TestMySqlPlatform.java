@@ -22,10 +22,16 @@ package org.apache.ddlutils.platform.mysql;
 import org.apache.ddlutils.TestPlatformBase;
 import org.apache.ddlutils.io.DatabaseIO;
 import org.apache.ddlutils.model.Database;
+import org.apache.ddlutils.model.Column;
 import org.apache.ddlutils.platform.BuiltinDriverType;
 import org.apache.ddlutils.platform.CreationParameters;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
 /**
  * Tests the MySQL platform.
  *
@@ -182,4 +188,18 @@ public class TestMySqlPlatform extends TestPlatformBase {
         ");\n",
       getDatabaseCreationSql(schema));
   }
+
+  /**
+   * Tests the upsert statement.
+   */
+  @Test
+  public void testUpsertSql() {
+    List<Column> parameterColumns = new ArrayList<>();
+
+    assertEqualsIgnoringWhitespaces(
+      "INSERT INTO `upsert` (`COL_PK_1`, `COL_PK_2`, `COL_TEXT`, `COL_NUM`) VALUES (?, ?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE `COL_TEXT` = VALUES(`COL_TEXT`), `COL_NUM` = VALUES(`COL_NUM`)",
+      getUpsertTestSql(parameterColumns));
+    assertEquals(4, parameterColumns.size());
+  }
 }
@@ -20,9 +20,15 @@ package org.apache.ddlutils.platform.oracle;
  */
 
 import org.apache.ddlutils.TestPlatformBase;
+import org.apache.ddlutils.model.Column;
 import org.apache.ddlutils.platform.BuiltinDriverType;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
 /**
  * Tests the Oracle 8 platform.
  *
@@ -164,4 +170,35 @@ public class TestOracle8Platform extends TestPlatformBase {
         ");\n",
       getCharEscapingTestDatabaseCreationSql());
   }
+
+  /**
+   * Tests the disabling and enabling of foreign keys.
+   */
+  @Test
+  public void testForeignKeyDisabling() throws Exception {
+    assertEqualsIgnoringWhitespaces(
+      "ALTER TABLE \"child\" DISABLE CONSTRAINT \"child_fk_1\";\n" +
+        "ALTER TABLE \"child\" DISABLE CONSTRAINT \"child_fk_2\";\n" +
+        "ALTER TABLE \"child\" ENABLE CONSTRAINT \"child_fk_1\";\n" +
+        "ALTER TABLE \"child\" ENABLE CONSTRAINT \"child_fk_2\";\n",
+      getForeignKeyDisablingTestSql());
+  }
+
+  /**
+   * Tests the upsert statement.
+   */
+  @Test
+  public void testUpsertSql() {
+    List<Column> parameterColumns = new ArrayList<>();
+
+    assertEqualsIgnoringWhitespaces(
+      "MERGE INTO \"upsert\" TGT " +
+        "USING (SELECT ? \"COL_PK_1\", ? \"COL_PK_2\", ? \"COL_TEXT\", ? \"COL_NUM\" FROM DUAL) SRC " +
+        "ON (TGT.\"COL_PK_1\" = SRC.\"COL_PK_1\" AND TGT.\"COL_PK_2\" = SRC.\"COL_PK_2\") " +
+        "WHEN MATCHED THEN UPDATE SET \"COL_TEXT\" = SRC.\"COL_TEXT\", \"COL_NUM\" = SRC.\"COL_NUM\" " +
+        "WHEN NOT MATCHED THEN INSERT (\"COL_PK_1\", \"COL_PK_2\", \"COL_TEXT\", \"COL_NUM\") " +
+        "VALUES (SRC.\"COL_PK_1\", SRC.\"COL_PK_2\", SRC.\"COL_TEXT\", SRC.\"COL_NUM\")",
+      getUpsertTestSql(parameterColumns));
+    assertEquals(4, parameterColumns.size());
+  }
 }
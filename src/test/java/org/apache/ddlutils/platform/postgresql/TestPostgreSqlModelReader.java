@@ -0,0 +1,100 @@
+package org.apache.ddlutils.platform.postgresql;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.MockDatabase;
+import org.apache.ddlutils.TestBase;
+import org.apache.ddlutils.platform.DatabaseMetaDataWrapper;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the reading of the auto-increment columns in the {@link PostgreSqlModelReader} class.
+ *
+ * @version $Revision: $
+ */
+public class TestPostgreSqlModelReader extends TestBase {
+  /**
+   * Creates a reader that uses a connection to the given database.
+   *
+   * @param database The mocked database
+   * @return The reader
+   */
+  private PostgreSqlModelReader createReader(MockDatabase database) {
+    Connection connection = database.createConnection();
+
+    return new PostgreSqlModelReader(new PostgreSqlPlatform()) {
+      @Override
+      protected Connection getConnection() {
+        return connection;
+      }
+    };
+  }
+
+  /**
+   * Tests that no identity columns are read from PostgreSQL versions before 10.
+   */
+  @Test
+  public void testAutoIncrementColumnsBeforeVersion10() throws SQLException {
+    MockDatabase database = new MockDatabase();
+
+    database.setDatabaseVersion(9, 6);
+
+    Map<String, Set<String>> autoIncrementColumns = createReader(database).readAutoIncrementColumns(new DatabaseMetaDataWrapper());
+
+    assertTrue(autoIncrementColumns.isEmpty());
+    assertTrue(database.getPreparedSql().isEmpty());
+  }
+
+  /**
+   * Tests that the identity columns are read from the catalog of PostgreSQL 10 and later.
+   */
+  @Test
+  public void testAutoIncrementColumns() throws SQLException {
+    MockDatabase database = new MockDatabase();
+    DatabaseMetaDataWrapper metaData = new DatabaseMetaDataWrapper();
+
+    database.setDatabaseVersion(10, 0);
+    database.setQueryHandler((sql, parameters) -> {
+      assertEquals(Collections.singletonList("public"), parameters);
+      return MockDatabase.result("pg_attribute", Arrays.asList("TABLE_NAME", "COLUMN_NAME"),
+        new Object[]{"table1", "pk"}, new Object[]{"table1", "counter"}, new Object[]{"table2", "id"});
+    });
+    metaData.setSchemaPattern("public");
+
+    Map<String, Set<String>> autoIncrementColumns = createReader(database).readAutoIncrementColumns(metaData);
+
+    assertEquals(2, autoIncrementColumns.size());
+    assertEquals(new HashSet<>(Arrays.asList("pk", "counter")), autoIncrementColumns.get("table1"));
+    assertEquals(Collections.singleton("id"), autoIncrementColumns.get("table2"));
+    assertEquals(1, database.getPreparedSql().size());
+    assertTrue(database.getPreparedSql().get(0).contains("attidentity"));
+  }
+}
@@ -0,0 +1,198 @@
+package org.apache.ddlutils.platform.postgresql;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.DatabaseOperationException;
+import org.apache.ddlutils.MockDatabase;
+import org.apache.ddlutils.TestBase;
+import org.apache.ddlutils.io.DatabaseIO;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the online alteration of tables by the {@link PostgreSqlPlatform} against a
+ * mocked database.
+ *
+ * @version $Revision: $
+ */
+public class TestPostgreSqlOnlineAlteration extends TestBase {
+  /**
+   * The current model.
+   */
+  private static final String CURRENT_MODEL =
+    "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+      "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='online'>\n" +
+      "  <table name='orders'>\n" +
+      "    <column name='id' type='INTEGER' primaryKey='true' required='true' autoIncrement='true'/>\n" +
+      "    <column name='note' type='VARCHAR' size='32'/>\n" +
+      "  </table>\n" +
+      "</database>";
+
+  /**
+   * The desired model, which requires the recreation of the table.
+   */
+  private static final String DESIRED_MODEL =
+    "<?xml version='1.0' encoding='ISO-8859-1'?>\n" +
+      "<database xmlns='" + DatabaseIO.DDLUTILS_NAMESPACE + "' name='online'>\n" +
+      "  <table name='orders'>\n" +
+      "    <column name='id' type='INTEGER' primaryKey='true' required='true' autoIncrement='true'/>\n" +
+      "    <column name='note' type='VARCHAR' size='64'/>\n" +
+      "  </table>\n" +
+      "</database>";
+
+  /**
+   * The mocked database.
+   */
+  private MockDatabase _database;
+  /**
+   * The platform.
+   */
+  private PostgreSqlPlatform _platform;
+  /**
+   * The row counts of the table and its shadow table that the database reports.
+   */
+  private Object[] _rowCounts;
+
+  /**
+   * Creates the platform with online alteration in chunks of 1000 rows for a table whose
+   * keys range from 1 to 2500.
+   */
+  @Before
+  public void setUpPlatform() {
+    _database = new MockDatabase();
+    _platform = new PostgreSqlPlatform();
+    _rowCounts = new Object[]{2500, 2500};
+    _database.setQueryHandler((sql, parameters) -> {
+      if (sql.startsWith("SELECT MIN(")) {
+        return MockDatabase.result("orders", Arrays.asList("min", "max"), new Object[]{1, 2500});
+      } else if (sql.startsWith("SELECT (SELECT COUNT(*)")) {
+        return MockDatabase.result(null, Arrays.asList("count1", "count2"), _rowCounts);
+      }
+      return MockDatabase.result(null, Collections.emptyList());
+    });
+    _platform.setDataSource(_database.getDataSource());
+    _platform.setOnlineTableAlterationOn(true);
+    _platform.setDataCopyChunkSize(1000);
+  }
+
+  /**
+   * Returns the executed statements that start with the given prefix.
+   *
+   * @param prefix The prefix
+   * @return The statements
+   */
+  private List<String> getExecutedSql(String prefix) {
+    List<String> result = new ArrayList<>();
+
+    for (String sql : _database.getExecutedSql()) {
+      if (sql.startsWith(prefix)) {
+        result.add(sql);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the index of the first executed statement that starts with the given prefix.
+   *
+   * @param prefix The prefix
+   * @return The index
+   */
+  private int indexOfExecutedSql(String prefix) {
+    List<String> executedSql = _database.getExecutedSql();
+
+    for (int idx = 0; idx < executedSql.size(); idx++) {
+      if (executedSql.get(idx).startsWith(prefix)) {
+        return idx;
+      }
+    }
+    fail("No statement starting with " + prefix + " has been executed: " + executedSql);
+    return -1;
+  }
+
+  /**
+   * Tests that the table is altered via a shadow table that is backfilled in chunks and
+   * then swapped in.
+   */
+  @Test
+  public void testAlterTableOnline() {
+    _platform.alterModel(parseDatabaseFromString(CURRENT_MODEL), parseDatabaseFromString(DESIRED_MODEL), false);
+
+    assertEquals(Arrays.asList(
+        "INSERT INTO _orders_new (id,note) SELECT id,CAST(note AS VARCHAR(64)) FROM orders WHERE id BETWEEN 1 AND 1000 FOR SHARE ON CONFLICT DO NOTHING",
+        "INSERT INTO _orders_new (id,note) SELECT id,CAST(note AS VARCHAR(64)) FROM orders WHERE id BETWEEN 1001 AND 2000 FOR SHARE ON CONFLICT DO NOTHING",
+        "INSERT INTO _orders_new (id,note) SELECT id,CAST(note AS VARCHAR(64)) FROM orders WHERE id BETWEEN 2001 AND 2500 FOR SHARE ON CONFLICT DO NOTHING"),
+      getExecutedSql("INSERT INTO"));
+    assertTrue(indexOfExecutedSql("CREATE TABLE _orders_new") < indexOfExecutedSql("CREATE TRIGGER"));
+    assertTrue(indexOfExecutedSql("CREATE TRIGGER") < indexOfExecutedSql("INSERT INTO"));
+    assertTrue(indexOfExecutedSql("INSERT INTO") < indexOfExecutedSql("ALTER TABLE orders RENAME TO _orders_old"));
+    assertTrue(indexOfExecutedSql("ALTER TABLE _orders_new RENAME TO orders") < indexOfExecutedSql("ALTER SEQUENCE orders_id_seq OWNED BY NONE"));
+    assertTrue(indexOfExecutedSql("ALTER SEQUENCE orders_id_seq OWNED BY NONE") < indexOfExecutedSql("DROP TABLE _orders_old"));
+    assertEquals(Collections.singletonList("DROP TABLE _orders_old"), getExecutedSql("DROP TABLE"));
+    assertEquals(Collections.singletonList("DROP SEQUENCE _orders_new_id_seq"), getExecutedSql("DROP SEQUENCE"));
+    assertEquals(0, _database.getOpenConnectionCount());
+  }
+
+  /**
+   * Tests that the shadow table is dropped again and the table is left untouched if the
+   * row counts of the tables differ after the backfill.
+   */
+  @Test
+  public void testAlterTableOnlineWithDifferentRowCounts() {
+    _rowCounts = new Object[]{2500, 2499};
+    try {
+      _platform.alterModel(parseDatabaseFromString(CURRENT_MODEL), parseDatabaseFromString(DESIRED_MODEL), false);
+      fail();
+    } catch (DatabaseOperationException ex) {
+      // expected
+    }
+    assertEquals(3, getExecutedSql("INSERT INTO").size());
+    assertTrue(indexOfExecutedSql("INSERT INTO") < indexOfExecutedSql("DROP TRIGGER IF EXISTS orders_osc_trg ON orders"));
+    assertEquals(Collections.singletonList("DROP TABLE _orders_new CASCADE"), getExecutedSql("DROP TABLE"));
+    assertTrue(getExecutedSql("ALTER TABLE orders RENAME").isEmpty());
+  }
+
+  /**
+   * Tests that a table without a suitable primary key is recreated the regular way.
+   */
+  @Test
+  public void testFallbackToRecreation() {
+    String currentModel = CURRENT_MODEL.replace("type='INTEGER' primaryKey='true' required='true' autoIncrement='true'",
+      "type='VARCHAR' size='16' primaryKey='true' required='true'");
+    String desiredModel = DESIRED_MODEL.replace("type='INTEGER' primaryKey='true' required='true' autoIncrement='true'",
+      "type='VARCHAR' size='16' primaryKey='true' required='true'");
+
+    _platform.alterModel(parseDatabaseFromString(currentModel), parseDatabaseFromString(desiredModel), false);
+
+    assertTrue(getExecutedSql("CREATE TRIGGER").isEmpty());
+    assertFalse(_database.getExecutedSql().toString().contains("_orders_new"));
+    assertEquals(Arrays.asList("DROP TABLE orders CASCADE", "DROP TABLE orders_ CASCADE"), getExecutedSql("DROP TABLE"));
+  }
+}
@@ -0,0 +1,262 @@
+package org.apache.ddlutils.util;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.apache.ddlutils.MockDatabase;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the {@link PooledDataSource} class.
+ *
+ * @version $Revision: $
+ */
+public class TestPooledDataSource {
+  /**
+   * The url of the mock database.
+   */
+  private static final String URL = "jdbc:mock:test";
+
+  /**
+   * The mocked database that the mock driver connects to.
+   */
+  private static volatile MockDatabase _database = new MockDatabase();
+
+  /**
+   * A JDBC driver that connects to the mocked database.
+   */
+  public static class MockDriver implements Driver {
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Connection connect(String url, Properties info) {
+      if (!acceptsURL(url)) {
+        return null;
+      }
+
+      return _database.createConnection();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean acceptsURL(String url) {
+      return URL.equals(url);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+      return new DriverPropertyInfo[0];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getMajorVersion() {
+      return 1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getMinorVersion() {
+      return 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean jdbcCompliant() {
+      return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Logger getParentLogger() {
+      return null;
+    }
+  }
+
+  /**
+   * Resets the mock driver.
+   */
+  @Before
+  public void setUp() {
+    _database = new MockDatabase();
+  }
+
+  /**
+   * Creates the pool for the mock database.
+   *
+   * @return The pool
+   */
+  private PooledDataSource createPool() {
+    PooledDataSource pool = new PooledDataSource(MockDriver.class.getName(), URL, "user", "secret");
+
+    pool.setMaxSize(2);
+    pool.setMaxWaitTime(0);
+    return pool;
+  }
+
+  /**
+   * Tests that returned connections are reused and reset.
+   */
+  @Test
+  public void testReuse() throws SQLException {
+    PooledDataSource pool = createPool();
+    Connection connection = pool.getConnection();
+
+    connection.setAutoCommit(false);
+    connection.close();
+    assertTrue(connection.isClosed());
+    assertFalse(_database.getConnections().get(0).isClosed());
+    assertTrue(_database.getConnections().get(0).isAutoCommit());
+    assertEquals(1, _database.getConnections().get(0).getRollbackCount());
+
+    pool.getConnection("user", "secret").close();
+
+    assertEquals(1, _database.getConnections().size());
+    assertEquals(1, pool.getCreatedCount());
+    assertEquals(2, pool.getBorrowedCount());
+    assertEquals(1, pool.getIdleCount());
+    assertEquals(0, pool.getActiveCount());
+
+    pool.close();
+    assertTrue(_database.getConnections().get(0).isClosed());
+  }
+
+  /**
+   * Tests that the transaction isolation level, the read-only flag and the catalog are restored
+   * when a connection is returned.
+   */
+  @Test
+  public void testSettingsRestored() throws SQLException {
+    PooledDataSource pool = createPool();
+    Connection connection = pool.getConnection();
+
+    connection.setCatalog("first");
+    connection.close();
+
+    connection = pool.getConnection();
+    connection.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+    connection.setReadOnly(true);
+    connection.setCatalog("second");
+    connection.close();
+
+    MockDatabase.ConnectionState state = _database.getConnections().get(0);
+
+    assertEquals(1, _database.getConnections().size());
+    assertEquals(Connection.TRANSACTION_READ_COMMITTED, state.getTransactionIsolation());
+    assertFalse(state.isReadOnly());
+    assertEquals("first", state.getCatalog());
+    pool.close();
+  }
+
+  /**
+   * Tests that statements and result sets refer to the pooled connection so that closing the
+   * connection obtained from them returns it to the pool.
+   */
+  @Test
+  public void testConnectionOfStatement() throws SQLException {
+    PooledDataSource pool = createPool();
+    Connection connection = pool.getConnection();
+    PreparedStatement statement = connection.prepareStatement("SELECT 1");
+    ResultSet resultSet = statement.executeQuery();
+
+    assertSame(statement, resultSet.getStatement());
+    assertSame(connection, resultSet.getStatement().getConnection());
+
+    resultSet.getStatement().getConnection().close();
+    assertFalse(_database.getConnections().get(0).isClosed());
+    assertEquals(1, pool.getIdleCount());
+  }
+
+  /**
+   * Tests that the pool does not open more than the maximum number of connections.
+   */
+  @Test
+  public void testMaxSize() throws SQLException {
+    PooledDataSource pool = createPool();
+    Connection connection1 = pool.getConnection();
+
+    pool.getConnection();
+    try {
+      pool.getConnection();
+      fail();
+    } catch (SQLException ex) {
+      // expected
+    }
+    assertEquals(1, pool.getWaitCount());
+    assertEquals(2, pool.getActiveCount());
+
+    connection1.close();
+    pool.getConnection();
+    assertEquals(2, _database.getConnections().size());
+  }
+
+  /**
+   * Tests that invalid and long unused connections are discarded.
+   */
+  @Test
+  public void testValidationAndEviction() throws Exception {
+    PooledDataSource pool = createPool();
+
+    pool.getConnection().close();
+    _database.getConnections().get(0).setValid(false);
+    pool.getConnection().close();
+
+    assertTrue(_database.getConnections().get(0).isClosed());
+    assertEquals(1, pool.getInvalidatedCount());
+    assertEquals(2, pool.getCreatedCount());
+
+    pool.setMaxIdleTime(0);
+    Thread.sleep(5);
+    pool.getConnection();
+
+    assertTrue(_database.getConnections().get(1).isClosed());
+    assertEquals(1, pool.getEvictedCount());
+    assertEquals(3, _database.getConnections().size());
+  }
+}
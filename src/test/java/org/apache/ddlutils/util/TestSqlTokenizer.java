@@ -0,0 +1,111 @@
+package org.apache.ddlutils.util;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the {@link SqlTokenizer} class.
+ *
+ * @version $Revision: $
+ */
+public class TestSqlTokenizer {
+  /**
+   * Returns the trimmed statements of the given tokenizer.
+   *
+   * @param tokenizer The tokenizer
+   * @return The statements
+   */
+  private List<String> getStatements(SqlTokenizer tokenizer) {
+    List<String> result = new ArrayList<>();
+
+    while (tokenizer.hasMoreStatements()) {
+      result.add(tokenizer.getNextStatement().trim());
+    }
+    return result;
+  }
+
+  /**
+   * Tests that only delimiters at the end of a line separate statements.
+   */
+  @Test
+  public void testRowMode() {
+    String sql = "INSERT INTO a VALUES (1);\n" +
+      "INSERT INTO b VALUES (2); INSERT INTO c VALUES (3);\r\n" +
+      "DELETE FROM d";
+
+    assertEquals(Arrays.asList("INSERT INTO a VALUES (1)",
+        "INSERT INTO b VALUES (2); INSERT INTO c VALUES (3)",
+        "DELETE FROM d"),
+      getStatements(new SqlTokenizer(sql)));
+  }
+
+  /**
+   * Tests that delimiters in string literals, delimited identifiers and comments are ignored.
+   */
+  @Test
+  public void testQuotesAndComments() {
+    String sql = "-- the table's data;\n" +
+      "INSERT INTO \"a;\n\" VALUES ('x;\n''y;\n');\n" +
+      "/* a comment;\n*/ UPDATE b SET c = 'it''s'; -- done\n" +
+      ";\n";
+
+    assertEquals(Arrays.asList("-- the table's data;\nINSERT INTO \"a;\n\" VALUES ('x;\n''y;\n')",
+        "/* a comment;\n*/ UPDATE b SET c = 'it''s'; -- done",
+        ""),
+      getStatements(new SqlTokenizer(new StringReader(sql), false)));
+  }
+
+  /**
+   * Tests the MySql syntax with backslash escapes in string literals, backtick identifiers and
+   * hash comments.
+   */
+  @Test
+  public void testMySqlSyntax() {
+    String sql = "INSERT INTO a VALUES ('it\\'s;\n');\n" +
+      "INSERT INTO a VALUES ('\\\\', \"say \\\"hi;\n\\\"\");\n" +
+      "# the table's data;\n" +
+      "INSERT INTO `b;\n` VALUES (1);";
+
+    assertEquals(Arrays.asList("INSERT INTO a VALUES ('it\\'s;\n')",
+        "INSERT INTO a VALUES ('\\\\', \"say \\\"hi;\n\\\"\")",
+        "# the table's data;\nINSERT INTO `b;\n` VALUES (1)"),
+      getStatements(new SqlTokenizer(new StringReader(sql), true)));
+  }
+
+  /**
+   * Tests that hashes and backticks are normal characters outside of the MySql syntax.
+   */
+  @Test
+  public void testNoMySqlSyntax() {
+    String sql = "SELECT a # b FROM c;\n" +
+      "SELECT `d;\n` FROM e;";
+
+    assertEquals(Arrays.asList("SELECT a # b FROM c", "SELECT `d", "` FROM e"),
+      getStatements(new SqlTokenizer(new StringReader(sql), false)));
+  }
+}
@@ -0,0 +1,90 @@
+package org.apache.ddlutils.util;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests the {@link ValueUtils} class.
+ *
+ * @version $Revision: $
+ */
+public class TestValueUtils {
+  /**
+   * Asserts that the comparable representations of the given values are equal and have the same hash code.
+   *
+   * @param typeCode The JDBC type code of the column
+   * @param value1   The first value
+   * @param value2   The second value
+   */
+  private void assertComparableEqual(int typeCode, Object value1, Object value2) {
+    Object comparable1 = ValueUtils.getComparableValue(typeCode, value1);
+    Object comparable2 = ValueUtils.getComparableValue(typeCode, value2);
+
+    assertEquals(comparable1, comparable2);
+    assertEquals(comparable1.hashCode(), comparable2.hashCode());
+  }
+
+  /**
+   * Tests that numbers are compared by their numeric value.
+   */
+  @Test
+  public void testNumbers() {
+    assertComparableEqual(Types.INTEGER, 100, new BigDecimal("100.00"));
+    assertComparableEqual(Types.BIGINT, 100L, BigInteger.valueOf(100));
+    assertComparableEqual(Types.SMALLINT, (short) 0, new BigDecimal("0.000"));
+    assertComparableEqual(Types.DOUBLE, 1.5d, new BigDecimal("1.50"));
+    assertComparableEqual(Types.REAL, 2.0f, (byte) 2);
+    assertNotEquals(ValueUtils.getComparableValue(Types.INTEGER, 1), ValueUtils.getComparableValue(Types.INTEGER, 2));
+    assertEquals(Double.NaN, ValueUtils.getComparableValue(Types.DOUBLE, Double.NaN));
+  }
+
+  /**
+   * Tests that dates are compared by their time and binary values by their content.
+   */
+  @Test
+  public void testDatesAndBinaryValues() {
+    assertComparableEqual(Types.TIMESTAMP, new Date(1000), new Timestamp(1000));
+    assertComparableEqual(Types.VARBINARY, new byte[]{1, 2, 3}, new byte[]{1, 2, 3});
+    assertNotEquals(ValueUtils.getComparableValue(Types.VARBINARY, new byte[]{1, 2}),
+      ValueUtils.getComparableValue(Types.VARBINARY, new byte[]{1, 2, 0}));
+  }
+
+  /**
+   * Tests that only the padding of fixed-length character values is ignored.
+   */
+  @Test
+  public void testCharacterValues() {
+    assertComparableEqual(Types.CHAR, "abc  ", "abc");
+    assertComparableEqual(Types.NCHAR, "   ", "");
+    assertNotEquals(ValueUtils.getComparableValue(Types.VARCHAR, "abc  "), ValueUtils.getComparableValue(Types.VARCHAR, "abc"));
+    assertNull(ValueUtils.getComparableValue(Types.CHAR, null));
+  }
+}